@@ -0,0 +1,98 @@
+package benchmark;
+
+import model.DynamicGameOfLife;
+import model.GameOfLife;
+import model.Parser.ParsedPattern;
+import model.Parser.PatternParser;
+import model.StaticGameOfLife;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Creates the game boards used by the benchmarks.
+ * New engines are added to createEngine(), and are then measured by every engine benchmark.
+ */
+public class Boards {
+
+    // empty cells around a pattern on a static board
+    static final int MARGIN = 64;
+
+    /**
+     * Creates an empty game board
+     *
+     * @param engine Name of the engine, "static" or "dynamic"
+     * @param width Width of a static board
+     * @param height Height of a static board
+     * @param rule Rulestring to evolve by
+     * @return The empty board
+     */
+    static GameOfLife createEngine(String engine, int width, int height, String rule) {
+
+        switch (engine) {
+            case "static":
+                return new StaticGameOfLife(width, height, rule);
+            case "dynamic":
+                return new DynamicGameOfLife(rule);
+            default:
+                throw new IllegalArgumentException("Unknown engine: " + engine);
+        }
+    }
+
+    /**
+     * Creates a board filled with a random soup. The same seed always gives the same soup.
+     *
+     * @param engine Name of the engine
+     * @param size Width and height of the soup
+     * @param density Chance for each cell to be alive
+     * @param rule Rulestring to evolve by
+     * @param seed Seed for the random generator
+     * @return The board with the soup
+     */
+    static GameOfLife createSoup(String engine, int size, double density, String rule, long seed) {
+
+        GameOfLife gol = createEngine(engine, size, size, rule);
+        Random random = new Random(seed);
+
+        // the outermost cells are never evolved, so the soup is kept inside them
+        for (int x = 1; x < size - 1; x++) {
+            for (int y = 1; y < size - 1; y++) {
+                if (random.nextDouble() < density)
+                    gol.setCellAlive(x, y);
+            }
+        }
+        return gol;
+    }
+
+    /**
+     * Creates a board with a pattern from a file. A static board gets a margin around the pattern.
+     *
+     * @param engine Name of the engine
+     * @param path Path to the pattern file
+     * @param rule Rulestring to evolve by, or null for the rule of the pattern
+     * @return The board with the pattern
+     * @throws IOException if the pattern could not be read
+     */
+    static GameOfLife createFromPattern(String engine, String path, String rule) throws IOException {
+
+        ParsedPattern parsed = PatternParser.parse(new File(path));
+        boolean[][] pattern = parsed.toArray();
+
+        if (rule == null)
+            rule = parsed.getRule();
+        if (rule == null)
+            rule = "B3/S23";
+
+        GameOfLife gol = createEngine(engine, pattern.length + 2 * MARGIN, pattern[0].length + 2 * MARGIN, rule);
+        int margin = engine.equals("static") ? MARGIN : 1;
+
+        for (int x = 0; x < pattern.length; x++) {
+            for (int y = 0; y < pattern[x].length; y++) {
+                if (pattern[x][y])
+                    gol.setCellAlive(margin + x, margin + y);
+            }
+        }
+        return gol;
+    }
+}
@@ -0,0 +1,68 @@
+package benchmark;
+
+import model.GameOfLife;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast the engines evolve seeded random soups.
+ *
+ * Each operation is one generation, so the score is generations per second,
+ * and the cells counter is the number of cells on the board evolved per second.
+ * Run with "-prof gc" to see the allocation rate.
+ *
+ * mvn -P jmh package -DskipTests
+ * java -jar target/benchmarks.jar EngineBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EngineBenchmark {
+
+    @Param({"static", "dynamic"})
+    public String engine;
+
+    @Param({"64", "256", "1024"})
+    public int size;
+
+    @Param({"0.1", "0.35"})
+    public double density;
+
+    // ClassicRule, HighLifeRule and CustomRule (Day & Night)
+    @Param({"B3/S23", "B36/S23", "B3678/S34678"})
+    public String rule;
+
+    @Param({"42"})
+    public long seed;
+
+    private GameOfLife gol;
+
+    /**
+     * Number of cells evolved, reported as cells per second
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Cells {
+        public long cells;
+    }
+
+    /**
+     * Every iteration starts from the same soup, so the iterations can be compared
+     */
+    @Setup(Level.Iteration)
+    public void createSoup() {
+        gol = Boards.createSoup(engine, size, density, rule, seed);
+    }
+
+    @Benchmark
+    public GameOfLife nextGeneration(Cells counter) {
+
+        counter.cells += (long) gol.getGridWidth() * gol.getGridHeight();
+        gol.nextGeneration();
+        return gol;
+    }
+}
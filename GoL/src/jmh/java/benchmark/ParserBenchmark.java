@@ -0,0 +1,76 @@
+package benchmark;
+
+import model.PackedBoardSink;
+import model.Parser.MappedRleDecoder;
+import model.Parser.PatternParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast each parser in model.Parser parses large generated pattern files.
+ *
+ * Each operation is one file read and parsed, and the megabytes counter is the
+ * size of the files parsed per second. Run with "-prof gc" to see the allocations.
+ *
+ * java -jar target/benchmarks.jar ParserBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+    // PlainTextParser, RleReader, Life05Parser, Life06Parser, and MappedRleDecoder for rle-mapped
+    @Param({"cells", "rle", "rle-mapped", "life05", "life06"})
+    public String format;
+
+    @Param({"1024", "2048"})
+    public int size;
+
+    @Param({"0.35"})
+    public double density;
+
+    private File file;
+    private double megabytes;
+
+    /**
+     * Size of the files parsed, reported as megabytes per second
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public double megabytes;
+    }
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+
+        String fileFormat = format.equals("rle-mapped") ? "rle" : format;
+        file = PatternFiles.write(Boards.createSoup("static", size, density, "B3/S23", 42), fileFormat);
+        megabytes = file.length() / 1e6;
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() {
+        file.delete();
+    }
+
+    @Benchmark
+    public Object parse(Bytes counter) throws IOException {
+
+        counter.megabytes += megabytes;
+
+        // the parser only uses the decoder for files above its threshold, so it is called directly
+        if (format.equals("rle-mapped")) {
+            PackedBoardSink sink = new PackedBoardSink();
+            new MappedRleDecoder().decode(file, sink);
+            return sink.getBoard();
+        }
+        return PatternParser.parse(file);
+    }
+}
@@ -0,0 +1,54 @@
+package benchmark;
+
+import model.GameOfLife;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast the engines evolve patterns from the bundled Patterns/ folder.
+ * Must be run from the GoL folder, so the pattern paths can be found.
+ *
+ * Each operation is one generation, see EngineBenchmark.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PatternBenchmark {
+
+    @Param({"static", "dynamic"})
+    public String engine;
+
+    @Param({
+            "Patterns/Life/Methuselahs/acorn.lif",
+            "Patterns/Life/Guns/gun-p165mwss.rle",
+            "Patterns/Life/Breeders/breeder.lif",
+            "Patterns/Life-Like/replicator.rle"
+    })
+    public String pattern;
+
+    private GameOfLife gol;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Cells {
+        public long cells;
+    }
+
+    @Setup(Level.Iteration)
+    public void loadPattern() throws IOException {
+        gol = Boards.createFromPattern(engine, pattern, null);
+    }
+
+    @Benchmark
+    public GameOfLife nextGeneration(Cells counter) {
+
+        counter.cells += (long) gol.getGridWidth() * gol.getGridHeight();
+        gol.nextGeneration();
+        return gol;
+    }
+}
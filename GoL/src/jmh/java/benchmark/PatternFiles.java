@@ -0,0 +1,93 @@
+package benchmark;
+
+import model.GameOfLife;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates large pattern files for the parser benchmarks.
+ * All formats are written from the same board, so they hold the same pattern.
+ */
+public class PatternFiles {
+
+    /**
+     * Writes the live cells of a board to a temporary pattern file
+     *
+     * @param gol The board to write
+     * @param format "rle", "cells", "life05" or "life06"
+     * @return The file, deleted when the benchmark exits
+     * @throws IOException if the file could not be written
+     */
+    static File write(GameOfLife gol, String format) throws IOException {
+
+        List<String> lines;
+        String suffix;
+
+        switch (format) {
+            case "rle":
+                lines = PatternFormat.getRleFormat(gol, gol.getRule().toString());
+                suffix = ".rle";
+                break;
+            case "cells":
+                lines = new ArrayList<>();
+                lines.add("!Name: benchmark soup");
+                lines.addAll(PatternFormat.getPlainTextFormat(gol));
+                suffix = ".cells";
+                break;
+            case "life05":
+                lines = getLife05Format(gol);
+                suffix = ".lif";
+                break;
+            case "life06":
+                lines = getLife06Format(gol);
+                suffix = ".lif";
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+
+        File file = File.createTempFile("benchmark-", suffix);
+        file.deleteOnExit();
+        Files.write(file.toPath(), lines);
+        return file;
+    }
+
+    /**
+     * Formats the board as a single Life 1.05 block
+     */
+    private static List<String> getLife05Format(GameOfLife gol) {
+
+        List<String> lines = new ArrayList<>();
+        lines.add("#Life 1.05");
+        lines.add("#D benchmark soup");
+        lines.add("#N");
+        lines.add("#P 0 0");
+
+        for (String line : PatternFormat.getPlainTextFormat(gol)) {
+            lines.add(line.replace('O', '*'));
+        }
+        return lines;
+    }
+
+    /**
+     * Formats the board as Life 1.06, one live cell per line, row by row
+     */
+    private static List<String> getLife06Format(GameOfLife gol) {
+
+        List<String> lines = new ArrayList<>();
+        lines.add("#Life 1.06");
+
+        int[] boundingBox = gol.getBoundingBox();
+        for (int y = boundingBox[2]; y <= boundingBox[3]; y++) {
+            for (int x = boundingBox[0]; x <= boundingBox[1]; x++) {
+                if (gol.isCellAlive(x, y))
+                    lines.add((x - boundingBox[0]) + " " + (y - boundingBox[2]));
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,111 @@
+package benchmark;
+
+import model.GameOfLife;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formats a game board as the text of a pattern file, one cell at a time into a list of lines.
+ * This is how the pattern saver wrote files before PatternWriter, and is kept as the baseline
+ * WriterBenchmark compares against. PatternFiles also uses it to write the files to parse.
+ */
+public class PatternFormat {
+
+    /**
+     * Formats the live cells of a game board as RLE, cropped to the bounding box of the pattern
+     * @param gol The game board
+     * @param ruleText Rule to write in the header, or null to leave it out
+     * @return The lines of the RLE file, without any comment lines
+     */
+    static List <String> getRleFormat(GameOfLife gol, String ruleText) {
+
+        List<String> list = new ArrayList<>();
+
+        StringBuilder currentLine = new StringBuilder();
+
+        int [] boundingBox = gol.getBoundingBox();
+
+        currentLine.append("x = "+(boundingBox[1]-boundingBox[0]+1)+", y = "+(boundingBox[3]-boundingBox[2]+1) + ((ruleText == null)?"":", rule = " + ruleText));
+
+        list.add(currentLine.toString());
+
+        currentLine = new StringBuilder();
+        int counter = 0;
+        boolean lastBit = false;
+        boolean firstInLine = true;
+        for (int y = boundingBox[2]; y <= boundingBox[3]; y++) {
+
+            for (int x = boundingBox[0]; x <= boundingBox[1]; x++) {
+
+                if(firstInLine){
+                    counter++;
+                    firstInLine = false;
+                }
+                else if(lastBit == gol.isCellAlive(x, y)){
+                    counter ++;
+                    if (currentLine.length() > 40){
+                        list.add(currentLine.toString());
+                        currentLine = new StringBuilder();
+                    }
+                }
+                else{
+                    if (lastBit){
+                        currentLine.append((counter == 1) ? "" : counter).append("o");
+                    }
+                    else {
+                        currentLine.append((counter == 1) ? "" : counter).append("b");
+                    }
+                    counter = 1;
+                }
+                lastBit = gol.isCellAlive(x, y);
+
+            }
+
+            firstInLine = true;
+            if (lastBit){
+                currentLine.append((counter == 1) ? "" : counter).append("o");
+            }
+
+            if(y != boundingBox[3])
+                currentLine.append("$");
+
+            counter = 0;
+        }
+
+        currentLine.append("!");
+        list.add(currentLine.toString());
+
+        return list;
+
+    }
+
+    /**
+     * Formats the live cells of a game board as plain text, cropped to the bounding box of the pattern
+     * @param gol The game board
+     * @return The lines of the plain text file, without any comment lines
+     */
+    static List <String> getPlainTextFormat(GameOfLife gol) {
+        StringBuilder currentLine = new StringBuilder();
+
+        List <String> list = new ArrayList<>();
+
+        int [] boundingBox = gol.getBoundingBox();
+
+
+        for(int y = boundingBox[2]; y <= boundingBox[3]; y++){
+
+            for(int x = boundingBox[0]; x <= boundingBox[1]; x++){
+
+                if(gol.isCellAlive(x, y)){
+                    currentLine.append('O');
+                }
+                else
+                    currentLine.append('.');
+            }
+            list.add(currentLine.toString());
+            currentLine = new StringBuilder();
+        }
+        return list;
+    }
+}
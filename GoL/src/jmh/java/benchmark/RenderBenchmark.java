@@ -0,0 +1,65 @@
+package benchmark;
+
+import controller.PixelRenderer;
+import model.GameOfLife;
+import model.PackedBoard;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to draw a full HD view of a board into the pixel buffer of the canvas.
+ * A cell size below 1 shows several cells in every pixel, and from 0.5 down the pixels are
+ * shaded from the density pyramid, which is counted on the first call.
+ *
+ * render moves the view by a pixel every call, so everything is drawn. renderChanges keeps the
+ * view and switches between two frames that differ in a few cells, so only those are drawn.
+ *
+ * java -jar target/benchmarks.jar RenderBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+
+    @Param({"0.125", "0.25", "0.5", "2", "10"})
+    public double cellSize;
+
+    private PackedBoard board;
+    private PackedBoard changed;
+    private final PixelRenderer renderer = new PixelRenderer();
+
+    private int calls;
+
+    @Setup(Level.Trial)
+    public void createBoard() {
+
+        GameOfLife gol = Boards.createSoup("static", 4096, 0.35, "B3/S23", 42);
+        board = PackedBoard.of(gol);
+
+        // a few cells spread over the view
+        for (int i = 0; i < 16; i++) {
+            gol.changeCellState(100 + i * 60, 50 + i * 30);
+        }
+        changed = PackedBoard.of(gol);
+        renderer.resize(WIDTH, HEIGHT);
+    }
+
+    @Benchmark
+    public int[] render() {
+        renderer.render(board, cellSize, 0, calls++ & 1, 0, 0xFF000000, 0xFFFFFFFF);
+        return renderer.getPixels();
+    }
+
+    @Benchmark
+    public int[] renderChanges() {
+        renderer.render((calls++ & 1) == 0 ? board : changed, cellSize, 0, 0, 0, 0xFF000000, 0xFFFFFFFF);
+        return renderer.getPixels();
+    }
+}
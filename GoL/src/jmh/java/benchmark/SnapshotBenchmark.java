@@ -0,0 +1,67 @@
+package benchmark;
+
+import model.DynamicGameOfLife;
+import model.GameOfLife;
+import model.PackedBoard;
+import model.SnapshotFile;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to save and restore a whole board as a snapshot file.
+ * The largest board has 100 million cells. Restoring reads the file and puts it on a
+ * dynamic game board, as opening a snapshot does.
+ *
+ * java -jar target/benchmarks.jar SnapshotBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SnapshotBenchmark {
+
+    @Param({"2048", "10000"})
+    public int size;
+
+    @Param({"0.05", "0.35"})
+    public double density;
+
+    private PackedBoard board;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void createBoard() throws IOException {
+
+        board = PackedBoard.of(Boards.createSoup("static", size, density, "B3/S23", 42));
+        file = File.createTempFile("snapshot", SnapshotFile.EXTENSION);
+        SnapshotFile.write(file, board, "B3/S23");
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() {
+        file.delete();
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        SnapshotFile.write(file, board, "B3/S23");
+    }
+
+    @Benchmark
+    public PackedBoard read() throws IOException {
+        return SnapshotFile.read(file).getBoard();
+    }
+
+    @Benchmark
+    public GameOfLife restore() throws IOException {
+
+        GameOfLife gol = new DynamicGameOfLife();
+        gol.setBoard(SnapshotFile.read(file).getBoard());
+        return gol;
+    }
+}
@@ -0,0 +1,129 @@
+package benchmark;
+
+import model.GameOfLife;
+import model.PackedBoard;
+import org.openjdk.jmh.annotations.*;
+import s305080.PatternSaver.PatternWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast a large board is formatted as RLE and plain text, as done when saving to a file.
+ * The "-stream" formats are written by PatternWriter to a channel that throws the bytes away,
+ * the others by PatternFormat, the old writer.
+ *
+ * Each operation is one board formatted, and the megabytes counter is the
+ * size of the text produced per second. Run with "-prof gc" to see the allocations.
+ *
+ * java -jar target/benchmarks.jar WriterBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class WriterBenchmark {
+
+    @Param({"rle", "cells", "rle-stream", "life06-stream", "cells-stream"})
+    public String format;
+
+    @Param({"1024", "2048"})
+    public int size;
+
+    @Param({"0.35"})
+    public double density;
+
+    private GameOfLife gol;
+    private PackedBoard board;
+    private double megabytes;
+
+    /**
+     * Counts the bytes written to it and throws them away
+     */
+    private static class NullChannel implements WritableByteChannel {
+
+        long length;
+
+        @Override
+        public int write(ByteBuffer source) {
+            int written = source.remaining();
+            source.position(source.limit());
+            length += written;
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() { return true; }
+
+        @Override
+        public void close() { }
+    }
+
+    /**
+     * Size of the text produced, reported as megabytes per second
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public double megabytes;
+    }
+
+    @Setup(Level.Trial)
+    public void createBoard() throws IOException {
+
+        gol = Boards.createSoup("static", size, density, "B3/S23", 42);
+        board = PackedBoard.of(gol);
+
+        long length = 0;
+        if (format.endsWith("-stream")) {
+            length = stream().length;
+        }
+        else {
+            for (String line : format()) {
+                length += line.length() + 1;
+            }
+        }
+        megabytes = length / 1e6;
+    }
+
+    @Benchmark
+    public Object write(Bytes counter) throws IOException {
+
+        counter.megabytes += megabytes;
+        if (format.endsWith("-stream"))
+            return stream();
+        return format();
+    }
+
+    private NullChannel stream() throws IOException {
+
+        PatternWriter.Format writerFormat;
+        switch (format) {
+            case "rle-stream":
+                writerFormat = PatternWriter.Format.RLE;
+                break;
+            case "life06-stream":
+                writerFormat = PatternWriter.Format.LIFE06;
+                break;
+            default:
+                writerFormat = PatternWriter.Format.PLAIN_TEXT;
+        }
+
+        NullChannel channel = new NullChannel();
+        PatternWriter.write(channel, writerFormat, board, gol.getRule().toString(), Collections.emptyList());
+        return channel;
+    }
+
+    private List<String> format() {
+
+        if (format.equals("rle"))
+            return PatternFormat.getRleFormat(gol, gol.getRule().toString());
+        return PatternFormat.getPlainTextFormat(gol);
+    }
+}
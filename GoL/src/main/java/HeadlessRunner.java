@@ -0,0 +1,538 @@
+import model.Checkpoint;
+import model.Checkpointer;
+import model.Configuration;
+import model.DynamicGameOfLife;
+import model.GameOfLife;
+import model.PackedBoard;
+import model.PackedBoardSink;
+import model.Parser.ParsedPattern;
+import model.Parser.PatternParser;
+import model.Parser.RleReader;
+import model.PatternFormatException;
+import model.StaticGameOfLife;
+import model.rules.RuleFormatException;
+import model.rules.RuleParser;
+import s305080.PatternSaver.PatternWriter;
+import tools.MessageBox;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a pattern from the command line, without a display and without loading JavaFX.
+ *
+ * Usage: HeadlessRunner pattern [options]
+ *   --engine static|dynamic  game board to use, default dynamic
+ *   --size WIDTHxHEIGHT      size of a static board, default the pattern with a margin
+ *   --rule RULE              rule to use, default the rule of the pattern or B3/S23
+ *   --generations N          number of generations to run, default 100. A macrocell file that says
+ *                            which generation it shows is run from that generation
+ *   --until CONDITION        stop early if extinct, still or periodic
+ *   --report N               print statistics every N generations, default only at the end
+ *   --out FILE               write the final pattern to FILE instead of standard output
+ *   --checkpoint DIR         save checkpoints in DIR, default checkpoint.directory in config.properties
+ *   --resume                 continue from the latest valid checkpoint instead of the pattern
+ *
+ * Checkpoints are saved every checkpoint.interval seconds in config.properties, or every
+ * DEFAULT_CHECKPOINT_INTERVAL seconds if only --checkpoint is given.
+ */
+public class HeadlessRunner {
+
+    // generations kept to look for a repeating pattern
+    private static final int PERIOD_WINDOW = 64;
+
+    // empty cells around the pattern on a static board
+    private static final int MARGIN = 64;
+
+    private static final String CONFIGURATION_FILE = "config.properties";
+    private static final long DEFAULT_CHECKPOINT_INTERVAL = 600;
+
+    // statistics kept in checkpoints
+    private static final String ELAPSED = "elapsedNanos";
+    private static final String PEAK_POPULATION = "peakPopulation";
+    private static final String PEAK_GENERATION = "peakGeneration";
+    private static final String FIRST_GENERATION = "firstGeneration";
+
+    private String patternPath;
+    private String engine = "dynamic";
+    private int width = -1;
+    private int height = -1;
+    private String rule;
+    private long generations = 100;
+    private String until;
+    private long reportInterval = 0;
+    private String outPath;
+    private String checkpointPath;
+    private boolean resume;
+
+    private long peakPopulation;
+    private long peakGeneration;
+
+    // generation the run started at, the one given in a macrocell file or 0
+    private long firstGeneration;
+
+    public static void main(String[] args) {
+
+        MessageBox.setHeadless(true);
+
+        HeadlessRunner runner = new HeadlessRunner();
+        try {
+            runner.parseArguments(args);
+            System.exit(runner.run());
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(2);
+        } catch (PatternFormatException e) {
+            System.err.println("Could not parse pattern: " + e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Could not read or write file: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void printUsage() {
+
+        System.err.println("Usage: HeadlessRunner pattern [--engine static|dynamic] [--size WIDTHxHEIGHT] [--rule RULE]\n" +
+                "                      [--generations N] [--until extinct|still|periodic] [--report N] [--out FILE]\n" +
+                "                      [--checkpoint DIR] [--resume]");
+    }
+
+    /**
+     * Reads the command line arguments
+     * @param args The arguments
+     */
+    private void parseArguments(String[] args) {
+
+        for (int i = 0; i < args.length; i++) {
+
+            String argument = args[i];
+
+            if (!argument.startsWith("--")) {
+                if (patternPath != null)
+                    throw new IllegalArgumentException("More than one pattern: " + argument);
+                patternPath = argument;
+                continue;
+            }
+
+            if (argument.equals("--resume")) {
+                resume = true;
+                continue;
+            }
+
+            if (i + 1 >= args.length)
+                throw new IllegalArgumentException("Missing value for " + argument);
+            String value = args[++i];
+
+            switch (argument) {
+                case "--engine":
+                    if (!value.equals("static") && !value.equals("dynamic"))
+                        throw new IllegalArgumentException("Unknown engine: " + value);
+                    engine = value;
+                    break;
+                case "--size":
+                    String[] size = value.toLowerCase().split("x");
+                    if (size.length != 2)
+                        throw new IllegalArgumentException("Size must be WIDTHxHEIGHT: " + value);
+                    width = parsePositive(size[0]);
+                    height = parsePositive(size[1]);
+                    break;
+                case "--rule":
+                    rule = value;
+                    break;
+                case "--generations":
+                    generations = parsePositive(value);
+                    break;
+                case "--until":
+                    if (!value.equals("extinct") && !value.equals("still") && !value.equals("periodic"))
+                        throw new IllegalArgumentException("Unknown stop condition: " + value);
+                    until = value;
+                    break;
+                case "--report":
+                    reportInterval = parsePositive(value);
+                    break;
+                case "--out":
+                    outPath = value;
+                    break;
+                case "--checkpoint":
+                    checkpointPath = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + argument);
+            }
+        }
+
+        if (patternPath == null)
+            throw new IllegalArgumentException("No pattern given");
+
+        String lowerCasePath = patternPath.toLowerCase();
+        if (!lowerCasePath.endsWith(".rle") && !lowerCasePath.endsWith(".cells")
+                && !lowerCasePath.endsWith(".lif") && !lowerCasePath.endsWith(".life") && !lowerCasePath.endsWith(".mc"))
+            throw new IllegalArgumentException("Pattern must be .rle, .cells, .lif, .life or .mc: " + patternPath);
+    }
+
+    private static int parsePositive(String value) {
+
+        try {
+            int number = Integer.parseInt(value);
+            if (number > 0)
+                return number;
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IllegalArgumentException("Not a positive number: " + value);
+    }
+
+    //region running
+
+    /**
+     * Loads the pattern, runs it and prints the results
+     * @return Exit code
+     * @throws IOException if the pattern could not be read or the result could not be written
+     */
+    private int run() throws IOException {
+
+        Checkpointer checkpointer = createCheckpointer();
+
+        Checkpoint checkpoint = null;
+        if (resume) {
+            if (checkpointer == null)
+                throw new IllegalArgumentException("--resume needs a checkpoint directory");
+            checkpoint = Checkpointer.loadLatest(checkpointer.getDirectory());
+            if (checkpoint == null)
+                System.out.println("# no valid checkpoint in " + checkpointer.getDirectory() + ", starting from the pattern");
+        }
+
+        GameOfLife gol;
+        long elapsedBefore = 0;
+
+        if (checkpoint != null) {
+            gol = restoreBoard(checkpoint);
+            elapsedBefore = checkpoint.getStatistic(ELAPSED, 0);
+            peakPopulation = checkpoint.getStatistic(PEAK_POPULATION, 0);
+            peakGeneration = checkpoint.getStatistic(PEAK_GENERATION, 0);
+            firstGeneration = checkpoint.getStatistic(FIRST_GENERATION, 0);
+        }
+        else {
+            gol = loadPattern();
+            firstGeneration = gol.getGeneration();
+        }
+
+        String startedAt = (checkpoint != null) ? ", resumed at generation " + gol.getGeneration()
+                : (firstGeneration > 0) ? ", starting at generation " + firstGeneration : "";
+        System.out.println("# pattern " + patternPath + ", engine " + engine + ", rule " + gol.getRule() + startedAt);
+        System.out.println("# generation population minX minY maxX maxY milliseconds");
+        printStatistics(gol, elapsedBefore);
+        updatePeak(gol);
+
+        // the starting generation is compared too, so a still life or an oscillator is found
+        // as soon as it repeats
+        Deque<PackedBoard> recent = new ArrayDeque<>();
+        if (until != null && !until.equals("extinct"))
+            recent.addLast(PackedBoard.of(gol));
+        String stopReason = null;
+
+        long start = System.nanoTime();
+        long generation = gol.getGeneration();
+        long lastGeneration = firstGeneration + generations;
+
+        while (generation < lastGeneration) {
+
+            gol.nextGeneration();
+            generation++;
+            updatePeak(gol);
+
+            if (reportInterval > 0 && generation % reportInterval == 0 && generation < lastGeneration)
+                printStatistics(gol, elapsedBefore + System.nanoTime() - start);
+
+            // the checkpoint is written in the background from a snapshot of the board
+            if (checkpointer != null && checkpointer.isDue())
+                checkpointer.checkpoint(gol, getStatistics(elapsedBefore + System.nanoTime() - start));
+
+            stopReason = checkStopCondition(gol, recent);
+            if (stopReason != null)
+                break;
+        }
+
+        long elapsed = elapsedBefore + System.nanoTime() - start;
+
+        if (checkpointer != null)
+            checkpointer.close();
+
+        printStatistics(gol, elapsed);
+        long evolved = generation - firstGeneration;
+        System.out.println("# stopped after " + evolved + " generations" + ((stopReason == null) ? "" : ", " + stopReason));
+        System.out.println("# peak population " + peakPopulation + " at generation " + peakGeneration);
+        System.out.printf("# %.1f generations per second%n", evolved / Math.max(elapsed / 1e9, 1e-9));
+
+        writePattern(gol, evolved);
+        return 0;
+    }
+
+    /**
+     * Reads the pattern and places it on a new board
+     * @return The game board
+     * @throws IOException if the pattern could not be read
+     */
+    private GameOfLife loadPattern() throws IOException {
+
+        PackedBoard pattern;
+        String patternRule;
+        long patternGeneration = 0;
+
+        if (patternPath.toLowerCase().endsWith(".rle")) {
+
+            // streamed, so a very large pattern is never held as text or as a boolean array
+            PackedBoardSink sink = new PackedBoardSink();
+            RleReader.read(new File(patternPath), sink);
+            pattern = sink.getBoard();
+            patternRule = sink.getRule();
+        }
+        else {
+            ParsedPattern parsed = PatternParser.parse(new File(patternPath));
+            pattern = parsed.getCells();
+            patternRule = parsed.getRule();
+            patternGeneration = parsed.getGeneration();
+        }
+
+        // a macrocell file may say which generation it shows, the run goes on from there
+        GameOfLife gol = createBoard(pattern, getRuleText(patternRule));
+        gol.setGeneration(patternGeneration);
+        return gol;
+    }
+
+    /**
+     * Creates the checkpointer, if checkpoints are asked for on the command line or in config.properties
+     * @return The checkpointer, or null if there are no checkpoints
+     */
+    private Checkpointer createCheckpointer() {
+
+        long interval = 0;
+        String directory = checkpointPath;
+
+        // only read if it is there, Configuration would create it
+        if (new File(CONFIGURATION_FILE).exists()) {
+            Configuration configuration = new Configuration(CONFIGURATION_FILE);
+            interval = configuration.getCheckpointInterval();
+            if (directory == null && interval > 0)
+                directory = configuration.getCheckpointDirectory();
+        }
+
+        if (directory == null)
+            return null;
+
+        return new Checkpointer(Paths.get(directory), (interval > 0) ? interval : DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Creates a board of the chosen engine with the board of a checkpoint
+     * @param checkpoint The checkpoint
+     * @return The game board, at the generation of the checkpoint
+     */
+    private GameOfLife restoreBoard(Checkpoint checkpoint) {
+
+        PackedBoard board = checkpoint.getBoard();
+        String ruleText = getRuleText(checkpoint.getSnapshot().getRule());
+
+        GameOfLife gol;
+        if (engine.equals("static"))
+            gol = new StaticGameOfLife(Math.max(board.getWidth(), 1), Math.max(board.getHeight(), 1), ruleText);
+        else
+            gol = new DynamicGameOfLife(ruleText);
+
+        gol.setBoard(board);
+        return gol;
+    }
+
+    private void updatePeak(GameOfLife gol) {
+
+        if (gol.getCellCount() > peakPopulation) {
+            peakPopulation = gol.getCellCount();
+            peakGeneration = gol.getGeneration();
+        }
+    }
+
+    /**
+     * Gets the statistics to keep in a checkpoint
+     * @param elapsed Time used so far, in nanoseconds
+     * @return The statistics by name
+     */
+    private Map<String, Long> getStatistics(long elapsed) {
+
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put(ELAPSED, elapsed);
+        statistics.put(PEAK_POPULATION, peakPopulation);
+        statistics.put(PEAK_GENERATION, peakGeneration);
+        statistics.put(FIRST_GENERATION, firstGeneration);
+        return statistics;
+    }
+
+    /**
+     * Finds the rule to use, from the arguments or the pattern file
+     * @param patternRule The rule of the pattern file, or null
+     * @return The formatted rule
+     */
+    private String getRuleText(String patternRule) {
+
+        String ruleText = (rule != null) ? rule : patternRule;
+        if (ruleText == null)
+            return RuleParser.CLASSIC_RULESTRING;
+
+        try {
+            return RuleParser.formatRuleText(ruleText);
+        } catch (RuleFormatException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the game board and places the pattern on it
+     * @param pattern The pattern
+     * @param ruleText The rule to use
+     * @return The game board
+     */
+    private GameOfLife createBoard(PackedBoard pattern, String ruleText) {
+
+        int patternWidth = pattern.getWidth();
+        int patternHeight = pattern.getHeight();
+
+        GameOfLife gol;
+        int left, top;
+
+        if (engine.equals("static")) {
+
+            int boardWidth = (width > 0) ? width : patternWidth + 2 * MARGIN;
+            int boardHeight = (height > 0) ? height : patternHeight + 2 * MARGIN;
+            if (boardWidth < patternWidth + 2 || boardHeight < patternHeight + 2)
+                throw new IllegalArgumentException("Board is too small for a " + patternWidth + "x" + patternHeight + " pattern");
+
+            gol = new StaticGameOfLife(boardWidth, boardHeight, ruleText);
+
+            // the pattern is centered on the board
+            left = (boardWidth - patternWidth) / 2;
+            top = (boardHeight - patternHeight) / 2;
+        }
+        else {
+            gol = new DynamicGameOfLife(ruleText);
+
+            // the outermost cells are never evolved, the board grows from there
+            left = 1;
+            top = 1;
+        }
+
+        // only visits the live cells of the packed rows
+        for (int y = 0; y < patternHeight; y++) {
+            for (int i = 0; i < pattern.getWordsPerRow(); i++) {
+
+                long word = pattern.getWord(y, i);
+                while (word != 0) {
+                    gol.setCellAlive(left + i * 64 + Long.numberOfTrailingZeros(word), top + y);
+                    word &= word - 1;
+                }
+            }
+        }
+        return gol;
+    }
+
+    /**
+     * Checks if the simulation should stop before the number of generations is reached
+     * @param gol The game board
+     * @param recent The latest generations, oldest first
+     * @return Why it should stop, or null to keep going
+     */
+    private String checkStopCondition(GameOfLife gol, Deque<PackedBoard> recent) {
+
+        if (until == null)
+            return null;
+
+        if (gol.getCellCount() == 0)
+            return "extinct";
+
+        if (until.equals("extinct"))
+            return null;
+
+        PackedBoard current = PackedBoard.of(gol);
+
+        if (until.equals("still")) {
+            PackedBoard previous = recent.pollLast();
+            recent.addLast(current);
+            return (previous != null && previous.hasSameCells(current)) ? "still life" : null;
+        }
+
+        // periodic, looks for the newest earlier generation with the same cells
+        int period = 1;
+        for (Iterator<PackedBoard> it = recent.descendingIterator(); it.hasNext(); period++) {
+            if (it.next().hasSameCells(current))
+                return "period " + period;
+        }
+
+        recent.addLast(current);
+        if (recent.size() > PERIOD_WINDOW)
+            recent.removeFirst();
+
+        return null;
+    }
+
+    //endregion
+
+    //region output
+
+    /**
+     * Prints the generation, population, absolute bounding box and time used
+     * @param gol The game board
+     * @param elapsed Time used so far, in nanoseconds
+     */
+    private static void printStatistics(GameOfLife gol, long elapsed) {
+
+        StringBuilder line = new StringBuilder();
+        line.append(gol.getGeneration()).append(' ').append(gol.getCellCount());
+
+        if (gol.getCellCount() == 0) {
+            line.append(" - - - -");
+        }
+        else {
+            // the bounding box is min x, max x, min y, max y on the grid
+            int[] boundingBox = gol.getBoundingBox();
+            line.append(' ').append(boundingBox[0] - gol.getOffsetX())
+                    .append(' ').append(boundingBox[2] - gol.getOffsetY())
+                    .append(' ').append(boundingBox[1] - gol.getOffsetX())
+                    .append(' ').append(boundingBox[3] - gol.getOffsetY());
+        }
+
+        line.append(' ').append(elapsed / 1000000);
+        System.out.println(line);
+    }
+
+    /**
+     * Writes the final pattern as RLE to a file or standard output
+     * @param gol The game board
+     * @param generation Number of generations that were run
+     * @throws IOException if the file could not be written
+     */
+    private void writePattern(GameOfLife gol, long generation) throws IOException {
+
+        List<String> comments = Collections.singletonList(
+                "#C " + new File(patternPath).getName() + " after " + generation + " generations");
+
+        // streamed from the packed board, so a large result is never held as text
+        if (outPath != null) {
+            PatternWriter.write(new File(outPath), PatternWriter.Format.RLE, gol.getFrame(), gol.getRule().toString(), comments);
+        }
+        else {
+            System.out.flush();
+            PatternWriter.write(Channels.newChannel(System.out), PatternWriter.Format.RLE, gol.getFrame(), gol.getRule().toString(), comments);
+            System.out.flush();
+        }
+    }
+
+    //endregion
+}
@@ -1,6 +1,7 @@
 package controller;
 
 import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
@@ -13,7 +14,6 @@ import javafx.scene.input.MouseEvent;
 import javafx.scene.input.ScrollEvent;
 import javafx.scene.paint.Color;
 import model.*;
-import model.Parser.PatternParser;
 import model.rules.RuleFormatException;
 import model.rules.RuleParser;
 import s305080.Gif.GifSaver;
@@ -21,7 +21,10 @@ import s305080.PatternSaver.ToFile;
 import tools.MessageBox;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -69,14 +72,21 @@ public class CanvasController {
 
     //region animation
 
-    private Thread thread;
+    // frames drawn per second when the frame delay is zero
+    private static final int DISPLAY_RATE = 60;
+
+    // evolves the board on its own thread
+    private SimulationScheduler scheduler;
 
     private AnimationTimer animationTimer;
-    private long timer;
 
-    // controls the framerate
+    // draws the cells and grid lines as tiles that are kept while the board is moved
+    private final TileLayer tileLayer = new TileLayer();
+
+    // controls the simulation speed, the delay between each step of generations
     private int frameDelay;
-    private boolean running = true;
+    private boolean maxSpeed = false;
+    private volatile boolean running = true;
     private boolean interaction = false;
     //endregion
 
@@ -84,8 +94,14 @@ public class CanvasController {
 
     private GameOfLife gol;
 
+    // earlier generations, to be able to step backwards
+    private GenerationHistory history = new GenerationHistory();
+
+    // saves the board in the background while it runs, null if checkpoints are off
+    private Checkpointer checkpointer;
+
     // holds pattern to be imported
-    private boolean[][] clipBoardPattern;
+    private SparsePattern clipBoardPattern;
 
     private boolean importing = false;
 
@@ -113,6 +129,8 @@ public class CanvasController {
         initializeGameParameters();
 
         gol = new DynamicGameOfLife();
+        scheduler = new SimulationScheduler(gol, this::beforeStep, this::simulationStopped);
+        updateTargetRate();
 
         // displays the rule in the toolbar
         masterController.getToolController().setRuleLabel(gol.getRule());
@@ -142,43 +160,84 @@ public class CanvasController {
         frameDelay = masterController.getConfiguration().getGameSpeed();
         userWantsGridLines = masterController.getConfiguration().isGridLinesOn();
         masterController.getToolController().setSpeed(frameDelay);
+
+        long checkpointInterval = masterController.getConfiguration().getCheckpointInterval();
+        if (checkpointInterval > 0)
+            checkpointer = new Checkpointer(getCheckpointDirectory(), checkpointInterval);
+    }
+
+    /**
+     * Called on the simulation thread before each step, while the board is not evolving
+     * @param g The board about to be evolved
+     */
+    private void beforeStep(GameOfLife g) {
+
+        history.record(g.getFrame());
+
+        if (checkpointer != null && checkpointer.isDue())
+            checkpointer.checkpoint(g, Collections.emptyMap());
+    }
+
+    /**
+     * Gets the directory the checkpoints are kept in, from the config file
+     * @return The checkpoint directory
+     */
+    Path getCheckpointDirectory() {
+        return Paths.get(masterController.getConfiguration().getCheckpointDirectory());
     }
 
     /**
-     * Initializes the animation. The "timer" and "frameDelay" are used for having dynamic frame rate.
+     * Initializes the animation. The animation only draws the latest frame published by the board,
+     * the generations are calculated by the scheduler at its own pace.
      */
     private void initializeAnimation() {
 
-        thread = new Thread();
         animationTimer = new AnimationTimer() {
 
+            // the frame drawn last, to only draw again when there is something new
+            private PackedBoard lastFrame;
+
             @Override
             public void handle(long now) {
 
-                //To control game speed
-                if (now / 1000000 - timer > frameDelay) {
-
-                    if(!interaction) {
+                // no generations while the user is busy with a dialog
+                if (interaction) {
+                    scheduler.stop();
+                    return;
+                }
+                scheduler.start();
 
-                        // to be able to pan the board without lag during large simulations, nextGeneration()
-                        // is put inside a thread
-                        if(!thread.isAlive()){
-                            thread = new Thread(() -> {
-                                gol.nextGeneration();
-                            });
-                            thread.start();
-                        }
-                        renderCanvas();
+                PackedBoard frame = gol.getFrame();
 
-                        timer = now / 1000000;
+                // draws every frame at full frame rate, to keep panning and imports smooth
+                if (frame != lastFrame || frameDelay == 0) {
 
-                        giveCellCount();
-                    }
+                    renderCanvas();
+                    giveCellCount();
+                    lastFrame = frame;
                 }
             }
         };
     }
 
+    /**
+     * Called on the simulation thread when it stops. Applies edits made while it was stopping,
+     * and draws the last generation, since the animation no longer does.
+     */
+    private void simulationStopped() {
+
+        Platform.runLater(() -> {
+
+            // unless the simulation was started again, the thread is done and this returns at once
+            if (!scheduler.isRunning()) {
+                scheduler.join();
+                gol.applyEdits();
+            }
+            renderCanvas();
+            giveCellCount();
+        });
+    }
+
     /**
      * Replaces the existing dynamic game of life board with a static one
      */
@@ -206,6 +265,11 @@ public class CanvasController {
      */
     private void changeGol(GameOfLife newGol) {
 
+        // the old board can't be read while it evolves
+        boolean wasRunning = scheduler.isRunning();
+        scheduler.stop();
+        scheduler.join();
+
         // inserts the old pattern
         insertOldGrid(gol, newGol, gol.getGridWidth(), gol.getGridHeight());
 
@@ -217,9 +281,47 @@ public class CanvasController {
         newGol.setRule(gol.getRule().toString());
 
         gol = newGol;
+        scheduler.setGol(newGol);
+        if (wasRunning)
+            scheduler.start();
+
         renderCanvasIfLowFPS();
     }
 
+    /**
+     * Replaces the board with a saved snapshot, and continues from its generation with its rule.
+     * A static board is replaced with one the size of the snapshot.
+     * @param snapshot The saved board
+     */
+    void restoreSnapshot(SnapshotFile snapshot) {
+
+        boolean wasRunning = scheduler.isRunning();
+        scheduler.stop();
+        scheduler.join();
+
+        String ruleText = (snapshot.getRule() != null) ? snapshot.getRule() : gol.getRule().toString();
+        PackedBoard board = snapshot.getBoard();
+
+        GameOfLife newGol;
+        if (gol instanceof StaticGameOfLife)
+            newGol = new StaticGameOfLife(Math.max(board.getWidth(), 1), Math.max(board.getHeight(), 1), ruleText);
+        else
+            newGol = new DynamicGameOfLife(ruleText);
+
+        newGol.setBoard(board);
+
+        gol = newGol;
+        scheduler.setGol(newGol);
+        history.clear();
+
+        masterController.getToolController().setRuleLabel(gol.getRule());
+        giveCellCount();
+        if (wasRunning)
+            scheduler.start();
+
+        renderCanvas();
+    }
+
     /**
      * Moves pattern with dimensions widthAndHeight from gol to newGol
      * @param gol board with pattern
@@ -228,7 +330,7 @@ public class CanvasController {
      */
     private void insertOldGrid(GameOfLife gol, GameOfLife newGol, int ... widthAndHeight) {
 
-        waitForThread();
+        gol.applyEdits();
         boolean isEmpty = true;
         for (int x = 0; x < widthAndHeight[0]; x++) {
             for (int y = 0; y < widthAndHeight[1]; y++) {
@@ -306,6 +408,22 @@ public class CanvasController {
         if (code.equals("X")) {
             rotateImportRight();
         }
+        if (code.equals("LEFT")) {
+            stepBackward();
+        }
+        if (code.equals("RIGHT")) {
+            stepForward();
+        }
+        if (code.equals("PAGE_UP")) {
+            setStepSize(scheduler.getStepSize() * 2);
+        }
+        if (code.equals("PAGE_DOWN")) {
+            setStepSize(scheduler.getStepSize() / 2);
+        }
+        if (code.equals("M")) {
+            maxSpeed = !maxSpeed;
+            updateTargetRate();
+        }
 
         // checks if "C" is pressed
         switch (code) {
@@ -344,13 +462,7 @@ public class CanvasController {
         if (clipBoardPattern == null){
             return;
         }
-        boolean [][] temp = new boolean[clipBoardPattern[0].length][clipBoardPattern.length];
-        for (int x = 0; x < clipBoardPattern.length; x++) {
-            for (int y = 0; y < clipBoardPattern[0].length; y++) {
-                temp[temp.length - (y +1)][x] = clipBoardPattern[x][y];
-            }
-        }
-        clipBoardPattern = temp;
+        clipBoardPattern = clipBoardPattern.rotateRight();
         renderCanvasIfLowFPS();
     }
 
@@ -362,13 +474,7 @@ public class CanvasController {
         if (clipBoardPattern == null){
             return;
         }
-        boolean [][] temp = new boolean[clipBoardPattern[0].length][clipBoardPattern.length];
-        for (int x = 0; x < clipBoardPattern.length; x++) {
-            for (int y = 0; y < clipBoardPattern[0].length; y++) {
-                temp[y][temp[0].length - (x + 1)] = clipBoardPattern[x][y];
-            }
-        }
-        clipBoardPattern = temp;
+        clipBoardPattern = clipBoardPattern.rotateLeft();
         renderCanvasIfLowFPS();
     }
 
@@ -450,9 +556,6 @@ public class CanvasController {
         // checks if left click
         if (mouseButton == MouseButton.PRIMARY) {
 
-            //lets nextGeneration() finish
-            waitForThread();
-
             // inserts clipboard pattern if in use
             if (importing) {
                 insertImport();
@@ -460,15 +563,8 @@ public class CanvasController {
                 return;
             }
 
-            // gets position of cell on click position
-            int gridClickX = getGridPosX(mouseEvent.getX());
-            int gridClickY = getGridPosY(mouseEvent.getY());
-
-            // makes sure the cell is on the grid
-            fitTo(gridClickX, gridClickY);
-
-            // changes state of cell
-            gol.changeCellState((gridClickX < 0)? 0 : gridClickX, (gridClickY < 0)? 0 : gridClickY);
+            // changes state of the cell on click position
+            edit(BoardEdit.changeCellState(getWorldPosX(mouseEvent.getX()), getWorldPosY(mouseEvent.getY())));
 
             // updates cellCounter
             giveCellCount();
@@ -515,34 +611,29 @@ public class CanvasController {
         // checks if left click
         if (b == MouseButton.PRIMARY) {
 
-            //lets nextGeneration finish
-            waitForThread();
             // checks if not start of drag
             if (prevMousePosX != 0 || prevMousePosY != 0) {
 
                 // draws a line from last mouse position to current position
-                drawLine(getGridPosX(currMousePosX), getGridPosY(currMousePosY),
-                        getGridPosX(prevMousePosX), getGridPosY(prevMousePosY));
+                drawLine(getWorldPosX(currMousePosX), getWorldPosY(currMousePosY),
+                        getWorldPosX(prevMousePosX), getWorldPosY(prevMousePosY));
 
                 // updates the cell counter
                 giveCellCount();
 
             } else {
                 // gets cell on event position
-                int x = getGridPosX(currMousePosX);
-                int y = getGridPosY(currMousePosY);
-
-                // makes sure the cell is on the grid
-                fitTo(x, y);
+                int x = getWorldPosX(currMousePosX);
+                int y = getWorldPosY(currMousePosY);
 
                 // sets cell alive
-                gol.setCellAlive(x =(x < 0)?0:x, y = (y < 0)? 0 : y);
+                edit(BoardEdit.setCellAlive(x, y));
 
                 // updates cell counter
                 giveCellCount();
 
-                // draws the cell at (x, y)
-                drawCell(x, y);
+                // draws the cell at (x, y) right away, the board shows it after the next generation
+                drawWorldCell(x, y);
             }
             // checks if right click
             } else if (mouseEvent.getButton() == MouseButton.SECONDARY) {
@@ -577,27 +668,6 @@ public class CanvasController {
         }
     }
 
-    /**
-     * makes sure that x and y are inside the game board, if the board is dynamic
-     * @param x The X coordinate of the cell to fit the board to
-     * @param y The Y coordinate of the cell to fit the board to
-     */
-    private void fitTo(int x, int y) {
-
-        // checks x is negative
-        if(x < 0){
-            // extends the board to fit to x
-            ((DynamicGameOfLife) gol).increaseXLeft(Math.abs(x));
-           // boardOffsetX -= (x - 1) * cell.getSize();
-        }
-        // checks if y is negative
-        if(y < 0){
-            // extends the board to fit to x
-            ((DynamicGameOfLife)gol).increaseYTop(Math.abs(y));
-            //boardOffsetY -= (y - 1) * cell.getSize();
-        }
-    }
-
     /**
      * Changes the cellSize to give the effect of zooming.
      * @param scrollEvent Event created by mouse scroll
@@ -640,6 +710,28 @@ public class CanvasController {
 
     // region canvas to grid converter
 
+    /**
+     * Converts horizontal mouse position on canvas to absolute horizontal cell position,
+     * which does not depend on the offset of the board
+     * @param x X coordinate for mouse
+     * @return Absolute X coordinate
+     */
+    private int getWorldPosX(double x) {
+
+        return (int)Math.floor((x + cView.boardOffsetX) / cell.getSize());
+    }
+
+    /**
+     * Converts vertical mouse position on canvas to absolute vertical cell position,
+     * which does not depend on the offset of the board
+     * @param y Y coordinate for mouse
+     * @return Absolute Y coordinate
+     */
+    private int getWorldPosY(double y) {
+
+        return (int)Math.floor((y + cView.boardOffsetY) / cell.getSize());
+    }
+
     /**
      * Converts horizontal mouse position on canvas to horizontal cell position on grid
      * @param x X coordinate for mouse
@@ -693,22 +785,19 @@ public class CanvasController {
      */
     void renderCanvas() {
 
+        // the latest complete generation, which stays the same while the next one is calculated
+        PackedBoard frame = gol.getFrame();
+
         // checks wich cells are inside the canvas view
-        cView.updateView(gol, cell.getSize(), (int)canvas.getWidth(), (int)canvas.getHeight());
+        cView.updateView(frame, cell.getSize(), (int)canvas.getWidth(), (int)canvas.getHeight());
 
-        // renders the cells on the canvas
-        renderLife();
+        // renders the cells and the grid lines on the canvas
+        renderLife(frame);
 
         // checks if should render the clipboard pattern
         if (importing)
             renderImport();
 
-        // checks if should draw grid lines
-        if (gridLines)
-            // checks if the user has set grid lines on or of
-            if (userWantsGridLines)
-                renderGridLines();
-
         // checks if something is marked
         if (markup != null){
             // renders the marked area
@@ -717,68 +806,26 @@ public class CanvasController {
         //to see where the grid is
         if (gol instanceof StaticGameOfLife) {
             gc.setLineWidth(2);
-            gc.strokeRect(-cView.getCommonOffsetX(gol, cell.getSize()), -cView.getCommonOffsetY(gol, cell.getSize()), gol.getGridWidth() * cell.getSize(), gol.getGridHeight() * cell.getSize());
+            gc.strokeRect(-cView.getCommonOffsetX(frame, cell.getSize()), -cView.getCommonOffsetY(frame, cell.getSize()), frame.getWidth() * cell.getSize(), frame.getHeight() * cell.getSize());
         }
     }
 
     /**
-     * Renders the current state of the game of life simulation to the canvas.
-     * Sets background color and cell color.
+     * Renders a frame of the game of life simulation to the canvas.
+     * The cells are drawn into tiles, which are kept while the board is moved, and only drawn
+     * again where cells changed. The grid lines are drawn into the tiles with the cells.
+     * @param frame The frame to render
      */
-    private void renderLife() {
+    private void renderLife(PackedBoard frame) {
 
-        // fills the background
-        gc.setFill(cell.getDeadColor());
-        gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        // checks if should draw grid lines, and if the user has set grid lines on or off
+        Color gridColor = (gridLines && userWantsGridLines) ? cell.getGhostColor() : null;
 
-        gc.setFill(cell.getColor());
-
-        // runs through the cells inside the view
-        for (int x = cView.currViewMinX; x <= cView.currViewMaxX; x++) {
-            for (int y = cView.currViewMinY; y <= cView.currViewMaxY; y++) {
-
-               try {
-                   // draws the cells that are alive
-
-                   if (gol.isCellAlive(x, y))
-                       drawCell(x, y);
-               }
-                catch (NullPointerException ignored){
-                }
-            }
-        }
-    }
-
-    /**
-     * Draws the grid lines on the canvas
-     */
-    private void renderGridLines() {
-
-        // sets the correct color
-        gc.setStroke(cell.getGhostColor());
-        gc.setLineWidth(1);
+        tileLayer.draw(gc, (int) Math.ceil(canvas.getWidth()), (int) Math.ceil(canvas.getHeight()), frame,
+                cell.getSize(), cell.getSpacingInPixels(), cView.boardOffsetX, cView.boardOffsetY,
+                cell.getColor(), cell.getDeadColor(), gridColor);
 
-        // stores the x coordinate of the line that is used for drawing grid lines
-        double xCoordinate;
-        for (double i = 0; i < canvas.getWidth(); i += cell.getSize()){
-
-            // draws vertical line number "i" inside the canvas view
-            gc.strokeLine(xCoordinate = -cView.getCommonOffsetX(gol,
-                    cell.getSize()) % cell.getSize() +
-                    i - cell.getSpacingInPixels() / 2, 0,
-                    xCoordinate, canvas.getHeight());
-        }
-
-        // stores the y coordinate of the line that is used for drawing grid lines
-        double yCoordinate;
-        for (double i = 0; i < canvas.getHeight(); i += cell.getSize()){
-
-            // draws horizontal line number "i" inside the canvas view
-            gc.strokeLine(0, yCoordinate = -cView.getCommonOffsetY(gol,
-                    cell.getSize()) % cell.getSize() +
-                    i - cell.getSpacingInPixels() / 2,
-                    canvas.getWidth(), yCoordinate);
-        }
+        gc.setFill(cell.getColor());
     }
 
     /**
@@ -790,12 +837,11 @@ public class CanvasController {
         gc.setFill(cell.getGhostColor());
 
         // draws cells with mouse position as center of pattern
-        for (int x = 0; x < clipBoardPattern.length; x++) {
-            for (int y = 0; y < clipBoardPattern[x].length; y++) {
-                if (clipBoardPattern[x][y]) {
-                    drawCell(getGridPosX(currMousePosX) - clipBoardPattern.length / 2 + x, getGridPosY(currMousePosY) - clipBoardPattern[x].length / 2 + y);
-                }
-            }
+        int left = getWorldPosX(currMousePosX) - clipBoardPattern.getWidth() / 2;
+        int top = getWorldPosY(currMousePosY) - clipBoardPattern.getHeight() / 2;
+
+        for (int i = 0; i < clipBoardPattern.getCellCount(); i++) {
+            drawWorldCell(left + clipBoardPattern.getX(i), top + clipBoardPattern.getY(i));
         }
     }
 
@@ -804,30 +850,11 @@ public class CanvasController {
      */
     private void insertImport() {
 
-        for (int x = 0; x < clipBoardPattern.length; x++) {
-            for (int y = 0; y < clipBoardPattern[x].length; y++) {
-
-                // checks if current cell is alive
-                if (clipBoardPattern[x][y]) {
-
-                    // gets the current cell's position on the main board
-                    int posX = getGridPosX(currMousePosX) - clipBoardPattern.length / 2 + x;
-                    int posY = getGridPosY(currMousePosY) - clipBoardPattern[x].length / 2 + y;
-
-                    // checks if it is inside the board
-                    if (posX < 0 || posY < 0) {
-                        // fits to the current cell
-                        fitTo(posX, posY);
-                        // same as above, but the board has now moved to fit the cell
-                        posX = getGridPosX(currMousePosX) - clipBoardPattern.length / 2 + x;
-                        posY = getGridPosY(currMousePosY) - clipBoardPattern[x].length / 2 + y;
-                    }
+        // the pattern is centered on the mouse position, the offset is only applied here
+        edit(BoardEdit.paste(clipBoardPattern,
+                getWorldPosX(currMousePosX) - clipBoardPattern.getWidth() / 2,
+                getWorldPosY(currMousePosY) - clipBoardPattern.getHeight() / 2));
 
-                    // sets the cell alive
-                    gol.setCellAlive(posX, posY);
-                }
-            }
-        }
         // import should no longer be rendered
         importing = false;
 
@@ -843,11 +870,8 @@ public class CanvasController {
      */
     void clearGrid() {
 
-        //lets nextGeneration() finish
-        waitForThread();
-
         // empty board
-        gol.clearGrid();
+        edit(BoardEdit.clear());
 
         // update cell counter
         giveCellCount();
@@ -868,31 +892,27 @@ public class CanvasController {
     }
 
     /**
-     * creates a line of alive cells on the grid from cell (x,y) to cell (x2, y2)
+     * Draws the cell at an absolute x, y coordinate
      *
-     * @param x  THe first coordinate of the first cell
-     * @param y  The second coordinate of the first cell
-     * @param x2 The first coordinate of the end cell
-     * @param y2 The second coordinate of the end cell
+     * @param x The absolute x coordinate.
+     * @param y The absolute y coordinate.
      */
-    private void drawLine(int x, int y, int x2, int y2) {
-
-        // checks offset before fitting board
-        int offsetX = gol.getOffsetX();
-        int offsetY = gol.getOffsetY();
-
-        // fits board to (x, y)
-        fitTo(x, y);
+    private void drawWorldCell(int x, int y) {
+        gc.fillRect(x * cell.getSize() - cView.boardOffsetX, y * cell.getSize() - cView.boardOffsetY,
+                cell.getSize() - cell.getSpacingInPixels(), cell.getSize() - cell.getSpacingInPixels());
+    }
 
-        // gets the amunt the board has moved
-        offsetX -= gol.getOffsetX();
-        offsetY -= gol.getOffsetY();
+    /**
+     * creates a line of alive cells from cell (x,y) to cell (x2, y2)
+     *
+     * @param x  THe first absolute coordinate of the first cell
+     * @param y  The second absolute coordinate of the first cell
+     * @param x2 The first absolute coordinate of the end cell
+     * @param y2 The second absolute coordinate of the end cell
+     */
+    private void drawLine(int x, int y, int x2, int y2) {
 
-        // moves coordinates the same amount
-        x -= offsetX;
-        x2 -= offsetX;
-        y -= offsetY;
-        y2 -= offsetY;
+        edit(BoardEdit.drawLine(x, y, x2, y2));
 
         // horizontal and vertical dimensions of line
         int width = x2 - x;
@@ -901,32 +921,79 @@ public class CanvasController {
         // stores the longest dimension, number of cells to draw
         int lineLength = Math.abs((Math.abs(width) < Math.abs(height)) ? height : width);
 
-        // stores the current point to draw and set alive
-        int x1, y1;
+        // draws the line right away, the board shows it after the next generation
         for (int i = 0; i < lineLength; i++) {
-
-            // calculates each cell position
-            gol.setCellAlive(x1 = x + i * width / lineLength, y1 = y + i * height / lineLength);
-            drawCell(x1, y1);
+            drawWorldCell(x + i * width / lineLength, y + i * height / lineLength);
         }
     }
 
+    /**
+     * Queues an edit on the board. It is applied right away if no generation is running,
+     * otherwise as soon as the simulation thread is between two generations.
+     *
+     * @param edit The edit to apply
+     */
+    private void edit(BoardEdit edit) {
+
+        scheduler.queueEdit(edit);
+
+        // only this thread starts the simulation, so it can't start while the edit is applied
+        if (scheduler.isIdle())
+            gol.applyEdits();
+    }
+
     private void waitForThread(){
-        try {
-            thread.join();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        scheduler.join();
     }
 
     //region Animation control
 
+    /**
+     * Rewinds the paused simulation one generation, if the generation is still in the history
+     */
+    private void stepBackward() {
+
+        if (running)
+            return;
+
+        //lets nextGeneration() finish
+        waitForThread();
+
+        // only the first generation of each step is recorded
+        PackedBoard board = history.materialize(history.getGenerationBefore(gol.getGeneration()));
+        if (board == null)
+            return;
+
+        gol.setBoard(board);
+        giveCellCount();
+        renderCanvas();
+    }
+
+    /**
+     * Evolves the paused simulation one generation
+     */
+    private void stepForward() {
+
+        if (running)
+            return;
+
+        //lets nextGeneration() finish, and records the edits made since
+        waitForThread();
+        gol.applyEdits();
+
+        history.record(gol.getFrame());
+        gol.nextGeneration();
+        giveCellCount();
+        renderCanvas();
+    }
+
     /**
      * Start animation
      */
     void startAnimation() {
 
         animationTimer.start();
+        scheduler.start();
         running = true;
     }
 
@@ -936,11 +1003,11 @@ public class CanvasController {
     void stopAnimation() {
 
         animationTimer.stop();
+        scheduler.stop();
+        running = false;
 
-        // lets next generation finish, then draws it on the canvas
-        waitForThread();
+        // draws the latest complete generation, the one being calculated is drawn when it is done
         renderCanvas();
-        running = false;
     }
     //endregion
 
@@ -989,8 +1056,9 @@ public class CanvasController {
      * Sets the pattern that is imported from a file
      *
      * @param clipBoardPattern the pattern that is imported from a file
+     * @param importedRule the rule of the file, or null if it has none
      */
-    void setClipBoardPattern(boolean[][] clipBoardPattern) {
+    void setClipBoardPattern(SparsePattern clipBoardPattern, String importedRule) {
 
         this.clipBoardPattern = clipBoardPattern;
 
@@ -998,8 +1066,6 @@ public class CanvasController {
         if (clipBoardPattern != null) {
             importing = true;
 
-            String importedRule = PatternParser.getLastImportedRule();
-
             if (importedRule != null) {
                 try {
 
@@ -1058,6 +1124,32 @@ public class CanvasController {
             this.frameDelay = 0;
         else
             this.frameDelay = frameDelay;
+
+        updateTargetRate();
+    }
+
+    /**
+     * Sets the number of generations evolved for each frame
+     * @param stepSize Generations per frame, rounded down to a power of two
+     */
+    void setStepSize(int stepSize) {
+
+        scheduler.setStepSize(Integer.highestOneBit(Math.max(stepSize, 1)));
+        updateTargetRate();
+    }
+
+    /**
+     * Gives the scheduler the number of generations per second matching the frame delay and step size
+     */
+    private void updateTargetRate() {
+
+        if (scheduler == null)
+            return;
+
+        if (maxSpeed)
+            scheduler.setTargetRate(0);
+        else
+            scheduler.setTargetRate(scheduler.getStepSize() * 1000.0 / Math.max(frameDelay, 1000 / DISPLAY_RATE));
     }
 
     /**
@@ -1075,7 +1167,7 @@ public class CanvasController {
      */
     private void giveCellCount() {
 
-        masterController.getToolController().giveCellCount(gol.getCellCount());
+        masterController.getToolController().giveCellCount(gol.getFrame().getCellCount());
     }
 
     public void setInteraction(boolean interaction) {
@@ -1260,29 +1352,8 @@ public class CanvasController {
             return;
         }
 
-        // gets the min and max x and y values inside the marked area
-        int [] minMaxValues = getMinMaxValues();
-
-        // creates a new grid with the same dimensions as the selected area
-        boolean[][] clipboard = new boolean[1 + minMaxValues[2] - minMaxValues[0]][1 + minMaxValues[3] - minMaxValues[1]];
-
-        // current X and Current Y in clipboard
-        int cX = 0, cY = 0;
-
-        // runs through every cell inside the selected area
-        for (int x = minMaxValues[0]; x <=  minMaxValues[2]; x++) {
-            for (int y = minMaxValues[1]; y <= minMaxValues[3]; y++) {
-                    if (gol.isCellAlive(x, y)){
-                        clipboard[cX][cY] = true;
-                    }
-
-                cY++;
-            }
-            cX++;
-            cY = 0;
-        }
-
-        clipBoardPattern = clipboard;
+        // copies from the latest complete generation
+        clipBoardPattern = getMarkedPattern(gol.getFrame());
 
         // updates canvas if framerate is low
         renderCanvasIfLowFPS();
@@ -1296,38 +1367,14 @@ public class CanvasController {
         if (markup == null){
             return;
         }
-        //lets nextGeneration finish
-        waitForThread();
-        // gets the min and max x and y values inside the marked area
-        int [] minMaxValues = getMinMaxValues();
-
-        // creates a new grid with the same dimensions as the selected area
-        boolean[][] clipboard = new boolean[1 + minMaxValues[2] - minMaxValues[0]][1 + minMaxValues[3] - minMaxValues[1]];
 
-        // current X and Current Y in clipboard
-        int cX = 0, cY = 0;
+        clipBoardPattern = getMarkedPattern(gol.getFrame());
 
-        // runs through every cell inside the selected area
-        for (int x = minMaxValues[0]; x <=  minMaxValues[2]; x++) {
-            for (int y = minMaxValues[1]; y <= minMaxValues[3]; y++) {
-                    if (gol.isCellAlive(x, y)){
-                        clipboard[cX][cY] = true;
-                    }
-                    try {
-                        gol.setCellDead(x, y);
-                    }
-                    catch (IndexOutOfBoundsException ignored){
-                        // the cell is dead
-                    }
-
-                cY++;
-            }
-            cX++;
-            cY = 0;
-        }
+        // gets the absolute min and max x and y values inside the marked area
+        int [] area = getMarkedWorldArea();
+        edit(BoardEdit.clearRegion(area[0], area[1], area[2], area[3]));
 
         // updates canvas if framerate is low
-        clipBoardPattern = clipboard;
         renderCanvasIfLowFPS();
 
         removeMarkedArea();
@@ -1335,6 +1382,41 @@ public class CanvasController {
         renderCanvasIfLowFPS();
     }
 
+    /**
+     * Copies the cells inside the selected area of a frame
+     * @param frame The frame to copy from
+     * @return The pattern inside the selected area
+     */
+    private SparsePattern getMarkedPattern(PackedBoard frame) {
+
+        // gets the absolute min and max x and y values inside the marked area
+        int [] area = getMarkedWorldArea();
+
+        // creates a new grid with the same dimensions as the selected area
+        boolean[][] clipboard = new boolean[1 + area[2] - area[0]][1 + area[3] - area[1]];
+
+        // runs through every cell inside the selected area
+        for (int x = area[0]; x <= area[2]; x++) {
+            for (int y = area[1]; y <= area[3]; y++) {
+                clipboard[x - area[0]][y - area[1]] = frame.isCellAlive(x + frame.getOffsetX(), y + frame.getOffsetY());
+            }
+        }
+        return SparsePattern.of(clipboard);
+    }
+
+    /**
+     * Calculates the absolute minimum and maximum x and y values inside the selected area
+     * @return Min x, min y, max x and max y
+     */
+    private int[] getMarkedWorldArea() {
+        return new int[] {
+                (int) Math.floor(Math.min(markup[0], markup[2])),
+                (int) Math.floor(Math.min(markup[1], markup[3])),
+                (int) Math.floor(Math.max(markup[0], markup[2])),
+                (int) Math.floor(Math.max(markup[1], markup[3]))
+        };
+    }
+
     /**
      * Calculates the minimum and maximum x and y values inside the selected area
      * @return An array where the first 2 values is min and max x, and the last 2 is min and max y
@@ -1359,5 +1441,15 @@ public class CanvasController {
         return gol;
     }
 
+    /**
+     * Takes a copy-on-write snapshot of the board, for tools that evolve or change a copy of the board.
+     * While the simulation runs, the snapshot is taken by the simulation thread between two generations.
+     * Must be called on the JavaFX thread.
+     * @return A snapshot with the cells, offset, generation and rule of the board
+     */
+    public GameOfLife snapshotGol() {
+        return scheduler.snapshot();
+    }
+
     //endregion
 }
\ No newline at end of file
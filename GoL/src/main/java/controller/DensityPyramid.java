@@ -0,0 +1,167 @@
+package controller;
+
+import model.Cell;
+import model.PackedBoard;
+
+/**
+ * The number of live cells in every block of a frame, for blocks of 2x2, 4x4 and 8x8 cells.
+ * Used to draw the board when it is zoomed out so far that every pixel shows several cells:
+ * the pixel is shaded by the share of live cells in its block, found without visiting the cells.
+ *
+ * The counts are kept between frames. When the next frame has the same size and offset, only the
+ * words that changed are counted again, and the difference is added to the blocks above them.
+ */
+public class DensityPyramid {
+
+    /**
+     * Level of the largest blocks, 2^MAX_LEVEL cells wide. A pixel never covers more cells than
+     * that at the smallest cell size.
+     */
+    public static final int MAX_LEVEL = (int) Math.floor(Math.log(1 / Cell.MIN_SIZE) / Math.log(2));
+
+    // counts of every level, row by row, index 0 is unused as level 0 is the frame itself
+    private final byte[][] counts = new byte[MAX_LEVEL + 1][];
+    private final int[] widths = new int[MAX_LEVEL + 1];
+    private final int[] heights = new int[MAX_LEVEL + 1];
+
+    private PackedBoard frame;
+
+    /**
+     * Brings the counts up to date with a frame
+     *
+     * @param next The frame
+     */
+    public void update(PackedBoard next) {
+
+        if (next == frame)
+            return;
+
+        if (frame != null && next.hasSameGeometry(frame))
+            updateChanges(next);
+        else
+            build(next);
+
+        frame = next;
+    }
+
+    /**
+     * Gets the number of live cells in a block
+     *
+     * @param level Level of the block, from 1 to MAX_LEVEL, the block is 2^level cells wide
+     * @param x Column of the block
+     * @param y Row of the block
+     * @return The number of live cells, or 0 if the block is outside the frame
+     */
+    public int getCount(int level, int x, int y) {
+
+        if (x < 0 || y < 0 || x >= widths[level] || y >= heights[level])
+            return 0;
+
+        return counts[level][y * widths[level] + x] & 0xFF;
+    }
+
+    /**
+     * Gets the counts of a level, row by row, widths(level) blocks to a row. Read only.
+     */
+    byte[] getCounts(int level) {
+        return counts[level];
+    }
+
+    int getWidth(int level) {
+        return widths[level];
+    }
+
+    /**
+     * Counts all the blocks of a frame
+     */
+    private void build(PackedBoard next) {
+
+        for (int level = 1; level <= MAX_LEVEL; level++) {
+            widths[level] = (next.getWordsPerRow() * 64) >>> level;
+            heights[level] = (next.getHeight() + (1 << level) - 1) >>> level;
+            counts[level] = new byte[widths[level] * heights[level]];
+        }
+
+        // 2x2 blocks from the words, two rows at a time
+        for (int y = 0; y < next.getHeight(); y++) {
+            for (int i = 0; i < next.getWordsPerRow(); i++) {
+
+                long pairs = countPairs(next.getWord(y, i));
+                if (pairs == 0)
+                    continue;
+
+                int start = (y >>> 1) * widths[1] + i * 32;
+                for (int k = 0; k < 32; k++) {
+                    counts[1][start + k] += (int) (pairs >>> (2 * k)) & 3;
+                }
+            }
+        }
+
+        // every block is the sum of the four blocks below it
+        for (int level = 2; level <= MAX_LEVEL; level++) {
+
+            byte[] below = counts[level - 1];
+            int belowWidth = widths[level - 1];
+            int belowHeight = heights[level - 1];
+
+            for (int y = 0; y < heights[level]; y++) {
+                for (int x = 0; x < widths[level]; x++) {
+
+                    int top = 2 * y * belowWidth + 2 * x;
+                    int sum = (below[top] & 0xFF) + (below[top + 1] & 0xFF);
+                    if (2 * y + 1 < belowHeight)
+                        sum += (below[top + belowWidth] & 0xFF) + (below[top + belowWidth + 1] & 0xFF);
+
+                    counts[level][y * widths[level] + x] = (byte) sum;
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the words that changed since the last frame again, and adds the difference to every level
+     */
+    private void updateChanges(PackedBoard next) {
+
+        for (int y = 0; y < next.getHeight(); y++) {
+            for (int i = 0; i < next.getWordsPerRow(); i++) {
+
+                long before = frame.getWord(y, i);
+                long after = next.getWord(y, i);
+                if (before == after)
+                    continue;
+
+                long pairsBefore = countPairs(before);
+                long pairsAfter = countPairs(after);
+                long changedPairs = before ^ after;
+
+                for (int k = 0; k < 32; k++) {
+
+                    if (((changedPairs >>> (2 * k)) & 3) == 0)
+                        continue;
+
+                    int difference = (int) ((pairsAfter >>> (2 * k)) & 3) - (int) ((pairsBefore >>> (2 * k)) & 3);
+                    if (difference == 0)
+                        continue;
+
+                    int x = i * 32 + k;
+                    int row = y >>> 1;
+                    for (int level = 1; level <= MAX_LEVEL; level++) {
+                        counts[level][row * widths[level] + x] += difference;
+                        x >>>= 1;
+                        row >>>= 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the live cells of every pair of neighbouring cells in a word
+     *
+     * @return The count of pair k in bits 2k and 2k + 1
+     */
+    private static long countPairs(long word) {
+        return word - ((word >>> 1) & 0x5555555555555555L);
+    }
+}
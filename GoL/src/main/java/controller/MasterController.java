@@ -4,13 +4,22 @@ import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.ChoiceDialog;
 import javafx.scene.control.TextInputDialog;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import model.Checkpoint;
+import model.Checkpointer;
 import model.Configuration;
+import model.Parser.Life06Reader;
+import model.Parser.ParsedPattern;
+import model.Parser.PatternEntry;
+import model.Parser.PatternLibrary;
 import model.Parser.PatternParser;
 import model.PatternFormatException;
+import model.SnapshotFile;
+import model.SparsePattern;
 import s305061.gif.GifController;
 import s305061.statistics.StatController;
 import s305080.Statistics.Stats;
@@ -19,6 +28,8 @@ import tools.MessageBox;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -32,6 +43,10 @@ public class MasterController {
 
     private FileChooser patternChooser = new FileChooser();
 
+    // cache file for the index of the pattern library
+    private static final String PATTERN_INDEX_FILE = "pattern-index.dat";
+    private PatternLibrary patternLibrary;
+
     @FXML private CanvasController canvasController;
     @FXML private MenuController menuController;
     @FXML private ToolController toolController;
@@ -78,11 +93,14 @@ public class MasterController {
 
         // set title for pattern chooser and configure allowed extensions
         patternChooser.setTitle("Choose pattern file");
-        patternChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("GoL pattern files", "*.rle", "*.lif", "*.life", "*.cells"));
+        patternChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("GoL pattern files", "*.rle", "*.lif", "*.life", "*.cells", "*.mc"));
+        patternChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("GoL snapshots", "*" + SnapshotFile.EXTENSION));
 
         String patternDir = "../GoL/Patterns";
         patternChooser.setInitialDirectory(new File(patternDir));
 
+        indexPatternLibrary(patternDir);
+
         // bind canvas to scene size
         bindCanvas();
     }
@@ -117,7 +135,7 @@ public class MasterController {
             statStage.setScene(new Scene(root));
 
 
-            statController.setGol(canvasController.getGol());
+            statController.setGol(canvasController::snapshotGol);
             statStage.setTitle("Statistics");
 
             statStage.show();
@@ -143,7 +161,7 @@ public class MasterController {
             Stage gifStage = new Stage();
             gifStage.setScene(new Scene(root));
 
-            gifController.initialize(gifStage, canvasController.getGol());
+            gifController.initialize(gifStage, canvasController.snapshotGol());
             gifStage.setTitle("Create GIF");
 
             gifStage.show();
@@ -176,7 +194,7 @@ public class MasterController {
 
             try {
                 // set pattern to canvas
-                canvasController.setClipBoardPattern(PatternParser.read(file));
+                importPattern(file);
             }
             catch (PatternFormatException e) {
                 MessageBox.alert(e.getMessage());
@@ -186,6 +204,30 @@ public class MasterController {
         }
     }
 
+    /**
+     * Reads a pattern file and gives it to the canvas to be placed.
+     * Life 1.06 files are read straight into a sparse pattern, and snapshots replace the board.
+     *
+     * @param file The pattern file
+     * @throws IOException if the file could not be read or is not a valid pattern
+     */
+    private void importPattern(File file) throws IOException {
+
+        // a snapshot replaces the whole board, it is not placed like a pattern
+        if (file.getName().endsWith(SnapshotFile.EXTENSION)) {
+            canvasController.restoreSnapshot(SnapshotFile.read(file));
+            return;
+        }
+
+        if (Life06Reader.isLife06(file)) {
+            canvasController.setClipBoardPattern(Life06Reader.read(file), null);
+            return;
+        }
+
+        ParsedPattern pattern = PatternParser.parse(file);
+        canvasController.setClipBoardPattern(SparsePattern.of(pattern.getCells()), pattern.getRule());
+    }
+
     public CanvasController getCanvasController(){
         return canvasController;
     }
@@ -221,7 +263,7 @@ public class MasterController {
     }
     void showStats() {
         stats = new Stats();
-        stats.display(canvasController.getGol(), this);
+        stats.display(canvasController::snapshotGol, this);
         if(theStrip == null)
             stage.setOnCloseRequest(event -> closeStats());
         else{
@@ -268,7 +310,8 @@ public class MasterController {
 
         result.ifPresent(name -> {
             try {
-                canvasController.setClipBoardPattern(PatternParser.readUrl(result.get()));
+                ParsedPattern pattern = PatternParser.parseUrl(result.get());
+                canvasController.setClipBoardPattern(SparsePattern.of(pattern.getCells()), pattern.getRule());
             }
             catch (PatternFormatException e){
                 MessageBox.alert(e.getMessage());
@@ -280,6 +323,84 @@ public class MasterController {
         canvasController.setInteraction(false);
     }
 
+    /**
+     * Loads the cached index of the pattern library, and updates it in the background
+     *
+     * @param patternDir The folder with the pattern files
+     */
+    private void indexPatternLibrary(String patternDir) {
+
+        patternLibrary = new PatternLibrary(Paths.get(patternDir), Paths.get(PATTERN_INDEX_FILE));
+        patternLibrary.load();
+
+        Thread indexer = new Thread(() -> {
+            try {
+                patternLibrary.update();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, "pattern library");
+        indexer.setDaemon(true);
+        indexer.start();
+    }
+
+    /**
+     * Replaces the board with the latest valid checkpoint, if there is one
+     */
+    void resumeCheckpoint() {
+
+        try {
+            Checkpoint checkpoint = Checkpointer.loadLatest(canvasController.getCheckpointDirectory());
+            if (checkpoint == null) {
+                MessageBox.alert("No checkpoint to resume from");
+                return;
+            }
+            canvasController.restoreSnapshot(checkpoint.getSnapshot());
+        } catch (IOException e) {
+            MessageBox.alert("Could not read checkpoints");
+        }
+    }
+
+    /**
+     * Opens prompt so user can search the pattern library, and imports the chosen pattern
+     */
+    void searchPatternLibrary() {
+        TextInputDialog searchDialog = new TextInputDialog();
+        searchDialog.setTitle("Pattern library");
+        searchDialog.setHeaderText(null);
+        searchDialog.setContentText("Search for name, folder or rule:");
+
+        canvasController.setInteraction(true);
+
+        Optional<String> result = searchDialog.showAndWait();
+
+        result.ifPresent(query -> {
+            List<PatternEntry> matches = patternLibrary.search(query);
+
+            if (matches.isEmpty()) {
+                MessageBox.alert("No patterns found");
+                return;
+            }
+
+            ChoiceDialog<PatternEntry> choiceDialog = new ChoiceDialog<>(matches.get(0), matches);
+            choiceDialog.setTitle("Pattern library");
+            choiceDialog.setHeaderText(matches.size() + " patterns found");
+            choiceDialog.setContentText("Choose pattern:");
+
+            choiceDialog.showAndWait().ifPresent(entry -> {
+                try {
+                    importPattern(patternLibrary.getFile(entry));
+                }
+                catch (PatternFormatException e){
+                    MessageBox.alert(e.getMessage());
+                }
+                catch (IOException e) {
+                    MessageBox.alert("Could not read file");
+                }
+            });
+        });
+        canvasController.setInteraction(false);
+    }
 
     //endregion
 }
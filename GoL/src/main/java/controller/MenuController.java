@@ -203,7 +203,7 @@ public class MenuController {
         EditorController editorController = loader.getController();
 
         // deep copy and assign to new reference variable
-        editorController.getDeepCopyGol(masterController.getCanvasController().getGol());
+        editorController.getDeepCopyGol(masterController.getCanvasController().snapshotGol());
 
         editorController.initialize(masterController);
 
@@ -281,6 +281,14 @@ public class MenuController {
         masterController.importFromUrl();
     }
 
+    public void openPatternLibrary() {
+        masterController.searchPatternLibrary();
+    }
+
+    public void resumeCheckpoint() {
+        masterController.resumeCheckpoint();
+    }
+
     public void changeToStaticBoard() {
         if (!staticButton.isSelected()){
             staticButton.setSelected(true);
@@ -308,6 +316,10 @@ public class MenuController {
                 "control speed with vertical scroll or slider\n" +
                 "Pause game with right-click or pause button.\n" +
                 "\n" +
+                "Step back and forward with the arrow keys while paused\n" +
+                "Double or halve the generations per frame with 'page up' and 'page down'\n" +
+                "Toggle maximum speed with 'm'\n" +
+                "\n" +
                 "Rotate import-pattern with 'z' and 'x'\n" +
                 "\n" +
                 "Last imported pattern is in clipboard, insert with 'ctrl + V'");
@@ -0,0 +1,580 @@
+package controller;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import model.PackedBoard;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Draws the cells of a frame into an ARGB pixel array, which is shown on the canvas as one image.
+ *
+ * The canvas would otherwise get one fillRect call for every live cell in view, which is millions
+ * of calls for a dense board at low zoom. Here every pixel is found straight from the packed words
+ * of the frame instead, and bands of rows are drawn in parallel. The array is shared with a
+ * PixelBuffer, so the image is not copied before it is drawn.
+ *
+ * When a pixel covers two or more cells, it is shaded by the share of live cells in the block
+ * of the DensityPyramid that is as wide as the pixel, so the time spent only depends on the
+ * number of pixels, however many cells are in view.
+ *
+ * The pixels are kept between frames. While the view stays the same, only the pixels of the
+ * cells that changed since the frame shown are drawn again: every band of rows gets the span
+ * of columns its changed cells cover, and bands without changes are left alone. A new cell
+ * size, offset, colour or board size draws everything.
+ */
+public class PixelRenderer {
+
+    /**
+     * Grid colour for drawing without grid lines
+     */
+    public static final int NO_GRID = 0;
+
+    // rows drawn by one task
+    private static final int BAND_HEIGHT = 16;
+
+    private int width;
+    private int height;
+    private int[] pixels = new int[0];
+
+    private PixelBuffer<IntBuffer> pixelBuffer;
+    private WritableImage image;
+
+    // live cells per block, for drawing when zoomed out
+    private final DensityPyramid pyramid;
+
+    // the frame and view the pixels show, null if the frame was let go or the pixels must all be drawn
+    private PackedBoard shownFrame;
+
+    // number of the frame the pixels show, kept when the frame is let go, 0 if the pixels must all be drawn
+    private long shownFrameId;
+    private double shownCellSize;
+    private double shownSpacing;
+    private double shownOffsetX;
+    private double shownOffsetY;
+    private int shownLiveColor;
+    private int shownDeadColor;
+    private int shownGridColor;
+
+    /**
+     * PixelRenderer constructor.
+     */
+    public PixelRenderer() {
+        this(new DensityPyramid());
+    }
+
+    /**
+     * PixelRenderer constructor.
+     *
+     * @param pyramid Counts of the live cells of the frames drawn, may be shared by renderers
+     *                that draw the same frames on the same thread
+     */
+    public PixelRenderer(DensityPyramid pyramid) {
+        this.pyramid = pyramid;
+    }
+
+    /**
+     * Sets the size of the image. The image is only made again if the size changed.
+     *
+     * @param width Width in pixels
+     * @param height Height in pixels
+     */
+    public void resize(int width, int height) {
+
+        width = Math.max(width, 1);
+        height = Math.max(height, 1);
+
+        if (width == this.width && height == this.height)
+            return;
+
+        this.width = width;
+        this.height = height;
+        pixels = new int[width * height];
+        pixelBuffer = null;
+        image = null;
+        shownFrame = null;
+        shownFrameId = 0;
+    }
+
+    /**
+     * Lets go of the frame the pixels show, so it can be freed. The pixels are kept, and only
+     * the number of the frame is remembered: the next render draws nothing if it is the same
+     * frame with the same view, and everything otherwise.
+     */
+    public void forgetFrame() {
+        shownFrame = null;
+    }
+
+    /**
+     * Draws a frame and shows it on the canvas. Must be called on the JavaFX thread.
+     *
+     * @param gc The graphics context of the canvas
+     * @param x Where the left of the image goes on the canvas
+     * @param y Where the top of the image goes on the canvas
+     * @param frame The frame to draw
+     * @param cellSize Size of a cell in pixels
+     * @param spacing Space between cells in pixels
+     * @param commonOffsetX Horizontal offset of the frame, as from CameraView.getCommonOffsetX()
+     * @param commonOffsetY Vertical offset of the frame, as from CameraView.getCommonOffsetY()
+     * @param liveColor Colour of the live cells
+     * @param deadColor Colour of the dead cells and the space between cells
+     * @param gridColor Colour of the grid lines, or null for none
+     */
+    public void draw(GraphicsContext gc, double x, double y, PackedBoard frame, double cellSize, double spacing,
+                     double commonOffsetX, double commonOffsetY, Color liveColor, Color deadColor, Color gridColor) {
+
+        if (pixelBuffer == null) {
+            pixelBuffer = new PixelBuffer<>(width, height, IntBuffer.wrap(pixels), PixelFormat.getIntArgbPreInstance());
+            image = new WritableImage(pixelBuffer);
+        }
+
+        int grid = (gridColor == null) ? NO_GRID : toArgb(gridColor);
+
+        // the pixels are changed inside the update, so the image is never shown half drawn,
+        // and only the part that was drawn is copied to the screen
+        pixelBuffer.updateBuffer(buffer -> {
+            int[] box = render(frame, cellSize, spacing, commonOffsetX, commonOffsetY,
+                    toArgb(liveColor), toArgb(deadColor), grid);
+            return (box == null) ? Rectangle2D.EMPTY : new Rectangle2D(box[0], box[1], box[2], box[3]);
+        });
+
+        gc.drawImage(image, x, y);
+    }
+
+    /**
+     * Draws a frame into the pixel array, without grid lines
+     *
+     * @see #render(PackedBoard, double, double, double, double, int, int, int)
+     */
+    public int[] render(PackedBoard frame, double cellSize, double spacing,
+                        double commonOffsetX, double commonOffsetY, int liveColor, int deadColor) {
+        return render(frame, cellSize, spacing, commonOffsetX, commonOffsetY, liveColor, deadColor, NO_GRID);
+    }
+
+    /**
+     * Draws a frame into the pixel array. Only the cells that changed are drawn if the pixels
+     * already show an earlier frame of the same board with the same view.
+     *
+     * @param frame The frame to draw
+     * @param cellSize Size of a cell in pixels
+     * @param spacing Space between cells in pixels
+     * @param commonOffsetX Horizontal offset of the frame, as from CameraView.getCommonOffsetX()
+     * @param commonOffsetY Vertical offset of the frame, as from CameraView.getCommonOffsetY()
+     * @param liveColor Colour of the live cells, as opaque ARGB
+     * @param deadColor Colour of the dead cells, as opaque ARGB
+     * @param gridColor Colour of the grid lines in the space between cells, as opaque ARGB, or
+     *                  NO_GRID. There are no grid lines when a pixel shows several cells.
+     * @return Left, top, width and height of the pixels drawn, or null if nothing changed
+     */
+    public int[] render(PackedBoard frame, double cellSize, double spacing, double commonOffsetX,
+                        double commonOffsetY, int liveColor, int deadColor, int gridColor) {
+
+        boolean sameSettings = cellSize == shownCellSize && spacing == shownSpacing
+                && commonOffsetX == shownOffsetX && commonOffsetY == shownOffsetY
+                && liveColor == shownLiveColor && deadColor == shownDeadColor && gridColor == shownGridColor;
+
+        // the pixels already show this frame, even if it was let go
+        if (sameSettings && frame.getId() == shownFrameId) {
+            shownFrame = frame;
+            return null;
+        }
+
+        int level = getLevel(cellSize);
+
+        // the spacing between cells is far smaller than a pixel when zoomed out, and is left out
+        double cellSpacing = (level > 0) ? 0 : spacing;
+        int[] columns = findCells(width, frame.getWidth(), cellSize, cellSpacing, commonOffsetX);
+        int[] rows = findCells(height, frame.getHeight(), cellSize, cellSpacing, commonOffsetY);
+
+        boolean sameView = sameSettings && shownFrame != null && frame.hasSameGeometry(shownFrame);
+
+        int[] changes = null;
+        if (sameView) {
+            changes = findChangedColumns(frame, shownFrame, rows, columns, level);
+            shownFrame = frame;
+            shownFrameId = frame.getId();
+            if (changes == null)
+                return null;
+        }
+
+        int[] spans = findSpans(changes, rows, level, cellSize, commonOffsetX);
+        if (level > 0) {
+            renderDensity(frame, level, rows, columns, spans, liveColor, deadColor);
+        }
+        else {
+            boolean[] gridRows = null, gridColumns = null;
+            if (gridColor != NO_GRID) {
+                gridRows = findGridLines(height, cellSize, spacing, commonOffsetY);
+                gridColumns = findGridLines(width, cellSize, spacing, commonOffsetX);
+            }
+            renderCells(frame, rows, columns, spans, gridRows, gridColumns, liveColor, deadColor, gridColor);
+        }
+
+        shownFrame = frame;
+        shownFrameId = frame.getId();
+        shownCellSize = cellSize;
+        shownSpacing = spacing;
+        shownOffsetX = commonOffsetX;
+        shownOffsetY = commonOffsetY;
+        shownLiveColor = liveColor;
+        shownDeadColor = deadColor;
+        shownGridColor = gridColor;
+
+        return findDrawnBox(spans);
+    }
+
+    /**
+     * Draws the cells of a frame one by one, in the columns of every band given by the spans
+     *
+     * @param gridRows Rows of pixels with a grid line, or null for no grid lines
+     * @param gridColumns Columns of pixels with a grid line, or null for no grid lines
+     */
+    private void renderCells(PackedBoard frame, int[] rows, int[] columns, int[] spans, boolean[] gridRows,
+                             boolean[] gridColumns, int liveColor, int deadColor, int gridColor) {
+
+        IntStream.range(0, spans.length / 2).parallel().forEach(band -> {
+
+            int left = spans[2 * band], right = spans[2 * band + 1];
+            if (left >= right)
+                return;
+
+            int bottom = Math.min(height, (band + 1) * BAND_HEIGHT);
+            for (int y = band * BAND_HEIGHT; y < bottom; y++) {
+                renderRow(frame, y, left, right, rows, columns, gridRows, gridColumns, liveColor, deadColor, gridColor);
+            }
+        });
+    }
+
+    /**
+     * Draws the columns from left to right of one row of pixels. A row showing the same cells as
+     * the row above is copied.
+     */
+    private void renderRow(PackedBoard frame, int y, int left, int right, int[] rows, int[] columns,
+                           boolean[] gridRows, boolean[] gridColumns, int liveColor, int deadColor, int gridColor) {
+
+        int start = y * width;
+        int row = rows[y];
+
+        if (gridRows != null && gridRows[y]) {
+            Arrays.fill(pixels, start + left, start + right, gridColor);
+            return;
+        }
+
+        // the row above is in the same band, so it is already drawn
+        boolean aboveIsGrid = gridRows != null && y > 0 && gridRows[y - 1];
+        if (y % BAND_HEIGHT != 0 && rows[y - 1] == row && !aboveIsGrid) {
+            System.arraycopy(pixels, start - width + left, pixels, start + left, right - left);
+            return;
+        }
+
+        int wordIndex = -1;
+        long word = 0;
+
+        for (int x = left; x < right; x++) {
+
+            if (gridColumns != null && gridColumns[x]) {
+                pixels[start + x] = gridColor;
+                continue;
+            }
+
+            int column = columns[x];
+            if (row < 0 || column < 0) {
+                pixels[start + x] = deadColor;
+                continue;
+            }
+
+            // the columns only go right, so the word is only read again when the next word starts
+            if (column >>> 6 != wordIndex) {
+                wordIndex = column >>> 6;
+                word = frame.getWord(row, wordIndex);
+            }
+            pixels[start + x] = ((word & (1L << column)) != 0) ? liveColor : deadColor;
+        }
+    }
+
+    /**
+     * Draws a frame zoomed out, shading every pixel by the share of live cells in its block
+     */
+    private void renderDensity(PackedBoard frame, int level, int[] rows, int[] columns, int[] spans,
+                               int liveColor, int deadColor) {
+
+        pyramid.update(frame);
+
+        // the colour of every possible number of live cells in a block
+        int blockCells = 1 << (2 * level);
+        int[] shades = new int[blockCells + 1];
+        for (int count = 0; count <= blockCells; count++) {
+            shades[count] = blend(deadColor, liveColor, (double) count / blockCells);
+        }
+
+        // the cells are turned into blocks, the frame is never wider than its blocks
+        byte[] counts = pyramid.getCounts(level);
+        int blocksPerRow = pyramid.getWidth(level);
+        int[] blockColumns = new int[width];
+        for (int x = 0; x < width; x++) {
+            blockColumns[x] = (columns[x] < 0) ? -1 : columns[x] >> level;
+        }
+
+        IntStream.range(0, spans.length / 2).parallel().forEach(band -> {
+
+            int left = spans[2 * band], right = spans[2 * band + 1];
+            if (left >= right)
+                return;
+
+            int bottom = Math.min(height, (band + 1) * BAND_HEIGHT);
+            for (int y = band * BAND_HEIGHT; y < bottom; y++) {
+
+                int start = y * width;
+                if (rows[y] < 0) {
+                    Arrays.fill(pixels, start + left, start + right, deadColor);
+                    continue;
+                }
+
+                int rowStart = (rows[y] >> level) * blocksPerRow;
+                for (int x = left; x < right; x++) {
+                    int column = blockColumns[x];
+                    pixels[start + x] = (column < 0) ? deadColor : shades[counts[rowStart + column] & 0xFF];
+                }
+            }
+        });
+    }
+
+    /**
+     * Finds the cells in view that changed in every row since an earlier frame of the same
+     * geometry. Only the words of the rows and columns in view are compared.
+     *
+     * @param rows The row of cells shown by every row of pixels
+     * @param columns The column of cells shown by every column of pixels
+     * @param level Level of the blocks shown by every pixel, the whole blocks in view are compared
+     * @return The first and last changed column of row y at 2y and 2y + 1, or -1 in both for rows
+     *         without changes. Null if no cells in view changed.
+     */
+    private static int[] findChangedColumns(PackedBoard frame, PackedBoard previous, int[] rows, int[] columns, int level) {
+
+        int[] rowRange = findRange(rows, level, frame.getHeight());
+        int[] columnRange = findRange(columns, level, frame.getWidth());
+        if (rowRange == null || columnRange == null)
+            return null;
+
+        int[] changes = new int[2 * frame.getHeight()];
+        Arrays.fill(changes, -1);
+        boolean changed = false;
+
+        for (int y = rowRange[0]; y <= rowRange[1]; y++) {
+            for (int i = columnRange[0] >>> 6; i <= columnRange[1] >>> 6; i++) {
+
+                long word = frame.getWord(y, i) ^ previous.getWord(y, i);
+                if (word == 0)
+                    continue;
+
+                if (changes[2 * y] < 0)
+                    changes[2 * y] = i * 64 + Long.numberOfTrailingZeros(word);
+                changes[2 * y + 1] = i * 64 + 63 - Long.numberOfLeadingZeros(word);
+                changed = true;
+            }
+        }
+        return changed ? changes : null;
+    }
+
+    /**
+     * Finds the first and last cell shown along one axis, widened to whole blocks of a level
+     *
+     * @return The first and last cell, or null if no cells are shown
+     */
+    private static int[] findRange(int[] cells, int level, int cellCount) {
+
+        int first = Integer.MAX_VALUE, last = -1;
+        for (int cell : cells) {
+            if (cell >= 0) {
+                first = Math.min(first, cell);
+                last = Math.max(last, cell);
+            }
+        }
+
+        if (last < 0)
+            return null;
+
+        return new int[]{(first >> level) << level, Math.min(cellCount - 1, (((last >> level) + 1) << level) - 1)};
+    }
+
+    /**
+     * Finds the columns of pixels to draw in every band of rows
+     *
+     * @param changes Changed columns of every row, or null to draw everything
+     * @param rows The row of cells shown by every row of pixels
+     * @param level Level of the blocks shown by every pixel, or 0 for cells
+     * @return The first column and the column after the last of band b at 2b and 2b + 1
+     */
+    private int[] findSpans(int[] changes, int[] rows, int level, double cellSize, double commonOffsetX) {
+
+        int bands = (height + BAND_HEIGHT - 1) / BAND_HEIGHT;
+        int[] spans = new int[2 * bands];
+
+        for (int band = 0; band < bands; band++) {
+
+            if (changes == null) {
+                spans[2 * band + 1] = width;
+                continue;
+            }
+
+            // the changed cells shown in the band, every cell of a changed block is drawn again
+            int first = Integer.MAX_VALUE, last = -1;
+            int bottom = Math.min(height, (band + 1) * BAND_HEIGHT);
+            for (int y = band * BAND_HEIGHT; y < bottom; y++) {
+
+                if (rows[y] < 0 || (y % BAND_HEIGHT != 0 && rows[y - 1] == rows[y]))
+                    continue;
+
+                int blockTop = (rows[y] >> level) << level;
+                int blockBottom = Math.min(blockTop + (1 << level), changes.length / 2);
+                for (int row = blockTop; row < blockBottom; row++) {
+                    if (changes[2 * row] >= 0) {
+                        first = Math.min(first, (changes[2 * row] >> level) << level);
+                        last = Math.max(last, (((changes[2 * row + 1] >> level) + 1) << level) - 1);
+                    }
+                }
+            }
+
+            if (last < 0)
+                continue;
+
+            spans[2 * band] = Math.max(0, (int) Math.floor(first * cellSize - commonOffsetX));
+            spans[2 * band + 1] = Math.min(width, (int) Math.ceil((last + 1) * cellSize - commonOffsetX));
+        }
+        return spans;
+    }
+
+    /**
+     * Finds the smallest box holding the pixels drawn
+     *
+     * @param spans The columns drawn in every band, as from findSpans()
+     * @return Left, top, width and height, or null if no pixels were drawn
+     */
+    private int[] findDrawnBox(int[] spans) {
+
+        int left = width, right = 0, top = -1, bottom = 0;
+        for (int band = 0; band < spans.length / 2; band++) {
+
+            if (spans[2 * band] >= spans[2 * band + 1])
+                continue;
+
+            left = Math.min(left, spans[2 * band]);
+            right = Math.max(right, spans[2 * band + 1]);
+            if (top < 0)
+                top = band * BAND_HEIGHT;
+            bottom = Math.min(height, (band + 1) * BAND_HEIGHT);
+        }
+        return (top < 0) ? null : new int[]{left, top, right - left, bottom - top};
+    }
+
+    /**
+     * Finds the level of the density pyramid to draw with
+     *
+     * @param cellSize Size of a cell in pixels
+     * @return The level with blocks at most as wide as a pixel, or 0 to draw the cells themselves
+     */
+    static int getLevel(double cellSize) {
+
+        if (cellSize >= 0.5)
+            return 0;
+
+        int level = (int) Math.floor(Math.log(1 / cellSize) / Math.log(2));
+        return Math.min(level, DensityPyramid.MAX_LEVEL);
+    }
+
+    /**
+     * Mixes two opaque ARGB colours
+     *
+     * @param from Colour at 0
+     * @param to Colour at 1
+     * @param share How far to go from the first colour to the second
+     * @return The mixed colour
+     */
+    private static int blend(int from, int to, double share) {
+
+        int color = 0xFF000000;
+        for (int shift = 0; shift < 24; shift += 8) {
+            int a = (from >>> shift) & 0xFF;
+            int b = (to >>> shift) & 0xFF;
+            color |= (int) Math.round(a + (b - a) * share) << shift;
+        }
+        return color;
+    }
+
+    /**
+     * Finds the cell shown by every pixel along one axis
+     *
+     * @param pixelCount Number of pixels along the axis
+     * @param cellCount Number of cells on the board along the axis
+     * @param cellSize Size of a cell in pixels
+     * @param spacing Space between cells in pixels
+     * @param offset Offset of the frame along the axis
+     * @return The cell of every pixel, or -1 for pixels outside the board or between cells
+     */
+    static int[] findCells(int pixelCount, int cellCount, double cellSize, double spacing, double offset) {
+
+        int[] cells = new int[pixelCount];
+        for (int i = 0; i < pixelCount; i++) {
+
+            double position = i + offset;
+            int cell = (int) Math.floor(position / cellSize);
+
+            boolean between = position - cell * cellSize >= cellSize - spacing;
+            cells[i] = (cell < 0 || cell >= cellCount || between) ? -1 : cell;
+        }
+        return cells;
+    }
+
+    /**
+     * Finds the pixels along one axis with a grid line, which runs through the middle of the
+     * space between two cells. The lines go on outside the board.
+     *
+     * @param pixelCount Number of pixels along the axis
+     * @param cellSize Size of a cell in pixels
+     * @param spacing Space between cells in pixels
+     * @param offset Offset of the frame along the axis
+     * @return Whether every pixel has a grid line
+     */
+    static boolean[] findGridLines(int pixelCount, double cellSize, double spacing, double offset) {
+
+        boolean[] lines = new boolean[pixelCount];
+        for (int i = 0; i < pixelCount; i++) {
+
+            // the line is half the spacing before the start of the next cell
+            double position = i + offset + spacing / 2;
+            lines[i] = Math.ceil(position / cellSize) * cellSize < position + 1;
+        }
+        return lines;
+    }
+
+    /**
+     * Converts a colour to an opaque ARGB value
+     *
+     * @param color The colour
+     * @return The colour as 0xAARRGGBB, with full alpha
+     */
+    public static int toArgb(Color color) {
+        return 0xFF000000
+                | (int) Math.round(color.getRed() * 255) << 16
+                | (int) Math.round(color.getGreen() * 255) << 8
+                | (int) Math.round(color.getBlue() * 255);
+    }
+
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
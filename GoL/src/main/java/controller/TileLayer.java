@@ -0,0 +1,206 @@
+package controller;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import model.PackedBoard;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Draws the board as a grid of square tiles that are kept between frames, each an image of its
+ * own drawn by a PixelRenderer.
+ *
+ * The tiles are placed by the board offset of the camera, not by the offset of the frame, so a
+ * tile shows the same cells however the board grows. Moving the board only moves the tiles on
+ * the canvas: the tiles already drawn are shown again as they are, and only the tiles that come
+ * into view are drawn. A tile also remembers the frame it shows, and a new frame only draws the
+ * cells that changed inside it. Zooming makes a new set of tiles.
+ *
+ * Tiles out of view are kept in case they come back, up to a memory budget. The tiles used
+ * longest ago are dropped first, the tiles in view are never dropped. A tile out of view lets
+ * go of its frame and only remembers its number, so the budget only holds pixels. A tile that
+ * comes back is shown as it is if the frame is the same, and drawn in full if it is not.
+ */
+public class TileLayer {
+
+    /**
+     * Width and height of a tile in pixels
+     */
+    public static final int TILE_SIZE = 256;
+
+    private static final long TILE_BYTES = 4L * TILE_SIZE * TILE_SIZE;
+
+    // memory used by the tiles when no budget is given
+    private static final long DEFAULT_BUDGET = 64L << 20;
+
+    /**
+     * Where a tile is, and how it is zoomed
+     */
+    private static final class TileKey {
+
+        private final int column;
+        private final int row;
+        private final double cellSize;
+        private final double spacing;
+
+        // the part of the board offset below a pixel, which shifts the cells inside the tiles
+        private final double phaseX;
+        private final double phaseY;
+
+        TileKey(int column, int row, double cellSize, double spacing, double phaseX, double phaseY) {
+            this.column = column;
+            this.row = row;
+            this.cellSize = cellSize;
+            this.spacing = spacing;
+            this.phaseX = phaseX;
+            this.phaseY = phaseY;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o)
+                return true;
+            if (!(o instanceof TileKey))
+                return false;
+
+            TileKey other = (TileKey) o;
+            return column == other.column && row == other.row
+                    && Double.compare(cellSize, other.cellSize) == 0 && Double.compare(spacing, other.spacing) == 0
+                    && Double.compare(phaseX, other.phaseX) == 0 && Double.compare(phaseY, other.phaseY) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(column, row, cellSize, spacing, phaseX, phaseY);
+        }
+    }
+
+    private final long budget;
+
+    // shared by the tiles, so the counts are only brought up to date once for every frame
+    private final DensityPyramid pyramid = new DensityPyramid();
+
+    // the tiles in the order they were used, the one used longest ago first
+    private final LinkedHashMap<TileKey, PixelRenderer> tiles = new LinkedHashMap<>(64, 0.75f, true);
+
+    /**
+     * TileLayer constructor. Keeps up to 64 MB of tiles.
+     */
+    public TileLayer() {
+        this(DEFAULT_BUDGET);
+    }
+
+    /**
+     * TileLayer constructor.
+     *
+     * @param budget Number of bytes of tiles to keep. The tiles in view are kept even if they
+     *               need more.
+     */
+    public TileLayer(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Draws the tiles covering the canvas. Must be called on the JavaFX thread.
+     *
+     * @param gc The graphics context of the canvas
+     * @param canvasWidth Width of the canvas in pixels
+     * @param canvasHeight Height of the canvas in pixels
+     * @param frame The frame to draw
+     * @param cellSize Size of a cell in pixels
+     * @param spacing Space between cells in pixels
+     * @param boardOffsetX Horizontal offset of the board, as CameraView.boardOffsetX
+     * @param boardOffsetY Vertical offset of the board, as CameraView.boardOffsetY
+     * @param liveColor Colour of the live cells
+     * @param deadColor Colour of the dead cells and the space between cells
+     * @param gridColor Colour of the grid lines, or null for none
+     */
+    public void draw(GraphicsContext gc, int canvasWidth, int canvasHeight, PackedBoard frame,
+                     double cellSize, double spacing, double boardOffsetX, double boardOffsetY,
+                     Color liveColor, Color deadColor, Color gridColor) {
+
+        // the tiles are placed on whole pixels, the rest of the offset goes into the tiles
+        int baseX = (int) Math.floor(boardOffsetX);
+        int baseY = (int) Math.floor(boardOffsetY);
+        double phaseX = boardOffsetX - baseX;
+        double phaseY = boardOffsetY - baseY;
+
+        int firstColumn = Math.floorDiv(baseX, TILE_SIZE);
+        int lastColumn = Math.floorDiv(baseX + Math.max(canvasWidth, 1) - 1, TILE_SIZE);
+        int firstRow = Math.floorDiv(baseY, TILE_SIZE);
+        int lastRow = Math.floorDiv(baseY + Math.max(canvasHeight, 1) - 1, TILE_SIZE);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+
+                TileKey key = new TileKey(column, row, cellSize, spacing, phaseX, phaseY);
+                PixelRenderer tile = tiles.get(key);
+                if (tile == null) {
+                    tile = new PixelRenderer(pyramid);
+                    tile.resize(TILE_SIZE, TILE_SIZE);
+                    tiles.put(key, tile);
+                }
+
+                // the offset of the frame inside the tile, the same as CameraView.getCommonOffsetX()
+                // for a camera at the top left of the tile
+                double offsetX = column * TILE_SIZE + phaseX + frame.getOffsetX() * cellSize;
+                double offsetY = row * TILE_SIZE + phaseY + frame.getOffsetY() * cellSize;
+
+                tile.draw(gc, column * TILE_SIZE - baseX, row * TILE_SIZE - baseY, frame, cellSize, spacing,
+                        offsetX, offsetY, liveColor, deadColor, gridColor);
+            }
+        }
+
+        evict((lastColumn - firstColumn + 1) * (lastRow - firstRow + 1));
+        forgetFrames((lastColumn - firstColumn + 1) * (lastRow - firstRow + 1));
+    }
+
+    /**
+     * Drops the tiles used longest ago until the tiles fit in the budget
+     *
+     * @param inView Number of tiles in view, which were used last and are kept
+     */
+    private void evict(int inView) {
+
+        Iterator<Map.Entry<TileKey, PixelRenderer>> oldest = tiles.entrySet().iterator();
+        while (tiles.size() > inView && tiles.size() * TILE_BYTES > budget) {
+            oldest.next();
+            oldest.remove();
+        }
+    }
+
+    /**
+     * Lets the tiles out of view go of their frames, which would otherwise keep a generation
+     * alive for every tile. The tiles still know which frame they show.
+     *
+     * @param inView Number of tiles in view, which were used last
+     */
+    private void forgetFrames(int inView) {
+
+        int outOfView = tiles.size() - inView;
+        Iterator<PixelRenderer> oldest = tiles.values().iterator();
+        for (int i = 0; i < outOfView; i++) {
+            oldest.next().forgetFrame();
+        }
+    }
+
+    /**
+     * Drops all the tiles
+     */
+    public void clear() {
+        tiles.clear();
+    }
+
+    /**
+     * Gets the number of tiles kept
+     *
+     * @return The number of tiles
+     */
+    public int getTileCount() {
+        return tiles.size();
+    }
+}
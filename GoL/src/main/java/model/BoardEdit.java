@@ -0,0 +1,181 @@
+package model;
+
+/**
+ * A change to the cells of a game board made by the user.
+ * Edits are queued on the board and applied between two generations,
+ * so the user interface never has to wait for a generation to finish.
+ *
+ * Coordinates are absolute, meaning grid coordinates minus the offset of the board,
+ * so an edit stays at the right place even if a dynamic board moves before it is applied.
+ */
+@FunctionalInterface
+public interface BoardEdit {
+
+    /**
+     * Applies the edit. Only called by the thread that evolves the board.
+     *
+     * @param gol The board to change
+     */
+    void apply(GameOfLife gol);
+
+    /**
+     * Sets a cell alive
+     *
+     * @param x Absolute x coordinate of the cell
+     * @param y Absolute y coordinate of the cell
+     * @return The edit
+     */
+    static BoardEdit setCellAlive(int x, int y) {
+
+        return gol -> gol.setCellAlive(toGridX(gol, x), toGridY(gol, y));
+    }
+
+    /**
+     * Changes the state of a cell
+     *
+     * @param x Absolute x coordinate of the cell
+     * @param y Absolute y coordinate of the cell
+     * @return The edit
+     */
+    static BoardEdit changeCellState(int x, int y) {
+
+        return gol -> gol.changeCellState(toGridX(gol, x), toGridY(gol, y));
+    }
+
+    /**
+     * Sets a line of cells alive, from (x, y) up to, but not including, (x2, y2)
+     *
+     * @param x Absolute x coordinate of the first cell
+     * @param y Absolute y coordinate of the first cell
+     * @param x2 Absolute x coordinate of the end cell
+     * @param y2 Absolute y coordinate of the end cell
+     * @return The edit
+     */
+    static BoardEdit drawLine(int x, int y, int x2, int y2) {
+
+        return gol -> {
+
+            // horizontal and vertical dimensions of line
+            int width = x2 - x;
+            int height = y2 - y;
+
+            // the longest dimension, number of cells to set alive
+            int lineLength = Math.max(Math.abs(width), Math.abs(height));
+
+            for (int i = 0; i < lineLength; i++) {
+                setCellAlive(x + i * width / lineLength, y + i * height / lineLength).apply(gol);
+            }
+        };
+    }
+
+    /**
+     * Sets the live cells of a pattern alive
+     *
+     * @param pattern The pattern, indexed [x][y]
+     * @param x Absolute x coordinate of the upper left corner of the pattern
+     * @param y Absolute y coordinate of the upper left corner of the pattern
+     * @return The edit
+     */
+    static BoardEdit paste(boolean[][] pattern, int x, int y) {
+
+        return gol -> {
+            for (int px = 0; px < pattern.length; px++) {
+                for (int py = 0; py < pattern[px].length; py++) {
+                    if (pattern[px][py]) {
+                        setCellAlive(x + px, y + py).apply(gol);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Sets the live cells of a sparse pattern alive
+     *
+     * @param pattern The pattern
+     * @param x Absolute x coordinate of the left column of the pattern
+     * @param y Absolute y coordinate of the top row of the pattern
+     * @return The edit
+     */
+    static BoardEdit paste(SparsePattern pattern, int x, int y) {
+
+        return gol -> {
+            for (int i = 0; i < pattern.getCellCount(); i++) {
+                setCellAlive(x + pattern.getX(i), y + pattern.getY(i)).apply(gol);
+            }
+        };
+    }
+
+    /**
+     * Kills every cell inside a rectangle
+     *
+     * @param minX Absolute x coordinate of the left column
+     * @param minY Absolute y coordinate of the top row
+     * @param maxX Absolute x coordinate of the right column
+     * @param maxY Absolute y coordinate of the bottom row
+     * @return The edit
+     */
+    static BoardEdit clearRegion(int minX, int minY, int maxX, int maxY) {
+
+        return gol -> {
+
+            // only the part of the rectangle that is on the board
+            int startX = Math.max(minX + gol.getOffsetX(), 0);
+            int startY = Math.max(minY + gol.getOffsetY(), 0);
+            int stopX = Math.min(maxX + gol.getOffsetX(), gol.getGridWidth() - 1);
+            int stopY = Math.min(maxY + gol.getOffsetY(), gol.getGridHeight() - 1);
+
+            for (int gridX = startX; gridX <= stopX; gridX++) {
+                for (int gridY = startY; gridY <= stopY; gridY++) {
+                    gol.setCellDead(gridX, gridY);
+                }
+            }
+        };
+    }
+
+    /**
+     * Kills all cells on the board
+     *
+     * @return The edit
+     */
+    static BoardEdit clear() {
+
+        return GameOfLife::clearGrid;
+    }
+
+    /**
+     * Converts an absolute x coordinate to a grid coordinate.
+     * A dynamic board is expanded to the left if the coordinate is outside of it.
+     *
+     * @param gol The board
+     * @param x Absolute x coordinate
+     * @return X coordinate on the grid
+     */
+    static int toGridX(GameOfLife gol, int x) {
+
+        int gridX = x + gol.getOffsetX();
+        if (gridX < 0 && gol instanceof DynamicGameOfLife) {
+            ((DynamicGameOfLife) gol).increaseXLeft(-gridX);
+            gridX = x + gol.getOffsetX();
+        }
+        return gridX;
+    }
+
+    /**
+     * Converts an absolute y coordinate to a grid coordinate.
+     * A dynamic board is expanded upwards if the coordinate is outside of it.
+     *
+     * @param gol The board
+     * @param y Absolute y coordinate
+     * @return Y coordinate on the grid
+     */
+    static int toGridY(GameOfLife gol, int y) {
+
+        int gridY = y + gol.getOffsetY();
+        if (gridY < 0 && gol instanceof DynamicGameOfLife) {
+            ((DynamicGameOfLife) gol).increaseYTop(-gridY);
+            gridY = y + gol.getOffsetY();
+        }
+        return gridY;
+    }
+}
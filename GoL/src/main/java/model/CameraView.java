@@ -18,25 +18,41 @@ public class CameraView {
      */
     public void updateView(GameOfLife gol, double cellSize, int ... dimensions) {
 
+        updateView(getCommonOffsetX(gol, cellSize), getCommonOffsetY(gol, cellSize),
+                gol.getGridWidth(), gol.getGridHeight(), cellSize, dimensions);
+    }
+
+    /**
+     * Updates the view to show a published frame of the board
+     */
+    public void updateView(PackedBoard frame, double cellSize, int ... dimensions) {
+
+        updateView(getCommonOffsetX(frame, cellSize), getCommonOffsetY(frame, cellSize),
+                frame.getWidth(), frame.getHeight(), cellSize, dimensions);
+    }
+
+    private void updateView(double commonOffsetX, double commonOffsetY, int gridWidth, int gridHeight,
+                            double cellSize, int ... dimensions) {
+
         // finds minimum x coordinate visible on canvas
-        currViewMinX = (int) (getCommonOffsetX(gol, cellSize) / cellSize);
+        currViewMinX = (int) (commonOffsetX / cellSize);
         if (currViewMinX < 0)
             currViewMinX = 0;
 
         // finds maximum x coordinate visible on canvas
-        currViewMaxX = (int) ((getCommonOffsetX(gol, cellSize) + dimensions[0]) / cellSize);
-        if (currViewMaxX > gol.getGridWidth())
-            currViewMaxX = gol.getGridWidth();
+        currViewMaxX = (int) ((commonOffsetX + dimensions[0]) / cellSize);
+        if (currViewMaxX > gridWidth)
+            currViewMaxX = gridWidth;
 
         // finds minimum y coordinate visible on canvas
-        currViewMinY = (int)(getCommonOffsetY(gol, cellSize) / cellSize);
+        currViewMinY = (int)(commonOffsetY / cellSize);
         if (currViewMinY < 0)
             currViewMinY = 0;
 
         // finds maximum y coordinate visible on canvas
-        currViewMaxY = (int) ((getCommonOffsetY(gol, cellSize) + dimensions[1]) / cellSize);
-        if (currViewMaxY > gol.getGridHeight())
-            currViewMaxY = gol.getGridHeight();
+        currViewMaxY = (int) ((commonOffsetY + dimensions[1]) / cellSize);
+        if (currViewMaxY > gridHeight)
+            currViewMaxY = gridHeight;
 
     }
 
@@ -58,4 +74,20 @@ public class CameraView {
         return  (boardOffsetY + gol.getOffsetY() * cellSize);
     }
 
+    /**
+     * Calculates the x offset for the board with the offset of a published frame
+     * @return the common offset for the x coordinate
+     */
+    public double getCommonOffsetX(PackedBoard frame, double cellSize){
+        return  (boardOffsetX + frame.getOffsetX() * cellSize);
+    }
+
+    /**
+     * Calculates the y offset for the board with the offset of a published frame
+     * @return the common offset for the y coordinate
+     */
+    public double getCommonOffsetY(PackedBoard frame, double cellSize){
+        return  (boardOffsetY + frame.getOffsetY() * cellSize);
+    }
+
 }
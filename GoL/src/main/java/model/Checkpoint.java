@@ -0,0 +1,194 @@
+package model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * The saved state of a long running simulation: the board with its rule, offset and
+ * generation, and the statistics counted so far, so the run can continue from it.
+ *
+ * A checkpoint file is a checksum over the statistics and a SnapshotFile of the board.
+ * A file that was only partly written fails the checksum, and is not used.
+ *
+ * Layout: int magic, int version, long payload length, int CRC32 of the payload,
+ * then the payload: int statistics count, every statistic as a UTF string and a long,
+ * and the snapshot of the board.
+ */
+public final class Checkpoint {
+
+    public static final String EXTENSION = ".golc";
+
+    private static final int MAGIC = 0x476f4c43;
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+
+    private final SnapshotFile snapshot;
+    private final Map<String, Long> statistics;
+
+    /**
+     * Checkpoint constructor.
+     *
+     * @param snapshot The board and its rule
+     * @param statistics Statistics counted so far, by name. Copied.
+     */
+    public Checkpoint(SnapshotFile snapshot, Map<String, Long> statistics) {
+        this.snapshot = snapshot;
+        this.statistics = Collections.unmodifiableMap(new LinkedHashMap<>(statistics));
+    }
+
+    //region writing
+
+    /**
+     * Writes the checkpoint to a temporary file first, and moves it in place when it is complete
+     *
+     * @param file The checkpoint file, replaced if it exists
+     * @throws IOException if the file could not be written
+     */
+    public void write(Path file) throws IOException {
+
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(payload);
+
+        out.writeInt(statistics.size());
+        for (Map.Entry<String, Long> statistic : statistics.entrySet()) {
+            out.writeUTF(statistic.getKey());
+            out.writeLong(statistic.getValue());
+        }
+        out.flush();
+        SnapshotFile.write(Channels.newChannel(payload), snapshot.getBoard(), snapshot.getRule());
+
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(bytes.length).putInt((int) crc.getValue());
+        header.flip();
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "checkpoint", ".tmp");
+
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                ByteBuffer body = ByteBuffer.wrap(bytes);
+                while (body.hasRemaining()) {
+                    channel.write(body);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    //endregion
+
+    //region reading
+
+    /**
+     * Reads a checkpoint file and checks that it is complete
+     *
+     * @param file The checkpoint file
+     * @return The checkpoint
+     * @throws IOException if the file could not be read, or is not a complete checkpoint
+     */
+    public static Checkpoint read(File file) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new PatternFormatException("Checkpoint is too large");
+
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            try {
+                if (buffer.getInt() != MAGIC)
+                    throw new PatternFormatException("Not a checkpoint file");
+                int version = buffer.getInt();
+                if (version != VERSION)
+                    throw new PatternFormatException("Unsupported checkpoint version " + version);
+
+                long length = buffer.getLong();
+                int checksum = buffer.getInt();
+                if (length != buffer.remaining())
+                    throw new PatternFormatException("Checkpoint is incomplete");
+
+                CRC32 crc = new CRC32();
+                crc.update(buffer.duplicate());
+                if ((int) crc.getValue() != checksum)
+                    throw new PatternFormatException("Checkpoint is corrupt");
+
+                Map<String, Long> statistics = new LinkedHashMap<>();
+                int count = buffer.getInt();
+                for (int i = 0; i < count; i++) {
+
+                    // names are written with writeUTF, which is plain UTF-8 for the names used here
+                    byte[] name = new byte[buffer.getShort() & 0xFFFF];
+                    buffer.get(name);
+                    statistics.put(new String(name, StandardCharsets.UTF_8), buffer.getLong());
+                }
+
+                return new Checkpoint(SnapshotFile.read(buffer), statistics);
+            }
+            catch (BufferUnderflowException e) {
+                throw new PatternFormatException("Checkpoint is incomplete");
+            }
+        }
+    }
+
+    //endregion
+
+    //region getters
+
+    public SnapshotFile getSnapshot() {
+        return snapshot;
+    }
+
+    public PackedBoard getBoard() {
+        return snapshot.getBoard();
+    }
+
+    /**
+     * Gets the statistics counted up to the checkpoint
+     *
+     * @return Unmodifiable map of the statistics by name
+     */
+    public Map<String, Long> getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Gets one statistic
+     *
+     * @param name Name of the statistic
+     * @param defaultValue Value to use if the checkpoint does not have it
+     * @return The value
+     */
+    public long getStatistic(String name, long defaultValue) {
+        return statistics.getOrDefault(name, defaultValue);
+    }
+
+    //endregion
+}
@@ -0,0 +1,188 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Saves checkpoints of a running simulation at a fixed interval, and finds the latest one to resume from.
+ *
+ * A checkpoint is started from a copy-on-write snapshot of the board, which is cheap to take,
+ * and the board is packed and written on a background thread while the simulation goes on.
+ * If a checkpoint is still being written when the next one is due, the next one is skipped.
+ * The newest KEPT_CHECKPOINTS checkpoints are kept, so there is still one to resume from if
+ * the program dies while a checkpoint is being written.
+ */
+public class Checkpointer {
+
+    public static final int KEPT_CHECKPOINTS = 2;
+
+    private static final String PREFIX = "checkpoint-";
+
+    private final Path directory;
+    private final long intervalNanos;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean writing = new AtomicBoolean(false);
+
+    private volatile long lastCheckpoint = System.nanoTime();
+
+    /**
+     * Checkpointer constructor.
+     *
+     * @param directory Where to keep the checkpoints
+     * @param intervalSeconds Seconds between checkpoints, zero or less to never be due
+     */
+    public Checkpointer(Path directory, long intervalSeconds) {
+
+        this.directory = directory;
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(intervalSeconds);
+    }
+
+    //region writing
+
+    /**
+     * Checks if the interval has passed since the last checkpoint, and the last one is written
+     *
+     * @return True if a checkpoint should be taken
+     */
+    public boolean isDue() {
+        return intervalNanos > 0 && !writing.get() && System.nanoTime() - lastCheckpoint >= intervalNanos;
+    }
+
+    /**
+     * Takes a checkpoint of a board, and writes it in the background.
+     * Must be called while the board is not evolving, for example between generations.
+     *
+     * @param gol The board
+     * @param statistics Statistics counted so far, by name
+     * @return False if the last checkpoint was still being written, and this one was skipped
+     */
+    public boolean checkpoint(GameOfLife gol, Map<String, Long> statistics) {
+
+        if (!writing.compareAndSet(false, true))
+            return false;
+
+        lastCheckpoint = System.nanoTime();
+
+        GameOfLife snapshot = gol.snapshot();
+        String rule = gol.getRule().toString();
+        Map<String, Long> copy = new LinkedHashMap<>(statistics);
+
+        writer.execute(() -> {
+            try {
+                Checkpoint checkpoint = new Checkpoint(new SnapshotFile(PackedBoard.of(snapshot), rule), copy);
+                checkpoint.write(directory.resolve(getFileName(snapshot.getGeneration())));
+                deleteOldCheckpoints();
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                writing.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Waits for the checkpoint being written, and stops the background thread
+     */
+    public void close() {
+
+        writer.shutdown();
+        try {
+            writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void deleteOldCheckpoints() throws IOException {
+
+        List<Path> checkpoints = listCheckpoints(directory);
+        for (int i = KEPT_CHECKPOINTS; i < checkpoints.size(); i++) {
+            Files.deleteIfExists(checkpoints.get(i));
+        }
+    }
+
+    private static String getFileName(long generation) {
+        return PREFIX + generation + Checkpoint.EXTENSION;
+    }
+
+    //endregion
+
+    //region resuming
+
+    /**
+     * Finds the newest checkpoint in a directory that can be read
+     *
+     * @param directory The checkpoint directory
+     * @return The checkpoint, or null if there is no valid checkpoint
+     * @throws IOException if the directory could not be listed
+     */
+    public static Checkpoint loadLatest(Path directory) throws IOException {
+
+        if (!Files.isDirectory(directory))
+            return null;
+
+        for (Path file : listCheckpoints(directory)) {
+            try {
+                return Checkpoint.read(file.toFile());
+            } catch (IOException e) {
+                System.err.println("Skipping checkpoint " + file.getFileName() + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lists the checkpoint files, newest generation first
+     */
+    private static List<Path> listCheckpoints(Path directory) throws IOException {
+
+        List<Path> checkpoints = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + Checkpoint.EXTENSION)) {
+            for (Path file : files) {
+                if (getGeneration(file) >= 0)
+                    checkpoints.add(file);
+            }
+        }
+
+        checkpoints.sort(Comparator.comparingLong(Checkpointer::getGeneration).reversed());
+        return checkpoints;
+    }
+
+    /**
+     * Gets the generation from the name of a checkpoint file
+     *
+     * @return The generation, or -1 if the name is not a checkpoint name
+     */
+    private static long getGeneration(Path file) {
+
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - Checkpoint.EXTENSION.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    //endregion
+
+    public Path getDirectory() {
+        return directory;
+    }
+}
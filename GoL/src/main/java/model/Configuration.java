@@ -30,6 +30,8 @@ public class Configuration {
     private String canvasGrid;
     private String gameHeight;
     private String gameWidth;
+    private String checkpointInterval;
+    private String checkpointDirectory;
     //endregion
 
     /**
@@ -144,6 +146,26 @@ public class Configuration {
      */
     public boolean isGridLinesOn() { return Boolean.parseBoolean(canvasGrid); }
 
+    /**
+     * gets the seconds between checkpoints of a running simulation from the config file
+     * @return seconds between checkpoints, 0 if checkpoints are off or not configured
+     */
+    public long getCheckpointInterval() {
+        try {
+            return Math.max(0, Long.parseLong(checkpointInterval.trim()));
+        } catch (NullPointerException | NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * gets the directory to keep checkpoints in from the config file
+     * @return the checkpoint directory, "checkpoints" if not configured
+     */
+    public String getCheckpointDirectory() {
+        return (checkpointDirectory == null || checkpointDirectory.trim().isEmpty()) ? "checkpoints" : checkpointDirectory.trim();
+    }
+
 
     /**
      * Generates content for a new config file in the string configurationsString
@@ -166,7 +188,10 @@ public class Configuration {
                                     "cell.size = 10\n" +
                                     "# Set canvas properties\n" +
                                     "canvas.background.color = white\n" +
-                                    "canvas.grid = false\n";
+                                    "canvas.grid = false\n" +
+                                    "# Set checkpoint properties, interval in seconds, 0 for no checkpoints\n" +
+                                    "checkpoint.interval = 0\n" +
+                                    "checkpoint.directory = checkpoints\n";
     }
 
     /**
@@ -212,6 +237,8 @@ public class Configuration {
         this.gameHeight = properties.getProperty("game.height");
         this.gameWidth = properties.getProperty("game.width");
         this.canvasGrid = properties.getProperty("canvas.grid");
+        this.checkpointInterval = properties.getProperty("checkpoint.interval");
+        this.checkpointDirectory = properties.getProperty("checkpoint.directory");
     }
     //endregion
 
@@ -18,6 +18,22 @@ public class DynamicGameOfLife extends GameOfLife{
     private ArrayList<ArrayList<AtomicBoolean>> grid;
     private ArrayList<ArrayList<AtomicInteger>> neighbours;
 
+    /**
+     * A column of cells which knows the game board allowed to change it.
+     * Columns shared between a board and its snapshots have no owner,
+     * and are copied by the board that changes them first.
+     */
+    private static class Column extends ArrayList<AtomicBoolean> {
+
+        private static final long serialVersionUID = 1L;
+
+        private GameOfLife owner;
+
+        Column(GameOfLife owner) {
+            this.owner = owner;
+        }
+    }
+
     //region start up
 
     /**
@@ -40,6 +56,22 @@ public class DynamicGameOfLife extends GameOfLife{
         setRule(rulestring);
     }
 
+    /**
+     * Snapshot constructor. Shares the columns of the original board instead of copying them,
+     * and leaves the neighbour lists to be created if the snapshot is ever evolved.
+     *
+     * @param original The board to take a snapshot of
+     */
+    private DynamicGameOfLife(DynamicGameOfLife original) {
+
+        grid = new ArrayList<>(original.grid);
+        cellOffsetX = original.cellOffsetX;
+        cellOffsetY = original.cellOffsetY;
+        cellCount.set(original.getCellCount());
+        generation = original.getGeneration();
+        setRule(original.getRule().toString());
+    }
+
     /**
      * Creates the boolean 2D Array to keep track of dead and live cells, and the 2D byte-
      * array to keep track of the neighbour count to the corresponding cells in the other array
@@ -49,11 +81,50 @@ public class DynamicGameOfLife extends GameOfLife{
         grid = new ArrayList<>();
         neighbours = new ArrayList<>();
 
-        grid.add(new ArrayList<>());
+        grid.add(new Column(this));
         neighbours.add(new ArrayList<>());
         grid.get(0).add(new AtomicBoolean(false));
         neighbours.get(0).add(new AtomicInteger(0));
     }
+
+    @Override
+    protected void prepareNeighbours() {
+
+        // a snapshot gets its neighbour lists the first time it is evolved
+        if (neighbours != null)
+            return;
+
+        neighbours = new ArrayList<>();
+        for (int x = 0; x < grid.size(); x++) {
+
+            neighbours.add(new ArrayList<>());
+            for (int y = 0; y < grid.get(x).size(); y++) {
+                neighbours.get(x).add(new AtomicInteger(0));
+            }
+        }
+    }
+
+    /**
+     * Copies a column shared with a snapshot, so it can be changed without affecting the snapshot
+     *
+     * @param x The column to be changed
+     * @return The column owned by this board
+     */
+    private ArrayList<AtomicBoolean> ownColumn(int x) {
+
+        ArrayList<AtomicBoolean> column = grid.get(x);
+
+        if (column instanceof Column && ((Column) column).owner != this) {
+
+            Column copy = new Column(this);
+            for (AtomicBoolean cell : column) {
+                copy.add(new AtomicBoolean(cell.get()));
+            }
+            grid.set(x, copy);
+            return copy;
+        }
+        return column;
+    }
     //endregion
 
     //region next generation
@@ -61,6 +132,8 @@ public class DynamicGameOfLife extends GameOfLife{
     @Override
     public void nextGeneration() {
 
+        // edits can add cells outside the pattern, so they are applied before the board is fitted
+        applyEdits();
         fitBoardToPattern();
         super.nextGeneration();
     }
@@ -115,13 +188,15 @@ public class DynamicGameOfLife extends GameOfLife{
 
         for (int i = 0; i < diffX; i++){
 
-            grid.add(new ArrayList<>());
-            neighbours.add(new ArrayList<>());
+            grid.add(new Column(this));
+            if (neighbours != null)
+                neighbours.add(new ArrayList<>());
 
             for (int j = 0; j < grid.get(0).size(); j++) {
 
                 grid.get(grid.size() - 1).add(new AtomicBoolean(false));
-                neighbours.get(grid.size() - 1).add(new AtomicInteger(0));
+                if (neighbours != null)
+                    neighbours.get(grid.size() - 1).add(new AtomicInteger(0));
             }
         }
     }
@@ -134,10 +209,13 @@ public class DynamicGameOfLife extends GameOfLife{
     private void increaseYBottom(int diffY){
 
         for (int i = 0; i < grid.size(); i++) {
+
+            ArrayList<AtomicBoolean> column = ownColumn(i);
             for (int j = 0; j < diffY; j++){
 
-                grid.get(i).add(new AtomicBoolean(false));
-                neighbours.get(i).add(new AtomicInteger(0));
+                column.add(new AtomicBoolean(false));
+                if (neighbours != null)
+                    neighbours.get(i).add(new AtomicInteger(0));
             }
         }
     }
@@ -153,13 +231,15 @@ public class DynamicGameOfLife extends GameOfLife{
 
         for (int i = 0; i < diffX; i++){
 
-            grid.add(0, new ArrayList<>());
-            neighbours.add(0, new ArrayList<>());
+            grid.add(0, new Column(this));
+            if (neighbours != null)
+                neighbours.add(0, new ArrayList<>());
 
             for (int j = 0; j < grid.get(1).size(); j++) {
 
                 grid.get(0).add(new AtomicBoolean(false));
-                neighbours.get(0).add(new AtomicInteger(0));
+                if (neighbours != null)
+                    neighbours.get(0).add(new AtomicInteger(0));
             }
         }
     }
@@ -174,10 +254,13 @@ public class DynamicGameOfLife extends GameOfLife{
         cellOffsetY += diffY;
 
         for (int i = 0; i < grid.size(); i++) {
+
+            ArrayList<AtomicBoolean> column = ownColumn(i);
             for (int j = 0; j < diffY; j++){
 
-                grid.get(i).add(0, new AtomicBoolean(false));
-                neighbours.get(i).add(0, new AtomicInteger(0));
+                column.add(0, new AtomicBoolean(false));
+                if (neighbours != null)
+                    neighbours.get(i).add(0, new AtomicInteger(0));
             }
         }
     }
@@ -192,7 +275,8 @@ public class DynamicGameOfLife extends GameOfLife{
         for (int i = 0; i < diffX; i++){
 
             grid.remove(grid.size() - 1);
-            neighbours.remove(neighbours.size() - 1);
+            if (neighbours != null)
+                neighbours.remove(neighbours.size() - 1);
         }
     }
 
@@ -204,10 +288,13 @@ public class DynamicGameOfLife extends GameOfLife{
     private void decreaseYBottom(int diffY){
 
         for (int i = 0; i < grid.size(); i++) {
+
+            ArrayList<AtomicBoolean> column = ownColumn(i);
             for (int j = 0; j < diffY; j++){
 
-                grid.get(i).remove(grid.get(i).size() - 1);
-                neighbours.get(i).remove(neighbours.get(i).size() - 1);
+                column.remove(column.size() - 1);
+                if (neighbours != null)
+                    neighbours.get(i).remove(neighbours.get(i).size() - 1);
             }
         }
     }
@@ -224,7 +311,8 @@ public class DynamicGameOfLife extends GameOfLife{
         for (int i = 0; i < diffX; i++){
 
             grid.remove(0);
-            neighbours.remove(0);
+            if (neighbours != null)
+                neighbours.remove(0);
         }
     }
 
@@ -237,10 +325,13 @@ public class DynamicGameOfLife extends GameOfLife{
         cellOffsetY -= diffY;
 
         for (int i = 0; i < grid.size(); i++) {
+
+            ArrayList<AtomicBoolean> column = ownColumn(i);
             for (int j = 0; j < diffY; j++){
 
-                grid.get(i).remove(0);
-                neighbours.get(i).remove(0);
+                column.remove(0);
+                if (neighbours != null)
+                    neighbours.get(i).remove(0);
             }
         }
     }
@@ -255,6 +346,7 @@ public class DynamicGameOfLife extends GameOfLife{
      * @return The neighbour-2D-array
      */
     public ArrayList<ArrayList<AtomicInteger>> getNeighbours() {
+        prepareNeighbours();
         return neighbours;
     }
 
@@ -306,12 +398,43 @@ public class DynamicGameOfLife extends GameOfLife{
         return gameOfLife;
     }
 
+    /**
+     * Takes a snapshot of the board in constant time per column.
+     * The snapshot shares columns with this board, and a column is only copied
+     * when one of the boards changes it. Marking the columns as shared changes this board, so
+     * it must be called by the thread that evolves the board, or while the board is not evolving.
+     *
+     * @return The snapshot
+     */
+    @Override
+    public DynamicGameOfLife snapshot() {
+
+        for (int x = 0; x < grid.size(); x++) {
+
+            ArrayList<AtomicBoolean> column = grid.get(x);
+
+            if (column instanceof Column) {
+                ((Column) column).owner = null;
+            }
+            else {
+                // columns set from outside can't be tracked, so they are copied once
+                Column copy = new Column(null);
+                for (AtomicBoolean cell : column) {
+                    copy.add(new AtomicBoolean(cell.get()));
+                }
+                grid.set(x, copy);
+            }
+        }
+        return new DynamicGameOfLife(this);
+    }
+
     /**
      * Deep copies the grid and sets it.
      * @param grid the grid to be deep copied and set.
      */
     private void deepCopyOnSet(ArrayList<ArrayList<AtomicBoolean>> grid) {
 
+        prepareNeighbours();
         neighbours.clear();
         cellOffsetX = 0;
         cellOffsetY = 0;
@@ -319,7 +442,7 @@ public class DynamicGameOfLife extends GameOfLife{
 
         for (int x = 0; x < grid.size(); x++) {
 
-            this.grid.add(new ArrayList<>());
+            this.grid.add(new Column(this));
             neighbours.add(new ArrayList<>());
 
             for (int y = 0; y < grid.get(x).size(); y++) {
@@ -348,7 +471,7 @@ public class DynamicGameOfLife extends GameOfLife{
         if(!isCellAlive(x,y)) {
 
             try {
-                grid.get(x).get(y).set(true);
+                ownColumn(x).get(y).set(true);
             }
             catch (IndexOutOfBoundsException e) {
 
@@ -360,7 +483,7 @@ public class DynamicGameOfLife extends GameOfLife{
                 if(diffY > 0)
                     increaseYBottom(diffY);
 
-                grid.get(x).get(y).set(true);
+                ownColumn(x).get(y).set(true);
             }
 
             cellCount.incrementAndGet();
@@ -372,18 +495,54 @@ public class DynamicGameOfLife extends GameOfLife{
 
         if(isCellAlive(x,y)) {
 
-            grid.get(x).get(y).set(false);
+            ownColumn(x).get(y).set(false);
             cellCount.decrementAndGet();
         }
     }
 
+    /**
+     * Replaces the cells with the cells of a packed board. The board is made the size of the
+     * packed board at once, and every column is filled straight from the packed words, instead
+     * of growing the board as the live cells are set one at a time.
+     *
+     * @param board The packed board to restore
+     */
+    @Override
+    public void setBoard(PackedBoard board) {
+
+        int width = Math.max(board.getWidth(), 1);
+        int height = Math.max(board.getHeight(), 1);
+
+        ArrayList<ArrayList<AtomicBoolean>> columns = new ArrayList<>(width);
+        for (int x = 0; x < width; x++) {
+
+            Column column = new Column(this);
+            column.ensureCapacity(height);
+            for (int y = 0; y < height; y++) {
+                column.add(new AtomicBoolean(board.isCellAlive(x, y)));
+            }
+            columns.add(column);
+        }
+
+        // the neighbour lists are made when the board is evolved
+        grid = columns;
+        neighbours = null;
+
+        cellCount.set(board.getCellCount());
+        cellOffsetX = board.getOffsetX();
+        cellOffsetY = board.getOffsetY();
+        generation = board.getGeneration();
+        publishFrame();
+    }
+
     @Override
     public void clearGrid() {
 
+        prepareNeighbours();
         grid.clear();
         neighbours.clear();
 
-        grid.add(new ArrayList<>());
+        grid.add(new Column(this));
         neighbours.add(new ArrayList<>());
 
         grid.get(0).add(new AtomicBoolean(false));
@@ -5,7 +5,9 @@ import tools.MessageBox;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
 /**
  * @author Pair programming
@@ -24,10 +26,23 @@ public abstract class GameOfLife {
     protected AtomicInteger cellCount = new AtomicInteger(0);
     protected Rule rule;
 
+    // number of generations evolved since the board was created
+    protected volatile long generation = 0;
+
     // offset to use when grid is expanded to left and upwards
     protected int cellOffsetX = 0;
     protected int cellOffsetY = 0;
 
+    // latest complete generation, published for whoever draws the board
+    private volatile PackedBoard frame;
+    private volatile boolean publishing = false;
+
+    // true while evolving several generations in one step, to only publish the last one
+    private boolean batching = false;
+
+    // edits made by the user, waiting for the next generation boundary
+    private final ConcurrentLinkedQueue<BoardEdit> edits = new ConcurrentLinkedQueue<>();
+
     //region next generation
 
     /**
@@ -37,6 +52,9 @@ public abstract class GameOfLife {
      */
     public void nextGeneration() {
 
+        // the edits are published before they are evolved, so they are seen as they were made
+        applyEdits();
+        prepareNeighbours();
         createCountingThreads();
         try {
             runThreads();
@@ -49,6 +67,73 @@ public abstract class GameOfLife {
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
+        generation++;
+
+        // edits made during a batch wait for the next generation, so they are published first
+        if (!batching) {
+            applyQueuedEdits();
+            publishFrame();
+        }
+    }
+
+    /**
+     * Evolves the game board a number of generations, and only publishes the last one
+     *
+     * @param generations Number of generations to evolve
+     * @param keepGoing Checked before each generation, to be able to stop early
+     */
+    public void nextGenerations(int generations, BooleanSupplier keepGoing) {
+
+        batching = true;
+        try {
+            for (int i = 0; i < generations && keepGoing.getAsBoolean(); i++) {
+                nextGeneration();
+            }
+        } finally {
+            batching = false;
+        }
+        publishFrame();
+    }
+
+    /**
+     * Queues an edit to be applied between two generations. Can be called from any thread.
+     *
+     * @param edit The edit to apply
+     */
+    public void queueEdit(BoardEdit edit) {
+        edits.add(edit);
+    }
+
+    /**
+     * Applies the queued edits and publishes the result.
+     * Must not be called while the board is evolving.
+     *
+     * @return True if any edits were applied
+     */
+    public boolean applyEdits() {
+
+        boolean changed = applyQueuedEdits();
+        if (changed)
+            publishFrame();
+
+        return changed;
+    }
+
+    /**
+     * Applies the queued edits in the order they were queued
+     *
+     * @return True if any edits were applied
+     */
+    private boolean applyQueuedEdits() {
+
+        boolean changed = false;
+
+        BoardEdit edit;
+        while ((edit = edits.poll()) != null) {
+            edit.apply(this);
+            changed = true;
+        }
+        return changed;
     }
 
     /**
@@ -241,6 +326,17 @@ public abstract class GameOfLife {
     @Override
     public abstract GameOfLife clone();
 
+    /**
+     * Takes a copy-on-write snapshot of the game board. Unlike clone(), no cells are copied
+     * until either the board or the snapshot changes them, so a snapshot is cheap to take
+     * even on large boards. The snapshot keeps the offset and generation of the board.
+     * Must not be called while another thread evolves the board; SimulationScheduler.snapshot()
+     * takes one on the simulation thread instead.
+     *
+     * @return The snapshot
+     */
+    public abstract GameOfLife snapshot();
+
     /**
      * Gets the number of live cells at game board
      *
@@ -250,6 +346,44 @@ public abstract class GameOfLife {
         return cellCount.get();
     }
 
+    /**
+     * Gets the number of generations the board has evolved
+     *
+     * @return The generation number
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Gets the latest published frame of the board. The frame is immutable, so it can be
+     * drawn while the next generation is being calculated. The first call turns on publishing,
+     * after which a new frame is published at the end of every generation. The first call packs
+     * the board on the calling thread, so it must be made while the board is not evolving;
+     * SimulationScheduler makes it before it evolves a board.
+     *
+     * @return The latest complete frame
+     */
+    public PackedBoard getFrame() {
+
+        PackedBoard current = frame;
+        if (current == null) {
+            publishing = true;
+            current = frame = PackedBoard.of(this);
+        }
+        return current;
+    }
+
+    /**
+     * Publishes the current state of the board as a new frame, if anyone is reading frames.
+     * Must be called by the thread that changed the board, after the changes are done.
+     */
+    public void publishFrame() {
+
+        if (publishing)
+            frame = PackedBoard.of(this);
+    }
+
     /**
      * Returns the rule used for evolution
      *
@@ -302,6 +436,15 @@ public abstract class GameOfLife {
         rule = RuleParser.createRule(this, ruleText);
     }
 
+    /**
+     * Sets the generation the board shows, as when a pattern file says which generation it is
+     *
+     * @param generation The generation number
+     */
+    public void setGeneration(long generation) {
+        this.generation = generation;
+    }
+
     /**
      * Sets the cell count
      *
@@ -311,11 +454,48 @@ public abstract class GameOfLife {
         this.cellCount.set(cellCount);
     }
 
+    /**
+     * Replaces the cells of the game board with the cells of a packed board,
+     * and continues from the generation the packed board was taken at.
+     *
+     * @param board The packed board to restore
+     */
+    public void setBoard(PackedBoard board) {
+
+        clearGrid();
+
+        cellOffsetX = board.getOffsetX();
+        cellOffsetY = board.getOffsetY();
+
+        for (int y = 0; y < board.getHeight(); y++) {
+            for (int i = 0; i < board.getWordsPerRow(); i++) {
+
+                long word = board.getWord(y, i);
+
+                // visits the live cells in the word only
+                while (word != 0) {
+                    setCellAlive(i * 64 + Long.numberOfTrailingZeros(word), y);
+                    word &= word - 1;
+                }
+            }
+        }
+
+        generation = board.getGeneration();
+        publishFrame();
+    }
+
     /**
      * Clears the game board of live cells
      */
     public abstract void clearGrid();
 
+    /**
+     * Makes sure the neighbour counts exist before they are used.
+     * Snapshots only create them when they are evolved.
+     */
+    protected void prepareNeighbours() {
+    }
+
     /**
      * Increment neighbour count for a cell at (x,y)
      *
@@ -334,6 +514,7 @@ public abstract class GameOfLife {
 
     public String getAggregatedNeighbours() throws InterruptedException {
 
+        prepareNeighbours();
         createCountingThreads();
 
         runThreads();
@@ -0,0 +1,397 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Keeps a bounded history of earlier generations so the board can be rewound.
+ *
+ * Every keyframeInterval generation is stored as a keyframe, the generations in between
+ * are stored as the XOR difference to their keyframe. Both are compressed with Deflater.
+ * The entries are held in a ring buffer, and the oldest keyframe with its deltas is evicted
+ * when the buffer is full or the compressed data exceeds the memory budget.
+ * Safe to use from the simulation thread and the FX thread at the same time.
+ */
+public class GenerationHistory {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 64;
+    public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+    // rough size of an entry object, counted in addition to its compressed data
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final int keyframeInterval;
+    private final long memoryBudget;
+
+    private final Entry[] ring;
+    private int head = 0;
+    private int size = 0;
+    private long memoryUsage = 0;
+
+    // uncompressed copy of the newest keyframe, used to create deltas
+    private PackedBoard keyframe;
+    private int deltasSinceKeyframe;
+
+    /**
+     * A recorded generation, either a keyframe or a delta against the closest keyframe before it
+     */
+    private static class Entry {
+
+        final long generation;
+        final boolean isKeyframe;
+        final byte[] data;
+        final int width, height, offsetX, offsetY;
+
+        Entry(PackedBoard board, boolean isKeyframe, byte[] data) {
+            this.generation = board.getGeneration();
+            this.isKeyframe = isKeyframe;
+            this.data = data;
+            this.width = board.getWidth();
+            this.height = board.getHeight();
+            this.offsetX = board.getOffsetX();
+            this.offsetY = board.getOffsetY();
+        }
+    }
+
+    /**
+     * GenerationHistory constructor. Uses the default capacity, keyframe interval and memory budget.
+     */
+    public GenerationHistory() {
+        this(DEFAULT_CAPACITY, DEFAULT_KEYFRAME_INTERVAL, DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * GenerationHistory constructor.
+     *
+     * @param capacity Maximum number of generations to keep
+     * @param keyframeInterval Number of generations between each keyframe
+     * @param memoryBudget Maximum number of bytes to spend on the history
+     */
+    public GenerationHistory(int capacity, int keyframeInterval, long memoryBudget) {
+
+        if (capacity < 1 || keyframeInterval < 1)
+            throw new IllegalArgumentException("Capacity and keyframe interval must be positive");
+
+        this.ring = new Entry[capacity];
+        this.keyframeInterval = Math.min(keyframeInterval, capacity);
+        this.memoryBudget = memoryBudget;
+    }
+
+    //region recording
+
+    /**
+     * Records a generation. If the history already contains this generation or later ones,
+     * for instance after a rewind, those are discarded first.
+     *
+     * @param board Packed copy of the board at the generation to record
+     */
+    public synchronized void record(PackedBoard board) {
+
+        discardFrom(board.getGeneration());
+
+        Entry entry = createEntry(board);
+
+        // makes room for the new entry
+        while (size > 0 && (size == ring.length || memoryUsage + getSize(entry) > memoryBudget)) {
+            evictOldestGroup();
+        }
+
+        // the keyframe the delta was made against has been evicted
+        if (!entry.isKeyframe && keyframe == null) {
+            entry = createEntry(board);
+        }
+
+        ring[(head + size) % ring.length] = entry;
+        size++;
+        memoryUsage += getSize(entry);
+    }
+
+    /**
+     * Creates a compressed entry for a generation. A delta can only be made against
+     * a keyframe with the same size and position, otherwise a new keyframe is made.
+     *
+     * @param board Packed copy of the board at the generation to record
+     * @return The new entry
+     */
+    private Entry createEntry(PackedBoard board) {
+
+        if (keyframe == null || deltasSinceKeyframe >= keyframeInterval - 1 || !keyframe.hasSameGeometry(board)) {
+
+            keyframe = board;
+            deltasSinceKeyframe = 0;
+            return new Entry(board, true, compress(board.words));
+        }
+
+        long[] delta = new long[board.words.length];
+        for (int i = 0; i < delta.length; i++) {
+            delta[i] = board.words[i] ^ keyframe.words[i];
+        }
+        deltasSinceKeyframe++;
+        return new Entry(board, false, compress(delta));
+    }
+
+    /**
+     * Removes the oldest keyframe and all the deltas that depend on it
+     */
+    private void evictOldestGroup() {
+
+        do {
+            memoryUsage -= getSize(ring[head]);
+            ring[head] = null;
+            head = (head + 1) % ring.length;
+            size--;
+        } while (size > 0 && !ring[head].isKeyframe);
+
+        // the newest keyframe was evicted, so the next generation needs a new one
+        if (size == 0) {
+            keyframe = null;
+        }
+    }
+
+    /**
+     * Removes every entry at or after a generation
+     *
+     * @param generation First generation to remove
+     */
+    private void discardFrom(long generation) {
+
+        boolean removedKeyframe = false;
+
+        while (size > 0 && getEntry(size - 1).generation >= generation) {
+
+            Entry newest = getEntry(size - 1);
+            removedKeyframe |= newest.isKeyframe;
+            memoryUsage -= getSize(newest);
+            ring[(head + size - 1) % ring.length] = null;
+            size--;
+            deltasSinceKeyframe--;
+        }
+
+        if (removedKeyframe || size == 0) {
+            keyframe = null;
+        }
+    }
+
+    /**
+     * Forgets every recorded generation
+     */
+    public synchronized void clear() {
+
+        while (size > 0) {
+            ring[(head + size - 1) % ring.length] = null;
+            size--;
+        }
+        head = 0;
+        memoryUsage = 0;
+        keyframe = null;
+    }
+
+    //endregion
+
+    //region rewinding
+
+    /**
+     * Rebuilds the board as it was at a recorded generation
+     *
+     * @param generation The generation to rebuild
+     * @return The board at that generation, or null if the generation is not in the history
+     */
+    public synchronized PackedBoard materialize(long generation) {
+
+        int index = findIndex(generation);
+        if (index < 0)
+            return null;
+
+        Entry entry = getEntry(index);
+        long[] words = decompress(entry.data, getWordCount(entry));
+
+        if (!entry.isKeyframe) {
+
+            // finds the keyframe the delta was made against
+            int keyIndex = index;
+            while (!getEntry(keyIndex).isKeyframe) {
+                keyIndex--;
+            }
+
+            Entry keyEntry = getEntry(keyIndex);
+            long[] keyWords = decompress(keyEntry.data, getWordCount(keyEntry));
+            for (int i = 0; i < words.length; i++) {
+                words[i] ^= keyWords[i];
+            }
+        }
+
+        return new PackedBoard(entry.width, entry.height, entry.offsetX, entry.offsetY, entry.generation, words);
+    }
+
+    /**
+     * Finds the newest recorded generation before a generation. When the board is evolved
+     * several generations per step, only the first generation of each step is recorded.
+     *
+     * @param generation The generation to look before
+     * @return The closest earlier generation, or -1 if there is none
+     */
+    public synchronized long getGenerationBefore(long generation) {
+
+        int low = 0;
+        int high = size - 1;
+        long found = -1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long current = getEntry(middle).generation;
+
+            if (current < generation) {
+                found = current;
+                low = middle + 1;
+            }
+            else
+                high = middle - 1;
+        }
+        return found;
+    }
+
+    /**
+     * Binary search for a generation. The entries are always ordered by generation.
+     *
+     * @param generation The generation to look for
+     * @return Index from the oldest entry, or -1 if not found
+     */
+    private int findIndex(long generation) {
+
+        int low = 0;
+        int high = size - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long current = getEntry(middle).generation;
+
+            if (current < generation)
+                low = middle + 1;
+            else if (current > generation)
+                high = middle - 1;
+            else
+                return middle;
+        }
+        return -1;
+    }
+
+    //endregion
+
+    //region compression
+
+    /**
+     * Compresses an array of words with Deflater
+     *
+     * @param words Words to compress
+     * @return The compressed bytes
+     */
+    private static byte[] compress(long[] words) {
+
+        ByteBuffer bytes = ByteBuffer.allocate(words.length * Long.BYTES);
+        bytes.asLongBuffer().put(words);
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(bytes.array());
+        deflater.finish();
+
+        // mostly empty deltas compress very well, so the buffer starts small and grows if needed
+        byte[] buffer = new byte[64 + bytes.capacity() / 8];
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            length += deflater.deflate(buffer, length, buffer.length - length);
+        }
+        deflater.end();
+
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Decompresses bytes made by compress()
+     *
+     * @param data The compressed bytes
+     * @param wordCount Number of words that were compressed
+     * @return The words
+     */
+    private static long[] decompress(byte[] data, int wordCount) {
+
+        byte[] bytes = new byte[wordCount * Long.BYTES];
+
+        Inflater inflater = new Inflater();
+        inflater.setInput(data);
+        try {
+            int length = 0;
+            while (length < bytes.length && !inflater.finished()) {
+                length += inflater.inflate(bytes, length, bytes.length - length);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt history entry", e);
+        } finally {
+            inflater.end();
+        }
+
+        long[] words = new long[wordCount];
+        ByteBuffer.wrap(bytes).asLongBuffer().get(words);
+        return words;
+    }
+
+    //endregion
+
+    //region getters
+
+    private Entry getEntry(int index) {
+        return ring[(head + index) % ring.length];
+    }
+
+    private static int getWordCount(Entry entry) {
+        return PackedBoard.getWordsPerRow(entry.width) * entry.height;
+    }
+
+    private static long getSize(Entry entry) {
+        return entry.data.length + ENTRY_OVERHEAD;
+    }
+
+    /**
+     * Gets the oldest generation that can be rebuilt
+     *
+     * @return The oldest generation, or -1 if the history is empty
+     */
+    public synchronized long getOldestGeneration() {
+        return size == 0 ? -1 : getEntry(0).generation;
+    }
+
+    /**
+     * Gets the newest generation that can be rebuilt
+     *
+     * @return The newest generation, or -1 if the history is empty
+     */
+    public synchronized long getNewestGeneration() {
+        return size == 0 ? -1 : getEntry(size - 1).generation;
+    }
+
+    /**
+     * Gets the number of recorded generations
+     *
+     * @return Number of generations in the history
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets the approximate number of bytes used by the recorded generations
+     *
+     * @return Memory usage in bytes
+     */
+    public synchronized long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    //endregion
+}
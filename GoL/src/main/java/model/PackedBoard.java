@@ -0,0 +1,262 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable copy of a game board where every cell is stored as one bit.
+ * The cells are packed row by row into longs, 64 cells per word, so that
+ * a board can be copied, compared and compressed without touching the
+ * game's own grid again.
+ */
+public class PackedBoard {
+
+    private final int width;
+    private final int height;
+    private final int offsetX;
+    private final int offsetY;
+    private final long generation;
+    private final int wordsPerRow;
+    private final int cellCount;
+
+    // row major, wordsPerRow words per row
+    final long[] words;
+
+    // gives every board a number of its own, starting at 1
+    private static final AtomicLong boards = new AtomicLong();
+    private final long id = boards.incrementAndGet();
+
+    /**
+     * PackedBoard constructor. The words array is used directly and must not be changed afterwards.
+     *
+     * @param width Width of the board
+     * @param height Height of the board
+     * @param offsetX Horizontal offset of the board from origin
+     * @param offsetY Vertical offset of the board from origin
+     * @param generation The generation the board shows
+     * @param words Packed cells, row by row
+     */
+    PackedBoard(int width, int height, int offsetX, int offsetY, long generation, long[] words) {
+
+        this.width = width;
+        this.height = height;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        this.generation = generation;
+        this.wordsPerRow = getWordsPerRow(width);
+        this.words = words;
+
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        this.cellCount = count;
+    }
+
+    /**
+     * Creates a packed copy of the current state of a game board
+     *
+     * @param gol The game board to copy
+     * @return A packed copy of the board
+     */
+    public static PackedBoard of(GameOfLife gol) {
+
+        int width = gol.getGridWidth();
+        int height = gol.getGridHeight();
+        int wordsPerRow = getWordsPerRow(width);
+        long[] words = new long[wordsPerRow * height];
+
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (gol.isCellAlive(x, y)) {
+                    words[y * wordsPerRow + (x >>> 6)] |= 1L << x;
+                }
+            }
+        }
+
+        return new PackedBoard(width, height, gol.getOffsetX(), gol.getOffsetY(), gol.getGeneration(), words);
+    }
+
+    /**
+     * Creates a packed copy of a pattern
+     *
+     * @param pattern The pattern, indexed [x][y]
+     * @return The pattern at offset (0, 0) and generation 0
+     */
+    public static PackedBoard of(boolean[][] pattern) {
+
+        int width = pattern.length;
+        int height = (width == 0) ? 0 : pattern[0].length;
+        int wordsPerRow = getWordsPerRow(width);
+        long[] words = new long[wordsPerRow * height];
+
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (pattern[x][y]) {
+                    words[y * wordsPerRow + (x >>> 6)] |= 1L << x;
+                }
+            }
+        }
+
+        return new PackedBoard(width, height, 0, 0, 0, words);
+    }
+
+    /**
+     * Gets the number of words needed to store one row of cells
+     *
+     * @param width Number of cells in the row
+     * @return Number of words per row
+     */
+    static int getWordsPerRow(int width) {
+        return (width + 63) >>> 6;
+    }
+
+    //region getters
+
+    /**
+     * Checks if a cell at (x,y) is alive
+     *
+     * @param x X coordinate at grid.
+     * @param y Y coordinate at grid.
+     * @return True if cell is alive, false if it is dead or outside the board
+     */
+    public boolean isCellAlive(int x, int y) {
+
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            return false;
+
+        return (words[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Gets one word of packed cells. Bit n of word i in row y is the cell at x = i * 64 + n
+     *
+     * @param y The row
+     * @param index Index of the word inside the row
+     * @return 64 packed cells
+     */
+    public long getWord(int y, int index) {
+        return words[y * wordsPerRow + index];
+    }
+
+    /**
+     * Checks if this board has the same size and position as another board,
+     * so that the words of the two boards line up.
+     *
+     * @param other Board to compare with
+     * @return True if size and offset are equal
+     */
+    public boolean hasSameGeometry(PackedBoard other) {
+
+        return width == other.width && height == other.height
+                && offsetX == other.offsetX && offsetY == other.offsetY;
+    }
+
+    /**
+     * Checks if this board has exactly the same live cells as another board, at the same
+     * absolute positions. The boards may have different sizes and offsets.
+     *
+     * @param other Board to compare with
+     * @return True if the live cells are the same
+     */
+    public boolean hasSameCells(PackedBoard other) {
+
+        if (cellCount != other.cellCount)
+            return false;
+
+        if (hasSameGeometry(other))
+            return Arrays.equals(words, other.words);
+
+        for (int y = 0; y < height; y++) {
+            for (int i = 0; i < wordsPerRow; i++) {
+
+                long word = getWord(y, i);
+                while (word != 0) {
+
+                    int x = i * 64 + Long.numberOfTrailingZeros(word);
+                    if (!other.isCellAlive(x - offsetX + other.offsetX, y - offsetY + other.offsetY))
+                        return false;
+
+                    word &= word - 1;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the smallest rectangle holding all live cells, from the words of the board
+     *
+     * @return Min x, min y, max x and max y on the board, or null if there are no live cells
+     */
+    public int[] getBoundingBox() {
+        return findBox(null);
+    }
+
+    /**
+     * Finds the smallest rectangle holding all cells that are different on another board,
+     * from the words of the two boards. Used to only redraw what changed between two frames.
+     *
+     * @param previous Board to compare with, must have the same geometry
+     * @return Min x, min y, max x and max y on the board, or null if no cells are different
+     * @throws IllegalArgumentException if the boards do not have the same geometry
+     */
+    public int[] getChangedBox(PackedBoard previous) {
+
+        if (!hasSameGeometry(previous))
+            throw new IllegalArgumentException("Boards must have the same size and offset");
+
+        return findBox(previous.words);
+    }
+
+    /**
+     * Finds the smallest rectangle holding the set bits of the words, or of the words xor others
+     */
+    private int[] findBox(long[] others) {
+
+        int minX = Integer.MAX_VALUE, minY = -1, maxX = -1, maxY = -1;
+
+        for (int y = 0; y < height; y++) {
+            for (int i = 0; i < wordsPerRow; i++) {
+
+                long word = getWord(y, i);
+                if (others != null)
+                    word ^= others[y * wordsPerRow + i];
+                if (word == 0)
+                    continue;
+
+                if (minY < 0)
+                    minY = y;
+                maxY = y;
+                minX = Math.min(minX, i * 64 + Long.numberOfTrailingZeros(word));
+                maxX = Math.max(maxX, i * 64 + 63 - Long.numberOfLeadingZeros(word));
+            }
+        }
+
+        return (minY < 0) ? null : new int[]{minX, minY, maxX, maxY};
+    }
+
+    public int getWidth() { return width; }
+
+    public int getHeight() { return height; }
+
+    public int getOffsetX() { return offsetX; }
+
+    public int getOffsetY() { return offsetY; }
+
+    public long getGeneration() { return generation; }
+
+    public int getWordsPerRow() { return wordsPerRow; }
+
+    public int getCellCount() { return cellCount; }
+
+    /**
+     * Gets a number no other board has, to tell if a board is the same board as one seen
+     * before without keeping it. Boards with the same cells still have different numbers.
+     *
+     * @return The number of the board, never 0
+     */
+    public long getId() { return id; }
+
+    //endregion
+}
@@ -0,0 +1,63 @@
+package model;
+
+import model.Parser.CellSink;
+
+/**
+ * Collects the cells of a streamed pattern into a PackedBoard, one bit per cell.
+ * Runs on different rows may be added from different threads at the same time.
+ */
+public class PackedBoardSink implements CellSink {
+
+    private int width;
+    private int height;
+    private int wordsPerRow;
+    private long[] words;
+    private String rule;
+
+    @Override
+    public void begin(int width, int height, String rule) throws PatternFormatException {
+
+        long size = (long) PackedBoard.getWordsPerRow(width) * height;
+        if (size > Integer.MAX_VALUE - 8)
+            throw new PatternFormatException("Pattern is too large: " + width + "x" + height);
+
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = PackedBoard.getWordsPerRow(width);
+        this.words = new long[(int) size];
+        this.rule = rule;
+    }
+
+    @Override
+    public void addRun(int x, int y, int length) {
+
+        int row = y * wordsPerRow;
+        int end = x + length;
+
+        // fills whole words at a time
+        while (x < end) {
+            int bits = Math.min(64 - (x & 63), end - x);
+            long mask = (bits == 64) ? -1L : ((1L << bits) - 1) << x;
+            words[row + (x >>> 6)] |= mask;
+            x += bits;
+        }
+    }
+
+    /**
+     * Gets the pattern that was read
+     *
+     * @return The pattern at offset (0, 0) and generation 0
+     */
+    public PackedBoard getBoard() {
+        return new PackedBoard(width, height, 0, 0, 0, words);
+    }
+
+    /**
+     * Gets the rule declared by the pattern
+     *
+     * @return The rule, or null if the pattern had none
+     */
+    public String getRule() {
+        return rule;
+    }
+}
@@ -0,0 +1,30 @@
+package model.Parser;
+
+import model.PatternFormatException;
+
+/**
+ * Receives the live cells of a pattern while it is being read, so a pattern
+ * can be streamed into a board without building the whole pattern in memory first.
+ */
+public interface CellSink {
+
+    /**
+     * Called once, before any cells, with the size declared by the pattern
+     *
+     * @param width Width of the pattern
+     * @param height Height of the pattern
+     * @param rule Rule of the pattern, or null if it has none
+     * @throws PatternFormatException if the sink can not hold a pattern of this size
+     */
+    void begin(int width, int height, String rule) throws PatternFormatException;
+
+    /**
+     * Called for every horizontal run of live cells. The runs come in no particular order:
+     * RleReader gives them row by row, MacrocellReader in the order of the quadtree.
+     *
+     * @param x X coordinate of the first cell in the run
+     * @param y Y coordinate of the run
+     * @param length Number of live cells in the run
+     */
+    void addRun(int x, int y, int length);
+}
@@ -2,6 +2,7 @@ package model.Parser;
 
 import model.PatternFormatException;
 
+import java.util.List;
 import java.util.regex.Pattern;
 
 /**
@@ -9,17 +10,22 @@ import java.util.regex.Pattern;
  */
 public class Life05Parser extends PatternParser {
 
-    private static int startPosX;
-    private static int startPosY;
-    private static int offSetX;
-    private static int offSetY;
-    private static int startOfSubPattern;
+    private int startPosX;
+    private int startPosY;
+    private int offSetX;
+    private int offSetY;
+    private int startOfSubPattern;
+
+    Life05Parser(List<String> fileContentList) {
+        super(fileContentList);
+    }
 
     /**
      * reads the string content from a Life 1.05 file
      * @return the boolean array produced from the list
      */
-    static boolean[][] parseLife05() throws PatternFormatException {
+    @Override
+    boolean[][] parse() throws PatternFormatException {
 
         patternWidth = 0;
         patternHeight = 0;
@@ -40,7 +46,7 @@ public class Life05Parser extends PatternParser {
 
 
 
-    private static void extractRulesFromMetaData() throws PatternFormatException {
+    private void extractRulesFromMetaData() throws PatternFormatException {
 
         while (!fileContentList.get(FIRST_LINE).startsWith("#P")){
             if(fileContentList.get(FIRST_LINE).startsWith("#R")){
@@ -48,24 +54,26 @@ public class Life05Parser extends PatternParser {
             }
 
             else if(fileContentList.get(FIRST_LINE).startsWith("#N")) {
-                if (lastImportedRule != null)
+                if (rule != null)
                     throw new PatternFormatException("Multiple rules present");
-                lastImportedRule = "23/3"; // Conway's default rule
+                rule = "23/3"; // Conway's default rule
             }
 
-            fileContentList.remove(FIRST_LINE);
+            metaData.add(fileContentList.remove(FIRST_LINE));
+            if(fileContentList.isEmpty())
+                throw new PatternFormatException("Life 1.05 file has no cells");
         }
     }
 
-    private static void extractRules() throws PatternFormatException {
+    private void extractRules() throws PatternFormatException {
 
-        if(lastImportedRule != null) {
+        if(rule != null) {
             throw new PatternFormatException("Multiple rules present");
         }
-        lastImportedRule = fileContentList.get(FIRST_LINE).replaceAll("[^1-9/1-9]", "");
+        rule = fileContentList.get(FIRST_LINE).replaceAll("[^1-9/1-9]", "");
     }
 
-    private static void findUpperLeftCellCoordinates() {
+    private void findUpperLeftCellCoordinates() {
 
         for (String currentLine : fileContentList) {
 
@@ -86,7 +94,7 @@ public class Life05Parser extends PatternParser {
         }
     }
 
-    private static void getGridProperties() {
+    private void getGridProperties() {
 
         for(int i = 0; i < fileContentList.size(); i++){
 
@@ -111,7 +119,7 @@ public class Life05Parser extends PatternParser {
         }
     }
 
-    private static void buildPatternArray() throws PatternFormatException {
+    private void buildPatternArray() throws PatternFormatException {
 
         int x = 0;
         int y = 0;
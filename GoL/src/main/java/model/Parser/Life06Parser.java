@@ -2,20 +2,29 @@ package model.Parser;
 
 import model.PatternFormatException;
 
+import java.util.List;
 import java.util.regex.Pattern;
 
 /**
  * Created by Truls on 12/04/16.
  */
 public class Life06Parser extends PatternParser {
+
+    Life06Parser(List<String> fileContentList) {
+        super(fileContentList);
+    }
+
     /**
      * reads the string content from a Life 1.06 file
      * @return the boolean array produced from the list
      */
-    static boolean[][] parseLife06() throws PatternFormatException {
+    @Override
+    boolean[][] parse() throws PatternFormatException {
 
         while(fileContentList.get(FIRST_LINE).startsWith("#")){
-            fileContentList.remove(FIRST_LINE);
+            metaData.add(fileContentList.remove(FIRST_LINE));
+            if(fileContentList.isEmpty())
+                throw new PatternFormatException("Life 1.06 file has no cells");
         }
         patternParameters = Pattern.compile("(.+) (.+)");
 
@@ -38,7 +47,7 @@ public class Life06Parser extends PatternParser {
             patternMatcher = patternParameters.matcher(fileContentList.get(i));
 
             if(!patternMatcher.matches()){
-                return null;
+                throw new PatternFormatException("Couldn't parse Life 1.06 file");
             }
             possibleWidth = Integer.parseInt(patternMatcher.group(1));
             possibleHeight = Integer.parseInt(patternMatcher.group(2));
@@ -68,7 +77,7 @@ public class Life06Parser extends PatternParser {
             }
             patternArray[Integer.parseInt(patternMatcher.group(1)) - startPosX][Integer.parseInt(patternMatcher.group(2)) - startPosY] = true;
         }
-        lastImportedRule = null;
+        rule = null;
         return patternArray;
     }
 }
@@ -0,0 +1,133 @@
+package model.Parser;
+
+import model.PatternFormatException;
+import model.SparsePattern;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Reads a Life 1.06 file line by line straight into a SparsePattern.
+ *
+ * Unlike Life06Parser no array covering the whole pattern is made, so two cells
+ * far apart cost no more than two cells next to each other.
+ */
+public class Life06Reader {
+
+    /**
+     * Checks if a file is a Life 1.06 file
+     *
+     * @param file The file to check
+     * @return True if the file has the type .lif or .life, and starts with the Life 1.06 header
+     * @throws IOException if the file could not be read
+     */
+    public static boolean isLife06(File file) throws IOException {
+
+        String name = file.getName().toLowerCase();
+        if (!name.endsWith(".lif") && !name.endsWith(".life"))
+            return false;
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.ISO_8859_1)) {
+            String firstLine = reader.readLine();
+            return firstLine != null && firstLine.contains("Life 1.06");
+        }
+    }
+
+    /**
+     * Reads a Life 1.06 file
+     *
+     * @param file The file to read
+     * @return The live cells, at the coordinates given in the file
+     * @throws IOException if the file could not be read or is not a valid Life 1.06 file
+     */
+    public static SparsePattern read(File file) throws IOException {
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.ISO_8859_1)) {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Reads Life 1.06 text
+     *
+     * @param reader The text to read
+     * @return The live cells, at the coordinates given in the text
+     * @throws IOException if the text could not be read or is not valid Life 1.06
+     */
+    public static SparsePattern read(BufferedReader reader) throws IOException {
+
+        int[] xs = new int[64];
+        int[] ys = new int[64];
+        int count = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+
+            if (line.startsWith("#") || line.trim().isEmpty())
+                continue;
+
+            if (count == xs.length) {
+                xs = Arrays.copyOf(xs, count * 2);
+                ys = Arrays.copyOf(ys, count * 2);
+            }
+
+            // two whole numbers separated by white space
+            int[] position = {0};
+            xs[count] = readNumber(line, position);
+            ys[count] = readNumber(line, position);
+
+            skipWhiteSpace(line, position);
+            if (position[0] != line.length())
+                throw new PatternFormatException("Couldn't parse Life 1.06 file");
+
+            count++;
+        }
+
+        return SparsePattern.of(xs, ys, count);
+    }
+
+    /**
+     * Reads a whole number from a line, after any white space
+     *
+     * @param line The line
+     * @param position Where to start, moved past the number
+     * @return The number
+     * @throws PatternFormatException if there is no number, or it is too large
+     */
+    private static int readNumber(String line, int[] position) throws PatternFormatException {
+
+        skipWhiteSpace(line, position);
+
+        int i = position[0];
+        boolean negative = i < line.length() && line.charAt(i) == '-';
+        if (negative || (i < line.length() && line.charAt(i) == '+'))
+            i++;
+
+        int start = i;
+        long number = 0;
+
+        while (i < line.length() && line.charAt(i) >= '0' && line.charAt(i) <= '9') {
+            number = number * 10 + (line.charAt(i) - '0');
+            if (number > Integer.MAX_VALUE)
+                throw new PatternFormatException("Coordinate is too large in Life 1.06 file");
+            i++;
+        }
+
+        if (i == start)
+            throw new PatternFormatException("Couldn't parse Life 1.06 file");
+
+        position[0] = i;
+        return (int) (negative ? -number : number);
+    }
+
+    private static void skipWhiteSpace(String line, int[] position) {
+
+        while (position[0] < line.length() && Character.isWhitespace(line.charAt(position[0]))) {
+            position[0]++;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package model.Parser;
+
+import model.PatternFormatException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads a two-state macrocell (.mc) file, the hashed quadtree format of Golly, into a CellSink.
+ *
+ * Every line after the header is a node. A leaf is 8x8 cells written as '.' for dead,
+ * '*' for alive and '$' for the end of a row. Any other node is its level and the line
+ * numbers of its four children, north west, north east, south west and south east, where
+ * 0 is an empty child. A node of level n is 2^n cells wide and the last node is the root.
+ *
+ * The tree is walked from the root, skipping empty nodes, and the runs of live cells in
+ * the leaves are passed on. So the pattern is never expanded to a dense array, and the
+ * nodes are kept in memory once no matter how many times they are used.
+ */
+public class MacrocellReader {
+
+    private static final int LEAF_LEVEL = 3;
+
+    // deepest tree whose coordinates fit in a long
+    private static final int MAX_LEVEL = 62;
+
+    private final BufferedReader reader;
+    private final List<String> metaData = new ArrayList<>();
+    private String rule;
+    private long generation;
+
+    // node n is at index n - 1, the levels, the four children of other nodes and the cells of leaves
+    private int nodeCount;
+    private int[] levels = new int[1024];
+    private int[] children = new int[4 * 1024];
+    private long[] leaves = new long[1024];
+
+    // bounding box of the live cells of every node, relative to the node, or min x -1 if it is empty
+    private long[] minX = new long[1024];
+    private long[] minY = new long[1024];
+    private long[] maxX = new long[1024];
+    private long[] maxY = new long[1024];
+
+    private CellSink sink;
+
+    /**
+     * MacrocellReader constructor.
+     *
+     * @param reader The lines of the file, starting with the [M2] header
+     */
+    public MacrocellReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads a macrocell file into a sink
+     *
+     * @param file The file to read
+     * @param sink Receives the live cells
+     * @return The reader, for its meta data
+     * @throws IOException if the file could not be read or is not a valid macrocell file
+     */
+    public static MacrocellReader read(File file, CellSink sink) throws IOException {
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath())) {
+            MacrocellReader macrocellReader = new MacrocellReader(reader);
+            macrocellReader.read(sink);
+            return macrocellReader;
+        }
+    }
+
+    //region reading
+
+    /**
+     * Reads the tree and passes the live cells to the sink, cropped to their bounding box
+     *
+     * @param sink Receives the live cells
+     * @throws IOException if the file could not be read or is not a valid macrocell file
+     */
+    public void read(CellSink sink) throws IOException {
+
+        this.sink = sink;
+
+        String line = reader.readLine();
+        if (line == null || !line.startsWith("[M2]"))
+            throw new PatternFormatException("Not a macrocell file, expected [M2] on the first line");
+
+        while ((line = reader.readLine()) != null) {
+
+            line = line.trim();
+            if (line.isEmpty())
+                continue;
+
+            if (line.startsWith("#"))
+                readComment(line);
+            else if (line.charAt(0) == '.' || line.charAt(0) == '*' || line.charAt(0) == '$')
+                addLeaf(readLeaf(line));
+            else
+                readNode(line);
+        }
+
+        int root = nodeCount;
+        if (root == 0 || minX[root - 1] < 0) {
+            sink.begin(0, 0, rule);
+            return;
+        }
+
+        long width = maxX[root - 1] - minX[root - 1] + 1;
+        long height = maxY[root - 1] - minY[root - 1] + 1;
+        if (width > Integer.MAX_VALUE || height > Integer.MAX_VALUE)
+            throw new PatternFormatException("Pattern is too large: " + width + "x" + height);
+
+        sink.begin((int) width, (int) height, rule);
+        emit(root, -minX[root - 1], -minY[root - 1]);
+    }
+
+    private void readComment(String line) {
+
+        if (line.startsWith("#R")) {
+            rule = line.substring(2).trim();
+        }
+        else if (line.startsWith("#G")) {
+            try {
+                generation = Long.parseLong(line.substring(2).trim());
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        else {
+            metaData.add(line);
+        }
+    }
+
+    /**
+     * Reads the cells of a leaf, bit x + 8y is the cell at (x, y)
+     */
+    private long readLeaf(String line) throws PatternFormatException {
+
+        long cells = 0;
+        int x = 0, y = 0;
+
+        for (int i = 0; i < line.length(); i++) {
+
+            char character = line.charAt(i);
+            if (character == '$') {
+                x = 0;
+                y++;
+                continue;
+            }
+
+            if ((character != '.' && character != '*') || x >= 8 || y >= 8)
+                throw new PatternFormatException("Invalid leaf on node " + (nodeCount + 1) + ": " + line);
+
+            if (character == '*')
+                cells |= 1L << (x + 8 * y);
+            x++;
+        }
+        return cells;
+    }
+
+    private void readNode(String line) throws PatternFormatException {
+
+        String[] parts = line.split("\\s+");
+        int[] numbers = new int[parts.length];
+
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                numbers[i] = Integer.parseInt(parts[i]);
+            }
+        } catch (NumberFormatException e) {
+            throw new PatternFormatException("Invalid node " + (nodeCount + 1) + ": " + line);
+        }
+
+        if (numbers.length != 5)
+            throw new PatternFormatException("Invalid node " + (nodeCount + 1) + ": " + line);
+
+        int level = numbers[0];
+        if (level <= LEAF_LEVEL)
+            throw new PatternFormatException("Only two-state macrocell files are supported");
+        if (level > MAX_LEVEL)
+            throw new PatternFormatException("Pattern is too large, level " + level);
+
+        for (int i = 1; i <= 4; i++) {
+
+            int child = numbers[i];
+            if (child < 0 || child > nodeCount)
+                throw new PatternFormatException("Node " + (nodeCount + 1) + " refers to a later node: " + line);
+            if (child > 0 && levels[child - 1] != level - 1)
+                throw new PatternFormatException("Node " + (nodeCount + 1) + " has a child of the wrong level: " + line);
+        }
+
+        addNode(level, numbers[1], numbers[2], numbers[3], numbers[4]);
+    }
+
+    //endregion
+
+    //region nodes
+
+    private void addLeaf(long cells) {
+
+        int index = grow();
+        levels[index] = LEAF_LEVEL;
+        leaves[index] = cells;
+
+        if (cells == 0) {
+            minX[index] = -1;
+            return;
+        }
+
+        int minimumX = 8, maximumX = -1;
+        for (int y = 0; y < 8; y++) {
+            int row = (int) (cells >>> (8 * y)) & 0xFF;
+            if (row != 0) {
+                minimumX = Math.min(minimumX, Integer.numberOfTrailingZeros(row));
+                maximumX = Math.max(maximumX, 31 - Integer.numberOfLeadingZeros(row));
+            }
+        }
+
+        minX[index] = minimumX;
+        maxX[index] = maximumX;
+        minY[index] = Long.numberOfTrailingZeros(cells) / 8;
+        maxY[index] = (63 - Long.numberOfLeadingZeros(cells)) / 8;
+    }
+
+    /**
+     * Adds a node with children of the level below, and finds its bounding box from theirs
+     */
+    private void addNode(int level, int northWest, int northEast, int southWest, int southEast) {
+
+        int index = grow();
+        levels[index] = level;
+        children[4 * index] = northWest;
+        children[4 * index + 1] = northEast;
+        children[4 * index + 2] = southWest;
+        children[4 * index + 3] = southEast;
+
+        long half = 1L << (level - 1);
+        minX[index] = -1;
+
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+
+            int child = children[4 * index + quadrant];
+            if (child == 0 || minX[child - 1] < 0)
+                continue;
+
+            long left = (quadrant % 2 == 0) ? 0 : half;
+            long top = (quadrant < 2) ? 0 : half;
+
+            if (minX[index] < 0) {
+                minX[index] = left + minX[child - 1];
+                minY[index] = top + minY[child - 1];
+                maxX[index] = left + maxX[child - 1];
+                maxY[index] = top + maxY[child - 1];
+            }
+            else {
+                minX[index] = Math.min(minX[index], left + minX[child - 1]);
+                minY[index] = Math.min(minY[index], top + minY[child - 1]);
+                maxX[index] = Math.max(maxX[index], left + maxX[child - 1]);
+                maxY[index] = Math.max(maxY[index], top + maxY[child - 1]);
+            }
+        }
+    }
+
+    /**
+     * Makes room for one more node
+     * @return Index of the new node
+     */
+    private int grow() {
+
+        if (nodeCount == levels.length) {
+            int capacity = 2 * levels.length;
+            levels = Arrays.copyOf(levels, capacity);
+            children = Arrays.copyOf(children, 4 * capacity);
+            leaves = Arrays.copyOf(leaves, capacity);
+            minX = Arrays.copyOf(minX, capacity);
+            minY = Arrays.copyOf(minY, capacity);
+            maxX = Arrays.copyOf(maxX, capacity);
+            maxY = Arrays.copyOf(maxY, capacity);
+        }
+        return nodeCount++;
+    }
+
+    /**
+     * Passes the live cells of a node to the sink
+     *
+     * @param node Number of the node, 0 for an empty node
+     * @param left Position of the node in the pattern
+     * @param top Position of the node in the pattern
+     */
+    private void emit(int node, long left, long top) {
+
+        if (node == 0 || minX[node - 1] < 0)
+            return;
+
+        int index = node - 1;
+
+        if (levels[index] == LEAF_LEVEL) {
+
+            long cells = leaves[index];
+            for (int y = 0; y < 8; y++) {
+
+                int row = (int) (cells >>> (8 * y)) & 0xFF;
+                while (row != 0) {
+
+                    // a run starts at the lowest live cell and ends at the next dead one
+                    int start = Integer.numberOfTrailingZeros(row);
+                    int end = Integer.numberOfTrailingZeros(~(row >>> start)) + start;
+                    sink.addRun((int) (left + start), (int) (top + y), end - start);
+                    row &= -1 << end;
+                }
+            }
+            return;
+        }
+
+        long half = 1L << (levels[index] - 1);
+        emit(children[4 * index], left, top);
+        emit(children[4 * index + 1], left + half, top);
+        emit(children[4 * index + 2], left, top + half);
+        emit(children[4 * index + 3], left + half, top + half);
+    }
+
+    //endregion
+
+    //region getters
+
+    /**
+     * Gets the comment lines of the file, other than the rule and generation
+     *
+     * @return Unmodifiable list of the lines, with their comment markers
+     */
+    public List<String> getMetaData() {
+        return Collections.unmodifiableList(metaData);
+    }
+
+    /**
+     * Gets the generation written in the file
+     *
+     * @return The generation, or 0 if the file has none
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    //endregion
+}
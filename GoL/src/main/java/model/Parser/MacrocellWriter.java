@@ -0,0 +1,245 @@
+package model.Parser;
+
+import model.PackedBoard;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Writes a board as a two-state macrocell (.mc) file, the hashed quadtree format read by MacrocellReader.
+ *
+ * The board is split into a quadtree with 8x8 leaves, and every distinct node is written once,
+ * the first time it is found. Repeated parts of a pattern share their nodes, so regular patterns
+ * are far smaller than as RLE. Empty parts of the board are skipped a word at a time.
+ */
+public class MacrocellWriter {
+
+    private static final int LEAF_LEVEL = 3;
+
+    // from this level a node is whole words wide, and empty nodes are found from the words
+    private static final int WORD_LEVEL = 6;
+
+    private final PackedBoard board;
+    private final Writer writer;
+
+    // the tree starts at the first row and the first word with live cells
+    private int originX;
+    private int originY;
+
+    // line number of every node written so far
+    private final Map<Long, Integer> leafNumbers = new HashMap<>();
+    private final Map<Node, Integer> nodeNumbers = new HashMap<>();
+    private int nodeCount;
+
+    /**
+     * A node above the leaves, as its level and its four children
+     */
+    private static final class Node {
+
+        final int level, northWest, northEast, southWest, southEast;
+
+        Node(int level, int northWest, int northEast, int southWest, int southEast) {
+            this.level = level;
+            this.northWest = northWest;
+            this.northEast = northEast;
+            this.southWest = southWest;
+            this.southEast = southEast;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+
+            if (!(other instanceof Node))
+                return false;
+            Node node = (Node) other;
+            return level == node.level && northWest == node.northWest && northEast == node.northEast
+                    && southWest == node.southWest && southEast == node.southEast;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(level, northWest, northEast, southWest, southEast);
+        }
+    }
+
+    private MacrocellWriter(PackedBoard board, Writer writer) {
+        this.board = board;
+        this.writer = writer;
+    }
+
+    /**
+     * Writes a board to a channel. The channel is not closed.
+     *
+     * @param channel Where to write
+     * @param board The cells to write
+     * @param ruleText Rule to write, or null to leave it out
+     * @param comments Comment lines to write after the rule, with their comment markers
+     * @throws IOException if the channel could not be written
+     */
+    public static void write(WritableByteChannel channel, PackedBoard board, String ruleText, List<String> comments) throws IOException {
+
+        Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.US_ASCII.newEncoder(), -1));
+
+        writer.write("[M2] (GoL)\n");
+        if (ruleText != null)
+            writer.write("#R " + ruleText + "\n");
+        if (board.getGeneration() > 0)
+            writer.write("#G " + board.getGeneration() + "\n");
+        for (String comment : comments) {
+            writer.write(comment + "\n");
+        }
+
+        MacrocellWriter macrocellWriter = new MacrocellWriter(board, writer);
+        int level = macrocellWriter.findRootLevel();
+
+        if (level < 0 || macrocellWriter.writeNode(level, macrocellWriter.originX, macrocellWriter.originY) == 0)
+            writer.write("$\n");
+
+        writer.flush();
+    }
+
+    /**
+     * Finds where the live cells are, and the smallest tree that covers them from there
+     *
+     * @return Level of the root, or -1 if there are no live cells
+     */
+    private int findRootLevel() {
+
+        int firstRow = -1, lastRow = -1;
+        int firstWord = Integer.MAX_VALUE, lastWord = -1;
+
+        for (int y = 0; y < board.getHeight(); y++) {
+            for (int i = 0; i < board.getWordsPerRow(); i++) {
+
+                if (board.getWord(y, i) == 0)
+                    continue;
+
+                if (firstRow < 0)
+                    firstRow = y;
+                lastRow = y;
+                firstWord = Math.min(firstWord, i);
+                lastWord = Math.max(lastWord, i);
+            }
+        }
+
+        if (firstRow < 0)
+            return -1;
+
+        originX = firstWord * 64;
+        originY = firstRow;
+        long size = Math.max((lastWord - firstWord + 1) * 64L, lastRow - firstRow + 1);
+
+        int level = LEAF_LEVEL;
+        while ((1L << level) < size) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Writes the nodes of a part of the board that are not written yet, children first
+     *
+     * @param level Level of the node, it is 2^level cells wide
+     * @param left Position of the node on the board
+     * @param top Position of the node on the board
+     * @return Line number of the node, or 0 if it is empty
+     */
+    private int writeNode(int level, long left, long top) throws IOException {
+
+        if (left >= board.getWidth() || top >= board.getHeight())
+            return 0;
+
+        if (level == LEAF_LEVEL)
+            return writeLeaf(getLeaf((int) left, (int) top));
+
+        if (level >= WORD_LEVEL && isEmpty(level, (int) left, (int) top))
+            return 0;
+
+        long half = 1L << (level - 1);
+        Node node = new Node(level,
+                writeNode(level - 1, left, top),
+                writeNode(level - 1, left + half, top),
+                writeNode(level - 1, left, top + half),
+                writeNode(level - 1, left + half, top + half));
+
+        if (node.northWest == 0 && node.northEast == 0 && node.southWest == 0 && node.southEast == 0)
+            return 0;
+
+        Integer number = nodeNumbers.get(node);
+        if (number != null)
+            return number;
+
+        writer.write(level + " " + node.northWest + " " + node.northEast + " " + node.southWest + " " + node.southEast + "\n");
+        nodeNumbers.put(node, ++nodeCount);
+        return nodeCount;
+    }
+
+    private int writeLeaf(long cells) throws IOException {
+
+        if (cells == 0)
+            return 0;
+
+        Integer number = leafNumbers.get(cells);
+        if (number != null)
+            return number;
+
+        // trailing dead cells and trailing empty rows are left out
+        StringBuilder line = new StringBuilder();
+        int rows = (63 - Long.numberOfLeadingZeros(cells)) / 8 + 1;
+        for (int y = 0; y < rows; y++) {
+
+            int row = (int) (cells >>> (8 * y)) & 0xFF;
+            for (int x = 0; row >>> x != 0; x++) {
+                line.append(((row >>> x) & 1) == 0 ? '.' : '*');
+            }
+            line.append('$');
+        }
+
+        writer.write(line.append('\n').toString());
+        leafNumbers.put(cells, ++nodeCount);
+        return nodeCount;
+    }
+
+    /**
+     * Gets the 8x8 cells at a position, bit x + 8y is the cell at (left + x, top + y)
+     */
+    private long getLeaf(int left, int top) {
+
+        long cells = 0;
+        int rows = Math.min(8, board.getHeight() - top);
+
+        // the leaf is inside one word, as left is a multiple of 8
+        for (int y = 0; y < rows; y++) {
+            long row = (board.getWord(top + y, left >>> 6) >>> (left & 63)) & 0xFF;
+            cells |= row << (8 * y);
+        }
+        return cells;
+    }
+
+    /**
+     * Checks the words of a node whole words wide for live cells
+     */
+    private boolean isEmpty(int level, int left, int top) {
+
+        long size = 1L << level;
+        int bottom = (int) Math.min(board.getHeight(), top + size);
+        int firstWord = left >>> 6;
+        int endWord = (int) Math.min(board.getWordsPerRow(), (left + size) >>> 6);
+
+        for (int y = top; y < bottom; y++) {
+            for (int i = firstWord; i < endWord; i++) {
+                if (board.getWord(y, i) != 0)
+                    return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,187 @@
+package model.Parser;
+
+import model.PackedBoardSink;
+import model.PatternFormatException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Decodes large RLE files on several threads.
+ *
+ * The file is memory mapped, and the cells are split into chunks that each start
+ * at the beginning of a row, right after a '$'. The rows in each chunk are counted
+ * in parallel, the counts are summed to find the first row of every chunk, and
+ * then the chunks are decoded in parallel into a PackedBoardSink. Since no two
+ * chunks share a row, they never write to the same words of the board.
+ */
+public class MappedRleDecoder {
+
+    // smallest chunk worth decoding on its own thread
+    static final int MIN_CHUNK_SIZE = 1 << 20;
+
+    private final List<String> metaData = new ArrayList<>();
+
+    /**
+     * Decodes a RLE file into a packed board
+     *
+     * @param file The file to decode
+     * @param sink Receives the cells, from several threads at once
+     * @throws IOException if the file could not be read or is not valid RLE
+     */
+    public void decode(File file, PackedBoardSink sink) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+
+            // a buffer can't map more than 2 GB, larger files are streamed instead
+            if (channel.size() > Integer.MAX_VALUE) {
+                RleReader reader = new RleReader(channel);
+                reader.read(sink);
+                metaData.addAll(reader.getMetaData());
+                return;
+            }
+
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            decode(data, sink, Runtime.getRuntime().availableProcessors() * 4);
+        }
+    }
+
+    /**
+     * Decodes RLE data into a packed board
+     *
+     * @param data The RLE data, from its current position
+     * @param sink Receives the cells, from several threads at once
+     * @param chunkCount Number of chunks to aim for
+     * @throws PatternFormatException if the data is not valid RLE
+     */
+    void decode(ByteBuffer data, PackedBoardSink sink, int chunkCount) throws PatternFormatException {
+
+        RleReader header = new RleReader((ReadableByteChannel) null);
+        header.readHeader(data, sink);
+        metaData.addAll(header.getMetaData());
+
+        int[] bounds = findChunks(data, data.position(), data.limit(), chunkCount);
+        int chunks = bounds.length - 1;
+
+        // rows in each chunk, and the position of the exclamation mark if the chunk has one
+        long[] rows = new long[chunks];
+        int[] ends = new int[chunks];
+
+        IntStream.range(0, chunks).parallel().forEach(i -> {
+            long[] result = countRows(data, bounds[i], bounds[i + 1]);
+            rows[i] = result[0];
+            ends[i] = (int) result[1];
+        });
+
+        // only the chunks up to the first exclamation mark are part of the pattern
+        int lastChunk = -1;
+        for (int i = 0; i < chunks; i++) {
+            if (ends[i] >= 0) {
+                lastChunk = i;
+                break;
+            }
+        }
+        if (lastChunk < 0)
+            throw new PatternFormatException("Missing exclamation mark");
+
+        int[] startRows = new int[lastChunk + 1];
+        long row = 0;
+        for (int i = 0; i <= lastChunk; i++) {
+            startRows[i] = (int) Math.min(row, header.getHeight());
+            row += rows[i];
+        }
+
+        try {
+            IntStream.rangeClosed(0, lastChunk).parallel().forEach(i -> {
+
+                ByteBuffer chunk = data.duplicate();
+                chunk.limit(bounds[i + 1]).position(bounds[i]);
+
+                try {
+                    new RleReader(header).readCells(chunk, startRows[i]);
+                } catch (PatternFormatException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw (PatternFormatException) e.getCause();
+        }
+    }
+
+    /**
+     * Splits the cells into chunks that start right after a '$'
+     *
+     * @return Start of every chunk, followed by the end of the last chunk
+     */
+    static int[] findChunks(ByteBuffer data, int start, int end, int chunkCount) {
+
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, (int) (((long) end - start) / Math.max(1, chunkCount)));
+
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(start);
+
+        int position = start;
+        while ((long) position + chunkSize < end) {
+
+            position += chunkSize;
+            while (position < end && data.get(position - 1) != '$') {
+                position++;
+            }
+
+            if (position < end)
+                bounds.add(position);
+        }
+        bounds.add(end);
+
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Counts the rows a chunk moves down, the same way RleReader reads the run counts
+     *
+     * @return The number of rows, and the position of the exclamation mark or -1
+     */
+    static long[] countRows(ByteBuffer data, int start, int end) {
+
+        long rows = 0;
+        int count = 0;
+
+        for (int i = start; i < end; i++) {
+
+            byte character = data.get(i);
+
+            if (character >= '0' && character <= '9') {
+                count = (count > (Integer.MAX_VALUE - 9) / 10) ? count : count * 10 + (character - '0');
+            }
+            else if (character == '$') {
+                rows += (count == 0) ? 1 : count;
+                count = 0;
+            }
+            else if (character == 'b' || character == 'o') {
+                count = 0;
+            }
+            else if (character == '!') {
+                return new long[]{rows, i};
+            }
+        }
+        return new long[]{rows, -1};
+    }
+
+    /**
+     * Gets the comment lines read before the header
+     *
+     * @return The lines, with their comment markers
+     */
+    public List<String> getMetaData() {
+        return metaData;
+    }
+}
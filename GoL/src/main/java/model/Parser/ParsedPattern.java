@@ -0,0 +1,122 @@
+package model.Parser;
+
+import model.PackedBoard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of parsing a pattern file. Immutable, so it can be handed between threads freely.
+ */
+public final class ParsedPattern {
+
+    private final PackedBoard cells;
+    private final String rule;
+    private final List<String> metaData;
+    private final long generation;
+
+    /**
+     * ParsedPattern constructor. The pattern array is copied.
+     *
+     * @param pattern The live cells, indexed [x][y]
+     * @param rule The rule of the pattern, or null if it has none
+     * @param metaData The comment lines of the file
+     */
+    ParsedPattern(boolean[][] pattern, String rule, List<String> metaData) {
+
+        this.cells = PackedBoard.of(pattern);
+        this.rule = rule;
+        this.metaData = Collections.unmodifiableList(new ArrayList<>(metaData));
+        this.generation = 0;
+    }
+
+    /**
+     * ParsedPattern constructor for a pattern that was read straight into a packed board.
+     *
+     * @param cells The live cells
+     * @param rule The rule of the pattern, or null if it has none
+     * @param metaData The comment lines of the file
+     */
+    ParsedPattern(PackedBoard cells, String rule, List<String> metaData) {
+        this(cells, rule, metaData, 0);
+    }
+
+    /**
+     * ParsedPattern constructor for a pattern that was read straight into a packed board, from
+     * a file that says which generation it shows.
+     *
+     * @param cells The live cells
+     * @param rule The rule of the pattern, or null if it has none
+     * @param metaData The comment lines of the file
+     * @param generation The generation given in the file
+     */
+    ParsedPattern(PackedBoard cells, String rule, List<String> metaData, long generation) {
+
+        this.cells = cells;
+        this.rule = rule;
+        this.metaData = Collections.unmodifiableList(new ArrayList<>(metaData));
+        this.generation = generation;
+    }
+
+    /**
+     * Gets the live cells of the pattern
+     *
+     * @return The cells, at offset (0, 0)
+     */
+    public PackedBoard getCells() {
+        return cells;
+    }
+
+    /**
+     * Gets a new array with the live cells of the pattern, as returned by PatternParser.read()
+     *
+     * @return The cells, indexed [x][y]
+     */
+    public boolean[][] toArray() {
+
+        boolean[][] pattern = new boolean[cells.getWidth()][cells.getHeight()];
+
+        for (int x = 0; x < cells.getWidth(); x++) {
+            for (int y = 0; y < cells.getHeight(); y++) {
+                pattern[x][y] = cells.isCellAlive(x, y);
+            }
+        }
+        return pattern;
+    }
+
+    public int getWidth() {
+        return cells.getWidth();
+    }
+
+    public int getHeight() {
+        return cells.getHeight();
+    }
+
+    /**
+     * Gets the rule given in the pattern file
+     *
+     * @return The rule as written in the file, or null if the file has none
+     */
+    public String getRule() {
+        return rule;
+    }
+
+    /**
+     * Gets the comment lines of the pattern file, like name, author and description
+     *
+     * @return Unmodifiable list of the lines, with their comment markers
+     */
+    public List<String> getMetaData() {
+        return metaData;
+    }
+
+    /**
+     * Gets the generation given in the pattern file, as the #G line of a macrocell file
+     *
+     * @return The generation, or 0 if the file has none
+     */
+    public long getGeneration() {
+        return generation;
+    }
+}
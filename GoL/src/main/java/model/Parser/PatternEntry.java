@@ -0,0 +1,175 @@
+package model.Parser;
+
+/**
+ * One pattern file in the pattern library, with the information needed to browse and search
+ * the library without parsing the file again. Immutable.
+ */
+public final class PatternEntry {
+
+    private final String path;
+    private final long lastModified;
+    private final long size;
+
+    // null if the file could be parsed
+    private final String error;
+
+    private final String name;
+    private final String rule;
+    private final int population;
+    private final int minX;
+    private final int minY;
+    private final int maxX;
+    private final int maxY;
+    private final int period;
+
+    private final int thumbnailWidth;
+    private final int thumbnailHeight;
+    private final long[] thumbnail;
+
+    /**
+     * PatternEntry constructor for a file that was parsed. The thumbnail array is used directly.
+     *
+     * @param path Path of the file, relative to the library
+     * @param lastModified Modification time of the file, in milliseconds
+     * @param size Size of the file in bytes
+     * @param name Name of the pattern
+     * @param rule Rule of the pattern, or null if it has none
+     * @param population Number of live cells
+     * @param boundingBox Min x, min y, max x and max y of the live cells in the file
+     * @param period Period of the pattern, or 0 if none was found
+     * @param thumbnailWidth Width of the thumbnail
+     * @param thumbnailHeight Height of the thumbnail
+     * @param thumbnail Thumbnail bits, row by row
+     */
+    PatternEntry(String path, long lastModified, long size, String name, String rule, int population,
+                 int[] boundingBox, int period, int thumbnailWidth, int thumbnailHeight, long[] thumbnail) {
+
+        this.path = path;
+        this.lastModified = lastModified;
+        this.size = size;
+        this.error = null;
+        this.name = name;
+        this.rule = rule;
+        this.population = population;
+        this.minX = boundingBox[0];
+        this.minY = boundingBox[1];
+        this.maxX = boundingBox[2];
+        this.maxY = boundingBox[3];
+        this.period = period;
+        this.thumbnailWidth = thumbnailWidth;
+        this.thumbnailHeight = thumbnailHeight;
+        this.thumbnail = thumbnail;
+    }
+
+    /**
+     * PatternEntry constructor for a file that could not be parsed,
+     * kept so the file isn't parsed again until it changes.
+     *
+     * @param path Path of the file, relative to the library
+     * @param lastModified Modification time of the file, in milliseconds
+     * @param size Size of the file in bytes
+     * @param error Why the file could not be parsed
+     */
+    PatternEntry(String path, long lastModified, long size, String error) {
+
+        this.path = path;
+        this.lastModified = lastModified;
+        this.size = size;
+        this.error = error;
+        this.name = path;
+        this.rule = null;
+        this.population = 0;
+        this.minX = 0;
+        this.minY = 0;
+        this.maxX = -1;
+        this.maxY = -1;
+        this.period = 0;
+        this.thumbnailWidth = 0;
+        this.thumbnailHeight = 0;
+        this.thumbnail = new long[0];
+    }
+
+    /**
+     * Checks if the entry still describes a file
+     *
+     * @param lastModified Modification time of the file
+     * @param size Size of the file
+     * @return True if the file has not changed since it was indexed
+     */
+    boolean isCurrent(long lastModified, long size) {
+        return this.lastModified == lastModified && this.size == size;
+    }
+
+    /**
+     * Checks if the entry matches a search
+     *
+     * @param query Lower case text to look for in the name, path and rule
+     * @return True if the text was found
+     */
+    boolean matches(String query) {
+
+        return name.toLowerCase().contains(query)
+                || path.toLowerCase().contains(query)
+                || (rule != null && rule.toLowerCase().contains(query));
+    }
+
+    /**
+     * Checks if a cell of the thumbnail is set
+     *
+     * @param x X coordinate in the thumbnail
+     * @param y Y coordinate in the thumbnail
+     * @return True if any cell in the area of the pattern shown by this thumbnail cell is alive
+     */
+    public boolean isThumbnailSet(int x, int y) {
+
+        int bit = y * thumbnailWidth + x;
+        return (thumbnail[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    public boolean isValid() { return error == null; }
+
+    public String getError() { return error; }
+
+    public String getPath() { return path; }
+
+    public long getLastModified() { return lastModified; }
+
+    public long getSize() { return size; }
+
+    public String getName() { return name; }
+
+    public String getRule() { return rule; }
+
+    public int getPopulation() { return population; }
+
+    public int getMinX() { return minX; }
+
+    public int getMinY() { return minY; }
+
+    public int getMaxX() { return maxX; }
+
+    public int getMaxY() { return maxY; }
+
+    public int getWidth() { return maxX - minX + 1; }
+
+    public int getHeight() { return maxY - minY + 1; }
+
+    public int getPeriod() { return period; }
+
+    public int getThumbnailWidth() { return thumbnailWidth; }
+
+    public int getThumbnailHeight() { return thumbnailHeight; }
+
+    long[] getThumbnailWords() { return thumbnail; }
+
+    @Override
+    public String toString() {
+
+        if (!isValid())
+            return name + " (" + error + ")";
+
+        return name + " - " + getWidth() + "x" + getHeight() + ", " + population + " cells"
+                + ((rule == null) ? "" : ", " + rule)
+                + ((period == 0) ? "" : ", period " + period);
+    }
+}
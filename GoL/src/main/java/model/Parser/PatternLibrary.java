@@ -0,0 +1,430 @@
+package model.Parser;
+
+import model.DynamicGameOfLife;
+import model.GameOfLife;
+import model.PackedBoard;
+import model.rules.RuleFormatException;
+import model.rules.RuleParser;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Index of the pattern files in a folder and its sub folders.
+ *
+ * The files are parsed in parallel, and the index is kept in a cache file, so only files
+ * that are new or have changed since the last update are parsed again.
+ */
+public class PatternLibrary {
+
+    // "GoLI" and the version of the cache file
+    private static final int MAGIC = 0x476f4c49;
+    private static final int VERSION = 1;
+
+    // the thumbnail is at most THUMBNAIL_SIZE cells wide and high
+    static final int THUMBNAIL_SIZE = 32;
+
+    // longest period looked for, and the largest pattern that is evolved to find it
+    static final int MAX_PERIOD = 64;
+    static final int MAX_PERIOD_AREA = 128 * 128;
+
+    private final Path root;
+    private final Path indexFile;
+
+    private volatile List<PatternEntry> entries = Collections.emptyList();
+
+    /**
+     * PatternLibrary constructor. Nothing is read before load() or update() is called.
+     *
+     * @param root The folder with the pattern files
+     * @param indexFile The cache file for the index
+     */
+    public PatternLibrary(Path root, Path indexFile) {
+
+        this.root = root;
+        this.indexFile = indexFile;
+    }
+
+    //region indexing
+
+    /**
+     * Loads the index from the cache file, without checking the pattern files
+     *
+     * @return True if the cache file was read
+     */
+    public boolean load() {
+
+        try {
+            entries = readIndex();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Updates the index with the pattern files as they are now. New and changed files are
+     * parsed in parallel, and the cache file is written if anything changed.
+     *
+     * @return The updated entries
+     * @throws IOException if the folder could not be read or the cache file could not be written
+     */
+    public List<PatternEntry> update() throws IOException {
+
+        if (entries.isEmpty())
+            load();
+
+        Map<String, PatternEntry> cached = new HashMap<>();
+        for (PatternEntry entry : entries) {
+            cached.put(entry.getPath(), entry);
+        }
+
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(root)) {
+            files = paths.filter(PatternLibrary::isPatternFile).sorted().collect(Collectors.toList());
+        }
+
+        boolean changed = files.size() != cached.size();
+
+        List<PatternEntry> updated = files.parallelStream().map(file -> {
+
+            String path = root.relativize(file).toString().replace(File.separatorChar, '/');
+            PatternEntry entry = cached.get(path);
+
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                long lastModified = attributes.lastModifiedTime().toMillis();
+
+                if (entry != null && entry.isCurrent(lastModified, attributes.size()))
+                    return entry;
+
+                return index(file, path, lastModified, attributes.size());
+
+            } catch (IOException e) {
+                return new PatternEntry(path, 0, 0, (e.getMessage() == null) ? e.toString() : e.getMessage());
+            }
+        }).collect(Collectors.toList());
+
+        for (PatternEntry entry : updated) {
+            if (entry != cached.get(entry.getPath()))
+                changed = true;
+        }
+
+        entries = Collections.unmodifiableList(updated);
+
+        if (changed)
+            writeIndex(updated);
+
+        return entries;
+    }
+
+    /**
+     * Parses a pattern file and creates its entry
+     */
+    private static PatternEntry index(Path file, String path, long lastModified, long size) {
+
+        ParsedPattern pattern;
+        try {
+            pattern = PatternParser.parse(file.toFile());
+        } catch (IOException | RuntimeException e) {
+            return new PatternEntry(path, lastModified, size, (e.getMessage() == null) ? e.toString() : e.getMessage());
+        }
+
+        PackedBoard cells = pattern.getCells();
+        if (cells.getCellCount() == 0)
+            return new PatternEntry(path, lastModified, size, getName(pattern, file), pattern.getRule(), 0,
+                    new int[]{0, 0, -1, -1}, 0, 0, 0, new long[0]);
+
+        int[] boundingBox = getBoundingBox(cells);
+
+        int thumbnailScale = Math.max(1, (Math.max(boundingBox[2] - boundingBox[0], boundingBox[3] - boundingBox[1]) + THUMBNAIL_SIZE) / THUMBNAIL_SIZE);
+        int thumbnailWidth = (boundingBox[2] - boundingBox[0]) / thumbnailScale + 1;
+        int thumbnailHeight = (boundingBox[3] - boundingBox[1]) / thumbnailScale + 1;
+        long[] thumbnail = new long[(thumbnailWidth * thumbnailHeight + 63) >>> 6];
+
+        forEachLiveCell(cells, (x, y) -> {
+            int bit = (y - boundingBox[1]) / thumbnailScale * thumbnailWidth + (x - boundingBox[0]) / thumbnailScale;
+            thumbnail[bit >>> 6] |= 1L << bit;
+        });
+
+        return new PatternEntry(path, lastModified, size, getName(pattern, file), pattern.getRule(), cells.getCellCount(),
+                boundingBox, findPeriod(cells, pattern.getRule()), thumbnailWidth, thumbnailHeight, thumbnail);
+    }
+
+    private static boolean isPatternFile(Path file) {
+
+        String name = file.getFileName().toString().toLowerCase();
+        return Files.isRegularFile(file) && (name.endsWith(".rle") || name.endsWith(".cells")
+                || name.endsWith(".lif") || name.endsWith(".life") || name.endsWith(".mc"));
+    }
+
+    /**
+     * Gets the name of a pattern from its meta data, or else from its file name
+     */
+    private static String getName(ParsedPattern pattern, Path file) {
+
+        for (String line : pattern.getMetaData()) {
+            if (line.startsWith("#N ") && line.length() > 3)
+                return line.substring(3).trim();
+            if (line.startsWith("!Name:"))
+                return line.substring(6).trim();
+        }
+
+        String name = file.getFileName().toString();
+        return name.substring(0, name.lastIndexOf('.'));
+    }
+
+    //endregion
+
+    //region analysis
+
+    private interface CellConsumer {
+        void accept(int x, int y);
+    }
+
+    private static void forEachLiveCell(PackedBoard cells, CellConsumer consumer) {
+
+        for (int y = 0; y < cells.getHeight(); y++) {
+            for (int i = 0; i < cells.getWordsPerRow(); i++) {
+
+                long word = cells.getWord(y, i);
+                while (word != 0) {
+                    consumer.accept(i * 64 + Long.numberOfTrailingZeros(word), y);
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the smallest rectangle holding all live cells
+     *
+     * @param cells A pattern with at least one live cell
+     * @return Min x, min y, max x and max y
+     */
+    private static int[] getBoundingBox(PackedBoard cells) {
+
+        int[] boundingBox = {Integer.MAX_VALUE, Integer.MAX_VALUE, 0, 0};
+
+        forEachLiveCell(cells, (x, y) -> {
+            boundingBox[0] = Math.min(boundingBox[0], x);
+            boundingBox[1] = Math.min(boundingBox[1], y);
+            boundingBox[2] = Math.max(boundingBox[2], x);
+            boundingBox[3] = Math.max(boundingBox[3], y);
+        });
+
+        return boundingBox;
+    }
+
+    /**
+     * Evolves a small pattern until it has the same shape as at the start, anywhere on the board,
+     * so both oscillators and spaceships are found
+     *
+     * @param cells The pattern
+     * @param rule The rule of the pattern, or null for the classic rule
+     * @return The period, or 0 if none was found within MAX_PERIOD generations
+     */
+    static int findPeriod(PackedBoard cells, String rule) {
+
+        if ((long) cells.getWidth() * cells.getHeight() > MAX_PERIOD_AREA)
+            return 0;
+
+        String ruleText = RuleParser.CLASSIC_RULESTRING;
+        if (rule != null) {
+            try {
+                ruleText = RuleParser.formatRuleText(rule);
+            } catch (RuleFormatException e) {
+                return 0;
+            }
+        }
+
+        // the outermost cells are never evolved, the board grows from there
+        GameOfLife gol = new DynamicGameOfLife(ruleText);
+        forEachLiveCell(cells, (x, y) -> gol.setCellAlive(x + 1, y + 1));
+
+        long[] start = getShape(gol);
+
+        for (int generation = 1; generation <= MAX_PERIOD; generation++) {
+
+            gol.nextGeneration();
+            if (gol.getCellCount() == 0)
+                return 0;
+
+            if (Arrays.equals(start, getShape(gol)))
+                return generation;
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the live cells relative to their bounding box, so equal shapes at different places are equal
+     */
+    private static long[] getShape(GameOfLife gol) {
+
+        int[] boundingBox = gol.getBoundingBox();
+        int width = boundingBox[1] - boundingBox[0] + 1;
+        int height = boundingBox[3] - boundingBox[2] + 1;
+
+        long[] shape = new long[2 + ((width * height + 63) >>> 6)];
+        shape[0] = width;
+        shape[1] = height;
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (gol.isCellAlive(boundingBox[0] + x, boundingBox[2] + y)) {
+                    int bit = y * width + x;
+                    shape[2 + (bit >>> 6)] |= 1L << bit;
+                }
+            }
+        }
+        return shape;
+    }
+
+    //endregion
+
+    //region cache file
+
+    private List<PatternEntry> readIndex() throws IOException {
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new IOException("Unknown pattern index format");
+
+            int count = in.readInt();
+            List<PatternEntry> index = new ArrayList<>(count);
+
+            for (int i = 0; i < count; i++) {
+
+                String path = in.readUTF();
+                long lastModified = in.readLong();
+                long size = in.readLong();
+
+                if (!in.readBoolean()) {
+                    index.add(new PatternEntry(path, lastModified, size, in.readUTF()));
+                    continue;
+                }
+
+                String name = in.readUTF();
+                String rule = in.readBoolean() ? in.readUTF() : null;
+                int population = in.readInt();
+                int[] boundingBox = {in.readInt(), in.readInt(), in.readInt(), in.readInt()};
+                int period = in.readInt();
+                int thumbnailWidth = in.readUnsignedByte();
+                int thumbnailHeight = in.readUnsignedByte();
+
+                long[] thumbnail = new long[(thumbnailWidth * thumbnailHeight + 63) >>> 6];
+                for (int w = 0; w < thumbnail.length; w++) {
+                    thumbnail[w] = in.readLong();
+                }
+
+                index.add(new PatternEntry(path, lastModified, size, name, rule, population,
+                        boundingBox, period, thumbnailWidth, thumbnailHeight, thumbnail));
+            }
+            return Collections.unmodifiableList(index);
+        }
+    }
+
+    /**
+     * Writes the index to a temporary file first, so a half written cache file is never read
+     */
+    private void writeIndex(List<PatternEntry> index) throws IOException {
+
+        Path directory = indexFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "pattern-index", ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(index.size());
+
+            for (PatternEntry entry : index) {
+
+                out.writeUTF(entry.getPath());
+                out.writeLong(entry.getLastModified());
+                out.writeLong(entry.getSize());
+                out.writeBoolean(entry.isValid());
+
+                if (!entry.isValid()) {
+                    out.writeUTF(entry.getError());
+                    continue;
+                }
+
+                out.writeUTF(entry.getName());
+                out.writeBoolean(entry.getRule() != null);
+                if (entry.getRule() != null)
+                    out.writeUTF(entry.getRule());
+                out.writeInt(entry.getPopulation());
+                out.writeInt(entry.getMinX());
+                out.writeInt(entry.getMinY());
+                out.writeInt(entry.getMaxX());
+                out.writeInt(entry.getMaxY());
+                out.writeInt(entry.getPeriod());
+                out.writeByte(entry.getThumbnailWidth());
+                out.writeByte(entry.getThumbnailHeight());
+
+                for (long word : entry.getThumbnailWords()) {
+                    out.writeLong(word);
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+
+        try {
+            Files.move(temporary, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    //endregion
+
+    //region getters
+
+    /**
+     * Gets the entries of the last load() or update(), sorted by path
+     *
+     * @return Unmodifiable list of entries
+     */
+    public List<PatternEntry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Finds the patterns with a name, path or rule containing a text, ignoring case
+     *
+     * @param query The text to look for
+     * @return The patterns that could be parsed and match the text
+     */
+    public List<PatternEntry> search(String query) {
+
+        String lowerCaseQuery = query.trim().toLowerCase();
+        List<PatternEntry> result = new ArrayList<>();
+
+        for (PatternEntry entry : entries) {
+            if (entry.isValid() && entry.matches(lowerCaseQuery))
+                result.add(entry);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the file of an entry
+     *
+     * @param entry An entry of this library
+     * @return The pattern file
+     */
+    public File getFile(PatternEntry entry) {
+        return root.resolve(entry.getPath()).toFile();
+    }
+
+    //endregion
+}
@@ -4,12 +4,15 @@ package model.Parser;
  * Created by Truls on 18/01/16.
  */
 
+import model.PackedBoardSink;
 import model.PatternFormatException;
-import tools.MessageBox;
 
 import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
@@ -18,100 +21,192 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 
-public class PatternParser {
+public abstract class PatternParser {
 
     static final byte FIRST_LINE = 0;
-    static Pattern patternParameters;
-    static Matcher patternMatcher;
-    static int patternHeight;
-    static int patternWidth;
-    static boolean[][] patternArray;
-    static List<String> fileContentList;
-    static List<String> metaData;
-    static char currentCharacter;
-    static String lastImportedRule;
-    private static URL url;
+
+    // the state of one parse, every parse gets its own parser object
+    Pattern patternParameters;
+    Matcher patternMatcher;
+    int patternHeight;
+    int patternWidth;
+    boolean[][] patternArray;
+    final List<String> fileContentList;
+    final List<String> metaData = new ArrayList<>();
+    char currentCharacter;
+    String rule;
+
+    // larger RLE files are decoded on several threads, straight into a packed board
+    static final long MAPPED_RLE_THRESHOLD = 8 << 20;
+
+    // rule of the last pattern from read() or readUrl()
+    private static volatile String lastImportedRule;
 
     /**
-     * Reads a Game of Life pattern file and returns an array of the pattern
+     * PatternParser constructor.
+     * @param fileContentList The lines of the file, removed from the list while parsing
+     */
+    PatternParser(List<String> fileContentList) {
+        this.fileContentList = fileContentList;
+    }
+
+    //region parsing
+
+    /**
+     * Parses a Game of Life pattern file. Safe to call from several threads at once.
      * @param patternFile the file to read from
-     * @return the boolean array produced from the file
-     * @throws IOException if the file could not be red
+     * @return the parsed pattern
+     * @throws IOException if the file could not be read, or is not a valid pattern
      */
-    static public boolean[][] read(File patternFile) throws IOException {
+    public static ParsedPattern parse(File patternFile) throws IOException {
 
-        lastImportedRule = null;
+        // the size of the array would follow the declared size, so RLE is always read straight into a packed board
+        if(patternFile.toString().endsWith(".rle")){
+            PackedBoardSink sink = new PackedBoardSink();
 
-        fileContentList = readLinesFromFile(patternFile);
+            if(patternFile.length() > MAPPED_RLE_THRESHOLD){
+                MappedRleDecoder decoder = new MappedRleDecoder();
+                decoder.decode(patternFile, sink);
+                return new ParsedPattern(sink.getBoard(), sink.getRule(), decoder.getMetaData());
+            }
 
-        if(patternFile.toString().endsWith(".cells")){
-            return PlainTextParser.parsePlainText();
+            RleReader reader = RleReader.read(patternFile, sink);
+            return new ParsedPattern(sink.getBoard(), sink.getRule(), reader.getMetaData());
         }
-        else if(patternFile.toString().endsWith(".rle")){
-            return RleParser.parseRle();
-        }
-        else if(patternFile.toString().endsWith(".lif") || patternFile.toString().endsWith(".life")){
-            return checkLifeFormat();
+
+        if(patternFile.toString().endsWith(".mc")){
+            PackedBoardSink sink = new PackedBoardSink();
+            MacrocellReader reader = MacrocellReader.read(patternFile, sink);
+            return new ParsedPattern(sink.getBoard(), sink.getRule(), reader.getMetaData(), reader.getGeneration());
         }
 
-        MessageBox.alert("File is not in supported format");
-        return null;
+        return parse(readLinesFromFile(patternFile), patternFile.toString());
     }
 
     /**
-     * Reads a Game of Life pattern file from the web and returns an array of the pattern
+     * Parses a Game of Life pattern file from the web. Safe to call from several threads at once.
      * @param pattern The web file to read from
-     * @return The boolean array produced from the file
-     * @throws IOException if the url could not be red
+     * @return The parsed pattern
+     * @throws IOException if the url could not be read, or is not a valid pattern
      */
-    static public boolean[][] readUrl(String pattern) throws IOException {
+    public static ParsedPattern parseUrl(String pattern) throws IOException {
 
-        lastImportedRule = null;
-
-        fileContentList = new ArrayList<>();
+        URL url;
         try {
             url = new URL(pattern);
         }
         catch (MalformedURLException ignored){
-            MessageBox.alert("Invalid URL");
-            return null;
+            throw new PatternFormatException("Invalid URL");
         }
 
-        Scanner s = new Scanner(url.openStream());
+        if(pattern.endsWith(".rle")){
+            try (ReadableByteChannel channel = Channels.newChannel(url.openStream())) {
+                return parseRle(channel);
+            }
+        }
 
-        while (s.hasNext()){
-            fileContentList.add(s.nextLine());
+        List<String> lines = new ArrayList<>();
+        try (Scanner s = new Scanner(url.openStream())) {
+            while (s.hasNext()){
+                lines.add(s.nextLine());
+            }
         }
 
-        if(pattern.endsWith(".cells")){
-            return PlainTextParser.parsePlainText();
+        return parse(lines, pattern);
+    }
+
+    /**
+     * Parses the lines of a pattern file. Safe to call from several threads at once.
+     * @param lines The lines of the file
+     * @param fileName Name of the file, the format is found from the file type
+     * @return The parsed pattern
+     * @throws PatternFormatException if the format is not supported or is violated
+     */
+    public static ParsedPattern parse(List<String> lines, String fileName) throws PatternFormatException {
+
+        PatternParser parser;
+        List<String> fileContentList = new ArrayList<>(lines);
+
+        if(fileContentList.isEmpty()){
+            throw new PatternFormatException("File is empty");
         }
-        else if(pattern.endsWith(".rle")){
-            return RleParser.parseRle();
+
+        // the quadtree is built straight into a packed board, never as an array
+        if(fileName.endsWith(".mc")){
+            PackedBoardSink sink = new PackedBoardSink();
+            MacrocellReader reader = new MacrocellReader(new BufferedReader(new StringReader(String.join("\n", lines))));
+            try {
+                reader.read(sink);
+            } catch (PatternFormatException e) {
+                throw e;
+            } catch (IOException e) {
+                throw new PatternFormatException(e.getMessage());
+            }
+            return new ParsedPattern(sink.getBoard(), sink.getRule(), reader.getMetaData(), reader.getGeneration());
         }
-        else if(pattern.endsWith(".lif") || pattern.endsWith(".life")){
-            return checkLifeFormat();
+
+        if(fileName.endsWith(".rle")){
+            byte[] text = (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+            try {
+                return parseRle(Channels.newChannel(new ByteArrayInputStream(text)));
+            } catch (PatternFormatException e) {
+                throw e;
+            } catch (IOException e) {
+                throw new PatternFormatException(e.getMessage());
+            }
+        }
+
+        if(fileName.endsWith(".cells")){
+            parser = new PlainTextParser(fileContentList);
+        }
+        else if(fileName.endsWith(".lif") || fileName.endsWith(".life")){
+            parser = getLifeParser(fileContentList);
+        }
+        else {
+            throw new PatternFormatException("File is not in supported format");
         }
 
-        MessageBox.alert("Could not find supported format");
-        return null;
+        boolean[][] pattern = parser.parse();
+        return new ParsedPattern(pattern, parser.rule, parser.metaData);
     }
 
     /**
-     * Checks if a file with .lif or .life file types, is either Life 1.05 or Life 1.06,
-     * then parses the file with the appropriate parser
-     * @return The boolean array produced from the file
+     * Reads RLE straight into a packed board
+     * @param channel The RLE data, not closed
+     * @return The parsed pattern
+     * @throws IOException if the channel could not be read, or is not valid RLE
+     */
+    private static ParsedPattern parseRle(ReadableByteChannel channel) throws IOException {
+
+        PackedBoardSink sink = new PackedBoardSink();
+        RleReader reader = new RleReader(channel);
+        reader.read(sink);
+        return new ParsedPattern(sink.getBoard(), sink.getRule(), reader.getMetaData());
+    }
+
+    /**
+     * Parses the pattern in fileContentList
+     * @return the boolean array produced from the file
      * @throws PatternFormatException if the format is violated
      */
-    private static boolean[][] checkLifeFormat() throws PatternFormatException {
+    abstract boolean[][] parse() throws PatternFormatException;
+
+    /**
+     * Checks if a file with .lif or .life file types, is either Life 1.05 or Life 1.06,
+     * and gives the appropriate parser
+     * @param fileContentList The lines of the file
+     * @return The parser for the file
+     * @throws PatternFormatException if it is neither
+     */
+    private static PatternParser getLifeParser(List<String> fileContentList) throws PatternFormatException {
 
         if(fileContentList.get(FIRST_LINE).contains("Life 1.05")){
-            return Life05Parser.parseLife05();
+            return new Life05Parser(fileContentList);
         }
         else if(fileContentList.get(FIRST_LINE).contains("Life 1.06")) {
-            return Life06Parser.parseLife06();
+            return new Life06Parser(fileContentList);
         }
-        return null;
+        throw new PatternFormatException("Unknown Life format, expected Life 1.05 or Life 1.06");
     }
 
     /**
@@ -124,14 +219,50 @@ public class PatternParser {
         return Files.readAllLines(patternFile.toPath());
     }
 
+    //endregion
+
+    //region last import
+
     /**
-     * Gets the last imported rule
+     * Reads a Game of Life pattern file and returns an array of the pattern.
+     * The rule is available from getLastImportedRule() afterwards.
+     * @param patternFile the file to read from
+     * @return the boolean array produced from the file
+     * @throws IOException if the file could not be red
+     */
+    static public boolean[][] read(File patternFile) throws IOException {
+
+        lastImportedRule = null;
+
+        ParsedPattern pattern = parse(patternFile);
+        lastImportedRule = pattern.getRule();
+        return pattern.toArray();
+    }
+
+    /**
+     * Reads a Game of Life pattern file from the web and returns an array of the pattern.
+     * The rule is available from getLastImportedRule() afterwards.
+     * @param pattern The web file to read from
+     * @return The boolean array produced from the file
+     * @throws IOException if the url could not be red
+     */
+    static public boolean[][] readUrl(String pattern) throws IOException {
+
+        lastImportedRule = null;
+
+        ParsedPattern parsed = parseUrl(pattern);
+        lastImportedRule = parsed.getRule();
+        return parsed.toArray();
+    }
+
+    /**
+     * Gets the rule of the pattern last read with read() or readUrl().
+     * Use parse() and ParsedPattern.getRule() when reading from several threads.
      * @return The last imported rule
      */
     public static String getLastImportedRule(){
         return lastImportedRule;
     }
 
-
-
+    //endregion
 }
@@ -1,18 +1,26 @@
 package model.Parser;
 
+import java.util.List;
+
 /**
  * Created by Truls on 12/04/16.
  */
 public class PlainTextParser extends PatternParser {
+
+    PlainTextParser(List<String> fileContentList) {
+        super(fileContentList);
+    }
+
     /**
      * Reads a .cells / plain text file
      * @return the boolean array produced from the file
      */
-    static boolean[][] parsePlainText(){
+    @Override
+    boolean[][] parse(){
 
         // removes meta data
-        while(fileContentList.get(FIRST_LINE).startsWith("!")){
-            fileContentList.remove(FIRST_LINE);
+        while(!fileContentList.isEmpty() && fileContentList.get(FIRST_LINE).startsWith("!")){
+            metaData.add(fileContentList.remove(FIRST_LINE));
         }
 
 
@@ -41,7 +49,7 @@ public class PlainTextParser extends PatternParser {
                 }
             }
         }
-        lastImportedRule = null;
+        rule = null;
         return patternArray;
     }
 }
@@ -0,0 +1,298 @@
+package model.Parser;
+
+import model.PatternFormatException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads a RLE file in one pass, and passes the runs of live cells straight to a CellSink.
+ *
+ * The file is never held in memory, only a fixed size buffer, and the cells are never
+ * expanded to a dense array, so the memory used does not depend on the size of the file.
+ */
+public class RleReader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // longest header or comment line that is kept, the rest of the line is ignored
+    private static final int MAX_LINE_LENGTH = 4096;
+
+    private static final Pattern HEADER = Pattern.compile("^x[ ]*=[ ]*([0-9]+)[ ]*,[ ]*y[ ]*=[ ]*([0-9]+)[ ]*,[ ]*.*[ ]*=[ ]*(.+)$");
+    private static final Pattern HEADER_XLIFE = Pattern.compile("^x[ ]*=[ ]*([0-9]+)[ ]*,[ ]*y[ ]*=[ ]*([0-9]+)$");
+
+    private final ReadableByteChannel channel;
+
+    private CellSink sink;
+    private int width;
+    private int height;
+
+    // comments and the header line
+    private boolean inHeader = true;
+    private final StringBuilder line = new StringBuilder();
+    private final List<String> metaData = new ArrayList<>();
+    private String xlifeRule;
+
+    // position of the next cell
+    private int x;
+    private int y;
+
+    // run count read so far, 0 if none
+    private int count;
+
+    /**
+     * RleReader constructor. The channel is not closed by the reader.
+     *
+     * @param channel The RLE data to read
+     */
+    public RleReader(ReadableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Creates a reader for a part of the cells of a pattern, whose header was read by another reader
+     *
+     * @param header The reader that read the header
+     */
+    RleReader(RleReader header) {
+
+        this.channel = null;
+        this.sink = header.sink;
+        this.width = header.width;
+        this.height = header.height;
+        this.inHeader = false;
+    }
+
+    /**
+     * Reads a RLE file into a sink
+     *
+     * @param file The file to read
+     * @param sink Receives the live cells
+     * @return The reader, for its meta data
+     * @throws IOException if the file could not be read or is not valid RLE
+     */
+    public static RleReader read(File file, CellSink sink) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            RleReader reader = new RleReader(channel);
+            reader.read(sink);
+            return reader;
+        }
+    }
+
+    //region reading
+
+    /**
+     * Reads the whole pattern, up to the exclamation mark
+     *
+     * @param sink Receives the live cells
+     * @throws IOException if the channel could not be read or is not valid RLE
+     */
+    public void read(CellSink sink) throws IOException {
+
+        this.sink = sink;
+
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        while (channel.read(buffer) != -1) {
+
+            buffer.flip();
+
+            while (buffer.hasRemaining()) {
+
+                char character = (char) (buffer.get() & 0xff);
+
+                if (inHeader)
+                    readHeaderCharacter(character);
+                else if (readCell(character))
+                    return;
+            }
+
+            buffer.clear();
+        }
+
+        throw new PatternFormatException(inHeader ? "Couldn't extract grid properties from RLE file" : "Missing exclamation mark");
+    }
+
+    /**
+     * Reads the comments and the header line at the start of a buffer.
+     * The buffer is left at the first character of the cells.
+     *
+     * @param data The RLE data
+     * @param sink Receives the size of the pattern
+     * @throws PatternFormatException if there is no valid header
+     */
+    void readHeader(ByteBuffer data, CellSink sink) throws PatternFormatException {
+
+        this.sink = sink;
+
+        while (data.hasRemaining()) {
+            if (readHeaderCharacter((char) (data.get() & 0xff)))
+                return;
+        }
+        throw new PatternFormatException("Couldn't extract grid properties from RLE file");
+    }
+
+    /**
+     * Reads a part of the cells that starts at the beginning of a row
+     *
+     * @param cells The part of the cells
+     * @param startY The row the part starts at
+     * @return True if the exclamation mark was reached
+     * @throws PatternFormatException if a run goes outside the declared size
+     */
+    boolean readCells(ByteBuffer cells, int startY) throws PatternFormatException {
+
+        x = 0;
+        y = startY;
+        count = 0;
+
+        while (cells.hasRemaining()) {
+            if (readCell((char) (cells.get() & 0xff)))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads one character of the comments and the header line
+     *
+     * @param character The character
+     * @return True if the header line was completed
+     * @throws PatternFormatException if the header line is not valid
+     */
+    private boolean readHeaderCharacter(char character) throws PatternFormatException {
+
+        if (character != '\n' && character != '\r') {
+            if (line.length() < MAX_LINE_LENGTH)
+                line.append(character);
+            return false;
+        }
+
+        String text = line.toString().trim();
+        line.setLength(0);
+
+        if (text.isEmpty())
+            return false;
+
+        if (text.startsWith("#")) {
+            metaData.add(text);
+            if (text.startsWith("#r"))
+                xlifeRule = text.replaceAll("[^1-9/1-9]", "");
+            return false;
+        }
+
+        readHeader(text);
+        inHeader = false;
+        return true;
+    }
+
+    /**
+     * Reads the line with the size and rule of the pattern
+     *
+     * @param text The header line
+     * @throws PatternFormatException if the line is not a valid header
+     */
+    private void readHeader(String text) throws PatternFormatException {
+
+        String rule = xlifeRule;
+        Matcher matcher = HEADER_XLIFE.matcher(text);
+
+        if (!matcher.matches()) {
+            matcher = HEADER.matcher(text);
+            if (!matcher.matches())
+                throw new PatternFormatException("Couldn't extract grid properties from RLE file");
+
+            if (xlifeRule != null)
+                throw new PatternFormatException("Multiple rules present");
+            rule = matcher.group(3);
+        }
+
+        try {
+            width = Integer.parseInt(matcher.group(1));
+            height = Integer.parseInt(matcher.group(2));
+        } catch (NumberFormatException e) {
+            throw new PatternFormatException("Pattern size is too large");
+        }
+
+        sink.begin(width, height, rule);
+    }
+
+    /**
+     * Reads one character of the cell data
+     *
+     * @param character The character
+     * @return True if the end of the pattern was reached
+     * @throws PatternFormatException if a run goes outside the declared size
+     */
+    private boolean readCell(char character) throws PatternFormatException {
+
+        if (character >= '0' && character <= '9') {
+            if (count > (Integer.MAX_VALUE - 9) / 10)
+                throw new PatternFormatException("Run count is too large");
+            count = count * 10 + (character - '0');
+            return false;
+        }
+
+        int length = (count == 0) ? 1 : count;
+
+        switch (character) {
+            case 'b':
+                checkRun(length);
+                x += length;
+                break;
+            case 'o':
+                checkRun(length);
+                sink.addRun(x, y, length);
+                x += length;
+                break;
+            case '$':
+                // stops at the row below the pattern, so a huge count can't overflow
+                y = (length > height - y) ? height : y + length;
+                x = 0;
+                break;
+            case '!':
+                return true;
+            default:
+                // whitespace and unknown characters keep the run count
+                return false;
+        }
+
+        count = 0;
+        return false;
+    }
+
+    private void checkRun(int length) throws PatternFormatException {
+
+        if (y >= height || length > width - x)
+            throw new PatternFormatException("Pattern properties too small");
+    }
+
+    //endregion
+
+    //region getters
+
+    /**
+     * Gets the comment lines read before the header
+     *
+     * @return Unmodifiable list of the lines, with their comment markers
+     */
+    public List<String> getMetaData() {
+        return Collections.unmodifiableList(metaData);
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    //endregion
+}
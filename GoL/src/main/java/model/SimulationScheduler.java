@@ -0,0 +1,265 @@
+package model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Runs the simulation on its own thread, independent of rendering.
+ *
+ * The board is evolved in steps of stepSize generations, and a frame is only published
+ * at the end of each step. The steps are paced to reach a target number of generations
+ * per second, or run back to back when the rate is uncapped. Whoever draws the board
+ * just samples the latest published frame.
+ */
+public class SimulationScheduler {
+
+    public static final int MAX_STEP_SIZE = 1 << 20;
+
+    private volatile GameOfLife gol;
+
+    // generations per second, zero or less means as fast as possible
+    private volatile double targetRate = 60;
+    private volatile int stepSize = 1;
+
+    private volatile boolean running = false;
+    private Thread thread;
+
+    private final Consumer<GameOfLife> beforeStep;
+    private final Runnable onStopped;
+
+    // snapshots asked for by other threads, taken by the simulation thread between two generations
+    private final ConcurrentLinkedQueue<CompletableFuture<GameOfLife>> snapshots = new ConcurrentLinkedQueue<>();
+
+    /**
+     * SimulationScheduler constructor.
+     *
+     * @param gol The board to evolve
+     * @param beforeStep Called on the simulation thread before each step, with the board about to be evolved
+     * @param onStopped Called on the simulation thread when it stops
+     */
+    public SimulationScheduler(GameOfLife gol, Consumer<GameOfLife> beforeStep, Runnable onStopped) {
+
+        this.gol = gol;
+        this.beforeStep = beforeStep;
+        this.onStopped = onStopped;
+
+        // the first frame is packed while the board is not evolving, so getFrame() never packs it
+        // from another thread while a generation is half done
+        gol.getFrame();
+    }
+
+    //region running
+
+    /**
+     * Starts the simulation thread, if it is not already running.
+     * Must be called from the same thread as stop() and isIdle().
+     */
+    public void start() {
+
+        if (running)
+            return;
+
+        // lets a stopping thread finish its generation first
+        join();
+
+        running = true;
+        thread = new Thread(this::run, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Asks the simulation thread to stop after the generation it is working on, and wakes it
+     * if it is waiting for the next step. Does not wait for it.
+     */
+    public void stop() {
+
+        running = false;
+        if (thread != null)
+            LockSupport.unpark(thread);
+    }
+
+    /**
+     * Queues an edit on the board, and wakes the simulation thread if it is waiting for the
+     * next step, so the edit is applied and published at once even at slow rates.
+     * Must be called from the same thread as start().
+     *
+     * @param edit The edit to apply
+     */
+    public void queueEdit(BoardEdit edit) {
+
+        gol.queueEdit(edit);
+        if (thread != null)
+            LockSupport.unpark(thread);
+    }
+
+    /**
+     * Takes a copy-on-write snapshot of the board. Taking a snapshot changes the board, so while
+     * the simulation runs the snapshot is taken by the simulation thread between two generations,
+     * and this waits for the generation being calculated. Must be called from the same thread as start().
+     *
+     * @return The snapshot
+     */
+    public GameOfLife snapshot() {
+
+        if (isIdle())
+            return gol.snapshot();
+
+        CompletableFuture<GameOfLife> snapshot = new CompletableFuture<>();
+        snapshots.add(snapshot);
+        LockSupport.unpark(thread);
+
+        while (true) {
+            try {
+                return snapshot.get(10, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // the thread may have stopped without seeing the request, then the board is free to read
+                if (isIdle())
+                    takeSnapshots(gol);
+            } catch (InterruptedException | ExecutionException e) {
+                e.printStackTrace();
+                join();
+                return gol.snapshot();
+            }
+        }
+    }
+
+    /**
+     * Waits for the simulation thread to stop
+     */
+    public void join() {
+
+        if (thread == null)
+            return;
+
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * The simulation loop. Keeps track of when the next step is due, so the
+     * target rate is kept on average even if single steps are late.
+     */
+    private void run() {
+
+        long nextStep = System.nanoTime();
+        double rate = targetRate;
+
+        while (running) {
+
+            GameOfLife current = gol;
+            int steps = stepSize;
+
+            beforeStep.accept(current);
+            current.nextGenerations(steps, () -> {
+                takeSnapshots(current);
+                return running;
+            });
+
+            // starts over if the rate changed, so a slow step isn't made up for at the new rate
+            if (rate != targetRate) {
+                rate = targetRate;
+                nextStep = System.nanoTime();
+            }
+
+            if (rate > 0) {
+                nextStep += (long) (steps * 1e9 / rate);
+
+                // woken early by stop() and queueEdit(), parking may also return early on its own
+                long wait = nextStep - System.nanoTime();
+                if (wait <= 0)
+                    nextStep = System.nanoTime();
+                while (running && wait > 0) {
+                    LockSupport.parkNanos(this, wait);
+
+                    // woken by queueEdit(), the edits are shown now instead of at the next step
+                    current.applyEdits();
+                    takeSnapshots(current);
+                    wait = nextStep - System.nanoTime();
+                }
+            }
+        }
+
+        takeSnapshots(gol);
+        onStopped.run();
+    }
+
+    /**
+     * Takes the snapshots asked for by snapshot(). Only called while the board is not evolving.
+     *
+     * @param current The board being evolved
+     */
+    private void takeSnapshots(GameOfLife current) {
+
+        CompletableFuture<GameOfLife> snapshot;
+        while ((snapshot = snapshots.poll()) != null) {
+            snapshot.complete(current.snapshot());
+        }
+    }
+
+    //endregion
+
+    //region getters and setters
+
+    /**
+     * Checks if the simulation thread has stopped, so the board can be changed directly.
+     * Must be called from the same thread as start().
+     *
+     * @return True if no generation is being calculated
+     */
+    public boolean isIdle() {
+        return thread == null || !thread.isAlive();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Sets the board to evolve. Takes effect from the next step.
+     * The board must not be evolved by anyone else.
+     *
+     * @param gol The board to evolve
+     */
+    public void setGol(GameOfLife gol) {
+
+        gol.getFrame();
+        this.gol = gol;
+    }
+
+    /**
+     * Sets the target number of generations per second
+     *
+     * @param targetRate Generations per second, zero or less for as fast as possible
+     */
+    public void setTargetRate(double targetRate) {
+        this.targetRate = targetRate;
+    }
+
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    /**
+     * Sets the number of generations to evolve between each published frame
+     *
+     * @param stepSize Generations per step, between 1 and MAX_STEP_SIZE
+     */
+    public void setStepSize(int stepSize) {
+        this.stepSize = Math.max(1, Math.min(stepSize, MAX_STEP_SIZE));
+    }
+
+    public int getStepSize() {
+        return stepSize;
+    }
+
+    //endregion
+}
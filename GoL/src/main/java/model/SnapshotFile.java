@@ -0,0 +1,354 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Saves and restores a whole game board in a compact binary format, keeping what
+ * the text formats lose: the rule, the generation and the offset of the board.
+ *
+ * After a header with the rule, generation, offset, size and bounding box of the board,
+ * the packed words of the board are stored in tiles of TILE_ROWS rows and TILE_WORDS words.
+ * Only tiles inside the bounding box with live cells are stored, each compressed on its own
+ * with Deflater, so tiles are compressed and decompressed in parallel. Reading maps the file
+ * and inflates the tiles straight from the mapped buffer.
+ *
+ * Layout, big endian unless noted:
+ *   int magic, int version,
+ *   short rule length, rule in ASCII,
+ *   long generation, int offset x, int offset y, int width, int height,
+ *   int min x, int min y, int max x, int max y (all -1 if the board is empty),
+ *   int tile rows, int tile words, int tile count,
+ *   for every tile: int first word, int first row, int compressed length,
+ *   the compressed tiles in the same order, each the little endian words of its rows.
+ */
+public class SnapshotFile {
+
+    public static final String EXTENSION = ".gols";
+
+    private static final int MAGIC = 0x476f4c42;
+    private static final int VERSION = 1;
+
+    static final int TILE_ROWS = 256;
+    static final int TILE_WORDS = 16;
+
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4 * 4 + 4 * 4 + 3 * 4;
+    private static final int TILE_ENTRY_SIZE = 3 * 4;
+
+    private final PackedBoard board;
+    private final String rule;
+
+    /**
+     * SnapshotFile constructor.
+     *
+     * @param board The board, with its offset and generation
+     * @param rule The rule of the board, or null if it is not known
+     */
+    public SnapshotFile(PackedBoard board, String rule) {
+        this.board = board;
+        this.rule = rule;
+    }
+
+    //region writing
+
+    /**
+     * Writes a board to a snapshot file
+     *
+     * @param file The file, replaced if it exists
+     * @param board The board to save
+     * @param rule The rule of the board, or null
+     * @throws IOException if the file could not be written
+     */
+    public static void write(File file, PackedBoard board, String rule) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(channel, board, rule);
+        }
+    }
+
+    /**
+     * Writes a board as a snapshot to a channel. The channel is not closed.
+     *
+     * @param channel Where to write
+     * @param board The board to save
+     * @param rule The rule of the board, or null
+     * @throws IOException if the channel could not be written
+     */
+    public static void write(WritableByteChannel channel, PackedBoard board, String rule) throws IOException {
+
+        byte[] ruleBytes = (rule == null) ? new byte[0] : rule.getBytes(StandardCharsets.US_ASCII);
+        int[] boundingBox = board.getBoundingBox();
+
+        // the tiles cover the bounding box, starting at its first word and first row
+        int[] tiles = new int[0];
+        if (boundingBox != null) {
+
+            int firstWord = boundingBox[0] >>> 6, lastWord = boundingBox[2] >>> 6;
+            int columns = (lastWord - firstWord) / TILE_WORDS + 1;
+            int rows = (boundingBox[3] - boundingBox[1]) / TILE_ROWS + 1;
+
+            tiles = new int[2 * columns * rows];
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    tiles[2 * (row * columns + column)] = firstWord + column * TILE_WORDS;
+                    tiles[2 * (row * columns + column) + 1] = boundingBox[1] + row * TILE_ROWS;
+                }
+            }
+        }
+
+        int[] tileCorners = tiles;
+        byte[][] compressed = IntStream.range(0, tiles.length / 2).parallel()
+                .mapToObj(tile -> compressTile(board, tileCorners[2 * tile], tileCorners[2 * tile + 1]))
+                .toArray(byte[][]::new);
+
+        int tileCount = 0;
+        for (byte[] tile : compressed) {
+            if (tile != null)
+                tileCount++;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + 2 + ruleBytes.length + tileCount * TILE_ENTRY_SIZE);
+        header.putInt(MAGIC).putInt(VERSION);
+        header.putShort((short) ruleBytes.length).put(ruleBytes);
+        header.putLong(board.getGeneration()).putInt(board.getOffsetX()).putInt(board.getOffsetY());
+        header.putInt(board.getWidth()).putInt(board.getHeight());
+
+        for (int i = 0; i < 4; i++) {
+            header.putInt((boundingBox == null) ? -1 : boundingBox[i]);
+        }
+
+        header.putInt(TILE_ROWS).putInt(TILE_WORDS).putInt(tileCount);
+        for (int tile = 0; tile < compressed.length; tile++) {
+            if (compressed[tile] != null)
+                header.putInt(tiles[2 * tile]).putInt(tiles[2 * tile + 1]).putInt(compressed[tile].length);
+        }
+
+        header.flip();
+        writeFully(channel, header);
+        for (byte[] tile : compressed) {
+            if (tile != null)
+                writeFully(channel, ByteBuffer.wrap(tile));
+        }
+    }
+
+    /**
+     * Compresses the words of one tile
+     *
+     * @return The compressed tile, or null if it has no live cells
+     */
+    private static byte[] compressTile(PackedBoard board, int firstWord, int firstRow) {
+
+        int words = Math.min(TILE_WORDS, board.getWordsPerRow() - firstWord);
+        int rows = Math.min(TILE_ROWS, board.getHeight() - firstRow);
+
+        ByteBuffer raw = ByteBuffer.allocate(words * rows * 8).order(ByteOrder.LITTLE_ENDIAN);
+        LongBuffer longs = raw.asLongBuffer();
+        boolean empty = true;
+
+        for (int y = firstRow; y < firstRow + rows; y++) {
+            int start = y * board.getWordsPerRow() + firstWord;
+            longs.put(board.words, start, words);
+
+            for (int i = start; i < start + words && empty; i++) {
+                empty = board.words[i] == 0;
+            }
+        }
+
+        if (empty)
+            return null;
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(raw);
+        deflater.finish();
+
+        byte[] output = new byte[raw.capacity() / 4 + 64];
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == output.length)
+                output = Arrays.copyOf(output, output.length * 2);
+            length += deflater.deflate(output, length, output.length - length);
+        }
+        deflater.end();
+
+        return Arrays.copyOf(output, length);
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    //endregion
+
+    //region reading
+
+    /**
+     * Reads a snapshot file, inflating the tiles straight from the mapped file
+     *
+     * @param file The file to read
+     * @return The board and its rule
+     * @throws IOException if the file could not be read or is not a valid snapshot
+     */
+    public static SnapshotFile read(File file) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new PatternFormatException("Snapshot is too large");
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer);
+        }
+    }
+
+    /**
+     * Reads a snapshot from a buffer
+     *
+     * @param buffer The whole snapshot, from its position
+     * @return The board and its rule
+     * @throws PatternFormatException if the buffer is not a valid snapshot
+     */
+    public static SnapshotFile read(ByteBuffer buffer) throws PatternFormatException {
+
+        try {
+            buffer = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+
+            if (buffer.getInt() != MAGIC)
+                throw new PatternFormatException("Not a snapshot file");
+            int version = buffer.getInt();
+            if (version != VERSION)
+                throw new PatternFormatException("Unsupported snapshot version " + version);
+
+            byte[] ruleBytes = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(ruleBytes);
+            String rule = (ruleBytes.length == 0) ? null : new String(ruleBytes, StandardCharsets.US_ASCII);
+
+            long generation = buffer.getLong();
+            int offsetX = buffer.getInt();
+            int offsetY = buffer.getInt();
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+
+            // the bounding box is only for readers that want to skip the tiles
+            buffer.position(buffer.position() + 4 * 4);
+
+            int tileRows = buffer.getInt();
+            int tileWords = buffer.getInt();
+            int tileCount = buffer.getInt();
+
+            int wordsPerRow = PackedBoard.getWordsPerRow(width);
+            if (width < 0 || height < 0 || tileRows <= 0 || tileWords <= 0 || tileCount < 0
+                    || (long) wordsPerRow * height > Integer.MAX_VALUE - 8)
+                throw new PatternFormatException("Invalid snapshot header");
+
+            int[] firstWords = new int[tileCount];
+            int[] firstRows = new int[tileCount];
+            int[] positions = new int[tileCount];
+            int[] lengths = new int[tileCount];
+
+            int position = buffer.position() + tileCount * TILE_ENTRY_SIZE;
+            for (int tile = 0; tile < tileCount; tile++) {
+
+                firstWords[tile] = buffer.getInt();
+                firstRows[tile] = buffer.getInt();
+                lengths[tile] = buffer.getInt();
+                positions[tile] = position;
+                position += lengths[tile];
+
+                if (firstWords[tile] < 0 || firstWords[tile] >= wordsPerRow || firstRows[tile] < 0
+                        || firstRows[tile] >= height || lengths[tile] < 0 || position > buffer.limit() || position < 0)
+                    throw new PatternFormatException("Invalid snapshot tile " + tile);
+            }
+
+            long[] words = new long[wordsPerRow * height];
+            ByteBuffer source = buffer;
+
+            boolean valid = IntStream.range(0, tileCount).parallel().allMatch(tile -> {
+
+                ByteBuffer compressed = source.duplicate();
+                compressed.limit(positions[tile] + lengths[tile]).position(positions[tile]);
+                return inflateTile(compressed, words, wordsPerRow, height, firstWords[tile], firstRows[tile], tileWords, tileRows);
+            });
+
+            if (!valid)
+                throw new PatternFormatException("Snapshot is corrupt");
+
+            return new SnapshotFile(new PackedBoard(width, height, offsetX, offsetY, generation, words), rule);
+        }
+        catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new PatternFormatException("Snapshot is truncated");
+        }
+    }
+
+    /**
+     * Inflates one tile into the words of the board
+     *
+     * @return False if the tile did not inflate to its size
+     */
+    private static boolean inflateTile(ByteBuffer compressed, long[] words, int wordsPerRow, int height,
+                                       int firstWord, int firstRow, int tileWords, int tileRows) {
+
+        int tileWidth = Math.min(tileWords, wordsPerRow - firstWord);
+        int rows = Math.min(tileRows, height - firstRow);
+
+        ByteBuffer raw = ByteBuffer.allocate(tileWidth * rows * 8).order(ByteOrder.LITTLE_ENDIAN);
+        Inflater inflater = new Inflater();
+
+        try {
+            inflater.setInput(compressed);
+            while (raw.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(raw) == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    return false;
+            }
+            if (raw.hasRemaining() || !inflater.finished())
+                return false;
+        } catch (DataFormatException e) {
+            return false;
+        } finally {
+            inflater.end();
+        }
+
+        raw.flip();
+        LongBuffer longs = raw.asLongBuffer();
+        for (int y = firstRow; y < firstRow + rows; y++) {
+            longs.get(words, y * wordsPerRow + firstWord, tileWidth);
+        }
+        return true;
+    }
+
+    //endregion
+
+    //region getters
+
+    public PackedBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * Gets the rule the board was saved with
+     *
+     * @return The rule, or null if it was not saved
+     */
+    public String getRule() {
+        return rule;
+    }
+
+    //endregion
+}
@@ -0,0 +1,197 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Immutable pattern stored as a list of live cells, so the memory used depends on the
+ * number of live cells and not on how far apart they are.
+ *
+ * The cells keep the coordinates they were read with. The pattern covers the rectangle
+ * from (minX, minY) with the given width and height, which may be larger than the live cells.
+ */
+public final class SparsePattern {
+
+    private final int[] xs;
+    private final int[] ys;
+    private final int cellCount;
+
+    private final int minX;
+    private final int minY;
+    private final int width;
+    private final int height;
+
+    /**
+     * SparsePattern constructor. The arrays are used directly and must not be changed afterwards.
+     *
+     * @param xs X coordinates of the live cells
+     * @param ys Y coordinates of the live cells
+     * @param cellCount Number of live cells, the arrays may be longer
+     * @param minX Left column of the pattern
+     * @param minY Top row of the pattern
+     * @param width Width of the pattern
+     * @param height Height of the pattern
+     */
+    private SparsePattern(int[] xs, int[] ys, int cellCount, int minX, int minY, int width, int height) {
+
+        this.xs = xs;
+        this.ys = ys;
+        this.cellCount = cellCount;
+        this.minX = minX;
+        this.minY = minY;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Creates a pattern from the coordinates of its live cells, covering exactly the live cells
+     *
+     * @param xs X coordinates of the live cells, the array is copied
+     * @param ys Y coordinates of the live cells, the array is copied
+     * @param cellCount Number of live cells
+     * @return The pattern
+     */
+    public static SparsePattern of(int[] xs, int[] ys, int cellCount) {
+
+        if (cellCount == 0)
+            return new SparsePattern(new int[0], new int[0], 0, 0, 0, 0, 0);
+
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+
+        for (int i = 0; i < cellCount; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+
+        return new SparsePattern(Arrays.copyOf(xs, cellCount), Arrays.copyOf(ys, cellCount), cellCount,
+                minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+    /**
+     * Creates a pattern from an array, covering the whole array
+     *
+     * @param pattern The pattern, indexed [x][y]
+     * @return The pattern
+     */
+    public static SparsePattern of(boolean[][] pattern) {
+
+        int width = pattern.length;
+        int height = (width == 0) ? 0 : pattern[0].length;
+
+        int count = 0;
+        int[] xs = new int[16];
+        int[] ys = new int[16];
+
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < pattern[x].length; y++) {
+                if (pattern[x][y]) {
+                    if (count == xs.length) {
+                        xs = Arrays.copyOf(xs, count * 2);
+                        ys = Arrays.copyOf(ys, count * 2);
+                    }
+                    xs[count] = x;
+                    ys[count] = y;
+                    count++;
+                }
+            }
+        }
+
+        return new SparsePattern(xs, ys, count, 0, 0, width, height);
+    }
+
+    /**
+     * Creates a pattern from a packed board, covering the whole board
+     *
+     * @param cells The packed cells
+     * @return The pattern, in the coordinates of the board
+     */
+    public static SparsePattern of(PackedBoard cells) {
+
+        int[] xs = new int[cells.getCellCount()];
+        int[] ys = new int[cells.getCellCount()];
+        int count = 0;
+
+        for (int y = 0; y < cells.getHeight(); y++) {
+            for (int i = 0; i < cells.getWordsPerRow(); i++) {
+
+                long word = cells.getWord(y, i);
+                while (word != 0) {
+                    xs[count] = i * 64 + Long.numberOfTrailingZeros(word);
+                    ys[count] = y;
+                    count++;
+                    word &= word - 1;
+                }
+            }
+        }
+
+        return new SparsePattern(xs, ys, count, 0, 0, cells.getWidth(), cells.getHeight());
+    }
+
+    /**
+     * Rotates the pattern 90 degrees clockwise
+     *
+     * @return The rotated pattern
+     */
+    public SparsePattern rotateRight() {
+
+        int[] rotatedXs = new int[cellCount];
+        int[] rotatedYs = new int[cellCount];
+
+        for (int i = 0; i < cellCount; i++) {
+            rotatedXs[i] = -ys[i];
+            rotatedYs[i] = xs[i];
+        }
+
+        return new SparsePattern(rotatedXs, rotatedYs, cellCount, -(minY + height - 1), minX, height, width);
+    }
+
+    /**
+     * Rotates the pattern 90 degrees counterclockwise
+     *
+     * @return The rotated pattern
+     */
+    public SparsePattern rotateLeft() {
+
+        int[] rotatedXs = new int[cellCount];
+        int[] rotatedYs = new int[cellCount];
+
+        for (int i = 0; i < cellCount; i++) {
+            rotatedXs[i] = ys[i];
+            rotatedYs[i] = -xs[i];
+        }
+
+        return new SparsePattern(rotatedXs, rotatedYs, cellCount, minY, -(minX + width - 1), height, width);
+    }
+
+    //region getters
+
+    public int getCellCount() { return cellCount; }
+
+    /**
+     * Gets the x coordinate of a live cell, relative to the left column of the pattern
+     *
+     * @param index Index of the cell
+     * @return X coordinate, from 0 to width - 1
+     */
+    public int getX(int index) { return xs[index] - minX; }
+
+    /**
+     * Gets the y coordinate of a live cell, relative to the top row of the pattern
+     *
+     * @param index Index of the cell
+     * @return Y coordinate, from 0 to height - 1
+     */
+    public int getY(int index) { return ys[index] - minY; }
+
+    public int getMinX() { return minX; }
+
+    public int getMinY() { return minY; }
+
+    public int getWidth() { return width; }
+
+    public int getHeight() { return height; }
+
+    //endregion
+}
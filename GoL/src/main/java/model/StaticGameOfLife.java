@@ -2,6 +2,7 @@ package model;
 
 import model.rules.RuleParser;
 
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -16,6 +17,9 @@ public class StaticGameOfLife extends GameOfLife{
     private AtomicBoolean[][] grid;
     private AtomicInteger[][] neighbours;
 
+    // columns shared with a snapshot, which must be copied before they are changed
+    private boolean[] sharedColumns;
+
     //region start-up
 
     /**
@@ -39,6 +43,26 @@ public class StaticGameOfLife extends GameOfLife{
         setRule(rulestring);
     }
 
+    /**
+     * Snapshot constructor. Shares the columns of the original board instead of copying them,
+     * and leaves the neighbour array to be created if the snapshot is ever evolved.
+     *
+     * @param original The board to take a snapshot of
+     */
+    private StaticGameOfLife(StaticGameOfLife original) {
+
+        grid = original.grid.clone();
+
+        // from now on, both boards have to copy a column before changing it
+        sharedColumns = new boolean[grid.length];
+        Arrays.fill(sharedColumns, true);
+        original.sharedColumns = sharedColumns.clone();
+
+        cellCount.set(original.getCellCount());
+        generation = original.getGeneration();
+        setRule(original.getRule().toString());
+    }
+
     /**
      * Creates the boolean 2D Array to keep track of dead and live cells, and the 2D byte-
      * array to keep track of the neighbour count to the corresponding cells in the other array
@@ -46,17 +70,59 @@ public class StaticGameOfLife extends GameOfLife{
     private void createGameBoard(int width, int height) {
 
         grid = new AtomicBoolean[width][height];
-        neighbours = new AtomicInteger[width][height];
 
         for (int x = 0; x < width; x++){
 
             for (int y = 0; y < height; y++){
                 grid[x][y] = new AtomicBoolean(false);
+            }
+        }
+        createNeighbours(width, height);
+    }
+
+    /**
+     * Creates the array keeping track of the neighbour count of each cell
+     */
+    private void createNeighbours(int width, int height) {
+
+        neighbours = new AtomicInteger[width][height];
+
+        for (int x = 0; x < width; x++){
+
+            for (int y = 0; y < height; y++){
                 neighbours[x][y] = new AtomicInteger(0);
             }
         }
     }
 
+    @Override
+    protected void prepareNeighbours() {
+
+        // a snapshot gets its neighbour array the first time it is evolved
+        if (neighbours == null)
+            createNeighbours(getGridWidth(), getGridHeight());
+    }
+
+    /**
+     * Copies a column shared with a snapshot, so it can be changed without affecting the snapshot
+     *
+     * @param x The column to be changed
+     */
+    private void ownColumn(int x) {
+
+        boolean[] shared = sharedColumns;
+
+        if (shared != null && x >= 0 && x < shared.length && shared[x]) {
+
+            AtomicBoolean[] column = new AtomicBoolean[grid[x].length];
+            for (int y = 0; y < column.length; y++) {
+                column[y] = new AtomicBoolean(grid[x][y].get());
+            }
+            grid[x] = column;
+            shared[x] = false;
+        }
+    }
+
     //endregion
 
     //region getters
@@ -67,6 +133,7 @@ public class StaticGameOfLife extends GameOfLife{
      * @return The neighbour-2D-array
      */
     public AtomicInteger[][] getNeighbours() {
+        prepareNeighbours();
         return neighbours;
     }
 
@@ -119,6 +186,18 @@ public class StaticGameOfLife extends GameOfLife{
         return staticGameOfLife;
     }
 
+    /**
+     * Takes a snapshot of the board in constant time per column.
+     * The snapshot shares columns with this board, and a column is only copied
+     * when one of the boards changes a cell in it.
+     *
+     * @return The snapshot
+     */
+    @Override
+    public StaticGameOfLife snapshot() {
+        return new StaticGameOfLife(this);
+    }
+
     /**
      * Deep copies the grid and sets it.
      *
@@ -142,6 +221,7 @@ public class StaticGameOfLife extends GameOfLife{
             }
         }
         this.grid = copiedBoard;
+        sharedColumns = null;
     }
 
     //endregion
@@ -155,6 +235,7 @@ public class StaticGameOfLife extends GameOfLife{
      */
     public void setGrid(AtomicBoolean[][] grid) {
         this.grid = grid;
+        sharedColumns = null;
     }
 
     @Override
@@ -163,6 +244,7 @@ public class StaticGameOfLife extends GameOfLife{
         if(!isCellAlive(x,y)){
 
             try {
+                ownColumn(x);
                 grid[x][y].set(true);
                 cellCount.incrementAndGet();
             } catch (IndexOutOfBoundsException ignored){
@@ -175,14 +257,64 @@ public class StaticGameOfLife extends GameOfLife{
 
         if(isCellAlive(x,y)) {
 
+            ownColumn(x);
             grid[x][y].set(false);
             cellCount.decrementAndGet();
         }
     }
 
+    /**
+     * Replaces the cells with the cells of a packed board, filling every column straight from
+     * the packed words instead of setting the live cells one at a time. The size of the board
+     * stays the same, cells outside it are left out.
+     *
+     * @param board The packed board to restore
+     */
+    @Override
+    public void setBoard(PackedBoard board) {
+
+        // no reason to copy shared columns only to overwrite them
+        if (sharedColumns != null) {
+            createGameBoard(getGridWidth(), getGridHeight());
+            sharedColumns = null;
+        }
+
+        int count = 0;
+        for (int x = 0; x < getGridWidth(); x++) {
+
+            AtomicBoolean[] column = grid[x];
+            int wordIndex = x >>> 6;
+            long bit = 1L << x;
+            int rows = (x < board.getWidth()) ? Math.min(board.getHeight(), column.length) : 0;
+
+            // the board is not evolving, so plain writes are enough
+            for (int y = 0; y < column.length; y++) {
+
+                boolean alive = y < rows && (board.getWord(y, wordIndex) & bit) != 0;
+                column[y].setPlain(alive);
+                if (alive)
+                    count++;
+                if (neighbours != null)
+                    neighbours[x][y].setPlain(0);
+            }
+        }
+
+        cellCount.set(count);
+        cellOffsetX = board.getOffsetX();
+        cellOffsetY = board.getOffsetY();
+        generation = board.getGeneration();
+        publishFrame();
+    }
+
     @Override
     public void clearGrid() {
 
+        // no reason to copy shared columns only to clear them
+        if (sharedColumns != null) {
+            createGameBoard(getGridWidth(), getGridHeight());
+            sharedColumns = null;
+        }
+
         for (int x = 0; x < getGridWidth(); x++) {
             for (int y = 0; y < getGridHeight(); y++) {
                 grid[x][y].set(false);
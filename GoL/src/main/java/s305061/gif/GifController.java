@@ -8,6 +8,9 @@ import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import model.DynamicGameOfLife;
 import model.GameOfLife;
+import tools.BoardRasterizer;
+import tools.GIFWriter;
+import tools.GifExporter;
 
 import java.io.File;
 import java.io.IOException;
@@ -16,7 +19,7 @@ import java.io.IOException;
  * @author Andreas s305061
  *
  * Controller for GIF window.
- * Handles GIF creation with GIFLib, in addition to GUI control
+ * Handles GIF creation with GIFWriter, in addition to GUI control
  */
 public class GifController {
 
@@ -203,77 +206,54 @@ public class GifController {
     }
 
     /**
-     * Initiates the recursive GIF creation
+     * Starts the GIF creation
      *
-     * @param originalGol The game object to be cloned
+     * @param originalGol The game object to take a snapshot of
      * @param iterations Number of iterations to evolve, also number of frames to be added to gif
-     * @throws IOException IO expectedException, thrown by GIFLib
+     * @throws IOException if the GIF file could not be written
      */
     private void startWriteGolSequenceToGIF(GameOfLife originalGol, int iterations, String path) throws IOException {
 
-        GameOfLife clonedGol = originalGol.clone();
+        GameOfLife clonedGol = originalGol.snapshot();
 
-//        GIFWriter gifWriter = new GIFWriter(getGifWidth(), getGifHeight(), path, timeBetweenFrames);
-//
-//        writeGoLSequenceToGIF(gifWriter, clonedGol, iterations);
+        // the snapshot keeps the offset of the board, so the movement is counted from here
+        int startOffsetX = clonedGol.getOffsetX();
+        int startOffsetY = clonedGol.getOffsetY();
+
+        // the bounding box follows the movement of the pattern (if dynamic game board)
+        BoardRasterizer rasterizer = new BoardRasterizer(getGifWidth(), getGifHeight(), scale,
+                (left - startOffsetX) * scale, (top - startOffsetY) * scale);
+
+        try (GIFWriter gifWriter = new GIFWriter(getGifWidth(), getGifHeight(), path, timeBetweenFrames,
+                java.awt.Color.WHITE, FxColorToAwtColor(color))) {
+
+            writeGoLSequenceToGIF(gifWriter, rasterizer, clonedGol, iterations);
+        }
     }
 
     /**
-     * Recursive GIF creation. Every repetition will add a frame for the current generation,
-     * then recursively proceed to the next frame and generation.
+     * GIF creation. Adds a frame for every generation, evolving the game on one thread
+     * and drawing the frames on others while the frames before are written.
+     * Only the part of a frame that changed since the frame before is written.
      *
-     * @param writer GIFWriter from GIFLib
+     * @param writer The GIFWriter
+     * @param rasterizer Draws the bounding box of a generation
      * @param game The cloned game class to be animated
-     * @param counter Counter to determine when to stop recursive method. Initially set as number of generations/frames
-     * @throws IOException IO expectedException, thrown by GIFLib
+     * @param frames Number of generations/frames
+     * @throws IOException if the GIF file could not be written
      */
-//    private void writeGoLSequenceToGIF(GIFWriter writer, GameOfLife game, int counter) throws IOException {
-//
-//        // condition to end recursion
-//        if(counter <= 0){
-//            writer.close();
-//        } else {
-//
-//            // add new image (frame) to gif
-//            writer.createNextImage();
-//
-//            // converts javafx.scene.pain.Color to java.awt.Color
-//            java.awt.Color awtColor = FxColorToAwtColor(color);
-//
-//            // these are 0 and 0 the first repetition (reset in clone() method),
-//            // then they will increase according to the movement of the pattern (if dynamic game board)
-//            int offsetX = game.getOffsetX();
-//            int offsetY = game.getOffsetY();
-//
-//            // draw current generation of the game board to current image in writer
-//            for (int gameX = left + offsetX; gameX <= right + offsetX; gameX++)
-//                for (int gameY = top + offsetY; gameY <= bottom + offsetY; gameY++){
-//
-//                    if(game.isCellAlive(gameX, gameY)){
-//
-//                        int gifX = (gameX - left - offsetX) * scale;
-//                        int gifY = (gameY - top - offsetY) * scale;
-//
-//                        int gifMaxX = gifX + scale - 1;
-//                        int gifMaxY = gifY + scale - 1;
-//
-//                        try {
-//                            writer.fillRect(gifX, gifMaxX, gifY, gifMaxY, awtColor);
-//                        } catch (ArrayIndexOutOfBoundsException ignored){
-//                        }
-//                    }
-//                }
-//
-//            // insert image to GIF sequence via writer
-//            writer.insertCurrentImage();
-//
-//            // nextGeneration call to game
-//            game.nextGeneration();
-//
-//            // recursive call to writeGoLSequenceToGIF
-//            writeGoLSequenceToGIF(writer, game, --counter);
-//        }
-//    }
+    private void writeGoLSequenceToGIF(GIFWriter writer, BoardRasterizer rasterizer, GameOfLife game, int frames) throws IOException {
+
+        // counting frames
+        int[] frameNr = {0};
+
+        new GifExporter(writer, rasterizer).export(frames, () -> {
+            // nextGeneration call to game, after the first frame
+            if (frameNr[0]++ > 0)
+                game.nextGeneration();
+            return game.getFrame();
+        });
+    }
 
     //region getters
     /**
@@ -11,6 +11,8 @@ import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextField;
 import model.GameOfLife;
 
+import java.util.function.Supplier;
+
 /**
  * @author Andreas s305061
  *
@@ -38,7 +40,7 @@ public class StatController {
     private boolean busy = false;
 
     // reference to game object to evolve and gather statistics from
-    private GameOfLife gol;
+    private Supplier<GameOfLife> snapshots;
 
     /**
      * Initialization method. Called when statistics window opens
@@ -75,16 +77,15 @@ public class StatController {
 
     /**
      * Collects statistics for a specified number of iterations. Number of live cells, cell growth and similarity measure will be collected
+     * @param clonedGol A copy of the board, which is evolved
      * @param totalIterations Number of iterations to evolve and collect statistics from
      * @return  An array of integer values representing live cells, cell growth and similarity measure for each iteration
      */
-    private int[][] getStatistics(int totalIterations){
+    private int[][] getStatistics(GameOfLife clonedGol, int totalIterations){
 
         int[][] stats = new int[3][totalIterations];
         double[] representations = new double[totalIterations];
 
-        GameOfLife clonedGol = gol.clone();
-
         int previousLiving = 0;
         double previousGeometricFactor = 0;
 
@@ -280,12 +281,15 @@ public class StatController {
         if(busy)
             return;
 
+        // the copy is made on the JavaFX thread, before the work is handed off
+        GameOfLife clonedGol = snapshots.get();
+
         Task task = new Task() {
             @Override
             protected Void call() throws Exception  {
 
                 busy = true;
-                int[][] stats = getStatistics(iterations);
+                int[][] stats = getStatistics(clonedGol, iterations);
 
                 Platform.runLater(() -> {
 
@@ -308,16 +312,16 @@ public class StatController {
     @Deprecated
     private void getAndDisplaySequentially(int iterations){
 
-        int[][] stats = getStatistics(iterations);
+        int[][] stats = getStatistics(snapshots.get(), iterations);
         displayStatistics(stats);
     }
 
     /**
-     * Sets a reference to the DynamicGameOfLife object to be cloned for statistics gathering
-     * @param gol Original DynamicGameOfLife object
+     * Sets where the statistics gathering gets copies of the board from
+     * @param snapshots Makes a copy of the board every time it is called, on the JavaFX thread
      */
-    public void setGol(GameOfLife gol){
-        this.gol = gol;
+    public void setGol(Supplier<GameOfLife> snapshots){
+        this.snapshots = snapshots;
     }
 
     /**
@@ -102,11 +102,11 @@ public class EditorController {
     }
 
     /**
-     * Gets a deep copy of game board grid
+     * Gets a copy-on-write snapshot of game board grid
      * @param gol
      */
     public void getDeepCopyGol(GameOfLife gol) {
-        this.golEditor = gol.clone();
+        this.golEditor = gol.snapshot();
     }
 
     /**
@@ -131,12 +131,14 @@ public class EditorController {
         // get board offset horizontally from parent view
         cameraEditorView.boardOffsetX = (int) (parentCameraView.getCommonOffsetX(
                                                                     parentGol,
-                                                                    parentCellSize) * editorCell.getSize() / parentCellSize);
+                                                                    parentCellSize) * editorCell.getSize() / parentCellSize
+                                                                    - golEditor.getOffsetX() * editorCell.getSize());
 
         // get board offset vertically from parent view
         cameraEditorView.boardOffsetY = (int) (parentCameraView.getCommonOffsetY(
                                                                     parentGol,
-                                                                    parentCellSize) * editorCell.getSize() / parentCellSize);
+                                                                    parentCellSize) * editorCell.getSize() / parentCellSize
+                                                                    - golEditor.getOffsetY() * editorCell.getSize());
     }
 
     /**
@@ -182,8 +184,8 @@ public class EditorController {
 
     @FXML
     private void updateStrip() {
-        // clone gol used for editor to strip
-        golStrip = golEditor.clone();
+        // snapshot of gol used for editor to strip
+        golStrip = golEditor.snapshot();
 
         // calculate width and height for strip view
         double horizontalCells = editor.getHeight() / editorCell.getSize();
@@ -198,8 +200,8 @@ public class EditorController {
         stripCell.setSize(strip.getHeight() / horizontalCells);
 
         // set offset X and Y
-        cameraViewStrip.boardOffsetX = (int) (cameraEditorView.getCommonOffsetX(golEditor, editorCell.getSize()) * stripCell.getSize() / editorCell.getSize());
-        cameraViewStrip.boardOffsetY = (int) (cameraEditorView.getCommonOffsetY(golEditor, editorCell.getSize()) * stripCell.getSize() / editorCell.getSize());
+        cameraViewStrip.boardOffsetX = (int) (cameraEditorView.getCommonOffsetX(golEditor, editorCell.getSize()) * stripCell.getSize() / editorCell.getSize() - golStrip.getOffsetX() * stripCell.getSize());
+        cameraViewStrip.boardOffsetY = (int) (cameraEditorView.getCommonOffsetY(golEditor, editorCell.getSize()) * stripCell.getSize() / editorCell.getSize() - golStrip.getOffsetY() * stripCell.getSize());
 
         // show same view as editor controller
         cameraViewStrip.updateView(golStrip, stripCell.getSize(), width, (int)strip.getHeight());
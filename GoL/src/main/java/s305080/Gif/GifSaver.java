@@ -12,15 +12,21 @@ import javafx.stage.Stage;
 import model.CameraView;
 import model.Cell;
 import model.GameOfLife;
+import model.PackedBoard;
 import s305080.Gif.Controller.GifPropertiesController;
+import tools.BoardRasterizer;
+import tools.GIFWriter;
+import tools.GifExporter;
+import tools.ImageSequenceExporter;
 import tools.MessageBox;
+import tools.ProgressBox;
 
 import java.awt.*;
 import java.io.File;
 import java.io.IOException;
 
 /**
- * Used to save game of life patterns to a gif file
+ * Used to save game of life patterns to a gif file, an animated png or a sequence of png images
  */
 public class GifSaver {
 
@@ -40,8 +46,27 @@ public class GifSaver {
 
     CameraView cView = new CameraView();
 
-//    private GIFWriter gifWriter;
     private int frameNr;
+    private volatile boolean cancelled;
+    private Runnable cancel;
+    private ProgressBox progressBox;
+
+    // the kinds of animations, chosen in the file chooser
+    private static final FileChooser.ExtensionFilter GIF = new FileChooser.ExtensionFilter("GIF", "*.gif");
+    private static final FileChooser.ExtensionFilter APNG = new FileChooser.ExtensionFilter("Animated PNG", "*.png");
+    private static final FileChooser.ExtensionFilter PNG_SEQUENCE = new FileChooser.ExtensionFilter("PNG sequence", "*.png");
+    private static final FileChooser.ExtensionFilter STRIPS = new FileChooser.ExtensionFilter("Spacetime strips (PNG sequence)", "*.png");
+
+    // number of frames side by side in a spacetime strip
+    private static final int STRIP_LENGTH = 10;
+
+    /**
+     * An export running in the background
+     */
+    private interface Export {
+        boolean run() throws IOException;
+    }
+
     private int iterations = 0;
     private int gPerIteration;
     private int framerate;
@@ -56,7 +81,7 @@ public class GifSaver {
         this.cController = cController;
 
         originalGol = cController.getGol();
-        gol = originalGol.clone();
+        gol = cController.snapshotGol();
 
         // les user decide length and speed of gif
         if (!collectUserRequest()){
@@ -66,9 +91,9 @@ public class GifSaver {
         // stores the cell used in canvasController
         cell = cController.getCell().clone();
 
-        // old common offset to be used as offset in gif
-        cView.boardOffsetX = cController.getCameraView().getCommonOffsetX(originalGol, cell.getSize());
-        cView.boardOffsetY = cController.getCameraView().getCommonOffsetY(originalGol, cell.getSize());
+        // the snapshot keeps the board offset, so the board offset of the canvas can be used directly
+        cView.boardOffsetX = cController.getCameraView().boardOffsetX;
+        cView.boardOffsetY = cController.getCameraView().boardOffsetY;
 
         // gif shall have same measures as canvas
         width = (int)cController.getCanvas().getWidth();
@@ -88,7 +113,7 @@ public class GifSaver {
         this.cController = cController;
 
         originalGol = cController.getGol();
-        gol = originalGol.clone();
+        gol = cController.snapshotGol();
 
         // les user decide length and speed of gif
         if (!collectUserRequest()){
@@ -98,9 +123,9 @@ public class GifSaver {
         // stores the cell used in canvasController
         cell = cController.getCell().clone();
 
-        // old common offset to be used as offset in gif
-        cView.boardOffsetX  = (int) (cController.getCameraView().getCommonOffsetX(originalGol, cell.getSize()) + cController.getCanvasPosX(boundingBox[0]));
-        cView.boardOffsetY  = (int) (cController.getCameraView().getCommonOffsetY(originalGol, cell.getSize()) + cController.getCanvasPosY(boundingBox[1]));
+        // old common offset to be used as offset in gif, minus the board offset kept by the snapshot
+        cView.boardOffsetX  = (int) (cController.getCameraView().getCommonOffsetX(originalGol, cell.getSize()) + cController.getCanvasPosX(boundingBox[0]) - gol.getOffsetX() * cell.getSize());
+        cView.boardOffsetY  = (int) (cController.getCameraView().getCommonOffsetY(originalGol, cell.getSize()) + cController.getCanvasPosY(boundingBox[1]) - gol.getOffsetY() * cell.getSize());
         System.out.println(boundingBox[0] + " " + boundingBox[1] + " " + boundingBox[2] + " " + boundingBox[3]);
 
         // shall have the same dimensions as selected area
@@ -112,14 +137,15 @@ public class GifSaver {
 
 
     /**
-     * Creates a gif of the simulation game of life
+     * Creates a gif, an animated png or a sequence of png images of the simulation game of life
      * @throws IOException if something wrong happened with the image stream.
      */
     private void createGif() throws IOException {
 
-        // lets the user decide where to save the gif
+        // lets the user decide where to save the animation, and as what
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Choose save directory");
+        fileChooser.getExtensionFilters().addAll(GIF, APNG, PNG_SEQUENCE, STRIPS);
         File file = fileChooser.showSaveDialog(cController.getMasterController().getStage());
 
         // quits if user canceled or didn't choose location
@@ -127,137 +153,95 @@ public class GifSaver {
             return;
         }
 
-        // makes sure the file ends with ".gif"
-        String path = file.toString();
-        if (!path.endsWith(".gif")){
-            path = path + ".gif";
+        FileChooser.ExtensionFilter type = fileChooser.getSelectedExtensionFilter();
+        if (type == null){
+            type = GIF;
         }
 
-        // initiates the gifWriter
-//        gifWriter = new GIFWriter(width, height, path, 1000/framerate);
+        // makes sure the file ends with ".gif" or ".png"
+        String extension = (type == GIF) ? ".gif" : ".png";
+        String path = file.toString();
+        if (!path.toLowerCase().endsWith(extension)){
+            path = path + extension;
+        }
+        File target = new File(path);
+
+        Color[] palette = {toAwtColor(cell.getDeadColor()), toAwtColor(cell.getColor())};
+        BoardRasterizer rasterizer = new BoardRasterizer(width, height, cell.getSize(), cView.boardOffsetX, cView.boardOffsetY);
+
+        // the export, and how to cancel it and follow its progress
+        Export export;
+        if (type == GIF) {
+            GIFWriter gifWriter = new GIFWriter(width, height, path, 1000/framerate, palette);
+            GifExporter exporter = new GifExporter(gifWriter, rasterizer);
+            exporter.setProgressListener(this::showProgress);
+            cancel = exporter::cancel;
+            export = () -> {
+                try (gifWriter) {
+                    return exporter.export(iterations, this::nextFrame);
+                }
+            };
+        }
+        else {
+            ImageSequenceExporter exporter = new ImageSequenceExporter(rasterizer, (type == STRIPS) ? STRIP_LENGTH : 1, palette);
+            ImageSequenceExporter.Format format = (type == APNG) ? ImageSequenceExporter.Format.APNG : ImageSequenceExporter.Format.PNG_SEQUENCE;
+            exporter.setProgressListener(this::showProgress);
+            cancel = exporter::cancel;
+            export = () -> exporter.export(target, format, iterations, 1000/framerate, this::nextFrame);
+        }
 
         // to count the frames
         frameNr = 0;
+        cancelled = false;
 
-        // sets the correct background color
+        progressBox = ProgressBox.show("Saving " + target.getName(), () -> {
+            cancelled = true;
+            cancel.run();
+        });
 
-        // creates a thread to make the actual gif to prevent the gifWriter from halting the program
+        // creates a thread to make the actual animation to prevent the export from halting the program
         Thread t = new Thread(()->{
+            boolean done = false;
             try {
-                drawNextImage();
+                done = export.run();
             } catch (IOException e) {
                 e.printStackTrace();
             }
 
-            Platform.runLater(() -> {
-                MessageBox.close();
-                MessageBox.alert("The gif is done");
-            });
+            progressBox.close();
+            String message = done ? "The animation is done" : "The animation was not finished";
+            Platform.runLater(() -> MessageBox.alert(message));
 
-        });
+        }, "animation-export");
+        t.setDaemon(true);
         t.start();
-
-        MessageBox.alert("Working on gif, we will notify you when it's done...");
-
     }
 
     /**
-     * Draws one frame in the gif, and starts the drawing of the next frame
-     * @throws IOException if something wrong happened with the image stream.
+     * Gets the next frame of the animation, on the frame thread of the export
+     * @return the board after the generations between two frames
      */
-    private void drawNextImage() throws IOException {
-
-        // creates the image
-       renderGif();
-
-        // checks if enough frames
-        if(frameNr >= iterations){
-            // closes gif
-//            gifWriter.close();
-            // stops recursion
-            return;
-        }
-
-        // evolves game of life as far as the user wants to
-        for (int i = 0; i < gPerIteration; i++) {
-            gol.nextGeneration();
-        }
+    private PackedBoard nextFrame() {
 
-        // counting frames
-        frameNr++;
+        // evolves game of life as far as the user wants to, after the first frame
+        if (frameNr++ > 0)
+            gol.nextGenerations(gPerIteration, () -> !cancelled);
 
-        // prepares gifWriter for next image
-//        gifWriter.insertAndProceed();
-
-        // draws next image
-        drawNextImage();
+        return gol.getFrame();
     }
 
-    /**
-     * creates one image in the gif
-     */
-   private void renderGif() {
-       // calculate wich cells are inside the view
-       cView.updateView(gol, cell.getSize(), width, height);
-
-       // draws the cells inside the view
-       drawImage();
+    private void showProgress(int written, int total) {
+        progressBox.update(written, total);
     }
 
-
     /**
-     * draws the cells inside the view
+     * Converts a cell colour to the colour used by the gifWriter
      */
-    private void drawImage() {
-
-        drawBackground();
-
-        // draws the live cells
-        for (int x = cView.currViewMinX; x < cView.currViewMaxX ; x++) {
-            for (int y = cView.currViewMinY; y < cView.currViewMaxY; y++) {
-
-                if (gol.isCellAlive(x, y))
-                    drawCell(x, y);
-
-            }
-        }
-    }
-
-    /**
-     * fills the image with the background color
-     */
-    private void drawBackground() {
-//        gifWriter.fillRect(0, width - 1, 0, height - 1, new Color(
-//                (int) (255 * cell.getDeadColor().getRed()),
-//                (int) (255 * cell.getDeadColor().getGreen()),
-//                (int) (255 * cell.getDeadColor().getBlue())));
-    }
-
-    // draws the cell at (x, y)
-    private void drawCell(int x, int y) {
-
-        // stores teh minimum x and y value to fill
-        int x1 =  (int)(x * cell.getSize() - cView.getCommonOffsetX(gol, cell.getSize())), y1 =  (int)(y * cell.getSize() - cView.getCommonOffsetY(gol, cell.getSize()));
-
-        // makes sure the values is inside the gif
-        x1 = (x1 < 0) ? 0 : x1;
-        y1 = (y1 < 0) ? 0 : y1;
-
-        // stores the maximum x and y values to fill
-        int x2 = (int) ((x + 1) * cell.getSize() - cView.getCommonOffsetX(gol, cell.getSize())), y2 = (int)((y + 1) * cell.getSize() - cView.getCommonOffsetY(gol, cell.getSize()));
-
-        // makes sure the values are inside the gif
-        x2 = (x2 >= width) ? width - 1 : x2;
-        y2 = (y2 >= height) ? height - 1 : y2;
-
-//        gifWriter.fillRect(
-//                x1 , x2,
-//                y1 , y2,
-//                new Color(
-//                        (int) (255 * cell.getColor().getRed()),
-//                        (int) (255 * cell.getColor().getGreen()),
-//                        (int) (255 * cell.getColor().getBlue())));
-
+    private static Color toAwtColor(javafx.scene.paint.Color color) {
+        return new Color(
+                (int) (255 * color.getRed()),
+                (int) (255 * color.getGreen()),
+                (int) (255 * color.getBlue()));
     }
 
     /**
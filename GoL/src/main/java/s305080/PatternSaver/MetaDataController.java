@@ -37,6 +37,15 @@ public class MetaDataController {
                 case "RLE format":
                     insertRleMetaData();
                     break;
+                case "Life 1.06":
+                    insertLife06MetaData();
+                    break;
+                case "Macrocell":
+                    insertMacrocellMetaData();
+                    break;
+                case "Snapshot":
+                    insertSnapshotMetaData();
+                    break;
             }
             toFile.closeStage();
         }
@@ -77,6 +86,50 @@ public class MetaDataController {
         toFile.setFormat(ToFile.Format.RLE);
     }
 
+    private void insertLife06MetaData() {
+        if(!name.getText().matches("[ ]*")){
+            list.add("#D Name: " + name.getText());
+            toFile.setInitialFileName(name.getText());
+        }
+        if(!author.getText().matches("[ ]*")){
+            list.add("#D Author: " + author.getText());
+        }
+        if(!description.getText().matches("[ ]*")){
+            list.add("#D " + description.getText());
+        }
+        if(!rules.getText().matches("[ ]*")){
+            list.add("#D Rule: " + rules.getText());
+        }
+        toFile.setFormat(ToFile.Format.Life06);
+    }
+
+    private void insertMacrocellMetaData() {
+        if(!name.getText().matches("[ ]*")){
+            list.add("#N " + name.getText());
+            toFile.setInitialFileName(name.getText());
+        }
+        if(!author.getText().matches("[ ]*")){
+            list.add("#O " + author.getText());
+        }
+        if(!description.getText().matches("[ ]*")){
+            list.add("#C " + description.getText());
+        }
+        if(!rules.getText().matches("[ ]*")){
+            toFile.setRuleText(rules.getText());
+        }
+        toFile.setFormat(ToFile.Format.Macrocell);
+    }
+
+    private void insertSnapshotMetaData() {
+        if(!name.getText().matches("[ ]*")){
+            toFile.setInitialFileName(name.getText());
+        }
+        if(!rules.getText().matches("[ ]*")){
+            toFile.setRuleText(rules.getText());
+        }
+        toFile.setFormat(ToFile.Format.Snapshot);
+    }
+
     public void setList(List<String> list){
         this.list = list;
     }
@@ -0,0 +1,368 @@
+package s305080.PatternSaver;
+
+import model.PackedBoard;
+import model.Parser.MacrocellWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes pattern files straight to a channel, without building the text in memory first.
+ *
+ * The live cells are found row by row from the packed words of a board, skipping empty
+ * words, so writing RLE and Life 1.06 costs time in proportion to the live cells and the
+ * size of the board in words, and memory for one buffer only. Does not depend on JavaFX.
+ */
+public class PatternWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // RLE lines are kept below this length
+    private static final int MAX_RLE_LINE_LENGTH = 70;
+
+    public enum Format {
+        RLE, LIFE06, PLAIN_TEXT, MACROCELL
+    }
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] digits = new byte[11];
+
+    private int lineLength;
+
+    // next cell of the row to write
+    private int x;
+
+    // RLE rows passed without writing their end, written together as one run of '$'
+    private int pendingRowEnds;
+
+    private PatternWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Receives the runs of live cells of a row
+     */
+    private interface RunConsumer {
+        void accept(int start, int end) throws IOException;
+    }
+
+    //region writing
+
+    /**
+     * Writes a board to a file
+     *
+     * @param file The file, replaced if it exists
+     * @param format Format to write
+     * @param board The cells to write
+     * @param ruleText Rule to write in a RLE header, or null to leave it out
+     * @param comments Comment lines to write first, with their comment markers
+     * @throws IOException if the file could not be written
+     */
+    public static void write(File file, Format format, PackedBoard board, String ruleText, List<String> comments) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(channel, format, board, ruleText, comments);
+        }
+    }
+
+    /**
+     * Writes a board to a channel. The channel is not closed.
+     *
+     * @param channel Where to write
+     * @param format Format to write
+     * @param board The cells to write
+     * @param ruleText Rule to write in a RLE header, or null to leave it out
+     * @param comments Comment lines to write first, with their comment markers
+     * @throws IOException if the channel could not be written
+     */
+    public static void write(WritableByteChannel channel, Format format, PackedBoard board, String ruleText, List<String> comments) throws IOException {
+
+        // a quadtree is not written row by row, it has its own writer
+        if (format == Format.MACROCELL) {
+            MacrocellWriter.write(channel, board, ruleText, comments);
+            return;
+        }
+
+        PatternWriter writer = new PatternWriter(channel);
+
+        switch (format) {
+            case RLE:
+                writer.writeRle(board, ruleText, comments);
+                break;
+            case LIFE06:
+                writer.writeLife06(board, comments);
+                break;
+            case PLAIN_TEXT:
+                writer.writePlainText(board, comments);
+                break;
+            default:
+                break;
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes the live cells as RLE, cropped to their bounding box
+     */
+    private void writeRle(PackedBoard board, String ruleText, List<String> comments) throws IOException {
+
+        writeLines(comments);
+
+        int[] boundingBox = board.getBoundingBox();
+        int width = (boundingBox == null) ? 0 : boundingBox[2] - boundingBox[0] + 1;
+        int height = (boundingBox == null) ? 0 : boundingBox[3] - boundingBox[1] + 1;
+
+        append("x = ").append(width).append(", y = ").append(height);
+        if (ruleText != null)
+            append(", rule = ").append(ruleText);
+        newLine();
+
+        if (boundingBox != null) {
+
+            for (int y = boundingBox[1]; y <= boundingBox[3]; y++) {
+
+                if (y > boundingBox[1])
+                    pendingRowEnds++;
+
+                x = boundingBox[0];
+                forEachRun(board, y, this::appendRleCells);
+            }
+        }
+
+        if (lineLength + 1 > MAX_RLE_LINE_LENGTH)
+            newLine();
+        append('!');
+        newLine();
+    }
+
+    /**
+     * Writes a run of live cells and the dead cells and row ends before it
+     */
+    private void appendRleCells(int start, int end) throws IOException {
+
+        if (pendingRowEnds > 0) {
+            appendRleRun(pendingRowEnds, '$');
+            pendingRowEnds = 0;
+        }
+        if (start > x)
+            appendRleRun(start - x, 'b');
+
+        appendRleRun(end - start, 'o');
+        x = end;
+    }
+
+    /**
+     * Writes the live cells as Life 1.06, one absolute cell position per line
+     */
+    private void writeLife06(PackedBoard board, List<String> comments) throws IOException {
+
+        append("#Life 1.06");
+        newLine();
+        writeLines(comments);
+
+        int[] boundingBox = board.getBoundingBox();
+        if (boundingBox == null)
+            return;
+
+        for (int y = boundingBox[1]; y <= boundingBox[3]; y++) {
+
+            int absoluteY = y - board.getOffsetY();
+
+            forEachRun(board, y, (start, end) -> {
+                for (int cell = start; cell < end; cell++) {
+                    append(cell - board.getOffsetX()).append(' ').append(absoluteY);
+                    newLine();
+                }
+            });
+        }
+    }
+
+    /**
+     * Writes the live cells as plain text, cropped to their bounding box
+     */
+    private void writePlainText(PackedBoard board, List<String> comments) throws IOException {
+
+        writeLines(comments);
+
+        int[] boundingBox = board.getBoundingBox();
+        if (boundingBox == null)
+            return;
+
+        for (int y = boundingBox[1]; y <= boundingBox[3]; y++) {
+
+            x = boundingBox[0];
+
+            forEachRun(board, y, (start, end) -> {
+                for (; x < start; x++) {
+                    append('.');
+                }
+                for (; x < end; x++) {
+                    append('O');
+                }
+            });
+
+            // rows are padded to the width of the pattern, as the saver always did
+            for (; x <= boundingBox[2]; x++) {
+                append('.');
+            }
+            newLine();
+        }
+    }
+
+    private void writeLines(List<String> lines) throws IOException {
+
+        for (String line : lines) {
+            append(line);
+            newLine();
+        }
+    }
+
+    //endregion
+
+    //region live cells
+
+    /**
+     * Finds the runs of live cells in a row, skipping words with no live cells
+     *
+     * @param board The board
+     * @param y The row
+     * @param consumer Receives the first cell and the end, exclusive, of every run
+     */
+    private static void forEachRun(PackedBoard board, int y, RunConsumer consumer) throws IOException {
+
+        int runStart = -1;
+
+        for (int i = 0; i < board.getWordsPerRow(); i++) {
+
+            long word = board.getWord(y, i);
+            if (word == 0 && runStart < 0)
+                continue;
+
+            int base = i * 64;
+
+            // bits of the word already handled, the word is shifted past them
+            int bit = 0;
+
+            while (bit < 64) {
+
+                if (runStart < 0) {
+                    if (word == 0)
+                        break;
+
+                    int dead = Long.numberOfTrailingZeros(word);
+                    runStart = base + bit + dead;
+                    bit += dead;
+                    word >>>= dead;
+                }
+                else {
+                    int alive = Long.numberOfTrailingZeros(~word);
+                    bit += alive;
+
+                    // the run goes on into the next word
+                    if (bit >= 64)
+                        break;
+
+                    word >>>= alive;
+                    consumer.accept(runStart, base + bit);
+                    runStart = -1;
+                }
+            }
+        }
+
+        if (runStart >= 0)
+            consumer.accept(runStart, board.getWordsPerRow() * 64);
+    }
+
+    //endregion
+
+    //region output
+
+    /**
+     * Writes a RLE run, starting a new line first if the line would get too long
+     */
+    private void appendRleRun(int count, char tag) throws IOException {
+
+        int length = (count == 1) ? 1 : stringSize(count) + 1;
+        if (lineLength + length > MAX_RLE_LINE_LENGTH)
+            newLine();
+
+        if (count != 1)
+            append(count);
+        append(tag);
+    }
+
+    private static int stringSize(int number) {
+
+        int size = 1;
+        while (number >= 10) {
+            number /= 10;
+            size++;
+        }
+        return size;
+    }
+
+    private PatternWriter append(char character) throws IOException {
+
+        if (!buffer.hasRemaining())
+            flush();
+
+        buffer.put((byte) character);
+        lineLength++;
+        return this;
+    }
+
+    private PatternWriter append(String text) throws IOException {
+
+        for (int i = 0; i < text.length(); i++) {
+            append(text.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Writes a whole number without creating a string
+     */
+    private PatternWriter append(int number) throws IOException {
+
+        long value = number;
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+
+        int length = 0;
+        do {
+            digits[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+
+        while (length > 0) {
+            append((char) digits[--length]);
+        }
+        return this;
+    }
+
+    private void newLine() throws IOException {
+
+        append('\n');
+        lineLength = 0;
+    }
+
+    private void flush() throws IOException {
+
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    //endregion
+}
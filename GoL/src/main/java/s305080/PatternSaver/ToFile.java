@@ -7,11 +7,11 @@ import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import model.GameOfLife;
+import model.SnapshotFile;
 import tools.MessageBox;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -29,7 +29,7 @@ public class ToFile {
 
 
     enum Format {
-        RLE, PlainText
+        RLE, PlainText, Life06, Macrocell, Snapshot
     }
 
     public void writeToFile(GameOfLife gol, Stage stage){
@@ -62,132 +62,59 @@ public class ToFile {
             return; //throw exception
         }
 
-        if(format == Format.RLE)
-            writeRLE(file);
-
-        if(format == Format.PlainText)
-            writePlainText(file);
+        switch (format) {
+            case RLE:
+                write(file, ".rle", PatternWriter.Format.RLE);
+                break;
+            case PlainText:
+                write(file, ".cells", PatternWriter.Format.PLAIN_TEXT);
+                break;
+            case Life06:
+                write(file, ".lif", PatternWriter.Format.LIFE06);
+                break;
+            case Macrocell:
+                write(file, ".mc", PatternWriter.Format.MACROCELL);
+                break;
+            case Snapshot:
+                writeSnapshot(file);
+                break;
+        }
 
 
     }
 
-    private  void writeRLE(File file) {
+    /**
+     * Streams the pattern to the file, adding the extension if it is missing
+     */
+    private void write(File file, String extension, PatternWriter.Format writerFormat) {
 
-        fileContent.addAll(getRleFormat(gol));
-
-        if(!file.toString().endsWith(".rle")){
-            file = new File(file.toString() + ".rle");
+        if(!file.toString().endsWith(extension)){
+            file = new File(file.toString() + extension);
         }
 
         try {
-            Files.write(file.toPath(), fileContent);
+            PatternWriter.write(file, writerFormat, gol.getFrame(), ruleText, fileContent);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    private List <String> getRleFormat(GameOfLife gol) {
-
-        List<String> list = new ArrayList<>();
-
-        StringBuilder currentLine = new StringBuilder();
-
-        int [] boundingBox = gol.getBoundingBox();
-
-        currentLine.append("x = "+(boundingBox[1]-boundingBox[0]+1)+", y = "+(boundingBox[3]-boundingBox[2]+1) + ((ruleText == null)?"":", rule = " + ruleText));
-
-        list.add(currentLine.toString());
-
-        currentLine = new StringBuilder();
-        int counter = 0;
-        boolean lastBit = false;
-        boolean firstInLine = true;
-        for (int y = boundingBox[2]; y <= boundingBox[3]; y++) {
-
-            for (int x = boundingBox[0]; x <= boundingBox[1]; x++) {
-
-                if(firstInLine){
-                    counter++;
-                    firstInLine = false;
-                }
-                else if(lastBit == gol.isCellAlive(x, y)){
-                    counter ++;
-                    if (currentLine.length() > 40){
-                        list.add(currentLine.toString());
-                        currentLine = new StringBuilder();
-                    }
-                }
-                else{
-                    if (lastBit){
-                        currentLine.append((counter == 1) ? "" : counter).append("o");
-                    }
-                    else {
-                        currentLine.append((counter == 1) ? "" : counter).append("b");
-                    }
-                    counter = 1;
-                }
-                lastBit = gol.isCellAlive(x, y);
-
-            }
-
-            firstInLine = true;
-            if (lastBit){
-                currentLine.append((counter == 1) ? "" : counter).append("o");
-            }
-
-            if(y != boundingBox[3])
-                currentLine.append("$");
-
-            counter = 0;
-        }
-
-        currentLine.append("!");
-        list.add(currentLine.toString());
-
-        return list;
-
-    }
-
-    private void writePlainText(File file) {
-
-        fileContent.addAll(getPlainTextFormat(gol));
+    /**
+     * Saves the whole board with its offset, generation and rule
+     */
+    private void writeSnapshot(File file) {
 
-
-        if(!file.toString().endsWith(".cells")){
-            file = new File(file.toString() + ".cells");
+        if(!file.toString().endsWith(SnapshotFile.EXTENSION)){
+            file = new File(file.toString() + SnapshotFile.EXTENSION);
         }
 
         try {
-            Files.write(file.toPath(), fileContent);
+            SnapshotFile.write(file, gol.getFrame(), (ruleText != null) ? ruleText : gol.getRule().toString());
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    private List <String> getPlainTextFormat(GameOfLife gol) {
-        StringBuilder currentLine = new StringBuilder();
-
-        List <String> list = new ArrayList<>();
-
-        int [] boundingBox = gol.getBoundingBox();
-
-
-        for(int y = boundingBox[2]; y <= boundingBox[3]; y++){
-
-            for(int x = boundingBox[0]; x <= boundingBox[1]; x++){
-
-                if(gol.isCellAlive(x, y)){
-                    currentLine.append('O');
-                }
-                else
-                    currentLine.append('.');
-            }
-            list.add(currentLine.toString());
-            currentLine = new StringBuilder();
-        }
-        return list;
-    }
-
     private void collectMetaData(Stage primaryStage) throws IOException {
         Parent root;
         FXMLLoader loader = new FXMLLoader(ToFile.class.getResource("MetaData.fxml"));
@@ -14,6 +14,7 @@ import tools.MessageBox;
 
 import java.util.ArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 
 /**
@@ -30,7 +31,7 @@ public class StatsController {
     private XYChart.Series<Integer, Integer> difference;
     private XYChart.Series<Integer, Integer> similarity;
     private GameOfLife statsGol;
-    private GameOfLife gol;
+    private Supplier<GameOfLife> snapshots;
     private int lastCellCount;
     private int iterations;
     private double alfa = 0.5;
@@ -38,8 +39,12 @@ public class StatsController {
     private double gamma = 0.25;
     private final double maxIntervalLength = 15;
 
-    public void setGameOfLife(GameOfLife gameOfLife) {
-        gol = gameOfLife;
+    /**
+     * Sets where the statistics get copies of the board from
+     * @param snapshots Makes a copy of the board every time it is called
+     */
+    public void setGameOfLife(Supplier<GameOfLife> snapshots) {
+        this.snapshots = snapshots;
 
     }
     public void setUp() {
@@ -53,7 +58,7 @@ public class StatsController {
         lineChart.getData().addAll(cellCount, difference, similarity);
         addLineChartWidthListener();
         System.out.println("Initialize");
-        statsGol = gol.clone();
+        statsGol = snapshots.get();
     }
 
     private void addLineChartWidthListener() {
@@ -85,8 +90,7 @@ public class StatsController {
 
     private void updateStats() {
 
-        statsGol = gol.clone();
-        setCorrectRule();
+        statsGol = snapshots.get();
 
         int [][] stats = getStats(statsGol, iterations);
         clearGraph();
@@ -147,13 +151,6 @@ public class StatsController {
         }
     }
 
-    private void setCorrectRule() {
-        if(!statsGol.getRule().toString().equals(gol.getRule().toString())) {
-            statsGol.setRule(gol.getRule().toString());
-        }
-        System.out.println("\n");
-    }
-
     private double phi(GameOfLife gol, int difference) {
         return alfa * gol.getCellCount()
                 + beta * difference
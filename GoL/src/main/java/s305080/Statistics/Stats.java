@@ -10,6 +10,7 @@ import model.GameOfLife;
 import s305080.Statistics.Controller.StatsController;
 
 import java.io.IOException;
+import java.util.function.Supplier;
 
 /**
  * Created by Truls on 19/04/16.
@@ -20,7 +21,7 @@ public class Stats {
     private Stage stage;
     private MasterController masterController;
 
-    public void display(GameOfLife gol, MasterController masterController){
+    public void display(Supplier<GameOfLife> snapshots, MasterController masterController){
 
         this.masterController = masterController;
         FXMLLoader loader = new FXMLLoader(getClass().getResource("View/View.fxml"));
@@ -36,7 +37,7 @@ public class Stats {
         stage.setScene(scene);
         stage.show();
 
-        sController.setGameOfLife(gol);
+        sController.setGameOfLife(snapshots);
         sController.setUp();
 
         stage.setOnCloseRequest(event -> masterController.getMenuController().setStatsShowing(false));
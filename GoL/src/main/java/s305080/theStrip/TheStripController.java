@@ -54,7 +54,7 @@ public class TheStripController {
      */
     public void updateStrip(){
 
-        gol = originalGol.clone();
+        gol = cController.snapshotGol();
 
         if(!gol.getRule().toString().equals(originalGol.getRule().toString()))
         {
@@ -63,8 +63,8 @@ public class TheStripController {
         }
 
         cellSize = canvas.getHeight()/(cController.getCanvas().getHeight() / originalCell.getSize());
-        cView.boardOffsetX = (int) (originalCView.getCommonOffsetX(originalGol, originalCell.getSize()) * cellSize / originalCell.getSize());
-        cView.boardOffsetY = (int) (originalCView.getCommonOffsetY(originalGol, originalCell.getSize()) * cellSize / originalCell.getSize());
+        cView.boardOffsetX = (int) (originalCView.getCommonOffsetX(originalGol, originalCell.getSize()) * cellSize / originalCell.getSize() - gol.getOffsetX() * cellSize);
+        cView.boardOffsetY = (int) (originalCView.getCommonOffsetY(originalGol, originalCell.getSize()) * cellSize / originalCell.getSize() - gol.getOffsetY() * cellSize);
         width = (int) (canvas.getHeight() *
                                cController.getCanvas().getWidth() /
                                cController.getCanvas().getHeight());
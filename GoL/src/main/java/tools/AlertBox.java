@@ -0,0 +1,37 @@
+package tools;
+
+import javafx.scene.control.Alert;
+
+/**
+ * The JavaFX dialog behind MessageBox. Kept in its own class,
+ * so MessageBox can be used without loading JavaFX.
+ */
+class AlertBox {
+
+    private static Alert alert;
+
+    /**
+     * Opens a dialog to alert the user about something
+     * @param message to be displayed to the user
+     */
+    static void alert(String message){
+        alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setContentText(message);
+        alert.setHeaderText(null);
+        alert.setTitle(null);
+        alert.show();
+        alert.setOnCloseRequest(event -> close());
+    }
+
+
+    /**
+     * Closes the alert box if it is open
+     */
+    static void close() {
+        if (alert != null){
+            alert.close();
+            alert = null;
+        }
+        System.out.println("testingtesting");
+    }
+}
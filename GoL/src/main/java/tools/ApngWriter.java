@@ -0,0 +1,135 @@
+package tools;
+
+import java.awt.Color;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes animated PNG (APNG) files, one frame at a time.
+ *
+ * The frames are compressed with PngEncoder.compress(), which can be done on other threads,
+ * and written here in order as soon as they are ready. The first frame is also the still
+ * image shown by viewers that do not know APNG.
+ */
+public class ApngWriter implements Closeable {
+
+    private final int width;
+    private final int height;
+    private final int frameCount;
+    private final int delay;
+    private final OutputStream out;
+
+    // sequence number of the next frame control or frame data chunk
+    private final int[] sequence = {0};
+    private int framesWritten = 0;
+
+    private boolean closed = false;
+
+    /**
+     * ApngWriter constructor. Writes the header of the file.
+     *
+     * @param width Width of the animation in pixels
+     * @param height Height of the animation in pixels
+     * @param path Path of the file, replaced if it exists
+     * @param frameCount Number of frames that will be written
+     * @param delay Time between frames in milliseconds
+     * @param palette The colours used, at most 256
+     * @throws IOException if the file could not be written
+     */
+    public ApngWriter(int width, int height, String path, int frameCount, int delay, Color... palette) throws IOException {
+        this(width, height, new BufferedOutputStream(new FileOutputStream(path), 1 << 16), frameCount, delay, palette);
+    }
+
+    /**
+     * ApngWriter constructor. Writes the header to the stream, which is closed by close().
+     *
+     * @param width Width of the animation in pixels
+     * @param height Height of the animation in pixels
+     * @param out Where to write the file
+     * @param frameCount Number of frames that will be written
+     * @param delay Time between frames in milliseconds
+     * @param palette The colours used, at most 256
+     * @throws IOException if the stream could not be written
+     */
+    public ApngWriter(int width, int height, OutputStream out, int frameCount, int delay, Color... palette) throws IOException {
+
+        if (frameCount < 1)
+            throw new IllegalArgumentException("An animation needs at least one frame");
+
+        this.width = width;
+        this.height = height;
+        this.frameCount = frameCount;
+        this.delay = Math.min(Math.max(delay, 0), 0xFFFF);
+        this.out = out;
+
+        // the number of frames, and plays forever
+        ByteArrayOutputStream animationControl = new ByteArrayOutputStream();
+        DataOutputStream control = new DataOutputStream(animationControl);
+        control.writeInt(frameCount);
+        control.writeInt(0);
+
+        PngEncoder.writeHeader(out, width, height, palette, animationControl.toByteArray());
+    }
+
+    /**
+     * Writes the next frame
+     *
+     * @param data The whole image, compressed with PngEncoder.compress()
+     * @throws IOException if the file could not be written, or all frames are written
+     */
+    public void writeFrame(byte[] data) throws IOException {
+
+        if (closed || framesWritten == frameCount)
+            throw new IOException("All " + frameCount + " frames are written");
+
+        // frame control: the frame covers the whole animation, and is shown for the delay
+        ByteArrayOutputStream frameControl = new ByteArrayOutputStream();
+        DataOutputStream control = new DataOutputStream(frameControl);
+        control.writeInt(sequence[0]++);
+        control.writeInt(width);
+        control.writeInt(height);
+        control.writeInt(0);
+        control.writeInt(0);
+        control.writeShort(delay);
+        control.writeShort(1000);
+        control.writeByte(0);
+        control.writeByte(0);
+        PngEncoder.writeChunk(out, "fcTL", frameControl.toByteArray());
+
+        if (framesWritten == 0)
+            PngEncoder.writeImageData(out, "IDAT", data, null);
+        else
+            PngEncoder.writeImageData(out, "fdAT", data, sequence);
+
+        framesWritten++;
+    }
+
+    /**
+     * Writes the end of the file, and closes it. If fewer frames than promised were written,
+     * the file is not a valid animation.
+     *
+     * @throws IOException if the file could not be written
+     */
+    @Override
+    public void close() throws IOException {
+
+        if (closed)
+            return;
+
+        closed = true;
+        try {
+            PngEncoder.writeEnd(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    public int getFramesWritten() {
+        return framesWritten;
+    }
+}
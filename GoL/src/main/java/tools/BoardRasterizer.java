@@ -0,0 +1,134 @@
+package tools;
+
+import model.PackedBoard;
+
+/**
+ * Draws a packed board as an indexed image, one byte per pixel, for the animation exporters.
+ * Dead cells and the area outside the board get index 0, live cells get index 1.
+ *
+ * The cell of every pixel column is found once per frame, and pixel rows showing the same
+ * row of cells are copied from the row above, so large cells cost little more than small ones.
+ * A rasterizer does not change after it is made, and can be used by several threads at once.
+ */
+public class BoardRasterizer {
+
+    public static final byte DEAD = 0;
+    public static final byte ALIVE = 1;
+
+    private final int width;
+    private final int height;
+    private final double cellSize;
+    private final double boardOffsetX;
+    private final double boardOffsetY;
+
+    /**
+     * BoardRasterizer constructor. The cells are placed as on the canvas, with a CameraView
+     * that has the same board offset.
+     *
+     * @param width Width of the image in pixels
+     * @param height Height of the image in pixels
+     * @param cellSize Size of a cell in pixels
+     * @param boardOffsetX Horizontal board offset, as in CameraView
+     * @param boardOffsetY Vertical board offset, as in CameraView
+     */
+    public BoardRasterizer(int width, int height, double cellSize, double boardOffsetX, double boardOffsetY) {
+
+        this.width = width;
+        this.height = height;
+        this.cellSize = cellSize;
+        this.boardOffsetX = boardOffsetX;
+        this.boardOffsetY = boardOffsetY;
+    }
+
+    /**
+     * Draws a frame of the board
+     *
+     * @param frame The board
+     * @return Palette index of every pixel, row by row
+     */
+    public byte[] rasterize(PackedBoard frame) {
+        return rasterize(frame, 0, 0, width, height);
+    }
+
+    /**
+     * Draws a part of a frame of the board
+     *
+     * @param frame The board
+     * @param left Left edge of the part, in pixels
+     * @param top Top edge of the part, in pixels
+     * @param partWidth Width of the part, in pixels
+     * @param partHeight Height of the part, in pixels
+     * @return Palette index of every pixel of the part, row by row
+     */
+    public byte[] rasterize(PackedBoard frame, int left, int top, int partWidth, int partHeight) {
+
+        byte[] pixels = new byte[partWidth * partHeight];
+
+        // the offset of the frame moves the board, as in CameraView.getCommonOffsetX()
+        double commonOffsetX = boardOffsetX + frame.getOffsetX() * cellSize;
+        double commonOffsetY = boardOffsetY + frame.getOffsetY() * cellSize;
+
+        // board column of every pixel column, or -1 outside the board
+        int[] columns = new int[partWidth];
+        for (int x = 0; x < partWidth; x++) {
+            int column = (int) Math.floor((left + x + commonOffsetX) / cellSize);
+            columns[x] = (column < 0 || column >= frame.getWidth()) ? -1 : column;
+        }
+
+        int previousRow = -1;
+        for (int y = 0; y < partHeight; y++) {
+
+            int row = (int) Math.floor((top + y + commonOffsetY) / cellSize);
+            if (row < 0 || row >= frame.getHeight()) {
+                previousRow = -1;
+                continue;
+            }
+
+            int start = y * partWidth;
+            if (row == previousRow) {
+                System.arraycopy(pixels, start - partWidth, pixels, start, partWidth);
+                continue;
+            }
+
+            for (int x = 0; x < partWidth; x++) {
+                int column = columns[x];
+                if (column >= 0 && (frame.getWord(row, column >>> 6) & (1L << column)) != 0)
+                    pixels[start + x] = ALIVE;
+            }
+            previousRow = row;
+        }
+        return pixels;
+    }
+
+    /**
+     * Finds the pixels showing a rectangle of cells. The rectangle is made one pixel larger
+     * on every side, so rounding never leaves out a pixel of a cell.
+     *
+     * @param frame The board
+     * @param cellBox Min x, min y, max x and max y on the board
+     * @return Left, top, width and height in pixels, or null if no part of it is in the image
+     */
+    public int[] getPixelBox(PackedBoard frame, int[] cellBox) {
+
+        double commonOffsetX = boardOffsetX + frame.getOffsetX() * cellSize;
+        double commonOffsetY = boardOffsetY + frame.getOffsetY() * cellSize;
+
+        int left = Math.max(0, (int) Math.floor(cellBox[0] * cellSize - commonOffsetX) - 1);
+        int top = Math.max(0, (int) Math.floor(cellBox[1] * cellSize - commonOffsetY) - 1);
+        int right = Math.min(width - 1, (int) Math.ceil((cellBox[2] + 1) * cellSize - commonOffsetX));
+        int bottom = Math.min(height - 1, (int) Math.ceil((cellBox[3] + 1) * cellSize - commonOffsetY));
+
+        if (left > right || top > bottom)
+            return null;
+
+        return new int[]{left, top, right - left + 1, bottom - top + 1};
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,188 @@
+package tools;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Exports an animation in three stages that run at the same time: one thread makes the frames,
+ * for example by evolving a board, a pool of threads turns the frames into images, and the
+ * thread that runs the pipeline writes the images in order.
+ *
+ * The stages are joined by a bounded queue of the images being made, in frame order, so the
+ * frame thread waits when the writer falls behind, and memory use stays the same however
+ * many frames are exported.
+ *
+ * @param <F> Type of the frames
+ * @param <I> Type of the images
+ */
+public class FramePipeline<F, I> {
+
+    /**
+     * Writes the images of the pipeline, one at a time and in frame order
+     */
+    public interface FrameEncoder<I> {
+        void encode(I image) throws IOException;
+    }
+
+    /**
+     * Told about every image written, on the thread that runs the pipeline
+     */
+    public interface ProgressListener {
+        void progress(int written, int total);
+    }
+
+    // marks the end of the frames in the queue
+    private static final Future<Object> END = CompletableFuture.completedFuture(null);
+
+    private final int rasterizers;
+    private final int capacity;
+
+    private ProgressListener progressListener;
+
+    private volatile boolean cancelled = false;
+    private volatile RuntimeException sourceFailure;
+
+    /**
+     * FramePipeline constructor. Uses one rasterizer per processor.
+     */
+    public FramePipeline() {
+        this(Runtime.getRuntime().availableProcessors(), 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * FramePipeline constructor.
+     *
+     * @param rasterizers Number of threads turning frames into images
+     * @param capacity Number of images that can be waiting to be written, at least 2
+     */
+    public FramePipeline(int rasterizers, int capacity) {
+
+        if (rasterizers < 1 || capacity < 2)
+            throw new IllegalArgumentException("Needs at least one rasterizer and room for two images");
+
+        this.rasterizers = rasterizers;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Runs the pipeline on the calling thread until all the frames are written, or it is cancelled.
+     *
+     * @param frameCount Number of frames
+     * @param source Makes the next frame, called frameCount times on the frame thread.
+     *               The frames must not change after they are returned.
+     * @param rasterizer Turns a frame into an image, called on the rasterizer threads
+     * @param encoder Writes an image, called on the calling thread
+     * @return False if the pipeline was cancelled before all frames were written
+     * @throws IOException if an image could not be written
+     */
+    @SuppressWarnings("unchecked")
+    public boolean run(int frameCount, Supplier<F> source, Function<F, I> rasterizer, FrameEncoder<I> encoder) throws IOException {
+
+        BlockingQueue<Future<I>> images = new ArrayBlockingQueue<>(capacity);
+        ExecutorService pool = Executors.newFixedThreadPool(rasterizers, runnable -> {
+            Thread thread = new Thread(runnable, "frame-rasterizer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < frameCount && !cancelled; i++) {
+                    F frame = source.get();
+                    images.put(pool.submit(() -> rasterizer.apply(frame)));
+                }
+            } catch (InterruptedException ignored) {
+                // stopped by the writer
+            } catch (RuntimeException e) {
+                sourceFailure = e;
+            } finally {
+                try {
+                    images.put((Future<I>) END);
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }, "frame-producer");
+        producer.setDaemon(true);
+        producer.start();
+
+        try {
+            int written = 0;
+            Future<I> next;
+            while ((next = images.take()) != END) {
+
+                if (cancelled)
+                    return false;
+
+                encoder.encode(next.get());
+
+                if (progressListener != null)
+                    progressListener.progress(++written, frameCount);
+            }
+
+            producer.join();
+            if (sourceFailure != null)
+                throw sourceFailure;
+
+            return !cancelled;
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IOException(e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Export was interrupted");
+        }
+        finally {
+            stop(producer, images);
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Stops the pipeline. The frame being written is finished, and the rest are dropped.
+     * Can be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Sets who is told about every image written
+     *
+     * @param progressListener The listener, or null for none
+     */
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Stops the frame thread if it is still running, and drops the images not written
+     */
+    private void stop(Thread producer, BlockingQueue<Future<I>> images) {
+
+        if (!producer.isAlive())
+            return;
+
+        cancelled = true;
+        producer.interrupt();
+        for (Future<I> image : images) {
+            image.cancel(true);
+        }
+        images.clear();
+    }
+}
@@ -0,0 +1,516 @@
+package tools;
+
+import java.awt.Color;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes animated GIF89a files with a palette of up to four colours.
+ *
+ * Every frame is compressed and written to the file as soon as it is inserted, so only
+ * the frame being drawn is held in memory, however many frames the animation has.
+ * Frames are drawn with fillRect() on the current image, and inserted with
+ * insertCurrentImage() or insertAndProceed(). Frames that are already indexed can be
+ * written directly with writeFrame(), also as a part of the image, or with writeChanges(),
+ * which only writes the pixels that differ from the frame shown before.
+ */
+public class GIFWriter implements Closeable {
+
+    // GIF needs at least two bits per pixel in the LZW data, which also covers four colours
+    private static final int MAX_COLOURS = 4;
+    private static final int MIN_CODE_SIZE = 2;
+
+    public static final int NO_TRANSPARENCY = -1;
+
+    // what happens to a frame before the next is drawn
+    public static final int DISPOSE_NONE = 1;
+    public static final int DISPOSE_TO_BACKGROUND = 2;
+
+    private final int width;
+    private final int height;
+    private final Color[] palette;
+    private final OutputStream out;
+
+    // delay after each frame, in hundredths of a second
+    private final int delay;
+
+    // the frame being drawn, one palette index per pixel, row by row
+    private final byte[] image;
+
+    // what the animation shows after the frames written so far, for writeChanges()
+    private final byte[] shown;
+
+    // left, top, width and height of the last frame, if it is to be cleared before the next one
+    private int[] pendingDisposal;
+
+    private final LzwEncoder encoder = new LzwEncoder();
+
+    private boolean closed = false;
+
+    /**
+     * GIFWriter constructor. Writes the header of the file.
+     *
+     * @param width Width of the animation in pixels
+     * @param height Height of the animation in pixels
+     * @param path Path of the file, replaced if it exists
+     * @param delay Time between frames in milliseconds
+     * @param palette The colours used, at most four. The first one is the background.
+     * @throws IOException if the file could not be written
+     */
+    public GIFWriter(int width, int height, String path, int delay, Color... palette) throws IOException {
+        this(width, height, new BufferedOutputStream(new FileOutputStream(path), 1 << 16), delay, palette);
+    }
+
+    /**
+     * GIFWriter constructor. Writes the header to the stream, which is closed by close().
+     *
+     * @param width Width of the animation in pixels
+     * @param height Height of the animation in pixels
+     * @param out Where to write the file
+     * @param delay Time between frames in milliseconds
+     * @param palette The colours used, at most four. The first one is the background.
+     * @throws IOException if the stream could not be written
+     */
+    public GIFWriter(int width, int height, OutputStream out, int delay, Color... palette) throws IOException {
+
+        if (width <= 0 || height <= 0 || width > 0xFFFF || height > 0xFFFF)
+            throw new IllegalArgumentException("GIF size must be between 1 and 65535: " + width + "x" + height);
+        if (palette.length == 0 || palette.length > MAX_COLOURS)
+            throw new IllegalArgumentException("GIF palette must have between 1 and " + MAX_COLOURS + " colours");
+
+        this.width = width;
+        this.height = height;
+        this.out = out;
+        this.delay = Math.max(0, delay / 10);
+        this.palette = palette.clone();
+        this.image = new byte[width * height];
+        this.shown = new byte[width * height];
+
+        writeHeader();
+    }
+
+    //region drawing
+
+    /**
+     * Starts a new image, filled with the background colour
+     */
+    public void createNextImage() {
+        Arrays.fill(image, (byte) 0);
+    }
+
+    /**
+     * Fills a rectangle of the current image. The corners are included, and the parts
+     * outside the image are left out.
+     *
+     * @param x1 Left edge
+     * @param x2 Right edge
+     * @param y1 Top edge
+     * @param y2 Bottom edge
+     * @param color One of the colours of the palette
+     */
+    public void fillRect(int x1, int x2, int y1, int y2, Color color) {
+        fillRect(x1, x2, y1, y2, getColorIndex(color));
+    }
+
+    /**
+     * Fills a rectangle of the current image with a colour of the palette. The corners are
+     * included, and the parts outside the image are left out.
+     *
+     * @param x1 Left edge
+     * @param x2 Right edge
+     * @param y1 Top edge
+     * @param y2 Bottom edge
+     * @param colorIndex Index of the colour in the palette
+     */
+    public void fillRect(int x1, int x2, int y1, int y2, int colorIndex) {
+
+        x1 = Math.max(x1, 0);
+        y1 = Math.max(y1, 0);
+        x2 = Math.min(x2, width - 1);
+        y2 = Math.min(y2, height - 1);
+
+        for (int y = y1; y <= y2; y++) {
+            Arrays.fill(image, y * width + x1, y * width + x2 + 1, (byte) colorIndex);
+        }
+    }
+
+    /**
+     * Finds a colour in the palette
+     *
+     * @param color The colour
+     * @return Index of the colour
+     * @throws IllegalArgumentException if the colour is not in the palette
+     */
+    public int getColorIndex(Color color) {
+
+        for (int i = 0; i < palette.length; i++) {
+            if (palette[i].getRGB() == color.getRGB())
+                return i;
+        }
+        throw new IllegalArgumentException("Colour is not in the GIF palette: " + color);
+    }
+
+    //endregion
+
+    //region writing
+
+    /**
+     * Writes the current image as the next frame
+     *
+     * @throws IOException if the file could not be written
+     */
+    public void insertCurrentImage() throws IOException {
+        writeFrame(image, 0, 0, width, height, NO_TRANSPARENCY, DISPOSE_NONE);
+    }
+
+    /**
+     * Writes the current image as the next frame, and starts a new image
+     *
+     * @throws IOException if the file could not be written
+     */
+    public void insertAndProceed() throws IOException {
+        insertCurrentImage();
+        createNextImage();
+    }
+
+    /**
+     * Writes an indexed image as the next frame, covering all or a part of the animation
+     *
+     * @param pixels Palette index of every pixel, row by row
+     * @param left Position of the frame in the animation
+     * @param top Position of the frame in the animation
+     * @param frameWidth Width of the frame
+     * @param frameHeight Height of the frame
+     * @param transparentIndex Palette index that shows the frame below, or NO_TRANSPARENCY
+     * @param disposal DISPOSE_NONE or DISPOSE_TO_BACKGROUND
+     * @throws IOException if the file could not be written
+     */
+    public void writeFrame(byte[] pixels, int left, int top, int frameWidth, int frameHeight,
+                           int transparentIndex, int disposal) throws IOException {
+
+        if (closed)
+            throw new IOException("GIF is closed");
+        if (left < 0 || top < 0 || frameWidth <= 0 || frameHeight <= 0
+                || left + frameWidth > width || top + frameHeight > height || pixels.length < frameWidth * frameHeight)
+            throw new IllegalArgumentException("Frame is outside the GIF: " + frameWidth + "x" + frameHeight + " at " + left + "," + top);
+
+        // graphic control extension, with the delay, disposal and transparency
+        out.write(0x21);
+        out.write(0xF9);
+        out.write(4);
+        out.write((disposal << 2) | (transparentIndex == NO_TRANSPARENCY ? 0 : 1));
+        writeShort(delay);
+        out.write(transparentIndex == NO_TRANSPARENCY ? 0 : transparentIndex);
+        out.write(0);
+
+        // image descriptor, without a local colour table
+        out.write(0x2C);
+        writeShort(left);
+        writeShort(top);
+        writeShort(frameWidth);
+        writeShort(frameHeight);
+        out.write(0);
+
+        out.write(MIN_CODE_SIZE);
+        encoder.encode(pixels, frameWidth * frameHeight, out);
+
+        updateShown(pixels, left, top, frameWidth, frameHeight, transparentIndex, disposal);
+    }
+
+    /**
+     * Writes the next frame from a part of the image that may have changed since the last frame.
+     * Only the smallest rectangle holding the pixels that differ from the shown frame is written,
+     * and pixels inside it that did not change are made transparent if the palette has room
+     * for a transparent colour. The rest of the animation stays as it is.
+     * The first frame should be written whole with writeFrame(), as some viewers start
+     * from a transparent screen rather than the background colour.
+     *
+     * @param pixels Palette index of every pixel of the part, row by row
+     * @param left Position of the part in the animation
+     * @param top Position of the part in the animation
+     * @param partWidth Width of the part, 0 if nothing changed
+     * @param partHeight Height of the part, 0 if nothing changed
+     * @throws IOException if the file could not be written
+     */
+    public void writeChanges(byte[] pixels, int left, int top, int partWidth, int partHeight) throws IOException {
+
+        applyDisposal();
+
+        int transparentIndex = (palette.length < MAX_COLOURS) ? palette.length : NO_TRANSPARENCY;
+
+        // finds the pixels that differ from the shown frame
+        int minX = partWidth, minY = partHeight, maxX = -1, maxY = -1;
+        for (int y = 0; y < partHeight; y++) {
+            int shownStart = (top + y) * width + left;
+            for (int x = 0; x < partWidth; x++) {
+                if (pixels[y * partWidth + x] != shown[shownStart + x]) {
+                    minX = Math.min(minX, x);
+                    maxX = Math.max(maxX, x);
+                    minY = Math.min(minY, y);
+                    maxY = y;
+                }
+            }
+        }
+
+        // the frame is still needed for its delay, so one unchanged pixel is written
+        if (maxX < 0) {
+            byte[] pixel = {(transparentIndex == NO_TRANSPARENCY) ? shown[0] : (byte) transparentIndex};
+            writeFrame(pixel, 0, 0, 1, 1, transparentIndex, DISPOSE_NONE);
+            return;
+        }
+
+        int changedWidth = maxX - minX + 1;
+        int changedHeight = maxY - minY + 1;
+        byte[] changes = new byte[changedWidth * changedHeight];
+
+        for (int y = 0; y < changedHeight; y++) {
+            int from = (minY + y) * partWidth + minX;
+            int shownStart = (top + minY + y) * width + left + minX;
+            for (int x = 0; x < changedWidth; x++) {
+                byte pixel = pixels[from + x];
+                changes[y * changedWidth + x] = (transparentIndex != NO_TRANSPARENCY && pixel == shown[shownStart + x])
+                        ? (byte) transparentIndex : pixel;
+            }
+        }
+
+        writeFrame(changes, left + minX, top + minY, changedWidth, changedHeight, transparentIndex, DISPOSE_NONE);
+    }
+
+    /**
+     * Writes the end of the file, and closes it
+     *
+     * @throws IOException if the file could not be written
+     */
+    @Override
+    public void close() throws IOException {
+
+        if (closed)
+            return;
+
+        closed = true;
+        try {
+            out.write(0x3B);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Updates the shown image with a frame that was written
+     */
+    private void updateShown(byte[] pixels, int left, int top, int frameWidth, int frameHeight,
+                             int transparentIndex, int disposal) {
+
+        applyDisposal();
+
+        for (int y = 0; y < frameHeight; y++) {
+
+            int from = y * frameWidth;
+            int to = (top + y) * width + left;
+
+            if (transparentIndex == NO_TRANSPARENCY) {
+                System.arraycopy(pixels, from, shown, to, frameWidth);
+                continue;
+            }
+            for (int x = 0; x < frameWidth; x++) {
+                if (pixels[from + x] != transparentIndex)
+                    shown[to + x] = pixels[from + x];
+            }
+        }
+
+        if (disposal == DISPOSE_TO_BACKGROUND)
+            pendingDisposal = new int[]{left, top, frameWidth, frameHeight};
+    }
+
+    /**
+     * Clears the last frame from the shown image, if it was written with DISPOSE_TO_BACKGROUND
+     */
+    private void applyDisposal() {
+
+        if (pendingDisposal == null)
+            return;
+
+        for (int y = pendingDisposal[1]; y < pendingDisposal[1] + pendingDisposal[3]; y++) {
+            int start = y * width + pendingDisposal[0];
+            Arrays.fill(shown, start, start + pendingDisposal[2], (byte) 0);
+        }
+        pendingDisposal = null;
+    }
+
+    private void writeHeader() throws IOException {
+
+        out.write("GIF89a".getBytes(StandardCharsets.US_ASCII));
+
+        // logical screen descriptor, with a global colour table of four entries
+        writeShort(width);
+        writeShort(height);
+        out.write(0x80 | ((MIN_CODE_SIZE - 1) << 4) | (MIN_CODE_SIZE - 1));
+        out.write(0);
+        out.write(0);
+
+        for (int i = 0; i < MAX_COLOURS; i++) {
+            Color color = (i < palette.length) ? palette[i] : Color.BLACK;
+            out.write(color.getRed());
+            out.write(color.getGreen());
+            out.write(color.getBlue());
+        }
+
+        // loops the animation forever
+        out.write(0x21);
+        out.write(0xFF);
+        out.write(11);
+        out.write("NETSCAPE2.0".getBytes(StandardCharsets.US_ASCII));
+        out.write(3);
+        out.write(1);
+        writeShort(0);
+        out.write(0);
+    }
+
+    private void writeShort(int value) throws IOException {
+        out.write(value & 0xFF);
+        out.write((value >>> 8) & 0xFF);
+    }
+
+    //endregion
+
+    //region getters
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    //endregion
+
+    /**
+     * Variable length LZW compression of GIF image data, with codes of up to 12 bits.
+     * The code table is a hash table of (prefix code, pixel) pairs, reused between frames.
+     */
+    private static final class LzwEncoder {
+
+        private static final int MAX_BITS = 12;
+        private static final int MAX_CODE = 1 << MAX_BITS;
+
+        // prime larger than the number of codes, keeps the table sparse
+        private static final int TABLE_SIZE = 5003;
+
+        private final int[] keys = new int[TABLE_SIZE];
+        private final short[] codes = new short[TABLE_SIZE];
+
+        // the output is written in sub-blocks of at most 255 bytes
+        private final byte[] block = new byte[255];
+        private int blockLength;
+
+        private OutputStream out;
+        private int bitBuffer;
+        private int bitCount;
+        private int codeSize;
+
+        void encode(byte[] pixels, int length, OutputStream out) throws IOException {
+
+            this.out = out;
+            bitBuffer = 0;
+            bitCount = 0;
+            blockLength = 0;
+
+            int clearCode = 1 << MIN_CODE_SIZE;
+            int endCode = clearCode + 1;
+
+            int nextCode = resetTable(clearCode);
+            writeCode(clearCode);
+
+            int prefix = pixels[0] & 0xFF;
+
+            for (int i = 1; i < length; i++) {
+
+                int pixel = pixels[i] & 0xFF;
+                int key = (pixel << MAX_BITS) | prefix;
+
+                // looks for prefix + pixel in the table, with linear probing
+                int slot = (key * 31) % TABLE_SIZE;
+                while (keys[slot] != -1 && keys[slot] != key) {
+                    slot = (slot + 1 == TABLE_SIZE) ? 0 : slot + 1;
+                }
+
+                if (keys[slot] == key) {
+                    prefix = codes[slot];
+                    continue;
+                }
+
+                writeCode(prefix);
+                prefix = pixel;
+
+                if (nextCode < MAX_CODE) {
+                    // the code is one bit wider once the next code does not fit
+                    if (nextCode == (1 << codeSize))
+                        codeSize++;
+                    keys[slot] = key;
+                    codes[slot] = (short) nextCode++;
+                }
+                else {
+                    // the table is full, starts over
+                    writeCode(clearCode);
+                    nextCode = resetTable(clearCode);
+                }
+            }
+
+            writeCode(prefix);
+            writeCode(endCode);
+
+            if (bitCount > 0)
+                writeByte(bitBuffer & 0xFF);
+            flushBlock();
+
+            // block terminator
+            out.write(0);
+        }
+
+        /**
+         * Empties the code table
+         * @return The next free code
+         */
+        private int resetTable(int clearCode) {
+
+            Arrays.fill(keys, -1);
+            codeSize = MIN_CODE_SIZE + 1;
+            return clearCode + 2;
+        }
+
+        private void writeCode(int code) throws IOException {
+
+            bitBuffer |= code << bitCount;
+            bitCount += codeSize;
+
+            while (bitCount >= 8) {
+                writeByte(bitBuffer & 0xFF);
+                bitBuffer >>>= 8;
+                bitCount -= 8;
+            }
+        }
+
+        private void writeByte(int value) throws IOException {
+
+            block[blockLength++] = (byte) value;
+            if (blockLength == block.length)
+                flushBlock();
+        }
+
+        private void flushBlock() throws IOException {
+
+            if (blockLength == 0)
+                return;
+
+            out.write(blockLength);
+            out.write(block, 0, blockLength);
+            blockLength = 0;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package tools;
+
+import model.PackedBoard;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * Exports frames of a board to a GIF through a FramePipeline, writing only what changed.
+ *
+ * The first frame is written whole. For every frame after it, the rectangle of cells that
+ * changed since the frame before is found from the packed words of the two frames, and only
+ * the pixels of that rectangle are drawn and written, with the unchanged pixels transparent.
+ * When the board changes size or offset, the whole frame is drawn, but still only the
+ * pixels that differ are written.
+ */
+public class GifExporter {
+
+    private final GIFWriter writer;
+    private final BoardRasterizer rasterizer;
+    private final FramePipeline<Change, Change> pipeline;
+
+    // the frame before the one being made, only used on the frame thread
+    private PackedBoard previous;
+
+    /**
+     * A frame, and the part of the image to draw for it. Filled in by the pipeline stages.
+     */
+    static final class Change {
+
+        final PackedBoard frame;
+        final boolean first;
+
+        // left, top, width and height in pixels, or null if nothing changed
+        final int[] pixelBox;
+
+        byte[] pixels;
+
+        Change(PackedBoard frame, boolean first, int[] pixelBox) {
+            this.frame = frame;
+            this.first = first;
+            this.pixelBox = pixelBox;
+        }
+    }
+
+    /**
+     * GifExporter constructor.
+     *
+     * @param writer Where to write the frames, must be the same size as the rasterizer
+     * @param rasterizer Draws the frames
+     */
+    public GifExporter(GIFWriter writer, BoardRasterizer rasterizer) {
+
+        this.writer = writer;
+        this.rasterizer = rasterizer;
+        this.pipeline = new FramePipeline<>();
+    }
+
+    /**
+     * Writes a number of frames to the GIF. The writer is not closed.
+     *
+     * @param frameCount Number of frames
+     * @param frames Makes the next frame, for example by evolving a board. Called on the frame thread.
+     * @return False if the export was cancelled
+     * @throws IOException if the GIF could not be written
+     */
+    public boolean export(int frameCount, Supplier<PackedBoard> frames) throws IOException {
+
+        previous = null;
+        return pipeline.run(frameCount, () -> findChange(frames.get()), this::draw, this::write);
+    }
+
+    /**
+     * Stops the export. Can be called from any thread.
+     */
+    public void cancel() {
+        pipeline.cancel();
+    }
+
+    /**
+     * Sets who is told about every frame written
+     *
+     * @param progressListener The listener, or null for none
+     */
+    public void setProgressListener(FramePipeline.ProgressListener progressListener) {
+        pipeline.setProgressListener(progressListener);
+    }
+
+    /**
+     * Finds the pixels that may have changed since the previous frame
+     */
+    private Change findChange(PackedBoard frame) {
+
+        Change change;
+        if (previous == null || !frame.hasSameGeometry(previous)) {
+            change = new Change(frame, previous == null, new int[]{0, 0, rasterizer.getWidth(), rasterizer.getHeight()});
+        }
+        else {
+            int[] cellBox = frame.getChangedBox(previous);
+            change = new Change(frame, false, (cellBox == null) ? null : rasterizer.getPixelBox(frame, cellBox));
+        }
+
+        previous = frame;
+        return change;
+    }
+
+    private Change draw(Change change) {
+
+        int[] box = change.pixelBox;
+        if (box != null)
+            change.pixels = rasterizer.rasterize(change.frame, box[0], box[1], box[2], box[3]);
+        return change;
+    }
+
+    private void write(Change change) throws IOException {
+
+        int[] box = change.pixelBox;
+        if (change.first)
+            writer.writeFrame(change.pixels, 0, 0, box[2], box[3], GIFWriter.NO_TRANSPARENCY, GIFWriter.DISPOSE_NONE);
+        else if (box == null)
+            writer.writeChanges(null, 0, 0, 0, 0);
+        else
+            writer.writeChanges(change.pixels, box[0], box[1], box[2], box[3]);
+    }
+}
@@ -0,0 +1,171 @@
+package tools;
+
+import model.PackedBoard;
+
+import java.awt.Color;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.function.Supplier;
+
+/**
+ * Exports frames of a board as a sequence of PNG files, or as an animated PNG.
+ *
+ * The frames go through a FramePipeline, so the images are drawn and compressed on a pool
+ * of threads while the board evolves, and are written in order as they are ready.
+ * An image can also be a spacetime strip: a number of frames side by side with a line between
+ * them, as The Strip shows them, so a strip shows how the pattern moves through time.
+ */
+public class ImageSequenceExporter {
+
+    public enum Format { PNG_SEQUENCE, APNG }
+
+    // width of the line between two frames of a strip
+    private static final int SEPARATOR = 1;
+
+    private final BoardRasterizer rasterizer;
+    private final int stripLength;
+    private final Color[] palette;
+    private final FramePipeline<PackedBoard[], byte[]> pipeline = new FramePipeline<>();
+
+    /**
+     * ImageSequenceExporter constructor.
+     *
+     * @param rasterizer Draws the frames
+     * @param stripLength Number of frames side by side in every image, 1 for plain frames
+     * @param palette Dead cell colour, then live cell colour, which is also used for the lines of a strip
+     */
+    public ImageSequenceExporter(BoardRasterizer rasterizer, int stripLength, Color... palette) {
+
+        if (stripLength < 1)
+            throw new IllegalArgumentException("A strip needs at least one frame");
+
+        this.rasterizer = rasterizer;
+        this.stripLength = stripLength;
+        this.palette = palette.clone();
+    }
+
+    /**
+     * Exports a number of frames
+     *
+     * @param file The animated PNG, or the first file of the sequence, which is numbered
+     * @param format PNG_SEQUENCE or APNG
+     * @param frameCount Number of frames, a multiple of the strip length for whole strips
+     * @param delay Time between images of an animated PNG in milliseconds
+     * @param frames Makes the next frame, for example by evolving a board. Called on the frame thread.
+     * @return False if the export was cancelled. An unfinished animated PNG is deleted,
+     *         the images of a sequence written so far are kept.
+     * @throws IOException if a file could not be written
+     */
+    public boolean export(File file, Format format, int frameCount, int delay, Supplier<PackedBoard> frames) throws IOException {
+
+        int imageCount = (frameCount + stripLength - 1) / stripLength;
+        int[] framesLeft = {frameCount};
+
+        Supplier<PackedBoard[]> strips = () -> {
+            PackedBoard[] strip = new PackedBoard[Math.min(stripLength, framesLeft[0])];
+            for (int i = 0; i < strip.length; i++) {
+                strip[i] = frames.get();
+            }
+            framesLeft[0] -= strip.length;
+            return strip;
+        };
+
+        if (format == Format.PNG_SEQUENCE) {
+            int[] index = {0};
+            return pipeline.run(imageCount, strips, this::drawAndCompress, data -> {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(getSequenceFile(file, index[0]++).toPath()))) {
+                    PngEncoder.write(out, getImageWidth(), getImageHeight(), palette, data);
+                }
+            });
+        }
+
+        boolean done = false;
+        ApngWriter writer = new ApngWriter(getImageWidth(), getImageHeight(), file.getPath(), imageCount, delay, palette);
+        try {
+            done = pipeline.run(imageCount, strips, this::drawAndCompress, writer::writeFrame);
+        } finally {
+            writer.close();
+            if (!done)
+                Files.deleteIfExists(file.toPath());
+        }
+        return done;
+    }
+
+    /**
+     * Stops the export. Can be called from any thread.
+     */
+    public void cancel() {
+        pipeline.cancel();
+    }
+
+    /**
+     * Sets who is told about every image written
+     *
+     * @param progressListener The listener, or null for none
+     */
+    public void setProgressListener(FramePipeline.ProgressListener progressListener) {
+        pipeline.setProgressListener(progressListener);
+    }
+
+    /**
+     * Draws a strip of frames and compresses it, on a rasterizer thread
+     */
+    private byte[] drawAndCompress(PackedBoard[] strip) {
+
+        int width = getImageWidth();
+        int height = getImageHeight();
+
+        if (stripLength == 1)
+            return PngEncoder.compress(rasterizer.rasterize(strip[0]), width, height, palette.length);
+
+        byte[] pixels = new byte[width * height];
+        int frameWidth = rasterizer.getWidth();
+
+        for (int i = 0; i < strip.length; i++) {
+
+            byte[] frame = rasterizer.rasterize(strip[i]);
+            int left = i * (frameWidth + SEPARATOR);
+
+            for (int y = 0; y < height; y++) {
+                System.arraycopy(frame, y * frameWidth, pixels, y * width + left, frameWidth);
+            }
+        }
+
+        // the lines between the frames
+        for (int i = 1; i < stripLength; i++) {
+            int x = i * (frameWidth + SEPARATOR) - SEPARATOR;
+            for (int y = 0; y < height; y++) {
+                pixels[y * width + x] = BoardRasterizer.ALIVE;
+            }
+        }
+
+        return PngEncoder.compress(pixels, width, height, palette.length);
+    }
+
+    /**
+     * Gets a file of a PNG sequence, numbered after the name of the first file
+     *
+     * @param file The file chosen for the sequence, for example "glider.png"
+     * @param index Number of the image
+     * @return The file of the image, for example "glider-00012.png"
+     */
+    public static File getSequenceFile(File file, int index) {
+
+        String name = file.getName();
+        if (name.toLowerCase().endsWith(".png"))
+            name = name.substring(0, name.length() - 4);
+
+        return new File(file.getAbsoluteFile().getParentFile(), String.format("%s-%05d.png", name, index));
+    }
+
+    public int getImageWidth() {
+        return stripLength * (rasterizer.getWidth() + SEPARATOR) - SEPARATOR;
+    }
+
+    public int getImageHeight() {
+        return rasterizer.getHeight();
+    }
+}
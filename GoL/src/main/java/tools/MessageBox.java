@@ -1,28 +1,24 @@
 package tools;
 
-import javafx.scene.control.Alert;
-import javafx.scene.control.DialogEvent;
-
-import java.awt.*;
-
 /**
  * Created by Truls on 18/04/16.
  */
 public class MessageBox {
 
-    private static Alert alert;
+    // without a display, messages are written to the error stream instead
+    private static boolean headless = false;
 
     /**
      * Opens a dialog to alert the user about something
      * @param message to be displayed to the user
      */
     public static void alert(String message){
-        alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setContentText(message);
-        alert.setHeaderText(null);
-        alert.setTitle(null);
-        alert.show();
-        alert.setOnCloseRequest(event -> close());
+
+        if (headless) {
+            System.err.println(message);
+            return;
+        }
+        AlertBox.alert(message);
     }
 
 
@@ -30,11 +26,17 @@ public class MessageBox {
      * Closes the alert box if it is open
      */
     public static void close() {
-        if (alert != null){
-            alert.close();
-            alert = null;
-        }
-        System.out.println("testingtesting");
+
+        if (!headless)
+            AlertBox.close();
+    }
+
+    /**
+     * Turns off the dialogs, so that no JavaFX classes are loaded when running without a display
+     * @param headless True to write messages to the error stream
+     */
+    public static void setHeadless(boolean headless) {
+        MessageBox.headless = headless;
     }
 
 
@@ -0,0 +1,215 @@
+package tools;
+
+import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes indexed images as PNG files, and the chunks that animated PNG files are made of.
+ *
+ * Compressing an image is kept apart from writing it, so images can be compressed on
+ * several threads and written in order afterwards. Images with up to two colours are
+ * stored with one bit per pixel, and up to four colours with two bits.
+ */
+public class PngEncoder {
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private static final int COLOR_TYPE_INDEXED = 3;
+
+    // compressed image data is split into chunks of this size
+    private static final int MAX_CHUNK_LENGTH = 1 << 20;
+
+    private PngEncoder() {
+    }
+
+    /**
+     * Gets the number of bits used for every pixel
+     *
+     * @param colours Number of colours in the palette
+     * @return 1, 2, 4 or 8
+     */
+    static int getBitDepth(int colours) {
+
+        if (colours <= 2)
+            return 1;
+        if (colours <= 4)
+            return 2;
+        if (colours <= 16)
+            return 4;
+        return 8;
+    }
+
+    /**
+     * Compresses an indexed image to PNG image data
+     *
+     * @param pixels Palette index of every pixel, row by row
+     * @param width Width of the image
+     * @param height Height of the image
+     * @param colours Number of colours in the palette
+     * @return The compressed image data, as stored in IDAT chunks
+     */
+    public static byte[] compress(byte[] pixels, int width, int height, int colours) {
+
+        int bitDepth = getBitDepth(colours);
+        int pixelsPerByte = 8 / bitDepth;
+
+        // every row starts with its filter type, which is always none for indexed images
+        byte[] row = new byte[1 + (width + pixelsPerByte - 1) / pixelsPerByte];
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+
+        try (DeflaterOutputStream out = new DeflaterOutputStream(data, deflater, 1 << 16)) {
+
+            for (int y = 0; y < height; y++) {
+
+                Arrays.fill(row, (byte) 0);
+                int start = y * width;
+
+                // the first pixel goes in the highest bits
+                for (int x = 0; x < width; x++) {
+                    int shift = 8 - bitDepth * (x % pixelsPerByte + 1);
+                    row[1 + x / pixelsPerByte] |= (pixels[start + x] & 0xFF) << shift;
+                }
+                out.write(row);
+            }
+        } catch (IOException e) {
+            // a ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        } finally {
+            deflater.end();
+        }
+
+        return data.toByteArray();
+    }
+
+    /**
+     * Writes a PNG file
+     *
+     * @param out Where to write, not closed
+     * @param width Width of the image
+     * @param height Height of the image
+     * @param palette The colours of the image
+     * @param data The image data from compress()
+     * @throws IOException if the stream could not be written
+     */
+    public static void write(OutputStream out, int width, int height, Color[] palette, byte[] data) throws IOException {
+
+        writeHeader(out, width, height, palette, null);
+        writeImageData(out, "IDAT", data, null);
+        writeEnd(out);
+    }
+
+    //region chunks
+
+    /**
+     * Writes the signature, the header and the palette. For an animated PNG the animation
+     * control chunk is written between them.
+     *
+     * @param animationControl Data of the acTL chunk, or null for a still image
+     */
+    static void writeHeader(OutputStream out, int width, int height, Color[] palette, byte[] animationControl) throws IOException {
+
+        if (palette.length == 0 || palette.length > 256)
+            throw new IllegalArgumentException("PNG palette must have between 1 and 256 colours");
+
+        out.write(SIGNATURE);
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream headerData = new DataOutputStream(header);
+        headerData.writeInt(width);
+        headerData.writeInt(height);
+        headerData.writeByte(getBitDepth(palette.length));
+        headerData.writeByte(COLOR_TYPE_INDEXED);
+        headerData.writeByte(0);
+        headerData.writeByte(0);
+        headerData.writeByte(0);
+        writeChunk(out, "IHDR", header.toByteArray());
+
+        if (animationControl != null)
+            writeChunk(out, "acTL", animationControl);
+
+        byte[] colours = new byte[palette.length * 3];
+        for (int i = 0; i < palette.length; i++) {
+            colours[3 * i] = (byte) palette[i].getRed();
+            colours[3 * i + 1] = (byte) palette[i].getGreen();
+            colours[3 * i + 2] = (byte) palette[i].getBlue();
+        }
+        writeChunk(out, "PLTE", colours);
+    }
+
+    /**
+     * Writes compressed image data, split into chunks
+     *
+     * @param type IDAT, or fdAT for the frames after the first in an animated PNG
+     * @param sequence Sequence number of the first chunk, for fdAT chunks, or null.
+     *                 Counted up for every chunk written.
+     */
+    static void writeImageData(OutputStream out, String type, byte[] data, int[] sequence) throws IOException {
+
+        int offset = 0;
+        do {
+            int length = Math.min(MAX_CHUNK_LENGTH, data.length - offset);
+
+            if (sequence == null) {
+                writeChunk(out, type, data, offset, length, null);
+            }
+            else {
+                writeChunk(out, type, data, offset, length, sequence[0]++);
+            }
+            offset += length;
+        } while (offset < data.length);
+    }
+
+    static void writeEnd(OutputStream out) throws IOException {
+        writeChunk(out, "IEND", new byte[0]);
+    }
+
+    static void writeChunk(OutputStream out, String type, byte[] data) throws IOException {
+        writeChunk(out, type, data, 0, data.length, null);
+    }
+
+    /**
+     * Writes a chunk: length, type, data and a checksum of the type and data
+     *
+     * @param sequence Sequence number written before the data, or null
+     */
+    private static void writeChunk(OutputStream out, String type, byte[] data, int offset, int length,
+                                   Integer sequence) throws IOException {
+
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+
+        writeInt(out, length + (sequence == null ? 0 : 4));
+        out.write(typeBytes);
+
+        if (sequence != null) {
+            byte[] sequenceBytes = toBytes(sequence);
+            crc.update(sequenceBytes);
+            out.write(sequenceBytes);
+        }
+
+        crc.update(data, offset, length);
+        out.write(data, offset, length);
+        writeInt(out, (int) crc.getValue());
+    }
+
+    private static void writeInt(OutputStream out, int value) throws IOException {
+        out.write(toBytes(value));
+    }
+
+    private static byte[] toBytes(int value) {
+        return new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+    }
+
+    //endregion
+}
@@ -0,0 +1,89 @@
+package tools;
+
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A window showing the progress of a long task running in the background, with a button to cancel it.
+ * The progress can be updated from any thread, and the window is only redrawn once per pulse.
+ */
+public class ProgressBox {
+
+    private final Stage stage = new Stage();
+    private final ProgressBar progressBar = new ProgressBar(0);
+    private final Label label = new Label();
+
+    private volatile int done;
+    private volatile int total;
+    private final AtomicBoolean updatePending = new AtomicBoolean(false);
+
+    private ProgressBox(String title, Runnable onCancel) {
+
+        Button cancel = new Button("Cancel");
+        cancel.setOnAction(event -> {
+            cancel.setDisable(true);
+            label.setText("Cancelling...");
+            onCancel.run();
+        });
+
+        progressBar.setPrefWidth(300);
+
+        VBox layout = new VBox(10, label, progressBar, cancel);
+        layout.setPadding(new Insets(15));
+
+        stage.setTitle(title);
+        stage.setScene(new Scene(layout));
+        stage.setAlwaysOnTop(true);
+        stage.setOnCloseRequest(event -> onCancel.run());
+    }
+
+    /**
+     * Opens a progress window. Must be called on the JavaFX thread.
+     *
+     * @param title Title of the window
+     * @param onCancel Called when the user cancels the task
+     * @return The window
+     */
+    public static ProgressBox show(String title, Runnable onCancel) {
+
+        ProgressBox progressBox = new ProgressBox(title, onCancel);
+        progressBox.stage.show();
+        return progressBox;
+    }
+
+    /**
+     * Shows how far the task has come. Can be called from any thread.
+     *
+     * @param done Number of steps done
+     * @param total Number of steps in all
+     */
+    public void update(int done, int total) {
+
+        this.done = done;
+        this.total = total;
+
+        // only one update waits on the JavaFX thread at a time, it shows the latest progress
+        if (updatePending.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                updatePending.set(false);
+                progressBar.setProgress(this.total == 0 ? 0 : (double) this.done / this.total);
+                label.setText(this.done + " of " + this.total);
+            });
+        }
+    }
+
+    /**
+     * Closes the window. Can be called from any thread.
+     */
+    public void close() {
+        Platform.runLater(stage::close);
+    }
+}
@@ -0,0 +1,88 @@
+package test;
+
+import model.BoardEdit;
+import model.DynamicGameOfLife;
+import model.SparsePattern;
+import model.StaticGameOfLife;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the edits queued on a game board.
+ */
+public class BoardEditTest {
+
+    @Test
+    public void testQueueEdit_ifNotApplied_thenBoardIsUnchanged() {
+        StaticGameOfLife gol = new StaticGameOfLife(5, 5);
+
+        gol.queueEdit(BoardEdit.setCellAlive(2, 2));
+
+        assertFalse(gol.isCellAlive(2, 2));
+        assertTrue(gol.applyEdits());
+        assertTrue(gol.isCellAlive(2, 2));
+        assertFalse(gol.applyEdits());
+    }
+
+    @Test
+    public void testQueueEdit_ifNextGeneration_thenEditsAreAppliedBeforeEvolving() {
+        // queue a blinker
+        StaticGameOfLife gol = new StaticGameOfLife(5, 5);
+        gol.queueEdit(BoardEdit.drawLine(1, 2, 4, 2));
+
+        gol.nextGeneration();
+
+        // the blinker has turned vertical
+        assertTrue(gol.isCellAlive(2, 1));
+        assertTrue(gol.isCellAlive(2, 2));
+        assertTrue(gol.isCellAlive(2, 3));
+        assertEquals(3, gol.getCellCount());
+        assertEquals(3, gol.getFrame().getCellCount());
+    }
+
+    @Test
+    public void testPaste_ifLeftOfDynamicBoard_thenBoardIsExpanded() {
+        DynamicGameOfLife gol = new DynamicGameOfLife();
+        gol.setCellAlive(0, 0);
+
+        // paste a vertical line two cells to the left of the live cell
+        boolean[][] pattern = {{true, true, true}};
+        gol.queueEdit(BoardEdit.paste(pattern, -2, 0));
+        gol.applyEdits();
+
+        assertEquals(4, gol.getCellCount());
+        assertTrue(gol.isCellAlive(-2 + gol.getOffsetX(), 2 + gol.getOffsetY()));
+        assertTrue(gol.isCellAlive(gol.getOffsetX(), gol.getOffsetY()));
+    }
+
+    @Test
+    public void testPaste_ifSparsePattern_thenCellsArePlacedAtOffset() {
+        StaticGameOfLife gol = new StaticGameOfLife(10, 10);
+
+        // two cells far apart in the file, placed with the left column at x = 2
+        SparsePattern pattern = SparsePattern.of(new int[]{-100, -97}, new int[]{50, 51}, 2);
+        gol.queueEdit(BoardEdit.paste(pattern, 2, 3));
+        gol.applyEdits();
+
+        assertEquals(2, gol.getCellCount());
+        assertTrue(gol.isCellAlive(2, 3));
+        assertTrue(gol.isCellAlive(5, 4));
+    }
+
+    @Test
+    public void testClearRegion_ifPartlyOutsideBoard_thenCellsInsideAreKilled() {
+        StaticGameOfLife gol = new StaticGameOfLife(5, 5);
+        gol.setCellAlive(0, 0);
+        gol.setCellAlive(1, 1);
+        gol.setCellAlive(4, 4);
+
+        gol.queueEdit(BoardEdit.clearRegion(-3, -3, 1, 1));
+        gol.applyEdits();
+
+        assertFalse(gol.isCellAlive(0, 0));
+        assertFalse(gol.isCellAlive(1, 1));
+        assertTrue(gol.isCellAlive(4, 4));
+        assertEquals(1, gol.getCellCount());
+    }
+}
@@ -0,0 +1,95 @@
+package test;
+
+import model.Checkpoint;
+import model.Checkpointer;
+import model.DynamicGameOfLife;
+import model.GameOfLife;
+import model.PackedBoard;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for checkpoints of running simulations.
+ */
+public class CheckpointerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static GameOfLife createGlider() {
+        GameOfLife gol = new DynamicGameOfLife("B3/S23");
+        gol.setCellAlive(2, 1);
+        gol.setCellAlive(3, 2);
+        gol.setCellAlive(1, 3);
+        gol.setCellAlive(2, 3);
+        gol.setCellAlive(3, 3);
+        return gol;
+    }
+
+    @Test
+    public void testLoadLatest_ifCheckpointsWritten_thenNewestIsLoadedWithStatistics() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        Checkpointer checkpointer = new Checkpointer(directory, 0);
+        GameOfLife gol = createGlider();
+
+        for (int i = 0; i < 4; i++) {
+            gol.nextGenerations(10, () -> true);
+            checkpointer.checkpoint(gol, Collections.singletonMap("steps", (long) i));
+            // lets each checkpoint finish, a checkpoint is skipped while the last one is written
+            checkpointer.close();
+            checkpointer = new Checkpointer(directory, 0);
+        }
+
+        Checkpoint checkpoint = Checkpointer.loadLatest(directory);
+
+        assertEquals(40, checkpoint.getBoard().getGeneration());
+        assertEquals(3, checkpoint.getStatistic("steps", -1));
+        assertEquals("B3/S23", checkpoint.getSnapshot().getRule());
+        assertTrue(PackedBoard.of(gol).hasSameCells(checkpoint.getBoard()));
+        // only the newest checkpoints are kept
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(Checkpointer.KEPT_CHECKPOINTS, files.count());
+        }
+    }
+
+    @Test
+    public void testLoadLatest_ifNewestIsIncomplete_thenOlderIsLoaded() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        GameOfLife gol = createGlider();
+
+        Checkpointer checkpointer = new Checkpointer(directory, 0);
+        checkpointer.checkpoint(gol, Collections.emptyMap());
+        checkpointer.close();
+
+        gol.nextGeneration();
+        checkpointer = new Checkpointer(directory, 0);
+        checkpointer.checkpoint(gol, Collections.emptyMap());
+        checkpointer.close();
+
+        try (RandomAccessFile access = new RandomAccessFile(directory.resolve("checkpoint-1.golc").toFile(), "rw")) {
+            access.setLength(access.length() - 10);
+        }
+
+        assertEquals(0, Checkpointer.loadLatest(directory).getBoard().getGeneration());
+    }
+
+    @Test
+    public void testIsDue_ifNoInterval_thenNeverDue() {
+        assertFalse(new Checkpointer(folder.getRoot().toPath(), 0).isDue());
+    }
+
+    @Test
+    public void testLoadLatest_ifNoDirectory_thenNull() throws IOException {
+        assertNull(Checkpointer.loadLatest(folder.getRoot().toPath().resolve("missing")));
+    }
+}
@@ -0,0 +1,115 @@
+package test;
+
+import controller.DensityPyramid;
+import controller.PixelRenderer;
+import model.PackedBoard;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the live cell counts used to draw the board zoomed out.
+ */
+public class DensityPyramidTest {
+
+    private static boolean[][] randomPattern(Random random, int width, int height) {
+
+        boolean[][] pattern = new boolean[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                pattern[x][y] = random.nextInt(3) == 0;
+            }
+        }
+        return pattern;
+    }
+
+    /**
+     * Counts the live cells of a block one by one
+     */
+    private static int count(boolean[][] pattern, int level, int blockX, int blockY) {
+
+        int size = 1 << level;
+        int count = 0;
+        for (int x = blockX * size; x < Math.min(pattern.length, (blockX + 1) * size); x++) {
+            for (int y = blockY * size; y < Math.min(pattern[0].length, (blockY + 1) * size); y++) {
+                if (pattern[x][y])
+                    count++;
+            }
+        }
+        return count;
+    }
+
+    private static void assertCounts(boolean[][] pattern, DensityPyramid pyramid) {
+        for (int level = 1; level <= DensityPyramid.MAX_LEVEL; level++) {
+            for (int x = 0; x <= pattern.length >> level; x++) {
+                for (int y = 0; y <= pattern[0].length >> level; y++) {
+                    assertEquals(count(pattern, level, x, y), pyramid.getCount(level, x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUpdate_ifFrameIsNew_thenBlocksAreCounted() {
+
+        // sizes that are not a multiple of the largest block, and more than one word wide
+        boolean[][] pattern = randomPattern(new Random(3), 131, 37);
+        DensityPyramid pyramid = new DensityPyramid();
+        pyramid.update(PackedBoard.of(pattern));
+
+        assertCounts(pattern, pyramid);
+        assertEquals(0, pyramid.getCount(1, -1, 0));
+        assertEquals(0, pyramid.getCount(3, 1000, 0));
+    }
+
+    @Test
+    public void testUpdate_ifFramesHaveSameSize_thenChangesAreCounted() {
+
+        Random random = new Random(11);
+        DensityPyramid pyramid = new DensityPyramid();
+        boolean[][] pattern = randomPattern(random, 100, 45);
+        pyramid.update(PackedBoard.of(pattern));
+
+        for (int i = 0; i < 5; i++) {
+
+            // flip a few cells, and every cell of one block
+            for (int j = 0; j < 50; j++) {
+                int x = random.nextInt(100), y = random.nextInt(45);
+                pattern[x][y] = !pattern[x][y];
+            }
+            for (int x = 16; x < 24; x++) {
+                for (int y = 8; y < 16; y++) {
+                    pattern[x][y] = !pattern[x][y];
+                }
+            }
+
+            pyramid.update(PackedBoard.of(pattern));
+            assertCounts(pattern, pyramid);
+        }
+    }
+
+    @Test
+    public void testRender_ifZoomedOut_thenPixelsAreShadedByDensity() {
+
+        // the left half is full, and a quarter of the right half is alive
+        boolean[][] pattern = new boolean[64][64];
+        for (int x = 0; x < 64; x++) {
+            for (int y = 0; y < 64; y++) {
+                pattern[x][y] = x < 32 || (x % 2 == 0 && y % 2 == 0);
+            }
+        }
+
+        // a quarter of a pixel per cell, so every pixel is a block of 4x4 cells
+        PixelRenderer renderer = new PixelRenderer();
+        renderer.resize(20, 20);
+        renderer.render(PackedBoard.of(pattern), 0.25, 0.1, 0, 0, 0xFF000000, 0xFFFFFFFF);
+        int[] pixels = renderer.getPixels();
+
+        assertEquals(0xFF000000, pixels[3 * 20 + 2]);
+        assertEquals(0xFFBFBFBF, pixels[3 * 20 + 12]);
+        assertEquals(0xFFFFFFFF, pixels[3 * 20 + 16]);
+        assertEquals(0xFFFFFFFF, pixels[16 * 20 + 3]);
+    }
+}
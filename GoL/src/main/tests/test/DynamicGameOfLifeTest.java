@@ -1,6 +1,7 @@
 package test;
 
 import model.DynamicGameOfLife;
+import model.PackedBoard;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -175,4 +176,84 @@ public class DynamicGameOfLifeTest {
         // assert size changed
         assertEquals(3, gol.getGridWidth());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSnapshot_ifSnapshotEvolves_thenOriginalIsUnchanged() {
+        // instantiate gol
+        gol = new DynamicGameOfLife();
+
+        // set alive cells (Blinker)
+        gol.setCellAlive(0, 0);
+        gol.setCellAlive(0, 1);
+        gol.setCellAlive(0, 2);
+
+        // snapshot and increment one generation
+        DynamicGameOfLife snapshot = gol.snapshot();
+        snapshot.nextGeneration();
+
+        // assert blinker has changed in snapshot only
+        assertEquals("000 000 111 000 000", snapshot.toString());
+        assertEquals("1 1 1", gol.toString());
+        assertEquals(3, snapshot.getCellCount());
+    }
+
+    @Test
+    public void testSnapshot_ifOriginalGrows_thenSnapshotKeepsSizeAndOffset() {
+        // instantiate gol with a glider
+        gol = new DynamicGameOfLife();
+        gol.setCellAlive(1, 0);
+        gol.setCellAlive(2, 1);
+        gol.setCellAlive(0, 2);
+        gol.setCellAlive(1, 2);
+        gol.setCellAlive(2, 2);
+        gol.nextGeneration();
+
+        DynamicGameOfLife snapshot = gol.snapshot();
+        String expected = snapshot.toString();
+        int width = snapshot.getGridWidth();
+        int height = snapshot.getGridHeight();
+
+        // the snapshot keeps the offset of the original
+        assertEquals(gol.getOffsetX(), snapshot.getOffsetX());
+        assertEquals(gol.getOffsetY(), snapshot.getOffsetY());
+
+        // evolve and edit the original, which resizes its board
+        for (int i = 0; i < 8; i++) {
+            gol.nextGeneration();
+        }
+        gol.setCellAlive(20, 20);
+
+        assertEquals(expected, snapshot.toString());
+        assertEquals(width, snapshot.getGridWidth());
+        assertEquals(height, snapshot.getGridHeight());
+    }
+
+    @Test
+    public void testSetBoard_ifPackedBoardIsLarger_thenBoardTakesItsSizeAndEvolves() {
+        // a glider moved away from the origin and evolved
+        DynamicGameOfLife original = new DynamicGameOfLife();
+        original.setCellAlive(101, 70);
+        original.setCellAlive(102, 71);
+        original.setCellAlive(100, 72);
+        original.setCellAlive(101, 72);
+        original.setCellAlive(102, 72);
+        original.increaseXLeft(3);
+        original.nextGeneration();
+        PackedBoard board = PackedBoard.of(original);
+
+        gol = new DynamicGameOfLife();
+        gol.setBoard(board);
+
+        assertEquals(board.getWidth(), gol.getGridWidth());
+        assertEquals(board.getHeight(), gol.getGridHeight());
+        assertEquals(original.getOffsetX(), gol.getOffsetX());
+        assertEquals(1, gol.getGeneration());
+        assertEquals(5, gol.getCellCount());
+        assertEquals(original.toString(), gol.toString());
+
+        // both go on the same way
+        original.nextGeneration();
+        gol.nextGeneration();
+        assertTrue(PackedBoard.of(original).hasSameCells(PackedBoard.of(gol)));
+    }
+}
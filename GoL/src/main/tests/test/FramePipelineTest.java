@@ -0,0 +1,101 @@
+package test;
+
+import model.PackedBoard;
+import org.junit.Test;
+import tools.BoardRasterizer;
+import tools.FramePipeline;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the frame pipeline used by the animation exporters, and the board rasterizer.
+ */
+public class FramePipelineTest {
+
+    @Test
+    public void testRun_ifImagesFinishOutOfOrder_thenTheyAreWrittenInOrder() throws IOException {
+
+        AtomicInteger next = new AtomicInteger();
+        List<Integer> written = new ArrayList<>();
+
+        boolean done = new FramePipeline<Integer, Integer>(4, 8).run(200,
+                next::getAndIncrement,
+                frame -> {
+                    // later frames can finish first
+                    try {
+                        Thread.sleep(new Random(frame).nextInt(3));
+                    } catch (InterruptedException ignored) {
+                    }
+                    return frame * 2;
+                },
+                written::add);
+
+        assertTrue(done);
+        assertEquals(200, written.size());
+        for (int i = 0; i < written.size(); i++) {
+            assertEquals(i * 2, (int) written.get(i));
+        }
+    }
+
+    @Test
+    public void testRun_ifCancelled_thenTheRestIsDroppedAndFalseIsReturned() throws IOException {
+
+        FramePipeline<Integer, Integer> pipeline = new FramePipeline<>(2, 4);
+        AtomicInteger next = new AtomicInteger();
+        List<Integer> written = new ArrayList<>();
+
+        boolean done = pipeline.run(1_000_000, next::getAndIncrement, frame -> frame, image -> {
+            written.add(image);
+            if (image == 10)
+                pipeline.cancel();
+        });
+
+        assertFalse(done);
+        assertEquals(11, written.size());
+
+        // the frame thread stopped soon after, as the queue is bounded
+        assertTrue(next.get() < 100);
+    }
+
+    @Test(expected = IOException.class)
+    public void testRun_ifWritingFails_thenTheExceptionIsThrown() throws IOException {
+
+        AtomicInteger next = new AtomicInteger();
+        new FramePipeline<Integer, Integer>(2, 4).run(1000, next::getAndIncrement, frame -> frame, image -> {
+            if (image == 5)
+                throw new IOException("disk full");
+        });
+    }
+
+    @Test
+    public void testRasterize_ifCellsAreLarger_thenEveryPixelShowsItsCell() {
+
+        boolean[][] pattern = new boolean[70][3];
+        pattern[0][0] = true;
+        pattern[65][2] = true;
+
+        // cells of 3 pixels, with the first cell column cut by the board offset
+        BoardRasterizer rasterizer = new BoardRasterizer(200, 9, 3, 1, 0);
+        byte[] pixels = rasterizer.rasterize(PackedBoard.of(pattern));
+
+        assertEquals(BoardRasterizer.ALIVE, pixels[0]);
+        assertEquals(BoardRasterizer.ALIVE, pixels[1]);
+        assertEquals(BoardRasterizer.DEAD, pixels[2]);
+        assertEquals(BoardRasterizer.ALIVE, pixels[2 * 200 + 1]);
+        assertEquals(BoardRasterizer.DEAD, pixels[3 * 200]);
+
+        // cell (65, 2) covers pixels 194 to 196 of rows 6 to 8
+        for (int y = 6; y < 9; y++) {
+            assertEquals(BoardRasterizer.DEAD, pixels[y * 200 + 193]);
+            assertEquals(BoardRasterizer.ALIVE, pixels[y * 200 + 194]);
+            assertEquals(BoardRasterizer.ALIVE, pixels[y * 200 + 196]);
+            assertEquals(BoardRasterizer.DEAD, pixels[y * 200 + 197]);
+        }
+    }
+}
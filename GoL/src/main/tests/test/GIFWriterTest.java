@@ -0,0 +1,242 @@
+package test;
+
+import model.PackedBoard;
+import org.junit.Test;
+import org.w3c.dom.Node;
+import tools.BoardRasterizer;
+import tools.GIFWriter;
+import tools.GifExporter;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for GIFWriter, the written files are read back with the GIF reader of ImageIO.
+ */
+public class GIFWriterTest {
+
+    private static ImageReader read(byte[] gif) throws IOException {
+        ImageReader reader = ImageIO.getImageReadersByFormatName("gif").next();
+        ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(gif));
+        reader.setInput(in);
+        return reader;
+    }
+
+    /**
+     * Draws the frames of a GIF on top of each other, as a viewer shows them
+     *
+     * @return The RGB of every pixel, row by row, after every frame
+     */
+    private static List<int[]> composite(byte[] gif, int width, int height) throws IOException {
+
+        ImageReader reader = read(gif);
+        List<int[]> screens = new ArrayList<>();
+        int[] screen = new int[width * height];
+
+        for (int i = 0; i < reader.getNumImages(true); i++) {
+
+            BufferedImage frame = reader.read(i);
+            Node descriptor = reader.getImageMetadata(i).getAsTree("javax_imageio_gif_image_1.0").getFirstChild();
+            while (!descriptor.getNodeName().equals("ImageDescriptor")) {
+                descriptor = descriptor.getNextSibling();
+            }
+            int left = Integer.parseInt(descriptor.getAttributes().getNamedItem("imageLeftPosition").getNodeValue());
+            int top = Integer.parseInt(descriptor.getAttributes().getNamedItem("imageTopPosition").getNodeValue());
+
+            // transparent pixels leave the screen as it is
+            for (int y = 0; y < frame.getHeight(); y++) {
+                for (int x = 0; x < frame.getWidth(); x++) {
+                    int argb = frame.getRGB(x, y);
+                    if ((argb >>> 24) != 0)
+                        screen[(top + y) * width + left + x] = argb;
+                }
+            }
+            screens.add(screen.clone());
+        }
+        return screens;
+    }
+
+    @Test
+    public void testFrames_ifRectanglesAreFilled_thenPixelsHaveTheirColours() throws IOException {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GIFWriter writer = new GIFWriter(20, 10, out, 100, Color.WHITE, Color.BLACK, Color.RED)) {
+
+            writer.fillRect(2, 4, 1, 3, Color.BLACK);
+            writer.insertAndProceed();
+
+            // the parts outside the image are left out
+            writer.fillRect(15, 30, -5, 2, Color.RED);
+            writer.insertAndProceed();
+        }
+
+        ImageReader reader = read(out.toByteArray());
+        assertEquals(2, reader.getNumImages(true));
+
+        BufferedImage first = reader.read(0);
+        assertEquals(20, first.getWidth());
+        assertEquals(10, first.getHeight());
+        assertEquals(Color.BLACK.getRGB(), first.getRGB(3, 2));
+        assertEquals(Color.WHITE.getRGB(), first.getRGB(5, 2));
+
+        BufferedImage second = reader.read(1);
+        assertEquals(Color.RED.getRGB(), second.getRGB(19, 0));
+        assertEquals(Color.WHITE.getRGB(), second.getRGB(3, 2));
+        assertEquals(Color.WHITE.getRGB(), second.getRGB(19, 3));
+    }
+
+    @Test
+    public void testWriteFrame_ifImageIsLarge_thenCodeTableIsResetCorrectly() throws IOException {
+
+        // random pixels fill the code table many times over
+        int width = 300, height = 200;
+        byte[] pixels = new byte[width * height];
+        Random random = new Random(42);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = (byte) random.nextInt(4);
+        }
+
+        Color[] palette = {Color.WHITE, Color.BLACK, Color.RED, Color.BLUE};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GIFWriter writer = new GIFWriter(width, height, out, 50, palette)) {
+            writer.writeFrame(pixels, 0, 0, width, height, GIFWriter.NO_TRANSPARENCY, GIFWriter.DISPOSE_NONE);
+        }
+
+        BufferedImage image = read(out.toByteArray()).read(0);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                assertEquals(palette[pixels[y * width + x]].getRGB(), image.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testWriteFrame_ifImageIsOneColour_thenLongRunsAreDecoded() throws IOException {
+
+        int width = 1000, height = 1000;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GIFWriter writer = new GIFWriter(width, height, out, 50, Color.WHITE, Color.BLACK)) {
+            writer.fillRect(0, width - 1, 0, height - 1, 1);
+            writer.insertCurrentImage();
+        }
+
+        // a plain image compresses to a small part of its size
+        assertTrue(out.size() < width * height / 100);
+
+        BufferedImage image = read(out.toByteArray()).read(0);
+        assertEquals(Color.BLACK.getRGB(), image.getRGB(0, 0));
+        assertEquals(Color.BLACK.getRGB(), image.getRGB(width - 1, height - 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFillRect_ifColourIsNotInPalette_thenIllegalArgument() throws IOException {
+
+        try (GIFWriter writer = new GIFWriter(10, 10, new ByteArrayOutputStream(), 100, Color.WHITE, Color.BLACK)) {
+            writer.fillRect(0, 1, 0, 1, Color.GREEN);
+        }
+    }
+
+    @Test
+    public void testWriteChanges_ifPartOfImageChanged_thenOnlyTheChangedPixelsAreWritten() throws IOException {
+
+        int width = 100, height = 80;
+        Color[] palette = {Color.WHITE, Color.BLACK};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        byte[] full = new byte[width * height];
+        full[5 * width + 5] = 1;
+
+        // a part that mostly repeats the shown frame, with a change at (42, 31)
+        byte[] part = new byte[50 * 50];
+        part[(31 - 20) * 50 + (42 - 10)] = 1;
+
+        try (GIFWriter writer = new GIFWriter(width, height, out, 100, palette)) {
+            writer.writeFrame(full, 0, 0, width, height, GIFWriter.NO_TRANSPARENCY, GIFWriter.DISPOSE_NONE);
+            writer.writeChanges(part, 10, 20, 50, 50);
+            writer.writeChanges(null, 0, 0, 0, 0);
+        }
+
+        List<int[]> screens = composite(out.toByteArray(), width, height);
+        assertEquals(3, screens.size());
+
+        int[] last = screens.get(2);
+        assertEquals(Color.BLACK.getRGB(), last[5 * width + 5]);
+        assertEquals(Color.BLACK.getRGB(), last[31 * width + 42]);
+        assertEquals(Color.WHITE.getRGB(), last[31 * width + 43]);
+
+        // only the changed pixel was written
+        BufferedImage second = read(out.toByteArray()).read(1);
+        assertEquals(1, second.getWidth());
+        assertEquals(1, second.getHeight());
+    }
+
+    @Test
+    public void testExport_ifGliderMoves_thenEveryFrameShowsTheBoard() throws IOException {
+
+        // a glider on a board that does not change size
+        boolean[][] pattern = new boolean[30][30];
+        pattern[1][0] = pattern[2][1] = pattern[0][2] = pattern[1][2] = pattern[2][2] = true;
+
+        List<PackedBoard> frames = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            frames.add(PackedBoard.of(pattern));
+            pattern = nextGeneration(pattern);
+        }
+
+        int width = 120, height = 120;
+        BoardRasterizer rasterizer = new BoardRasterizer(width, height, 4, 0, 0);
+        Color[] palette = {Color.WHITE, Color.BLACK};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Iterator<PackedBoard> source = frames.iterator();
+        try (GIFWriter writer = new GIFWriter(width, height, out, 100, palette)) {
+            assertTrue(new GifExporter(writer, rasterizer).export(frames.size(), source::next));
+        }
+
+        List<int[]> screens = composite(out.toByteArray(), width, height);
+        assertEquals(frames.size(), screens.size());
+
+        for (int i = 0; i < frames.size(); i++) {
+            byte[] expected = rasterizer.rasterize(frames.get(i));
+            for (int p = 0; p < expected.length; p++) {
+                assertEquals("frame " + i + " pixel " + p, palette[expected[p]].getRGB(), screens.get(i)[p]);
+            }
+        }
+
+        // the frames after the first only cover the glider
+        ImageReader reader = read(out.toByteArray());
+        assertEquals(width, reader.read(0).getWidth());
+        assertTrue(reader.read(5).getWidth() <= 4 * 4);
+    }
+
+    private static boolean[][] nextGeneration(boolean[][] cells) {
+
+        boolean[][] next = new boolean[cells.length][cells[0].length];
+        for (int x = 0; x < cells.length; x++) {
+            for (int y = 0; y < cells[0].length; y++) {
+
+                int neighbours = 0;
+                for (int a = x - 1; a <= x + 1; a++) {
+                    for (int b = y - 1; b <= y + 1; b++) {
+                        if ((a != x || b != y) && a >= 0 && b >= 0 && a < cells.length && b < cells[0].length && cells[a][b])
+                            neighbours++;
+                    }
+                }
+                next[x][y] = neighbours == 3 || (cells[x][y] && neighbours == 2);
+            }
+        }
+        return next;
+    }
+}
@@ -0,0 +1,126 @@
+package test;
+
+import model.DynamicGameOfLife;
+import model.GenerationHistory;
+import model.PackedBoard;
+import model.StaticGameOfLife;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the generation history used to rewind the game board.
+ */
+public class GenerationHistoryTest {
+
+    @Test
+    public void testMaterialize_ifGliderRecorded_thenEveryGenerationIsRebuilt() {
+        // instantiate gol with a glider
+        StaticGameOfLife gol = new StaticGameOfLife(20, 20);
+        gol.setCellAlive(3, 2);
+        gol.setCellAlive(4, 3);
+        gol.setCellAlive(2, 4);
+        gol.setCellAlive(3, 4);
+        gol.setCellAlive(4, 4);
+
+        // record 20 generations with a keyframe every 4th generation
+        GenerationHistory history = new GenerationHistory(100, 4, Long.MAX_VALUE);
+        String[] expected = new String[20];
+        for (int i = 0; i < 20; i++) {
+            expected[i] = gol.toString();
+            history.record(PackedBoard.of(gol));
+            gol.nextGeneration();
+        }
+
+        // rebuild each generation and compare
+        for (int i = 0; i < 20; i++) {
+            StaticGameOfLife rebuilt = new StaticGameOfLife(20, 20);
+            rebuilt.setBoard(history.materialize(i));
+
+            assertEquals(expected[i], rebuilt.toString());
+            assertEquals(i, rebuilt.getGeneration());
+            assertEquals(5, rebuilt.getCellCount());
+        }
+    }
+
+    @Test
+    public void testRecord_ifCapacityExceeded_thenOldestKeyframeGroupIsEvicted() {
+        StaticGameOfLife gol = new StaticGameOfLife(5, 5);
+        gol.setCellAlive(2, 1);
+        gol.setCellAlive(2, 2);
+        gol.setCellAlive(2, 3);
+
+        GenerationHistory history = new GenerationHistory(8, 4, Long.MAX_VALUE);
+        for (int i = 0; i < 10; i++) {
+            history.record(PackedBoard.of(gol));
+            gol.nextGeneration();
+        }
+
+        // generations 0 to 3 form the oldest group and are evicted together
+        assertEquals(4, history.getOldestGeneration());
+        assertEquals(9, history.getNewestGeneration());
+        assertNull(history.materialize(3));
+        assertNotNull(history.materialize(4));
+    }
+
+    @Test
+    public void testRecord_ifMemoryBudgetIsSmall_thenHistoryStaysWithinBudget() {
+        StaticGameOfLife gol = new StaticGameOfLife(64, 64);
+        gol.setCellAlive(10, 10);
+        gol.setCellAlive(11, 10);
+        gol.setCellAlive(12, 10);
+
+        GenerationHistory history = new GenerationHistory(1000, 8, 2000);
+        for (int i = 0; i < 200; i++) {
+            history.record(PackedBoard.of(gol));
+            gol.nextGeneration();
+        }
+
+        assertTrue(history.getMemoryUsage() <= 2000);
+        assertEquals(199, history.getNewestGeneration());
+        assertNotNull(history.materialize(199));
+    }
+
+    @Test
+    public void testRecord_ifRewound_thenLaterGenerationsAreDiscarded() {
+        DynamicGameOfLife gol = new DynamicGameOfLife();
+        gol.setCellAlive(0, 0);
+        gol.setCellAlive(1, 0);
+        gol.setCellAlive(2, 0);
+
+        GenerationHistory history = new GenerationHistory();
+        for (int i = 0; i < 6; i++) {
+            history.record(PackedBoard.of(gol));
+            gol.nextGeneration();
+        }
+
+        // rewind to generation 2 and record it again
+        gol.setBoard(history.materialize(2));
+        history.record(PackedBoard.of(gol));
+
+        assertEquals(2, history.getNewestGeneration());
+        assertNull(history.materialize(3));
+        assertEquals(3, history.materialize(2).getCellCount());
+    }
+
+    @Test
+    public void testGetGenerationBefore_ifOnlyEveryFourthRecorded_thenClosestEarlierIsFound() {
+        StaticGameOfLife gol = new StaticGameOfLife(5, 5);
+        gol.setCellAlive(2, 1);
+        gol.setCellAlive(2, 2);
+        gol.setCellAlive(2, 3);
+
+        // record the first generation of each step of four
+        GenerationHistory history = new GenerationHistory();
+        for (int i = 0; i < 3; i++) {
+            history.record(PackedBoard.of(gol));
+            gol.nextGenerations(4, () -> true);
+        }
+
+        assertEquals(12, gol.getGeneration());
+        assertEquals(8, history.getGenerationBefore(12));
+        assertEquals(4, history.getGenerationBefore(8));
+        assertEquals(4, history.getGenerationBefore(7));
+        assertEquals(-1, history.getGenerationBefore(0));
+    }
+}
@@ -0,0 +1,224 @@
+package test;
+
+import model.PackedBoard;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tools.BoardRasterizer;
+import tools.ImageSequenceExporter;
+import tools.PngEncoder;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the PNG sequence and animated PNG export. The images are read back with ImageIO.
+ */
+public class ImageSequenceExporterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final Color[] PALETTE = {Color.WHITE, Color.BLACK};
+
+    /**
+     * A chunk of a PNG file
+     */
+    private static final class Chunk {
+        final String type;
+        final byte[] data;
+
+        Chunk(String type, byte[] data) {
+            this.type = type;
+            this.data = data;
+        }
+    }
+
+    /**
+     * Reads the chunks of a PNG file, and checks their checksums
+     */
+    private static List<Chunk> readChunks(byte[] png) throws IOException {
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(png));
+        in.skipBytes(8);
+
+        List<Chunk> chunks = new ArrayList<>();
+        while (in.available() > 0) {
+
+            byte[] data = new byte[in.readInt()];
+            byte[] type = new byte[4];
+            in.readFully(type);
+            in.readFully(data);
+
+            CRC32 crc = new CRC32();
+            crc.update(type);
+            crc.update(data);
+            assertEquals((int) crc.getValue(), in.readInt());
+
+            chunks.add(new Chunk(new String(type, "US-ASCII"), data));
+        }
+        return chunks;
+    }
+
+    private static List<PackedBoard> gliderFrames(int count) {
+
+        List<PackedBoard> frames = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+
+            // a glider moved one cell to the right every frame
+            boolean[][] pattern = new boolean[20][10];
+            pattern[i + 1][0] = pattern[i + 2][1] = pattern[i][2] = pattern[i + 1][2] = pattern[i + 2][2] = true;
+            frames.add(PackedBoard.of(pattern));
+        }
+        return frames;
+    }
+
+    private static void assertShows(BufferedImage image, byte[] expected, int left) {
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < expected.length / image.getHeight(); x++) {
+                int pixel = expected[y * (expected.length / image.getHeight()) + x];
+                assertEquals(PALETTE[pixel].getRGB(), image.getRGB(left + x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testCompress_ifPaletteHasUpToFourColours_thenImageIsReadBack() throws IOException {
+
+        int width = 37, height = 11;
+        Color[] palette = {Color.WHITE, Color.BLACK, Color.RED, Color.BLUE};
+        byte[] pixels = new byte[width * height];
+        Random random = new Random(7);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = (byte) random.nextInt(palette.length);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PngEncoder.write(out, width, height, palette, PngEncoder.compress(pixels, width, height, palette.length));
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                assertEquals(palette[pixels[y * width + x]].getRGB(), image.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testExport_ifPngSequence_thenOneNumberedImagePerFrame() throws IOException {
+
+        List<PackedBoard> frames = gliderFrames(5);
+        BoardRasterizer rasterizer = new BoardRasterizer(40, 20, 2, 0, 0);
+        File file = new File(folder.getRoot(), "glider.png");
+
+        Iterator<PackedBoard> source = frames.iterator();
+        assertTrue(new ImageSequenceExporter(rasterizer, 1, PALETTE)
+                .export(file, ImageSequenceExporter.Format.PNG_SEQUENCE, frames.size(), 100, source::next));
+
+        for (int i = 0; i < frames.size(); i++) {
+            File image = ImageSequenceExporter.getSequenceFile(file, i);
+            assertEquals("glider-0000" + i + ".png", image.getName());
+            assertShows(ImageIO.read(image), rasterizer.rasterize(frames.get(i)), 0);
+        }
+        assertFalse(ImageSequenceExporter.getSequenceFile(file, frames.size()).exists());
+    }
+
+    @Test
+    public void testExport_ifApng_thenEveryFrameHasControlAndData() throws IOException {
+
+        List<PackedBoard> frames = gliderFrames(6);
+        BoardRasterizer rasterizer = new BoardRasterizer(40, 20, 2, 0, 0);
+        File file = new File(folder.getRoot(), "glider.png");
+
+        Iterator<PackedBoard> source = frames.iterator();
+        assertTrue(new ImageSequenceExporter(rasterizer, 1, PALETTE)
+                .export(file, ImageSequenceExporter.Format.APNG, frames.size(), 100, source::next));
+
+        byte[] png = Files.readAllBytes(file.toPath());
+        List<Chunk> chunks = readChunks(png);
+
+        // header, animation control with the number of frames, and the palette
+        assertEquals("IHDR", chunks.get(0).type);
+        assertEquals("acTL", chunks.get(1).type);
+        assertEquals(frames.size(), new DataInputStream(new ByteArrayInputStream(chunks.get(1).data)).readInt());
+        assertEquals("PLTE", chunks.get(2).type);
+        assertEquals("IEND", chunks.get(chunks.size() - 1).type);
+
+        // the first frame is the still image, the others are frame data with counted sequence numbers
+        assertShows(ImageIO.read(file), rasterizer.rasterize(frames.get(0)), 0);
+
+        int expectedSequence = 0, frameControls = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+
+            Chunk chunk = chunks.get(i);
+            if (!chunk.type.equals("fcTL") && !chunk.type.equals("fdAT"))
+                continue;
+
+            assertEquals(expectedSequence++, new DataInputStream(new ByteArrayInputStream(chunk.data)).readInt());
+            if (!chunk.type.equals("fcTL") || frameControls++ == 0)
+                continue;
+
+            // a later frame, read as a still image of its own
+            byte[] data = chunks.get(i + 1).data;
+            ByteArrayOutputStream still = new ByteArrayOutputStream();
+            PngEncoder.write(still, 40, 20, PALETTE, Arrays.copyOfRange(data, 4, data.length));
+            assertShows(ImageIO.read(new ByteArrayInputStream(still.toByteArray())),
+                    rasterizer.rasterize(frames.get(frameControls - 1)), 0);
+        }
+        assertEquals(frames.size(), frameControls);
+    }
+
+    @Test
+    public void testExport_ifStrips_thenFramesAreSideBySide() throws IOException {
+
+        List<PackedBoard> frames = gliderFrames(5);
+        BoardRasterizer rasterizer = new BoardRasterizer(40, 20, 2, 0, 0);
+        ImageSequenceExporter exporter = new ImageSequenceExporter(rasterizer, 3, PALETTE);
+        File file = new File(folder.getRoot(), "strip.png");
+
+        Iterator<PackedBoard> source = frames.iterator();
+        assertTrue(exporter.export(file, ImageSequenceExporter.Format.PNG_SEQUENCE, frames.size(), 100, source::next));
+
+        // 5 frames make one whole strip and one with two frames
+        assertEquals(3 * 41 - 1, exporter.getImageWidth());
+        BufferedImage second = ImageIO.read(ImageSequenceExporter.getSequenceFile(file, 1));
+        assertEquals(exporter.getImageWidth(), second.getWidth());
+
+        assertShows(second, rasterizer.rasterize(frames.get(3)), 0);
+        assertShows(second, rasterizer.rasterize(frames.get(4)), 41);
+        assertEquals(Color.BLACK.getRGB(), second.getRGB(40, 5));
+        assertFalse(ImageSequenceExporter.getSequenceFile(file, 2).exists());
+    }
+
+    @Test
+    public void testExport_ifApngIsCancelled_thenFileIsDeleted() throws IOException {
+
+        BoardRasterizer rasterizer = new BoardRasterizer(40, 20, 2, 0, 0);
+        ImageSequenceExporter exporter = new ImageSequenceExporter(rasterizer, 1, PALETTE);
+        File file = new File(folder.getRoot(), "cancelled.png");
+
+        PackedBoard frame = gliderFrames(1).get(0);
+        exporter.setProgressListener((written, total) -> {
+            if (written == 3)
+                exporter.cancel();
+        });
+
+        assertFalse(exporter.export(file, ImageSequenceExporter.Format.APNG, 1000, 100, () -> frame));
+        assertFalse(file.exists());
+    }
+}
@@ -0,0 +1,51 @@
+package test;
+
+import model.Parser.Life06Reader;
+import model.PatternFormatException;
+import model.SparsePattern;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the sparse Life 1.06 reader.
+ */
+public class Life06ReaderTest {
+
+    private static SparsePattern read(String text) throws IOException {
+        return Life06Reader.read(new BufferedReader(new StringReader(text)));
+    }
+
+    @Test
+    public void testRead_ifGlider_thenCellsAreRelativeToTopLeft() throws IOException {
+        SparsePattern glider = read("#Life 1.06\n0 -1\n1 0\n-1 1\n0 1\n1 1\n");
+
+        assertEquals(5, glider.getCellCount());
+        assertEquals(-1, glider.getMinX());
+        assertEquals(-1, glider.getMinY());
+        assertEquals(3, glider.getWidth());
+        assertEquals(3, glider.getHeight());
+        assertEquals(1, glider.getX(0));
+        assertEquals(0, glider.getY(0));
+    }
+
+    @Test
+    public void testRead_ifCellsFarApart_thenOnlyTheCellsAreStored() throws IOException {
+        SparsePattern pattern = read("#Life 1.06\n-1000000000 0\n\t1000000000   5 \n");
+
+        assertEquals(2, pattern.getCellCount());
+        assertEquals(2000000001, pattern.getWidth());
+        assertEquals(6, pattern.getHeight());
+        assertEquals(2000000000, pattern.getX(1));
+        assertEquals(5, pattern.getY(1));
+    }
+
+    @Test(expected = PatternFormatException.class)
+    public void testRead_ifLineIsNotTwoNumbers_thenThrows() throws IOException {
+        read("#Life 1.06\n1 2 3\n");
+    }
+}
@@ -0,0 +1,102 @@
+package test;
+
+import model.PackedBoard;
+import model.PackedBoardSink;
+import model.Parser.MacrocellReader;
+import model.Parser.MacrocellWriter;
+import model.Parser.ParsedPattern;
+import model.Parser.PatternParser;
+import model.PatternFormatException;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for reading and writing macrocell files.
+ */
+public class MacrocellTest {
+
+    private static PackedBoard read(String text) throws IOException {
+        PackedBoardSink sink = new PackedBoardSink();
+        new MacrocellReader(new BufferedReader(new StringReader(text))).read(sink);
+        return sink.getBoard();
+    }
+
+    private static String write(PackedBoard board) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MacrocellWriter.write(Channels.newChannel(out), board, "B3/S23", Collections.singletonList("#C test"));
+        return out.toString();
+    }
+
+    @Test
+    public void testRead_ifGliderLeaf_thenCellsAreRead() throws IOException {
+        PackedBoard board = read("[M2] (golly 2.0)\n#R B3/S23\n.*$..*$***$\n");
+
+        assertEquals(3, board.getWidth());
+        assertEquals(3, board.getHeight());
+        assertEquals(5, board.getCellCount());
+        assertTrue(board.isCellAlive(1, 0));
+        assertTrue(board.isCellAlive(2, 1));
+        assertTrue(board.isCellAlive(0, 2));
+    }
+
+    @Test
+    public void testRead_ifSharedNodes_thenEveryUseIsPlaced() throws IOException {
+        // one block leaf used in the north west and south east of a 16x16 node
+        PackedBoard board = read("[M2]\n**$**$\n4 1 0 0 1\n");
+
+        assertEquals(10, board.getWidth());
+        assertEquals(10, board.getHeight());
+        assertEquals(8, board.getCellCount());
+        assertTrue(board.isCellAlive(0, 0));
+        assertTrue(board.isCellAlive(9, 9));
+        assertFalse(board.isCellAlive(8, 0));
+    }
+
+    @Test
+    public void testWrite_ifRepeatedPattern_thenReadBackTheSameAndNodesAreShared() throws IOException {
+        boolean[][] pattern = new boolean[512][300];
+        Random random = new Random(4);
+        boolean[][] tile = new boolean[16][16];
+        for (boolean[] column : tile) {
+            for (int y = 0; y < column.length; y++) {
+                column[y] = random.nextBoolean();
+            }
+        }
+        for (int x = 0; x < 512; x++) {
+            for (int y = 0; y < 300; y++) {
+                pattern[x][y] = tile[x % 16][y % 16];
+            }
+        }
+
+        String text = write(PackedBoard.of(pattern));
+        PackedBoard board = read(text);
+
+        assertTrue(PackedBoard.of(pattern).hasSameCells(board));
+        assertTrue(text.startsWith("[M2] (GoL)\n#R B3/S23\n#C test\n"));
+        // a 512x300 board as RLE would be about 20 kB
+        assertTrue(text.length() < 2000);
+    }
+
+    @Test
+    public void testParse_ifGenerationIsGiven_thenPatternKeepsIt() throws IOException {
+        ParsedPattern pattern = PatternParser.parse(Arrays.asList("[M2]", "#R B3/S23", "#G 42", ".*$..*$***$"), "glider.mc");
+
+        assertEquals(42, pattern.getGeneration());
+        assertEquals(5, pattern.getCells().getCellCount());
+    }
+
+    @Test(expected = PatternFormatException.class)
+    public void testRead_ifChildIsNotWrittenYet_thenThrows() throws IOException {
+        read("[M2]\n**$**$\n4 1 0 0 2\n");
+    }
+}
@@ -0,0 +1,94 @@
+package test;
+
+import model.PackedBoard;
+import model.PackedBoardSink;
+import model.Parser.MappedRleDecoder;
+import model.Parser.RleReader;
+import model.PatternFormatException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the parallel decoder of large RLE files.
+ */
+public class MappedRleDecoderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Writes a random RLE pattern of several megabytes, with empty rows and runs of rows
+     */
+    private File writeRandomRle(boolean withEnd) throws IOException {
+        Random random = new Random(7);
+        int width = 1500;
+        int height = 20000;
+
+        StringBuilder rle = new StringBuilder("#N Random\n#C generated\nx = " + width + ", y = " + height + ", rule = B36/S23\n");
+        int y = 0;
+        while (y < height - 3) {
+            int x = 0;
+            while (x < width - 40) {
+                int dead = 1 + random.nextInt(19);
+                int alive = 1 + random.nextInt(20);
+                rle.append(dead).append('b').append(alive == 1 ? "" : alive).append('o');
+                x += dead + alive;
+                if (random.nextInt(8) == 0)
+                    rle.append('\n');
+            }
+            int rows = (random.nextInt(5) == 0) ? 2 + random.nextInt(2) : 1;
+            rle.append(rows == 1 ? "" : rows).append('$');
+            y += rows;
+        }
+        rle.append(withEnd ? "3o!\n" : "3o\n");
+
+        File file = folder.newFile("random.rle");
+        Files.write(file.toPath(), rle.toString().getBytes());
+        return file;
+    }
+
+    @Test
+    public void testDecode_ifLargeFile_thenSameCellsAsStreamingReader() throws IOException {
+        File file = writeRandomRle(true);
+        assertTrue(file.length() > 4 << 20);
+
+        PackedBoardSink expected = new PackedBoardSink();
+        RleReader.read(file, expected);
+
+        PackedBoardSink sink = new PackedBoardSink();
+        MappedRleDecoder decoder = new MappedRleDecoder();
+        decoder.decode(file, sink);
+
+        PackedBoard board = sink.getBoard();
+        assertEquals("B36/S23", sink.getRule());
+        assertEquals(2, decoder.getMetaData().size());
+        assertTrue(board.getCellCount() > 0);
+        assertEquals(expected.getBoard().getCellCount(), board.getCellCount());
+        assertTrue(expected.getBoard().hasSameCells(board));
+    }
+
+    @Test(expected = PatternFormatException.class)
+    public void testDecode_ifNoExclamationMark_thenThrows() throws IOException {
+        new MappedRleDecoder().decode(writeRandomRle(false), new PackedBoardSink());
+    }
+
+    @Test
+    public void testDecode_ifSmallFile_thenCellsAreRead() throws IOException {
+        File file = folder.newFile("glider.rle");
+        Files.write(file.toPath(), "x = 3, y = 3\nbob$2bo$3o!".getBytes());
+
+        PackedBoardSink sink = new PackedBoardSink();
+        new MappedRleDecoder().decode(file, sink);
+
+        assertEquals(5, sink.getBoard().getCellCount());
+        assertTrue(sink.getBoard().isCellAlive(2, 1));
+    }
+}
@@ -0,0 +1,72 @@
+package test;
+
+import model.DynamicGameOfLife;
+import model.PackedBoard;
+import model.StaticGameOfLife;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the packed copy of a game board.
+ */
+public class PackedBoardTest {
+
+    @Test
+    public void testHasSameCells_ifBlockOnDifferentBoards_thenCellsAreTheSame() {
+        // a block on a static board
+        StaticGameOfLife staticGol = new StaticGameOfLife(10, 10);
+        staticGol.setCellAlive(2, 2);
+        staticGol.setCellAlive(3, 2);
+        staticGol.setCellAlive(2, 3);
+        staticGol.setCellAlive(3, 3);
+
+        // the same block on a dynamic board, which has another size
+        DynamicGameOfLife dynamicGol = new DynamicGameOfLife();
+        dynamicGol.setCellAlive(2, 2);
+        dynamicGol.setCellAlive(3, 2);
+        dynamicGol.setCellAlive(2, 3);
+        dynamicGol.setCellAlive(3, 3);
+
+        assertTrue(PackedBoard.of(staticGol).hasSameCells(PackedBoard.of(dynamicGol)));
+
+        // a still life stays the same after it is fitted and evolved
+        dynamicGol.nextGeneration();
+        assertTrue(PackedBoard.of(staticGol).hasSameCells(PackedBoard.of(dynamicGol)));
+    }
+
+    @Test
+    public void testHasSameCells_ifBlinkerEvolves_thenCellsAreDifferent() {
+        StaticGameOfLife gol = new StaticGameOfLife(5, 5);
+        gol.setCellAlive(1, 2);
+        gol.setCellAlive(2, 2);
+        gol.setCellAlive(3, 2);
+
+        PackedBoard before = PackedBoard.of(gol);
+        gol.nextGeneration();
+        PackedBoard after = PackedBoard.of(gol);
+
+        assertFalse(before.hasSameCells(after));
+
+        gol.nextGeneration();
+        assertTrue(before.hasSameCells(PackedBoard.of(gol)));
+    }
+
+    @Test
+    public void testGetChangedBox_ifBlinkerEvolves_thenBoxCoversTheChangedCells() {
+        StaticGameOfLife gol = new StaticGameOfLife(100, 5);
+        gol.setCellAlive(69, 2);
+        gol.setCellAlive(70, 2);
+        gol.setCellAlive(71, 2);
+
+        PackedBoard before = PackedBoard.of(gol);
+        gol.nextGeneration();
+        PackedBoard after = PackedBoard.of(gol);
+
+        // the middle cell stays alive, the ends turn into the top and bottom cells
+        assertArrayEquals(new int[]{69, 1, 71, 3}, after.getChangedBox(before));
+
+        // no changes from a board to itself
+        assertNull(after.getChangedBox(after));
+    }
+}
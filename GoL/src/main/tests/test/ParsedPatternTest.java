@@ -0,0 +1,81 @@
+package test;
+
+import model.Parser.ParsedPattern;
+import model.Parser.PatternParser;
+import model.PatternFormatException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for parsing patterns into an immutable result.
+ */
+public class ParsedPatternTest {
+
+    private static final List<String> GLIDER_RLE = Arrays.asList(
+            "#N Glider", "#O Richard K. Guy", "x = 3, y = 3, rule = B3/S23", "bob$2bo$3o!");
+
+    private static final List<String> GLIDER_LIFE06 = Arrays.asList(
+            "#Life 1.06", "1 0", "2 1", "0 2", "1 2", "2 2");
+
+    @Test
+    public void testParse_ifRle_thenCellsRuleAndMetaDataAreGiven() throws PatternFormatException {
+        ParsedPattern pattern = PatternParser.parse(GLIDER_RLE, "glider.rle");
+
+        assertEquals("B3/S23", pattern.getRule());
+        assertEquals(Arrays.asList("#N Glider", "#O Richard K. Guy"), pattern.getMetaData());
+        assertEquals(5, pattern.getCells().getCellCount());
+        assertTrue(pattern.toArray()[2][2]);
+        assertFalse(pattern.toArray()[0][0]);
+    }
+
+    @Test
+    public void testParse_ifParsedTwice_thenResultsAreIndependent() throws PatternFormatException {
+        ParsedPattern rle = PatternParser.parse(GLIDER_RLE, "glider.rle");
+        ParsedPattern life06 = PatternParser.parse(GLIDER_LIFE06, "glider.lif");
+
+        // the second parse doesn't change the first result
+        assertEquals("B3/S23", rle.getRule());
+        assertNull(life06.getRule());
+        assertTrue(rle.getCells().hasSameCells(life06.getCells()));
+
+        // changing the returned array doesn't change the pattern
+        rle.toArray()[0][0] = true;
+        assertFalse(rle.getCells().isCellAlive(0, 0));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testGetMetaData_ifChanged_thenThrows() throws PatternFormatException {
+        PatternParser.parse(GLIDER_RLE, "glider.rle").getMetaData().clear();
+    }
+
+    @Test
+    public void testParse_ifManyThreads_thenAllResultsAreCorrect() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<ParsedPattern>> results = new ArrayList<>();
+
+        for (int i = 0; i < 200; i++) {
+            List<String> lines = (i % 2 == 0) ? GLIDER_RLE : GLIDER_LIFE06;
+            String name = (i % 2 == 0) ? "glider.rle" : "glider.lif";
+            results.add(executor.submit(() -> PatternParser.parse(lines, name)));
+        }
+
+        ParsedPattern expected = PatternParser.parse(GLIDER_RLE, "glider.rle");
+        for (Future<ParsedPattern> result : results) {
+            assertTrue(result.get().getCells().hasSameCells(expected.getCells()));
+        }
+        executor.shutdown();
+    }
+
+    @Test(expected = PatternFormatException.class)
+    public void testParse_ifUnknownFileType_thenThrows() throws PatternFormatException {
+        PatternParser.parse(GLIDER_RLE, "glider.txt");
+    }
+}
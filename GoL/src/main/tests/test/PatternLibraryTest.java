@@ -0,0 +1,111 @@
+package test;
+
+import model.Parser.PatternEntry;
+import model.Parser.PatternLibrary;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the indexed pattern library.
+ */
+public class PatternLibraryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path writePattern(String name, String... lines) throws IOException {
+        Path file = folder.getRoot().toPath().resolve("patterns").resolve(name);
+        Files.createDirectories(file.getParent());
+        return Files.write(file, Arrays.asList(lines));
+    }
+
+    @Test
+    public void testUpdate_ifGliderAndBlinker_thenEntriesAreIndexed() throws IOException {
+        writePattern("glider.rle", "#N Glider", "x = 3, y = 3, rule = B3/S23", "bob$2bo$3o!");
+        writePattern("oscillators/blinker.cells", "!Name: Blinker", ".....", ".OOO.");
+        PatternLibrary library = new PatternLibrary(folder.getRoot().toPath().resolve("patterns"),
+                folder.getRoot().toPath().resolve("index.dat"));
+
+        List<PatternEntry> entries = library.update();
+
+        assertEquals(2, entries.size());
+        PatternEntry glider = entries.get(0);
+        assertEquals("glider.rle", glider.getPath());
+        assertEquals("Glider", glider.getName());
+        assertEquals("B3/S23", glider.getRule());
+        assertEquals(5, glider.getPopulation());
+        assertEquals(4, glider.getPeriod());
+        assertTrue(glider.isThumbnailSet(0, 2));
+        assertFalse(glider.isThumbnailSet(0, 0));
+
+        // the blinker is found from its folder, and its bounding box skips the empty row
+        PatternEntry blinker = library.search("OSCILLATORS").get(0);
+        assertEquals("Blinker", blinker.getName());
+        assertEquals(2, blinker.getPeriod());
+        assertEquals(1, blinker.getMinX());
+        assertEquals(1, blinker.getMinY());
+        assertEquals(3, blinker.getWidth());
+        assertEquals(1, blinker.getHeight());
+    }
+
+    @Test
+    public void testLoad_ifIndexWasWritten_thenEntriesAreReadFromCache() throws IOException {
+        writePattern("glider.rle", "x = 3, y = 3", "bob$2bo$3o!");
+        writePattern("broken.rle", "not a pattern");
+        Path root = folder.getRoot().toPath().resolve("patterns");
+        Path index = folder.getRoot().toPath().resolve("index.dat");
+        new PatternLibrary(root, index).update();
+
+        PatternLibrary library = new PatternLibrary(root, index);
+
+        assertTrue(library.load());
+        assertEquals(2, library.getEntries().size());
+        assertFalse(library.getEntries().get(0).isValid());
+        assertEquals(4, library.getEntries().get(1).getPeriod());
+        assertEquals(1, library.search("glider").size());
+        assertEquals(0, library.search("broken").size());
+    }
+
+    @Test
+    public void testUpdate_ifFileChanged_thenOnlyThatFileIsParsedAgain() throws IOException {
+        Path glider = writePattern("glider.rle", "x = 3, y = 3", "bob$2bo$3o!");
+        writePattern("block.cells", "OO", "OO");
+        PatternLibrary library = new PatternLibrary(folder.getRoot().toPath().resolve("patterns"),
+                folder.getRoot().toPath().resolve("index.dat"));
+        List<PatternEntry> before = library.update();
+
+        // the glider becomes a blinker
+        Files.write(glider, Arrays.asList("x = 3, y = 1", "3o!"));
+        Files.setLastModifiedTime(glider, FileTime.fromMillis(before.get(1).getLastModified() + 2000));
+        List<PatternEntry> after = library.update();
+
+        assertSame(before.get(0), after.get(0));
+        assertEquals(3, after.get(1).getPopulation());
+        assertEquals(2, after.get(1).getPeriod());
+    }
+
+    @Test
+    public void testUpdate_ifFileDeleted_thenEntryIsRemoved() throws IOException {
+        Path glider = writePattern("glider.rle", "x = 3, y = 3", "bob$2bo$3o!");
+        writePattern("block.cells", "OO", "OO");
+        PatternLibrary library = new PatternLibrary(folder.getRoot().toPath().resolve("patterns"),
+                folder.getRoot().toPath().resolve("index.dat"));
+        library.update();
+
+        new File(glider.toString()).delete();
+
+        assertEquals(1, library.update().size());
+        assertEquals(1, library.getEntries().get(0).getPeriod());
+    }
+}
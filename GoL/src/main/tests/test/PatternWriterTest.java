@@ -0,0 +1,107 @@
+package test;
+
+import model.PackedBoard;
+import model.PackedBoardSink;
+import model.Parser.Life06Reader;
+import model.Parser.ParsedPattern;
+import model.Parser.PatternParser;
+import model.Parser.RleReader;
+import model.SparsePattern;
+import org.junit.Test;
+import s305080.PatternSaver.PatternWriter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the streaming pattern writers.
+ */
+public class PatternWriterTest {
+
+    private static String write(PatternWriter.Format format, boolean[][] pattern, String rule) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PatternWriter.write(Channels.newChannel(out), format, PackedBoard.of(pattern), rule, Collections.singletonList("#C test"));
+        return out.toString();
+    }
+
+    private static boolean[][] randomPattern(int width, int height, long seed) {
+        Random random = new Random(seed);
+        boolean[][] pattern = new boolean[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                pattern[x][y] = random.nextInt(3) == 0;
+            }
+        }
+        // long runs across word boundaries
+        for (int x = 60; x < 140; x++) {
+            pattern[x][5] = true;
+        }
+        return pattern;
+    }
+
+    @Test
+    public void testWrite_ifGliderAsRle_thenCroppedAndFormatted() throws IOException {
+        boolean[][] pattern = new boolean[6][6];
+        pattern[3][2] = pattern[4][3] = pattern[2][4] = pattern[3][4] = pattern[4][4] = true;
+
+        String rle = write(PatternWriter.Format.RLE, pattern, "B3/S23");
+
+        assertEquals("#C test\nx = 3, y = 3, rule = B3/S23\nbo$2bo$3o!\n", rle);
+    }
+
+    @Test
+    public void testWrite_ifRandomBoardAsRle_thenReadBackTheSame() throws IOException {
+        boolean[][] pattern = randomPattern(200, 40, 1);
+
+        String rle = write(PatternWriter.Format.RLE, pattern, null);
+        PackedBoardSink sink = new PackedBoardSink();
+        new RleReader(Channels.newChannel(new ByteArrayInputStream(rle.getBytes()))).read(sink);
+
+        // the random pattern fills its whole box, so nothing is cropped away
+        assertTrue(PackedBoard.of(pattern).hasSameCells(sink.getBoard()));
+        for (String line : rle.split("\n")) {
+            assertTrue(line.length() <= 70);
+        }
+    }
+
+    @Test
+    public void testWrite_ifEmptyRowsInRle_thenRowEndsAreCoalesced() throws IOException {
+        boolean[][] pattern = new boolean[1][5];
+        pattern[0][0] = pattern[0][4] = true;
+
+        assertTrue(write(PatternWriter.Format.RLE, pattern, null).endsWith("o4$o!\n"));
+    }
+
+    @Test
+    public void testWrite_ifLife06_thenReadBackTheSame() throws IOException {
+        boolean[][] pattern = randomPattern(150, 20, 2);
+
+        String life = write(PatternWriter.Format.LIFE06, pattern, null);
+        SparsePattern read = Life06Reader.read(new BufferedReader(new StringReader(life)));
+
+        assertTrue(life.startsWith("#Life 1.06\n#C test\n"));
+        assertEquals(PackedBoard.of(pattern).getCellCount(), read.getCellCount());
+        for (int i = 0; i < read.getCellCount(); i++) {
+            assertTrue(pattern[read.getX(i)][read.getY(i)]);
+        }
+    }
+
+    @Test
+    public void testWrite_ifPlainText_thenParsedTheSame() throws IOException {
+        boolean[][] pattern = randomPattern(150, 20, 3);
+
+        String text = write(PatternWriter.Format.PLAIN_TEXT, pattern, null).replace("#C test", "!test");
+        ParsedPattern parsed = PatternParser.parse(Arrays.asList(text.split("\n")), "random.cells");
+
+        assertTrue(PackedBoard.of(pattern).hasSameCells(parsed.getCells()));
+    }
+}
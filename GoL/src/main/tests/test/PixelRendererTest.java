@@ -0,0 +1,185 @@
+package test;
+
+import controller.PixelRenderer;
+import javafx.scene.paint.Color;
+import model.PackedBoard;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for drawing frames into the pixel buffer of the canvas.
+ */
+public class PixelRendererTest {
+
+    private static final int LIVE = 0xFF000000;
+    private static final int DEAD = 0xFFFFFFFF;
+
+    @Test
+    public void testRender_ifCellsAreLarge_thenCellsAndSpacingArePainted() {
+
+        boolean[][] pattern = new boolean[100][40];
+        pattern[1][1] = true;
+        pattern[70][35] = true;
+
+        // cells of 4 pixels with 1 pixel between them
+        PixelRenderer renderer = new PixelRenderer();
+        renderer.resize(400, 160);
+        renderer.render(PackedBoard.of(pattern), 4, 1, 0, 0, LIVE, DEAD);
+        int[] pixels = renderer.getPixels();
+
+        // cell (1, 1) covers pixels 4 to 6, pixel 7 is spacing
+        assertEquals(DEAD, pixels[4 * 400 + 3]);
+        assertEquals(LIVE, pixels[4 * 400 + 4]);
+        assertEquals(LIVE, pixels[6 * 400 + 6]);
+        assertEquals(DEAD, pixels[6 * 400 + 7]);
+        assertEquals(DEAD, pixels[7 * 400 + 5]);
+
+        // a cell in the second word of a row
+        assertEquals(LIVE, pixels[141 * 400 + 281]);
+        assertEquals(DEAD, pixels[141 * 400 + 285]);
+    }
+
+    @Test
+    public void testRender_ifViewIsMoved_thenOutsideOfBoardIsDead() {
+
+        boolean[][] pattern = new boolean[10][10];
+        for (int x = 0; x < 10; x++) {
+            for (int y = 0; y < 10; y++) {
+                pattern[x][y] = true;
+            }
+        }
+
+        // the board starts 20 pixels into the view
+        PixelRenderer renderer = new PixelRenderer();
+        renderer.resize(100, 100);
+        renderer.render(PackedBoard.of(pattern), 2, 0, -20, -20, LIVE, DEAD);
+        int[] pixels = renderer.getPixels();
+
+        assertEquals(DEAD, pixels[19 * 100 + 25]);
+        assertEquals(LIVE, pixels[20 * 100 + 20]);
+        assertEquals(LIVE, pixels[39 * 100 + 39]);
+        assertEquals(DEAD, pixels[39 * 100 + 40]);
+        assertEquals(DEAD, pixels[99 * 100 + 99]);
+    }
+
+    @Test
+    public void testRender_ifOnlyCellsChanged_thenPixelsMatchFullDraw() {
+
+        Random random = new Random(5);
+        boolean[][] pattern = new boolean[150][90];
+
+        // cells with spacing, less than a pixel per cell, and blocks of 4x4 cells per pixel
+        for (double cellSize : new double[]{3, 0.7, 0.25}) {
+
+            PixelRenderer renderer = new PixelRenderer();
+            renderer.resize(300, 200);
+
+            for (int i = 0; i < 6; i++) {
+
+                for (int j = 0; j < 30; j++) {
+                    int x = random.nextInt(150), y = random.nextInt(90);
+                    pattern[x][y] = !pattern[x][y];
+                }
+
+                PackedBoard frame = PackedBoard.of(pattern);
+                renderer.render(frame, cellSize, 0.5, -7, -3, LIVE, DEAD);
+
+                PixelRenderer full = new PixelRenderer();
+                full.resize(300, 200);
+                full.render(frame, cellSize, 0.5, -7, -3, LIVE, DEAD);
+                assertArrayEquals(full.getPixels(), renderer.getPixels());
+            }
+        }
+    }
+
+    @Test
+    public void testRender_ifViewIsSame_thenOnlyChangedCellsAreDrawn() {
+
+        boolean[][] pattern = new boolean[100][100];
+        pattern[10][10] = true;
+
+        PixelRenderer renderer = new PixelRenderer();
+        renderer.resize(400, 400);
+        assertArrayEquals(new int[]{0, 0, 400, 400}, renderer.render(PackedBoard.of(pattern), 4, 0, 0, 0, LIVE, DEAD));
+
+        // nothing is drawn for the same cells
+        assertNull(renderer.render(PackedBoard.of(pattern), 4, 0, 0, 0, LIVE, DEAD));
+
+        // one cell at pixel 200, drawn in its band of rows
+        pattern[50][50] = true;
+        int[] box = renderer.render(PackedBoard.of(pattern), 4, 0, 0, 0, LIVE, DEAD);
+        assertEquals(200, box[0]);
+        assertEquals(4, box[2]);
+        assertTrue(box[1] <= 200 && box[1] + box[3] >= 204 && box[3] <= 32);
+        assertEquals(LIVE, renderer.getPixels()[201 * 400 + 201]);
+
+        // a moved view draws everything
+        assertArrayEquals(new int[]{0, 0, 400, 400}, renderer.render(PackedBoard.of(pattern), 4, 0, 1, 0, LIVE, DEAD));
+    }
+
+    @Test
+    public void testForgetFrame_ifNewFrameIsDrawn_thenEverythingIsDrawn() {
+
+        boolean[][] pattern = new boolean[100][100];
+        PixelRenderer renderer = new PixelRenderer();
+        renderer.resize(400, 400);
+        renderer.render(PackedBoard.of(pattern), 4, 0, 0, 0, LIVE, DEAD);
+
+        renderer.forgetFrame();
+        assertArrayEquals(new int[]{0, 0, 400, 400}, renderer.render(PackedBoard.of(pattern), 4, 0, 0, 0, LIVE, DEAD));
+    }
+
+    @Test
+    public void testForgetFrame_ifSameFrameIsDrawnAgain_thenNothingIsDrawn() {
+
+        PackedBoard frame = PackedBoard.of(new boolean[100][100]);
+        PixelRenderer renderer = new PixelRenderer();
+        renderer.resize(400, 400);
+        renderer.render(frame, 4, 0, 0, 0, LIVE, DEAD);
+
+        renderer.forgetFrame();
+        assertNull(renderer.render(frame, 4, 0, 0, 0, LIVE, DEAD));
+
+        // a new view still draws everything
+        assertArrayEquals(new int[]{0, 0, 400, 400}, renderer.render(frame, 2, 0, 0, 0, LIVE, DEAD));
+    }
+
+    @Test
+    public void testRender_ifGridColourIsGiven_thenGridLinesRunBetweenCells() {
+
+        boolean[][] pattern = new boolean[10][10];
+        pattern[0][0] = true;
+        int grid = 0xFF808080;
+
+        // cells of 10 pixels with 2 pixels between them, the lines are at 9, 19, 29 ...
+        PixelRenderer renderer = new PixelRenderer();
+        renderer.resize(200, 200);
+        renderer.render(PackedBoard.of(pattern), 10, 2, 0, 0, LIVE, DEAD, grid);
+        int[] pixels = renderer.getPixels();
+
+        assertEquals(LIVE, pixels[5 * 200 + 5]);
+        assertEquals(grid, pixels[5 * 200 + 9]);
+        assertEquals(grid, pixels[9 * 200 + 5]);
+        assertEquals(DEAD, pixels[5 * 200 + 8]);
+        assertEquals(DEAD, pixels[15 * 200 + 15]);
+
+        // the lines go on outside the board
+        assertEquals(grid, pixels[150 * 200 + 109]);
+        assertEquals(DEAD, pixels[150 * 200 + 105]);
+
+        // a cell that comes alive keeps the lines around it
+        pattern[1][1] = true;
+        renderer.render(PackedBoard.of(pattern), 10, 2, 0, 0, LIVE, DEAD, grid);
+        assertEquals(LIVE, pixels[15 * 200 + 15]);
+        assertEquals(grid, pixels[15 * 200 + 19]);
+        assertEquals(grid, pixels[19 * 200 + 15]);
+    }
+
+    @Test
+    public void testToArgb_ifColourIsOpaque_thenAlphaIsFull() {
+        assertEquals(0xFFFF8000, PixelRenderer.toArgb(Color.rgb(255, 128, 0)));
+    }
+}
@@ -0,0 +1,82 @@
+package test;
+
+import model.PackedBoard;
+import model.PackedBoardSink;
+import model.Parser.ParsedPattern;
+import model.Parser.PatternParser;
+import model.Parser.RleReader;
+import model.PatternFormatException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the streaming RLE reader.
+ */
+public class RleReaderTest {
+
+    private static ReadableByteChannel channelOf(String text) {
+        return Channels.newChannel(new ByteArrayInputStream(text.getBytes()));
+    }
+
+    @Test
+    public void testRead_ifGlider_thenCellsAndRuleAreRead() throws IOException {
+        PackedBoardSink sink = new PackedBoardSink();
+
+        new RleReader(channelOf("#N Glider\n#C comment\nx = 3, y = 3, rule = B3/S23\nbob$2bo$3o!\n")).read(sink);
+
+        PackedBoard board = sink.getBoard();
+        assertEquals("B3/S23", sink.getRule());
+        assertEquals(3, board.getWidth());
+        assertEquals(3, board.getHeight());
+        assertEquals(5, board.getCellCount());
+        assertTrue(board.isCellAlive(1, 0));
+        assertTrue(board.isCellAlive(2, 1));
+        assertTrue(board.isCellAlive(0, 2));
+        assertTrue(board.isCellAlive(2, 2));
+        assertFalse(board.isCellAlive(0, 0));
+    }
+
+    @Test
+    public void testRead_ifRunCrossesWords_thenAllCellsAreSet() throws IOException {
+        PackedBoardSink sink = new PackedBoardSink();
+
+        // a run of 130 cells starting at x = 3, split over lines
+        new RleReader(channelOf("x = 200, y = 2\n3b1\n30o$$!")).read(sink);
+
+        PackedBoard board = sink.getBoard();
+        assertEquals(130, board.getCellCount());
+        assertFalse(board.isCellAlive(2, 0));
+        assertTrue(board.isCellAlive(3, 0));
+        assertTrue(board.isCellAlive(132, 0));
+        assertFalse(board.isCellAlive(133, 0));
+    }
+
+    @Test(expected = PatternFormatException.class)
+    public void testRead_ifNoExclamationMark_thenThrows() throws IOException {
+        new RleReader(channelOf("x = 3, y = 3\nbob$2bo$3o\n")).read(new PackedBoardSink());
+    }
+
+    @Test(expected = PatternFormatException.class)
+    public void testRead_ifRunOutsideDeclaredSize_thenThrows() throws IOException {
+        new RleReader(channelOf("x = 2, y = 1\n3o!")).read(new PackedBoardSink());
+    }
+
+    @Test
+    public void testParse_ifSmallFileDeclaresLargeSize_thenPatternIsPacked() throws IOException {
+        // a dense array of this size would take 200 MB, packed it is 25 MB
+        ParsedPattern pattern = PatternParser.parse(Arrays.asList("#N Dot", "x = 200000, y = 1000, rule = B3/S23", "o!"), "dot.rle");
+
+        assertEquals(200000, pattern.getWidth());
+        assertEquals(1000, pattern.getHeight());
+        assertEquals(1, pattern.getCells().getCellCount());
+        assertEquals("B3/S23", pattern.getRule());
+        assertEquals(Arrays.asList("#N Dot"), pattern.getMetaData());
+    }
+}
@@ -0,0 +1,174 @@
+package test;
+
+import model.BoardEdit;
+import model.GameOfLife;
+import model.PackedBoard;
+import model.SimulationScheduler;
+import model.StaticGameOfLife;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the scheduler that runs the simulation independently of rendering.
+ */
+public class SimulationSchedulerTest {
+
+    private StaticGameOfLife createBlinker() {
+        StaticGameOfLife gol = new StaticGameOfLife(10, 10);
+        gol.setCellAlive(4, 5);
+        gol.setCellAlive(5, 5);
+        gol.setCellAlive(6, 5);
+        return gol;
+    }
+
+    @Test
+    public void testStart_ifUncapped_thenBoardEvolvesUntilStopped() throws InterruptedException {
+        StaticGameOfLife gol = createBlinker();
+        gol.getFrame();
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        SimulationScheduler scheduler = new SimulationScheduler(gol, g -> {}, stopped::countDown);
+        scheduler.setTargetRate(0);
+
+        scheduler.start();
+        Thread.sleep(100);
+        scheduler.stop();
+
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        scheduler.join();
+
+        // the published frame is the last generation
+        long generation = gol.getGeneration();
+        assertTrue(generation > 0);
+        assertEquals(generation, gol.getFrame().getGeneration());
+        assertEquals(3, gol.getFrame().getCellCount());
+        assertTrue(scheduler.isIdle());
+    }
+
+    @Test
+    public void testStepSize_ifEightGenerationsPerStep_thenOnlyEveryEighthGenerationIsPublished() throws InterruptedException {
+        StaticGameOfLife gol = createBlinker();
+        gol.getFrame();
+
+        AtomicInteger steps = new AtomicInteger();
+        AtomicInteger unaligned = new AtomicInteger();
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        SimulationScheduler scheduler = new SimulationScheduler(gol, g -> {
+            // the frame seen before each step is the end of the previous step
+            PackedBoard frame = g.getFrame();
+            if (frame.getGeneration() % 8 != 0)
+                unaligned.incrementAndGet();
+            steps.incrementAndGet();
+        }, stopped::countDown);
+        scheduler.setTargetRate(0);
+        scheduler.setStepSize(8);
+
+        scheduler.start();
+        Thread.sleep(100);
+        scheduler.stop();
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+
+        assertTrue(steps.get() > 1);
+        assertEquals(0, unaligned.get());
+    }
+
+    @Test
+    public void testTargetRate_ifFiftyGenerationsPerSecond_thenRateIsNotExceeded() throws InterruptedException {
+        StaticGameOfLife gol = createBlinker();
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        SimulationScheduler scheduler = new SimulationScheduler(gol, g -> {}, stopped::countDown);
+        scheduler.setTargetRate(50);
+
+        scheduler.start();
+        Thread.sleep(200);
+        scheduler.stop();
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+
+        // about 10 generations in 200 ms, with room for a slow start
+        assertTrue(gol.getGeneration() >= 1);
+        assertTrue(gol.getGeneration() <= 12);
+    }
+
+    @Test
+    public void testStop_ifWaitingForNextStep_thenJoinReturnsAtOnce() throws InterruptedException {
+        StaticGameOfLife gol = createBlinker();
+
+        // one generation every 20 seconds, so the thread is waiting after the first one
+        SimulationScheduler scheduler = new SimulationScheduler(gol, g -> {}, () -> {});
+        scheduler.setTargetRate(0.05);
+
+        scheduler.start();
+        Thread.sleep(100);
+
+        long start = System.nanoTime();
+        scheduler.stop();
+        scheduler.join();
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertTrue(scheduler.isIdle());
+        assertEquals(1, gol.getGeneration());
+    }
+
+    @Test
+    public void testConstructor_ifFrameWasNeverRead_thenFrameIsTakenBeforeEvolving() {
+        StaticGameOfLife gol = createBlinker();
+
+        new SimulationScheduler(gol, g -> {}, () -> {});
+
+        // a cell set directly is not published, so the frame must be the one taken by the scheduler
+        gol.setCellAlive(0, 0);
+        assertEquals(3, gol.getFrame().getCellCount());
+        assertEquals(4, gol.getCellCount());
+    }
+
+    @Test
+    public void testQueueEdit_ifWaitingForNextStep_thenEditIsPublishedAtOnce() throws InterruptedException {
+        StaticGameOfLife gol = createBlinker();
+
+        // one generation every 20 seconds, so the thread is waiting after the first one
+        SimulationScheduler scheduler = new SimulationScheduler(gol, g -> {}, () -> {});
+        scheduler.setTargetRate(0.05);
+
+        scheduler.start();
+        Thread.sleep(100);
+        scheduler.queueEdit(BoardEdit.setCellAlive(0, 0));
+        Thread.sleep(100);
+
+        PackedBoard frame = gol.getFrame();
+        scheduler.stop();
+        scheduler.join();
+
+        assertEquals(1, frame.getGeneration());
+        assertEquals(4, frame.getCellCount());
+    }
+
+    @Test
+    public void testSnapshot_ifRunning_thenSnapshotIsTakenBetweenGenerations() throws InterruptedException {
+        StaticGameOfLife gol = createBlinker();
+
+        SimulationScheduler scheduler = new SimulationScheduler(gol, g -> {}, () -> {});
+        scheduler.setTargetRate(0);
+
+        scheduler.start();
+        Thread.sleep(50);
+        GameOfLife snapshot = scheduler.snapshot();
+        long generation = snapshot.getGeneration();
+        Thread.sleep(50);
+        scheduler.stop();
+        scheduler.join();
+
+        // the snapshot keeps the generation it was taken at while the board goes on
+        assertTrue(generation > 0);
+        assertTrue(gol.getGeneration() > generation);
+        assertEquals(generation, snapshot.getGeneration());
+        assertEquals(3, snapshot.getCellCount());
+        assertEquals(3, PackedBoard.of(snapshot).getCellCount());
+    }
+}
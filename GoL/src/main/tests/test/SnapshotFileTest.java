@@ -0,0 +1,96 @@
+package test;
+
+import model.DynamicGameOfLife;
+import model.GameOfLife;
+import model.PackedBoard;
+import model.PatternFormatException;
+import model.SnapshotFile;
+import model.StaticGameOfLife;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the binary board snapshot format.
+ */
+public class SnapshotFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRead_ifLargeBoardWritten_thenCellsGenerationAndRuleAreRestored() throws IOException {
+        GameOfLife gol = new StaticGameOfLife(1500, 700, "B36/S23");
+        Random random = new Random(5);
+        for (int i = 0; i < 100000; i++) {
+            gol.setCellAlive(random.nextInt(1500), random.nextInt(700));
+        }
+        gol.nextGeneration();
+        gol.nextGeneration();
+        File file = folder.newFile("board.gols");
+
+        SnapshotFile.write(file, PackedBoard.of(gol), gol.getRule().toString());
+        SnapshotFile snapshot = SnapshotFile.read(file);
+
+        PackedBoard board = snapshot.getBoard();
+        assertEquals("B36/S23", snapshot.getRule());
+        assertEquals(2, board.getGeneration());
+        assertEquals(1500, board.getWidth());
+        assertEquals(700, board.getHeight());
+        assertTrue(PackedBoard.of(gol).hasSameCells(board));
+    }
+
+    @Test
+    public void testRead_ifDynamicBoardHasGrown_thenOffsetIsRestored() throws IOException {
+        GameOfLife gol = new DynamicGameOfLife("B3/S23");
+        gol.setCellAlive(1, 2);
+        gol.setCellAlive(2, 2);
+        gol.setCellAlive(3, 2);
+        for (int i = 0; i < 5; i++) {
+            gol.nextGeneration();
+        }
+        File file = folder.newFile("blinker.gols");
+
+        SnapshotFile.write(file, PackedBoard.of(gol), null);
+        PackedBoard board = SnapshotFile.read(file).getBoard();
+
+        assertEquals(gol.getOffsetX(), board.getOffsetX());
+        assertEquals(gol.getOffsetY(), board.getOffsetY());
+        assertTrue(PackedBoard.of(gol).hasSameCells(board));
+    }
+
+    @Test
+    public void testRead_ifEmptyBoard_thenEmptyBoardOfSameSize() throws IOException {
+        File file = folder.newFile("empty.gols");
+
+        SnapshotFile.write(file, PackedBoard.of(new StaticGameOfLife(100, 50)), null);
+        SnapshotFile snapshot = SnapshotFile.read(file);
+
+        assertNull(snapshot.getRule());
+        assertEquals(0, snapshot.getBoard().getCellCount());
+        assertEquals(100, snapshot.getBoard().getWidth());
+    }
+
+    @Test(expected = PatternFormatException.class)
+    public void testRead_ifTileIsCorrupt_thenThrows() throws IOException {
+        GameOfLife gol = new StaticGameOfLife(200, 200);
+        for (int i = 0; i < 200; i++) {
+            gol.setCellAlive(i, i);
+        }
+        File file = folder.newFile("corrupt.gols");
+        SnapshotFile.write(file, PackedBoard.of(gol), null);
+
+        // cuts off the end of the last tile
+        try (RandomAccessFile access = new RandomAccessFile(file, "rw")) {
+            access.setLength(access.length() - 4);
+        }
+        SnapshotFile.read(file);
+    }
+}
@@ -0,0 +1,56 @@
+package test;
+
+import model.SparsePattern;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for patterns stored as a list of live cells.
+ */
+public class SparsePatternTest {
+
+    private static boolean[][] toArray(SparsePattern pattern) {
+        boolean[][] array = new boolean[pattern.getWidth()][pattern.getHeight()];
+        for (int i = 0; i < pattern.getCellCount(); i++) {
+            array[pattern.getX(i)][pattern.getY(i)] = true;
+        }
+        return array;
+    }
+
+    @Test
+    public void testRotateRight_ifLShape_thenSameAsRotatedArray() {
+        // an L, two wide and three high, with an empty column to the right
+        boolean[][] shape = {{true, true, true}, {false, false, true}, {false, false, false}};
+
+        SparsePattern rotated = SparsePattern.of(shape).rotateRight();
+
+        // rotated clockwise, the long side of the L is now the top row, and the empty column the bottom row
+        assertArrayEquals(new boolean[][]{
+                {true, true, true},
+                {true, false, false},
+                {false, false, false}}, flipToRows(toArray(rotated)));
+    }
+
+    @Test
+    public void testRotateLeft_ifRotatedRight_thenPatternIsUnchanged() {
+        boolean[][] shape = {{true, false}, {true, true}, {false, false}};
+
+        SparsePattern pattern = SparsePattern.of(shape).rotateRight().rotateLeft();
+
+        assertArrayEquals(shape, toArray(pattern));
+    }
+
+    /**
+     * Gives the array indexed [y][x], so it reads like the board
+     */
+    private static boolean[][] flipToRows(boolean[][] columns) {
+        boolean[][] rows = new boolean[columns[0].length][columns.length];
+        for (int x = 0; x < columns.length; x++) {
+            for (int y = 0; y < columns[x].length; y++) {
+                rows[y][x] = columns[x][y];
+            }
+        }
+        return rows;
+    }
+}
@@ -1,5 +1,6 @@
 package test;
 
+import model.PackedBoard;
 import model.StaticGameOfLife;
 import org.junit.*;
 
@@ -543,4 +544,98 @@ public class StaticGameOfLifeTest {
         assertTrue(gol.isCellAlive(2, 3) != clone.isCellAlive(2, 3));
         assertTrue(gol.isCellAlive(3, 2) != clone.isCellAlive(3, 2));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSnapshot_ifSnapshotEvolves_thenOriginalIsUnchanged() {
+        // instantiate gol with a blinker
+        gol = new StaticGameOfLife(5, 5);
+        gol.setCellAlive(1, 2);
+        gol.setCellAlive(2, 2);
+        gol.setCellAlive(3, 2);
+        String original = gol.toString();
+
+        // snapshot and increment one generation
+        StaticGameOfLife snapshot = gol.snapshot();
+        snapshot.nextGeneration();
+
+        // assert only the snapshot has changed
+        assertEquals(original, gol.toString());
+        assertTrue(snapshot.isCellAlive(2, 1));
+        assertFalse(snapshot.isCellAlive(1, 2));
+        assertEquals(3, snapshot.getCellCount());
+        assertEquals(1, snapshot.getGeneration());
+    }
+
+    @Test
+    public void testSnapshot_ifOriginalIsEdited_thenSnapshotIsUnchanged() {
+        // instantiate gol
+        gol = new StaticGameOfLife(5, 5);
+        gol.setCellAlive(1, 1);
+
+        StaticGameOfLife snapshot = gol.snapshot();
+
+        // edit the original after the snapshot was taken
+        gol.setCellAlive(3, 3);
+        gol.setCellDead(1, 1);
+
+        assertTrue(snapshot.isCellAlive(1, 1));
+        assertFalse(snapshot.isCellAlive(3, 3));
+        assertEquals(1, snapshot.getCellCount());
+
+        // the original evolves on its own
+        gol.nextGeneration();
+        assertEquals(0, gol.getCellCount());
+        assertTrue(snapshot.isCellAlive(1, 1));
+    }
+
+    @Test
+    public void testGetFrame_ifNextGeneration_thenOldFrameIsUnchangedAndNewFrameIsPublished() {
+        // instantiate gol with a blinker
+        gol = new StaticGameOfLife(5, 5);
+        gol.setCellAlive(1, 2);
+        gol.setCellAlive(2, 2);
+        gol.setCellAlive(3, 2);
+
+        PackedBoard frame = gol.getFrame();
+        gol.nextGeneration();
+
+        // the old frame still shows generation 0
+        assertTrue(frame.isCellAlive(1, 2));
+        assertFalse(frame.isCellAlive(2, 1));
+        assertEquals(0, frame.getGeneration());
+
+        // the new frame shows generation 1
+        PackedBoard next = gol.getFrame();
+        assertTrue(next.isCellAlive(2, 1));
+        assertFalse(next.isCellAlive(1, 2));
+        assertEquals(1, next.getGeneration());
+        assertEquals(3, next.getCellCount());
+    }
+
+    @Test
+    public void testSetBoard_ifPackedBoardIsLarger_thenCellsOutsideAreLeftOut() {
+        boolean[][] pattern = new boolean[100][8];
+        pattern[1][2] = true;
+        pattern[2][2] = true;
+        pattern[3][2] = true;
+        pattern[70][7] = true;
+
+        // the shared columns of a snapshot are not changed
+        gol = new StaticGameOfLife(5, 5);
+        gol.setCellAlive(0, 0);
+        StaticGameOfLife snapshot = gol.snapshot();
+
+        gol.setBoard(PackedBoard.of(pattern));
+
+        assertEquals(3, gol.getCellCount());
+        assertFalse(gol.isCellAlive(0, 0));
+        assertTrue(gol.isCellAlive(2, 2));
+        assertTrue(snapshot.isCellAlive(0, 0));
+        assertEquals(3, gol.getFrame().getCellCount());
+
+        gol.nextGeneration();
+        assertTrue(gol.isCellAlive(2, 1));
+        assertTrue(gol.isCellAlive(2, 3));
+        assertEquals(3, gol.getCellCount());
+    }
+}